@@ -42,4 +42,16 @@ public interface RewriteFiles extends SnapshotUpdate<RewriteFiles> {
    * @return this for method chaining
    */
   RewriteFiles rewriteFiles(Set<DataFile> filesToDelete, Set<DataFile> filesToAdd);
+
+  /**
+   * Set the snapshot ID used to read the replaced files and enable validation of concurrent row-level deletes.
+   * <p>
+   * If a delete file was added after this snapshot to a partition of any replaced file, the deletes may apply to rows
+   * that were copied into the new files and the commit will throw a {@link ValidationException}. Deletes added to other
+   * partitions do not conflict with this operation.
+   *
+   * @param snapshotId a snapshot ID
+   * @return this for method chaining
+   */
+  RewriteFiles validateFromSnapshot(long snapshotId);
 }
@@ -115,6 +115,27 @@ public class AwsProperties implements Serializable {
   public static final String S3FILEIO_MULTIPART_THRESHOLD_FACTOR = "s3.multipart.threshold";
   public static final double S3FILEIO_MULTIPART_THRESHOLD_FACTOR_DEFAULT = 1.5;
 
+  /**
+   * Maximum number of bytes of staged parts that can be queued or uploading at once, shared across all output streams.
+   * Writers block when the limit is reached, which bounds the staging disk used by many concurrent output streams.
+   * Default to 4 times the number of upload threads times the part size.
+   */
+  public static final String S3FILEIO_MULTIPART_MAX_IN_FLIGHT_BYTES = "s3.multipart.max-in-flight-bytes";
+
+  /**
+   * Number of times a part upload is retried after S3 responds with 503 SlowDown (default: 5).
+   * Each SlowDown response also halves the number of concurrent upload requests, which recovers gradually.
+   */
+  public static final String S3FILEIO_MULTIPART_SLOW_DOWN_MAX_RETRIES = "s3.multipart.slow-down.max-retries";
+  public static final int S3FILEIO_MULTIPART_SLOW_DOWN_MAX_RETRIES_DEFAULT = 5;
+
+  /**
+   * Initial backoff in milliseconds before retrying a part upload that received 503 SlowDown (default: 200).
+   * The backoff doubles for each further retry of the same part.
+   */
+  public static final String S3FILEIO_MULTIPART_SLOW_DOWN_BACKOFF_MS = "s3.multipart.slow-down.backoff-ms";
+  public static final long S3FILEIO_MULTIPART_SLOW_DOWN_BACKOFF_MS_DEFAULT = 200L;
+
   /**
    * Location to put staging files for upload to S3, default to temp directory set in java.io.tmpdir.
    */
@@ -174,6 +195,9 @@ public class AwsProperties implements Serializable {
   private int s3FileIoMultipartUploadThreads;
   private int s3FileIoMultiPartSize;
   private double s3FileIoMultipartThresholdFactor;
+  private long s3FileIoMultipartMaxInFlightBytes;
+  private int s3FileIoMultipartSlowDownMaxRetries;
+  private long s3FileIoMultipartSlowDownBackoffMs;
   private String s3fileIoStagingDirectory;
   private ObjectCannedACL s3FileIoAcl;
 
@@ -189,6 +213,10 @@ public class AwsProperties implements Serializable {
     this.s3FileIoMultipartUploadThreads = Runtime.getRuntime().availableProcessors();
     this.s3FileIoMultiPartSize = S3FILEIO_MULTIPART_SIZE_DEFAULT;
     this.s3FileIoMultipartThresholdFactor = S3FILEIO_MULTIPART_THRESHOLD_FACTOR_DEFAULT;
+    this.s3FileIoMultipartMaxInFlightBytes = defaultMaxInFlightBytes(
+        s3FileIoMultipartUploadThreads, s3FileIoMultiPartSize);
+    this.s3FileIoMultipartSlowDownMaxRetries = S3FILEIO_MULTIPART_SLOW_DOWN_MAX_RETRIES_DEFAULT;
+    this.s3FileIoMultipartSlowDownBackoffMs = S3FILEIO_MULTIPART_SLOW_DOWN_BACKOFF_MS_DEFAULT;
     this.s3fileIoStagingDirectory = System.getProperty("java.io.tmpdir");
 
     this.glueCatalogId = null;
@@ -229,6 +257,22 @@ public class AwsProperties implements Serializable {
     Preconditions.checkArgument(s3FileIoMultiPartSize >= S3FILEIO_MULTIPART_SIZE_MIN,
         "Minimum multipart upload object size must be larger than 5 MB.");
 
+    this.s3FileIoMultipartMaxInFlightBytes = PropertyUtil.propertyAsLong(properties,
+        S3FILEIO_MULTIPART_MAX_IN_FLIGHT_BYTES,
+        defaultMaxInFlightBytes(s3FileIoMultipartUploadThreads, s3FileIoMultiPartSize));
+    Preconditions.checkArgument(s3FileIoMultipartMaxInFlightBytes >= s3FileIoMultiPartSize,
+        "Max in-flight bytes for multipart upload must be at least the part size");
+
+    this.s3FileIoMultipartSlowDownMaxRetries = PropertyUtil.propertyAsInt(properties,
+        S3FILEIO_MULTIPART_SLOW_DOWN_MAX_RETRIES, S3FILEIO_MULTIPART_SLOW_DOWN_MAX_RETRIES_DEFAULT);
+    Preconditions.checkArgument(s3FileIoMultipartSlowDownMaxRetries >= 0,
+        "Max retries after S3 SlowDown must be >= 0");
+
+    this.s3FileIoMultipartSlowDownBackoffMs = PropertyUtil.propertyAsLong(properties,
+        S3FILEIO_MULTIPART_SLOW_DOWN_BACKOFF_MS, S3FILEIO_MULTIPART_SLOW_DOWN_BACKOFF_MS_DEFAULT);
+    Preconditions.checkArgument(s3FileIoMultipartSlowDownBackoffMs >= 0,
+        "Backoff after S3 SlowDown must be >= 0");
+
     this.s3fileIoStagingDirectory = PropertyUtil.propertyAsString(properties, S3FILEIO_STAGING_DIRECTORY,
         System.getProperty("java.io.tmpdir"));
 
@@ -302,6 +346,30 @@ public class AwsProperties implements Serializable {
     this.s3FileIoMultipartThresholdFactor = factor;
   }
 
+  public long s3FileIoMultipartMaxInFlightBytes() {
+    return s3FileIoMultipartMaxInFlightBytes;
+  }
+
+  public void setS3FileIoMultipartMaxInFlightBytes(long maxInFlightBytes) {
+    this.s3FileIoMultipartMaxInFlightBytes = maxInFlightBytes;
+  }
+
+  public int s3FileIoMultipartSlowDownMaxRetries() {
+    return s3FileIoMultipartSlowDownMaxRetries;
+  }
+
+  public void setS3FileIoMultipartSlowDownMaxRetries(int maxRetries) {
+    this.s3FileIoMultipartSlowDownMaxRetries = maxRetries;
+  }
+
+  public long s3FileIoMultipartSlowDownBackoffMs() {
+    return s3FileIoMultipartSlowDownBackoffMs;
+  }
+
+  public void setS3FileIoMultipartSlowDownBackoffMs(long backoffMs) {
+    this.s3FileIoMultipartSlowDownBackoffMs = backoffMs;
+  }
+
   public String s3fileIoStagingDirectory() {
     return s3fileIoStagingDirectory;
   }
@@ -317,4 +385,8 @@ public class AwsProperties implements Serializable {
   public void setS3FileIoAcl(ObjectCannedACL acl) {
     this.s3FileIoAcl = acl;
   }
+
+  private static long defaultMaxInFlightBytes(int uploadThreads, int partSize) {
+    return 4L * uploadThreads * partSize;
+  }
 }
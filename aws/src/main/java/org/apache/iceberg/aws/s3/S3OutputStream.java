@@ -34,10 +34,8 @@ import java.util.Arrays;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ThreadPoolExecutor;
 import java.util.stream.Collectors;
 import org.apache.iceberg.aws.AwsProperties;
 import org.apache.iceberg.io.PositionOutputStream;
@@ -47,8 +45,6 @@ import org.apache.iceberg.relocated.com.google.common.base.Predicates;
 import org.apache.iceberg.relocated.com.google.common.collect.Lists;
 import org.apache.iceberg.relocated.com.google.common.collect.Maps;
 import org.apache.iceberg.relocated.com.google.common.io.CountingOutputStream;
-import org.apache.iceberg.relocated.com.google.common.util.concurrent.MoreExecutors;
-import org.apache.iceberg.relocated.com.google.common.util.concurrent.ThreadFactoryBuilder;
 import org.apache.iceberg.util.Tasks;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -66,12 +62,12 @@ import software.amazon.awssdk.services.s3.model.UploadPartResponse;
 class S3OutputStream extends PositionOutputStream {
   private static final Logger LOG = LoggerFactory.getLogger(S3OutputStream.class);
 
-  private static volatile ExecutorService executorService;
-
   private final StackTraceElement[] createStack;
   private final S3Client s3;
   private final S3URI location;
   private final AwsProperties awsProperties;
+  private final S3UploadScheduler scheduler;
+  private final S3UploadScheduler.UploadQueue uploadQueue;
 
   private CountingOutputStream stream;
   private final List<File> stagingFiles = Lists.newArrayList();
@@ -85,25 +81,17 @@ class S3OutputStream extends PositionOutputStream {
   private long pos = 0;
   private boolean closed = false;
 
-  @SuppressWarnings("StaticAssignmentInConstructor")
   S3OutputStream(S3Client s3, S3URI location, AwsProperties awsProperties) throws IOException {
-    if (executorService == null) {
-      synchronized (S3OutputStream.class) {
-        if (executorService == null) {
-          executorService = MoreExecutors.getExitingExecutorService(
-              (ThreadPoolExecutor) Executors.newFixedThreadPool(
-                  awsProperties.s3FileIoMultipartUploadThreads(),
-                  new ThreadFactoryBuilder()
-                      .setDaemon(true)
-                      .setNameFormat("iceberg-s3fileio-upload-%d")
-                      .build()));
-        }
-      }
-    }
+    this(s3, location, awsProperties, S3UploadScheduler.shared(awsProperties));
+  }
 
+  S3OutputStream(S3Client s3, S3URI location, AwsProperties awsProperties,
+                 S3UploadScheduler scheduler) throws IOException {
     this.s3 = s3;
     this.location = location;
     this.awsProperties = awsProperties;
+    this.scheduler = scheduler;
+    this.uploadQueue = scheduler.newQueue();
 
     createStack = Thread.currentThread().getStackTrace();
 
@@ -232,12 +220,14 @@ class S3OutputStream extends PositionOutputStream {
 
           UploadPartRequest uploadRequest = requestBuilder.build();
 
-          CompletableFuture<CompletedPart> future = CompletableFuture.supplyAsync(
+          // blocks while the shared scheduler has too many bytes in flight
+          CompletableFuture<CompletedPart> future = scheduler.submit(
+              uploadQueue,
+              f.length(),
               () -> {
                 UploadPartResponse response = s3.uploadPart(uploadRequest, RequestBody.fromFile(f));
                 return CompletedPart.builder().eTag(response.eTag()).partNumber(uploadRequest.partNumber()).build();
-              },
-              executorService
+              }
           ).whenComplete((result, thrown) -> {
             try {
               Files.deleteIfExists(f.toPath());
@@ -245,7 +235,7 @@ class S3OutputStream extends PositionOutputStream {
               LOG.warn("Failed to delete staging file: {}", f, e);
             }
 
-            if (thrown != null) {
+            if (thrown != null && !(thrown instanceof CancellationException)) {
               LOG.error("Failed to upload part: {}", uploadRequest, thrown);
               abortUpload();
             }
@@ -282,6 +272,9 @@ class S3OutputStream extends PositionOutputStream {
 
   private void abortUpload() {
     if (multipartUploadId != null) {
+      // parts that have not started uploading no longer need to be sent
+      uploadQueue.cancel();
+
       try {
         s3.abortMultipartUpload(AbortMultipartUploadRequest.builder()
             .bucket(location.bucket()).key(location.key()).uploadId(multipartUploadId).build());
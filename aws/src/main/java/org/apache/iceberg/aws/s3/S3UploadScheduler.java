@@ -0,0 +1,420 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iceberg.aws.s3;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import org.apache.iceberg.aws.AwsProperties;
+import org.apache.iceberg.relocated.com.google.common.annotations.VisibleForTesting;
+import org.apache.iceberg.relocated.com.google.common.base.MoreObjects;
+import org.apache.iceberg.relocated.com.google.common.base.Preconditions;
+import org.apache.iceberg.relocated.com.google.common.util.concurrent.MoreExecutors;
+import org.apache.iceberg.relocated.com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+
+/**
+ * Schedules multipart uploads for all {@link S3OutputStream S3 output streams} in a JVM.
+ * <p>
+ * The scheduler enforces global limits across streams:
+ * <ul>
+ *   <li>the number of bytes that are queued or being uploaded; writers block when the limit is reached</li>
+ *   <li>the number of concurrent upload requests, bounded by the thread pool size</li>
+ * </ul>
+ * Parts are taken round-robin from per-stream queues so that a stream with many staged parts does not starve the
+ * others. When S3 responds with 503 SlowDown, the part is retried with exponential backoff and the request
+ * concurrency is halved; it grows back by one request for every window of successful uploads.
+ * <p>
+ * Upload metrics are logged at most once per minute while parts are being uploaded.
+ */
+class S3UploadScheduler {
+  private static final Logger LOG = LoggerFactory.getLogger(S3UploadScheduler.class);
+  private static final int SLOW_DOWN_STATUS_CODE = 503;
+  private static final long MAX_SLOW_DOWN_BACKOFF_MS = 20_000L;
+  private static final long METRICS_LOG_INTERVAL_MS = 60_000L;
+
+  private static volatile S3UploadScheduler shared;
+
+  private final ExecutorService executorService;
+  private final int maxConcurrentRequests;
+  private final long maxInFlightBytes;
+  private final int maxSlowDownRetries;
+  private final long slowDownBackoffMs;
+
+  // all of the following are guarded by this
+  private final Deque<UploadQueue> readyQueues = new ArrayDeque<>();
+  private long inFlightBytes = 0L;
+  private int queuedParts = 0;
+  private int activeRequests = 0;
+  private int concurrencyLimit;
+  private int successesSinceLimitChange = 0;
+  private long lastMetricsLogMillis = System.currentTimeMillis();
+
+  private final AtomicLong uploadedParts = new AtomicLong(0L);
+  private final AtomicLong uploadedBytes = new AtomicLong(0L);
+  private final AtomicLong failedParts = new AtomicLong(0L);
+  private final AtomicLong slowDownResponses = new AtomicLong(0L);
+  private final AtomicLong writerWaitMillis = new AtomicLong(0L);
+
+  /**
+   * Returns the scheduler shared by all S3 output streams, creating it from the given properties if needed.
+   *
+   * @param awsProperties AWS properties used to configure the scheduler when it is first created
+   * @return the shared scheduler
+   */
+  static S3UploadScheduler shared(AwsProperties awsProperties) {
+    if (shared == null) {
+      synchronized (S3UploadScheduler.class) {
+        if (shared == null) {
+          shared = new S3UploadScheduler(
+              MoreExecutors.getExitingExecutorService(
+                  (ThreadPoolExecutor) Executors.newFixedThreadPool(
+                      awsProperties.s3FileIoMultipartUploadThreads(),
+                      new ThreadFactoryBuilder()
+                          .setDaemon(true)
+                          .setNameFormat("iceberg-s3fileio-upload-%d")
+                          .build())),
+              awsProperties.s3FileIoMultipartUploadThreads(),
+              awsProperties.s3FileIoMultipartMaxInFlightBytes(),
+              awsProperties.s3FileIoMultipartSlowDownMaxRetries(),
+              awsProperties.s3FileIoMultipartSlowDownBackoffMs());
+        }
+      }
+    }
+
+    return shared;
+  }
+
+  @VisibleForTesting
+  S3UploadScheduler(ExecutorService executorService, int maxConcurrentRequests, long maxInFlightBytes,
+                    int maxSlowDownRetries, long slowDownBackoffMs) {
+    Preconditions.checkArgument(maxConcurrentRequests > 0,
+        "Invalid max concurrent requests: %s (must be > 0)", maxConcurrentRequests);
+    Preconditions.checkArgument(maxInFlightBytes > 0,
+        "Invalid max in-flight bytes: %s (must be > 0)", maxInFlightBytes);
+    Preconditions.checkArgument(maxSlowDownRetries >= 0,
+        "Invalid max SlowDown retries: %s (must be >= 0)", maxSlowDownRetries);
+    this.executorService = executorService;
+    this.maxConcurrentRequests = maxConcurrentRequests;
+    this.maxInFlightBytes = maxInFlightBytes;
+    this.maxSlowDownRetries = maxSlowDownRetries;
+    this.slowDownBackoffMs = slowDownBackoffMs;
+    this.concurrencyLimit = maxConcurrentRequests;
+  }
+
+  /**
+   * Creates a queue for the parts of a single upload.
+   *
+   * @return a new upload queue
+   */
+  UploadQueue newQueue() {
+    return new UploadQueue();
+  }
+
+  /**
+   * Queues a part for upload, blocking the caller while the in-flight byte limit is exceeded.
+   * <p>
+   * A part is always admitted when nothing else is in flight, so a part that is larger than the limit cannot
+   * deadlock the writer.
+   *
+   * @param queue the queue of the upload that the part belongs to
+   * @param bytes the size of the part
+   * @param upload the request that uploads the part
+   * @param <T> the result type of the upload request
+   * @return a future that completes with the result of the upload request
+   */
+  <T> CompletableFuture<T> submit(UploadQueue queue, long bytes, Supplier<T> upload) {
+    acquireBytes(bytes);
+
+    PendingPart<T> part = new PendingPart<>(bytes, upload);
+    synchronized (this) {
+      if (queue.parts.isEmpty()) {
+        readyQueues.addLast(queue);
+      }
+
+      queue.parts.addLast(part);
+      queuedParts += 1;
+    }
+
+    executorService.execute(this::runNext);
+
+    return part.future;
+  }
+
+  long inFlightBytes() {
+    synchronized (this) {
+      return inFlightBytes;
+    }
+  }
+
+  int queuedParts() {
+    synchronized (this) {
+      return queuedParts;
+    }
+  }
+
+  int activeRequests() {
+    synchronized (this) {
+      return activeRequests;
+    }
+  }
+
+  int concurrencyLimit() {
+    synchronized (this) {
+      return concurrencyLimit;
+    }
+  }
+
+  long uploadedParts() {
+    return uploadedParts.get();
+  }
+
+  long uploadedBytes() {
+    return uploadedBytes.get();
+  }
+
+  long failedParts() {
+    return failedParts.get();
+  }
+
+  long slowDownResponses() {
+    return slowDownResponses.get();
+  }
+
+  long writerWaitMillis() {
+    return writerWaitMillis.get();
+  }
+
+  private synchronized void acquireBytes(long bytes) {
+    long start = System.currentTimeMillis();
+    while (inFlightBytes > 0 && inFlightBytes + bytes > maxInFlightBytes) {
+      try {
+        wait();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new RuntimeException("Interrupted while waiting to queue S3 upload part", e);
+      }
+    }
+
+    writerWaitMillis.addAndGet(System.currentTimeMillis() - start);
+    inFlightBytes += bytes;
+  }
+
+  private synchronized void releaseBytes(long bytes) {
+    inFlightBytes -= bytes;
+    notifyAll();
+  }
+
+  private void runNext() {
+    PendingPart<?> part;
+    boolean interrupted = false;
+    synchronized (this) {
+      while (activeRequests >= concurrencyLimit) {
+        try {
+          wait();
+        } catch (InterruptedException e) {
+          // the executor is shutting down, fail the part instead of exceeding the concurrency limit
+          Thread.currentThread().interrupt();
+          interrupted = true;
+          break;
+        }
+      }
+
+      UploadQueue queue = readyQueues.pollFirst();
+      if (queue == null) {
+        // the part for this task was cancelled
+        return;
+      }
+
+      part = queue.parts.pollFirst();
+      queuedParts -= 1;
+      if (!queue.parts.isEmpty()) {
+        // move to the back so that other uploads get a turn
+        readyQueues.addLast(queue);
+      }
+
+      if (!interrupted) {
+        activeRequests += 1;
+      }
+    }
+
+    if (interrupted) {
+      // failing the part fails its upload, which aborts the multipart upload and cancels its remaining parts
+      releaseBytes(part.bytes);
+      failedParts.incrementAndGet();
+      part.future.completeExceptionally(new RuntimeException("Interrupted while waiting to upload S3 part"));
+      return;
+    }
+
+    try {
+      run(part);
+    } finally {
+      synchronized (this) {
+        activeRequests -= 1;
+        inFlightBytes -= part.bytes;
+        notifyAll();
+      }
+
+      logMetrics();
+    }
+  }
+
+  private void logMetrics() {
+    long now = System.currentTimeMillis();
+    String metrics;
+    synchronized (this) {
+      if (now - lastMetricsLogMillis < METRICS_LOG_INTERVAL_MS) {
+        return;
+      }
+
+      this.lastMetricsLogMillis = now;
+      metrics = toString();
+    }
+
+    LOG.info("S3 multipart upload metrics: {}", metrics);
+  }
+
+  private <T> void run(PendingPart<T> part) {
+    int attempt = 0;
+    while (true) {
+      try {
+        T result = part.upload.get();
+        onSuccess();
+        uploadedParts.incrementAndGet();
+        uploadedBytes.addAndGet(part.bytes);
+        part.future.complete(result);
+        return;
+
+      } catch (S3Exception e) {
+        if (e.statusCode() == SLOW_DOWN_STATUS_CODE && attempt < maxSlowDownRetries) {
+          onSlowDown();
+          if (!backoff(attempt)) {
+            failedParts.incrementAndGet();
+            part.future.completeExceptionally(e);
+            return;
+          }
+
+          attempt += 1;
+        } else {
+          failedParts.incrementAndGet();
+          part.future.completeExceptionally(e);
+          return;
+        }
+
+      } catch (RuntimeException e) {
+        failedParts.incrementAndGet();
+        part.future.completeExceptionally(e);
+        return;
+      }
+    }
+  }
+
+  private synchronized void onSuccess() {
+    successesSinceLimitChange += 1;
+    if (concurrencyLimit < maxConcurrentRequests && successesSinceLimitChange >= concurrencyLimit) {
+      this.concurrencyLimit += 1;
+      this.successesSinceLimitChange = 0;
+      notifyAll();
+    }
+  }
+
+  private synchronized void onSlowDown() {
+    slowDownResponses.incrementAndGet();
+    this.concurrencyLimit = Math.max(1, concurrencyLimit / 2);
+    this.successesSinceLimitChange = 0;
+    LOG.warn("Received SlowDown from S3, reduced upload concurrency to {}", concurrencyLimit);
+  }
+
+  private boolean backoff(int attempt) {
+    long delayMs = Math.min(slowDownBackoffMs * (1L << Math.min(attempt, 20)), MAX_SLOW_DOWN_BACKOFF_MS);
+    // add jitter so that throttled uploads do not retry in lock-step
+    long jitterMs = (long) (Math.random() * delayMs * 0.1);
+    try {
+      Thread.sleep(delayMs + jitterMs);
+      return true;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+  }
+
+  @Override
+  public synchronized String toString() {
+    return MoreObjects.toStringHelper(this)
+        .add("uploadedParts", uploadedParts.get())
+        .add("uploadedBytes", uploadedBytes.get())
+        .add("failedParts", failedParts.get())
+        .add("slowDownResponses", slowDownResponses.get())
+        .add("writerWaitMillis", writerWaitMillis.get())
+        .add("inFlightBytes", inFlightBytes)
+        .add("queuedParts", queuedParts)
+        .add("activeRequests", activeRequests)
+        .add("concurrencyLimit", concurrencyLimit)
+        .toString();
+  }
+
+  /**
+   * Parts of a single upload, in the order they were submitted.
+   */
+  class UploadQueue {
+    private final Deque<PendingPart<?>> parts = new ArrayDeque<>();
+
+    /**
+     * Removes all parts that have not started uploading and cancels their futures.
+     */
+    void cancel() {
+      Deque<PendingPart<?>> cancelled;
+      synchronized (S3UploadScheduler.this) {
+        if (parts.isEmpty()) {
+          return;
+        }
+
+        cancelled = new ArrayDeque<>(parts);
+        parts.clear();
+        readyQueues.remove(this);
+        queuedParts -= cancelled.size();
+      }
+
+      for (PendingPart<?> part : cancelled) {
+        releaseBytes(part.bytes);
+        part.future.completeExceptionally(new CancellationException("S3 upload was cancelled"));
+      }
+    }
+  }
+
+  private static class PendingPart<T> {
+    private final long bytes;
+    private final Supplier<T> upload;
+    private final CompletableFuture<T> future = new CompletableFuture<>();
+
+    private PendingPart(long bytes, Supplier<T> upload) {
+      this.bytes = bytes;
+      this.upload = upload;
+    }
+  }
+}
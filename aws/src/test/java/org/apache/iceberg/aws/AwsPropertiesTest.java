@@ -97,4 +97,24 @@ public class AwsPropertiesTest {
         () -> new AwsProperties(map));
   }
 
+  @Test
+  public void testS3MultipartMaxInFlightBytesLessThanPartSize() {
+    Map<String, String> map = Maps.newHashMap();
+    map.put(AwsProperties.S3FILEIO_MULTIPART_MAX_IN_FLIGHT_BYTES, "1024");
+    AssertHelpers.assertThrows("should not accept in-flight limit smaller than a part",
+        IllegalArgumentException.class,
+        "Max in-flight bytes for multipart upload must be at least the part size",
+        () -> new AwsProperties(map));
+  }
+
+  @Test
+  public void testS3MultipartSlowDownMaxRetriesNegative() {
+    Map<String, String> map = Maps.newHashMap();
+    map.put(AwsProperties.S3FILEIO_MULTIPART_SLOW_DOWN_MAX_RETRIES, "-1");
+    AssertHelpers.assertThrows("should not accept negative retries",
+        IllegalArgumentException.class,
+        "Max retries after S3 SlowDown must be >= 0",
+        () -> new AwsProperties(map));
+  }
+
 }
@@ -0,0 +1,269 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iceberg.aws.s3;
+
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.iceberg.relocated.com.google.common.collect.ImmutableList;
+import org.apache.iceberg.relocated.com.google.common.collect.Lists;
+import org.junit.Assert;
+import org.junit.Test;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+
+public class S3UploadSchedulerTest {
+
+  @Test
+  public void testRoundRobinAcrossUploads() {
+    ManualExecutor executor = new ManualExecutor();
+    S3UploadScheduler scheduler = new S3UploadScheduler(executor, 1, 1024, 0, 0);
+    S3UploadScheduler.UploadQueue first = scheduler.newQueue();
+    S3UploadScheduler.UploadQueue second = scheduler.newQueue();
+
+    List<String> uploaded = Lists.newArrayList();
+    scheduler.submit(first, 1, () -> uploaded.add("first-1"));
+    scheduler.submit(first, 1, () -> uploaded.add("first-2"));
+    scheduler.submit(first, 1, () -> uploaded.add("first-3"));
+    scheduler.submit(second, 1, () -> uploaded.add("second-1"));
+    Assert.assertEquals("Should queue all parts", 4, scheduler.queuedParts());
+
+    executor.runAll();
+
+    Assert.assertEquals("Should alternate between uploads",
+        ImmutableList.of("first-1", "second-1", "first-2", "first-3"), uploaded);
+    Assert.assertEquals("Should have no queued parts", 0, scheduler.queuedParts());
+    Assert.assertEquals("Should count uploaded parts", 4, scheduler.uploadedParts());
+    Assert.assertEquals("Should count uploaded bytes", 4, scheduler.uploadedBytes());
+  }
+
+  @Test
+  public void testWriterBlocksOnInFlightBytes() throws InterruptedException {
+    ManualExecutor executor = new ManualExecutor();
+    S3UploadScheduler scheduler = new S3UploadScheduler(executor, 1, 10, 0, 0);
+    S3UploadScheduler.UploadQueue queue = scheduler.newQueue();
+
+    scheduler.submit(queue, 6, () -> "part-1");
+    Assert.assertEquals("Should track in-flight bytes", 6, scheduler.inFlightBytes());
+
+    Thread writer = new Thread(() -> scheduler.submit(queue, 6, () -> "part-2"));
+    writer.start();
+    writer.join(200);
+    Assert.assertTrue("Writer should block while the limit is exceeded", writer.isAlive());
+    Assert.assertEquals("Should not admit the second part", 6, scheduler.inFlightBytes());
+
+    executor.runNext();
+    writer.join(10_000);
+    Assert.assertFalse("Writer should continue after the first part is uploaded", writer.isAlive());
+    Assert.assertEquals("Should admit the second part", 6, scheduler.inFlightBytes());
+
+    executor.runAll();
+    Assert.assertEquals("Should release all bytes", 0, scheduler.inFlightBytes());
+  }
+
+  @Test
+  public void testOversizedPartIsAdmittedWhenIdle() {
+    ManualExecutor executor = new ManualExecutor();
+    S3UploadScheduler scheduler = new S3UploadScheduler(executor, 1, 10, 0, 0);
+
+    CompletableFuture<String> future = scheduler.submit(scheduler.newQueue(), 100, () -> "large");
+    executor.runAll();
+
+    Assert.assertEquals("Should upload a part larger than the limit", "large", future.join());
+  }
+
+  @Test
+  public void testSlowDownRetryReducesConcurrency() {
+    ManualExecutor executor = new ManualExecutor();
+    S3UploadScheduler scheduler = new S3UploadScheduler(executor, 8, 1024, 3, 0);
+    AtomicInteger attempts = new AtomicInteger(0);
+
+    CompletableFuture<String> future = scheduler.submit(scheduler.newQueue(), 1, () -> {
+      if (attempts.incrementAndGet() < 3) {
+        throw (S3Exception) S3Exception.builder().statusCode(503).message("SlowDown").build();
+      }
+
+      return "done";
+    });
+
+    executor.runAll();
+
+    Assert.assertEquals("Should succeed after retries", "done", future.join());
+    Assert.assertEquals("Should attempt the upload 3 times", 3, attempts.get());
+    Assert.assertEquals("Should count SlowDown responses", 2, scheduler.slowDownResponses());
+    Assert.assertEquals("Should halve concurrency for each SlowDown", 2, scheduler.concurrencyLimit());
+  }
+
+  @Test
+  public void testConcurrencyRecoversAfterSuccesses() {
+    ManualExecutor executor = new ManualExecutor();
+    S3UploadScheduler scheduler = new S3UploadScheduler(executor, 4, 1024, 1, 0);
+    S3UploadScheduler.UploadQueue queue = scheduler.newQueue();
+    AtomicInteger attempts = new AtomicInteger(0);
+
+    scheduler.submit(queue, 1, () -> {
+      if (attempts.incrementAndGet() == 1) {
+        throw (S3Exception) S3Exception.builder().statusCode(503).message("SlowDown").build();
+      }
+
+      return "part-1";
+    });
+    executor.runAll();
+    Assert.assertEquals("Should not recover within the first window", 2, scheduler.concurrencyLimit());
+
+    scheduler.submit(queue, 1, () -> "part-2");
+    executor.runAll();
+    Assert.assertEquals("Should recover after a window of successes", 3, scheduler.concurrencyLimit());
+  }
+
+  @Test
+  public void testSlowDownRetriesExhausted() {
+    ManualExecutor executor = new ManualExecutor();
+    S3UploadScheduler scheduler = new S3UploadScheduler(executor, 1, 1024, 1, 0);
+
+    CompletableFuture<String> future = scheduler.submit(scheduler.newQueue(), 1, () -> {
+      throw (S3Exception) S3Exception.builder().statusCode(503).message("SlowDown").build();
+    });
+
+    executor.runAll();
+
+    Assert.assertTrue("Should fail after retries are exhausted", future.isCompletedExceptionally());
+    Assert.assertEquals("Should count the failed part", 1, scheduler.failedParts());
+    Assert.assertEquals("Should release bytes of the failed part", 0, scheduler.inFlightBytes());
+  }
+
+  @Test
+  public void testCancelQueuedParts() {
+    ManualExecutor executor = new ManualExecutor();
+    S3UploadScheduler scheduler = new S3UploadScheduler(executor, 1, 1024, 0, 0);
+    S3UploadScheduler.UploadQueue queue = scheduler.newQueue();
+    AtomicInteger uploads = new AtomicInteger(0);
+
+    CompletableFuture<Integer> future = scheduler.submit(queue, 8, uploads::incrementAndGet);
+    queue.cancel();
+
+    Assert.assertTrue("Should cancel queued parts", future.isCompletedExceptionally());
+    Assert.assertEquals("Should release bytes of cancelled parts", 0, scheduler.inFlightBytes());
+    Assert.assertEquals("Should have no queued parts", 0, scheduler.queuedParts());
+
+    executor.runAll();
+    Assert.assertEquals("Should not upload cancelled parts", 0, uploads.get());
+  }
+
+  @Test
+  public void testInterruptedWaitFailsPart() throws InterruptedException {
+    ManualExecutor executor = new ManualExecutor();
+    S3UploadScheduler scheduler = new S3UploadScheduler(executor, 1, 1024, 0, 0);
+    S3UploadScheduler.UploadQueue queue = scheduler.newQueue();
+    CountDownLatch release = new CountDownLatch(1);
+    AtomicInteger uploads = new AtomicInteger(0);
+
+    CompletableFuture<String> first = scheduler.submit(queue, 4, () -> {
+      try {
+        release.await();
+      } catch (InterruptedException e) {
+        throw new RuntimeException(e);
+      }
+      return "part-1";
+    });
+    CompletableFuture<Integer> second = scheduler.submit(queue, 4, uploads::incrementAndGet);
+
+    Thread active = new Thread(executor::runNext);
+    active.start();
+    while (scheduler.activeRequests() < 1) {
+      Thread.sleep(10);
+    }
+
+    Thread waiting = new Thread(executor::runNext);
+    waiting.start();
+    waiting.join(200);
+    Assert.assertTrue("Should wait for the active request", waiting.isAlive());
+
+    waiting.interrupt();
+    waiting.join(10_000);
+
+    Assert.assertTrue("Should fail the interrupted part", second.isCompletedExceptionally());
+    Assert.assertEquals("Should not upload the interrupted part", 0, uploads.get());
+    Assert.assertEquals("Should count the failed part", 1, scheduler.failedParts());
+    Assert.assertEquals("Should release bytes of the failed part", 4, scheduler.inFlightBytes());
+
+    release.countDown();
+    active.join(10_000);
+    Assert.assertEquals("Should upload the active part", "part-1", first.join());
+    Assert.assertEquals("Should release all bytes", 0, scheduler.inFlightBytes());
+  }
+
+  /**
+   * Executor that runs tasks only when requested by the test.
+   */
+  private static class ManualExecutor extends AbstractExecutorService {
+    private final List<Runnable> tasks = Lists.newArrayList();
+
+    @Override
+    public synchronized void execute(Runnable command) {
+      tasks.add(command);
+    }
+
+    void runNext() {
+      Runnable next;
+      synchronized (this) {
+        next = tasks.remove(0);
+      }
+
+      next.run();
+    }
+
+    void runAll() {
+      while (hasTasks()) {
+        runNext();
+      }
+    }
+
+    private synchronized boolean hasTasks() {
+      return !tasks.isEmpty();
+    }
+
+    @Override
+    public void shutdown() {
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+      return ImmutableList.of();
+    }
+
+    @Override
+    public boolean isShutdown() {
+      return false;
+    }
+
+    @Override
+    public boolean isTerminated() {
+      return false;
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) {
+      return true;
+    }
+  }
+}
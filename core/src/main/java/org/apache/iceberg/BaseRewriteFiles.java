@@ -19,10 +19,15 @@
 
 package org.apache.iceberg;
 
+import java.util.List;
 import java.util.Set;
 import org.apache.iceberg.relocated.com.google.common.base.Preconditions;
+import org.apache.iceberg.relocated.com.google.common.collect.Lists;
 
 class BaseRewriteFiles extends MergingSnapshotProducer<RewriteFiles> implements RewriteFiles {
+  private final List<DataFile> replacedDataFiles = Lists.newArrayList();
+  private Long startingSnapshotId = null;
+
   BaseRewriteFiles(String tableName, TableOperations ops) {
     super(tableName, ops);
 
@@ -49,6 +54,7 @@ class BaseRewriteFiles extends MergingSnapshotProducer<RewriteFiles> implements
 
     for (DataFile toDelete : filesToDelete) {
       delete(toDelete);
+      replacedDataFiles.add(toDelete);
     }
 
     for (DataFile toAdd : filesToAdd) {
@@ -57,4 +63,17 @@ class BaseRewriteFiles extends MergingSnapshotProducer<RewriteFiles> implements
 
     return this;
   }
+
+  @Override
+  public RewriteFiles validateFromSnapshot(long snapshotId) {
+    this.startingSnapshotId = snapshotId;
+    return this;
+  }
+
+  @Override
+  protected void validate(TableMetadata base) {
+    if (startingSnapshotId != null) {
+      validateNoNewDeletesInPartitions(base, startingSnapshotId, replacedDataFiles);
+    }
+  }
 }
@@ -27,6 +27,7 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Function;
 import org.apache.iceberg.events.Listeners;
 import org.apache.iceberg.events.ScanEvent;
 import org.apache.iceberg.expressions.Binder;
@@ -241,9 +242,34 @@ abstract class BaseTableScan implements TableScan {
           TableProperties.SPLIT_OPEN_FILE_COST, TableProperties.SPLIT_OPEN_FILE_COST_DEFAULT);
     }
 
-    CloseableIterable<FileScanTask> fileScanTasks = planFiles();
+    boolean costBased;
+    if (options.containsKey(TableProperties.SPLIT_COST_BASED_PLANNING_ENABLED)) {
+      costBased = Boolean.parseBoolean(options.get(TableProperties.SPLIT_COST_BASED_PLANNING_ENABLED));
+    } else {
+      costBased = ops.current().propertyAsBoolean(
+          TableProperties.SPLIT_COST_BASED_PLANNING_ENABLED, TableProperties.SPLIT_COST_BASED_PLANNING_ENABLED_DEFAULT);
+    }
+    boolean partitionAligned;
+    if (options.containsKey(TableProperties.SPLIT_PARTITION_ALIGNED)) {
+      partitionAligned = Boolean.parseBoolean(options.get(TableProperties.SPLIT_PARTITION_ALIGNED));
+    } else {
+      partitionAligned = ops.current().propertyAsBoolean(
+          TableProperties.SPLIT_PARTITION_ALIGNED, TableProperties.SPLIT_PARTITION_ALIGNED_DEFAULT);
+    }
+
+    Function<FileScanTask, Long> weightFunc;
+    CloseableIterable<FileScanTask> fileScanTasks;
+    if (costBased) {
+      // column sizes are needed to weigh files by the size of projected columns
+      weightFunc = TableScanUtil.costWeight(schema(), openFileCost);
+      fileScanTasks = includeColumnStats().planFiles();
+    } else {
+      weightFunc = file -> Math.max(file.length(), openFileCost);
+      fileScanTasks = planFiles();
+    }
+
     CloseableIterable<FileScanTask> splitFiles = TableScanUtil.splitFiles(fileScanTasks, splitSize);
-    return TableScanUtil.planTasks(splitFiles, splitSize, lookback, openFileCost);
+    return TableScanUtil.planTasks(splitFiles, splitSize, lookback, weightFunc, partitionAligned);
   }
 
   @Override
@@ -19,10 +19,14 @@
 
 package org.apache.iceberg;
 
+import java.util.List;
+import java.util.Map;
 import org.apache.iceberg.expressions.Expression;
 import org.apache.iceberg.io.CloseableIterable;
+import org.apache.iceberg.io.FileIO;
 import org.apache.iceberg.relocated.com.google.common.base.Preconditions;
 import org.apache.iceberg.relocated.com.google.common.collect.ImmutableList;
+import org.apache.iceberg.util.Pair;
 import org.apache.iceberg.util.ThreadPools;
 
 public class DataTableScan extends BaseTableScan {
@@ -71,12 +75,8 @@ public class DataTableScan extends BaseTableScan {
   public CloseableIterable<FileScanTask> planFiles(TableOperations ops, Snapshot snapshot,
                                                    Expression rowFilter, boolean ignoreResiduals,
                                                    boolean caseSensitive, boolean colStats) {
-    ManifestGroup manifestGroup = new ManifestGroup(ops.io(), snapshot.dataManifests(), snapshot.deleteManifests())
-        .caseSensitive(caseSensitive)
-        .select(colStats ? SCAN_WITH_STATS_COLUMNS : SCAN_COLUMNS)
-        .filterData(rowFilter)
-        .specsById(ops.current().specsById())
-        .ignoreDeleted();
+    ManifestGroup manifestGroup = newManifestGroup(ops.io(), ops.current().specsById(),
+        snapshot.dataManifests(), snapshot.deleteManifests(), rowFilter, caseSensitive, colStats);
 
     if (ignoreResiduals) {
       manifestGroup = manifestGroup.ignoreResiduals();
@@ -89,6 +89,66 @@ public class DataTableScan extends BaseTableScan {
     return manifestGroup.planFiles();
   }
 
+  /**
+   * Reads the delete files of a snapshot that may apply to rows matching a filter.
+   * <p>
+   * This is used by engines that distribute planning, to read the delete manifests once and pass the result to
+   * {@link #planDataManifests(FileIO, Map, List, List, Expression, boolean, boolean)} for each group of data manifests.
+   *
+   * @param io a {@link FileIO} to read manifests
+   * @param specsById the table's partition specs by ID
+   * @param deleteManifests all delete manifests of the snapshot
+   * @param rowFilter a row filter
+   * @param caseSensitive whether the row filter is case sensitive
+   * @return pairs of the sequence number and the delete file for each live delete file
+   */
+  public static List<Pair<Long, DeleteFile>> planDeleteFiles(FileIO io, Map<Integer, PartitionSpec> specsById,
+                                                             List<ManifestFile> deleteManifests,
+                                                             Expression rowFilter, boolean caseSensitive) {
+    return DeleteFileIndex.builderFor(io, deleteManifests)
+        .specsById(specsById)
+        .filterData(rowFilter)
+        .caseSensitive(caseSensitive)
+        .readDeleteFiles();
+  }
+
+  /**
+   * Plans the files of a subset of a snapshot's data manifests.
+   * <p>
+   * This is used by engines that distribute planning by reading groups of data manifests in parallel. Each group
+   * must be planned with all of the snapshot's delete files, as returned by
+   * {@link #planDeleteFiles(FileIO, Map, List, Expression, boolean)}, to produce the same tasks as a scan.
+   *
+   * @param io a {@link FileIO} to read manifests
+   * @param specsById the table's partition specs by ID
+   * @param dataManifests data manifests to plan
+   * @param deleteFiles all delete files of the snapshot that match the row filter
+   * @param rowFilter a row filter
+   * @param caseSensitive whether the row filter is case sensitive
+   * @param colStats whether to keep column stats in the returned tasks
+   * @return file scan tasks for the matching data files in the data manifests
+   */
+  public static CloseableIterable<FileScanTask> planDataManifests(FileIO io, Map<Integer, PartitionSpec> specsById,
+                                                                  List<ManifestFile> dataManifests,
+                                                                  List<Pair<Long, DeleteFile>> deleteFiles,
+                                                                  Expression rowFilter, boolean caseSensitive,
+                                                                  boolean colStats) {
+    return newManifestGroup(io, specsById, dataManifests, ImmutableList.of(), rowFilter, caseSensitive, colStats)
+        .deleteFiles(deleteFiles)
+        .planFiles();
+  }
+
+  private static ManifestGroup newManifestGroup(FileIO io, Map<Integer, PartitionSpec> specsById,
+                                                List<ManifestFile> dataManifests, List<ManifestFile> deleteManifests,
+                                                Expression rowFilter, boolean caseSensitive, boolean colStats) {
+    return new ManifestGroup(io, dataManifests, deleteManifests)
+        .caseSensitive(caseSensitive)
+        .select(colStats ? SCAN_WITH_STATS_COLUMNS : SCAN_COLUMNS)
+        .filterData(rowFilter)
+        .specsById(specsById)
+        .ignoreDeleted();
+  }
+
   @Override
   protected long targetSplitSize(TableOperations ops) {
     return ops.current().propertyAsLong(
@@ -317,6 +317,7 @@ class DeleteFileIndex {
     private Expression partitionFilter = Expressions.alwaysTrue();
     private boolean caseSensitive = true;
     private ExecutorService executorService = null;
+    private List<Pair<Long, DeleteFile>> deleteFiles = null;
 
     Builder(FileIO io, Set<ManifestFile> deleteManifests) {
       this.io = io;
@@ -348,9 +349,23 @@ class DeleteFileIndex {
       return this;
     }
 
-    DeleteFileIndex build() {
+    /**
+     * Builds the index from delete files that were already read by {@link #readDeleteFiles()} instead of reading the
+     * delete manifests.
+     */
+    Builder deleteFiles(List<Pair<Long, DeleteFile>> newDeleteFiles) {
+      this.deleteFiles = newDeleteFiles;
+      return this;
+    }
+
+    /**
+     * Reads the live delete files that match the filters from the delete manifests.
+     *
+     * @return pairs of the sequence number and a copy of each delete file
+     */
+    List<Pair<Long, DeleteFile>> readDeleteFiles() {
       // read all of the matching delete manifests in parallel and accumulate the matching files in a queue
-      Queue<ManifestEntry<DeleteFile>> deleteEntries = new ConcurrentLinkedQueue<>();
+      Queue<Pair<Long, DeleteFile>> deleteEntries = new ConcurrentLinkedQueue<>();
       Tasks.foreach(deleteManifestReaders())
           .stopOnFailure().throwFailureWhenFinished()
           .executeWith(executorService)
@@ -358,20 +373,26 @@ class DeleteFileIndex {
             try (CloseableIterable<ManifestEntry<DeleteFile>> reader = deleteFile) {
               for (ManifestEntry<DeleteFile> entry : reader) {
                 // copy with stats for better filtering against data file stats
-                deleteEntries.add(entry.copy());
+                deleteEntries.add(Pair.of(entry.sequenceNumber(), entry.file().copy()));
               }
             } catch (IOException e) {
               throw new RuntimeIOException(e, "Failed to close");
             }
           });
 
+      return Lists.newArrayList(deleteEntries);
+    }
+
+    DeleteFileIndex build() {
+      List<Pair<Long, DeleteFile>> deleteEntries = deleteFiles != null ? deleteFiles : readDeleteFiles();
+
       // build a map from (specId, partition) to delete file entries
-      ListMultimap<Pair<Integer, StructLikeWrapper>, ManifestEntry<DeleteFile>> deleteFilesByPartition =
+      ListMultimap<Pair<Integer, StructLikeWrapper>, Pair<Long, DeleteFile>> deleteFilesByPartition =
           Multimaps.newListMultimap(Maps.newHashMap(), Lists::newArrayList);
-      for (ManifestEntry<DeleteFile> entry : deleteEntries) {
-        int specId = entry.file().specId();
+      for (Pair<Long, DeleteFile> entry : deleteEntries) {
+        int specId = entry.second().specId();
         StructLikeWrapper wrapper = StructLikeWrapper.forType(specsById.get(specId).partitionType())
-            .set(entry.file().partition());
+            .set(entry.second().partition());
         deleteFilesByPartition.put(Pair.of(specId, wrapper), entry);
       }
 
@@ -385,10 +406,10 @@ class DeleteFileIndex {
           Preconditions.checkState(globalDeletes == null, "Detected multiple partition specs with no partitions");
 
           List<Pair<Long, DeleteFile>> eqFilesSortedBySeq = deleteFilesByPartition.get(partition).stream()
-              .filter(entry -> entry.file().content() == FileContent.EQUALITY_DELETES)
+              .filter(entry -> entry.second().content() == FileContent.EQUALITY_DELETES)
               .map(entry ->
                   // a delete file is indexed by the sequence number it should be applied to
-                  Pair.of(entry.sequenceNumber() - 1, entry.file()))
+                  Pair.of(entry.first() - 1, entry.second()))
               .sorted(Comparator.comparingLong(Pair::first))
               .collect(Collectors.toList());
 
@@ -396,8 +417,7 @@ class DeleteFileIndex {
           globalDeletes = eqFilesSortedBySeq.stream().map(Pair::second).toArray(DeleteFile[]::new);
 
           List<Pair<Long, DeleteFile>> posFilesSortedBySeq = deleteFilesByPartition.get(partition).stream()
-              .filter(entry -> entry.file().content() == FileContent.POSITION_DELETES)
-              .map(entry -> Pair.of(entry.sequenceNumber(), entry.file()))
+              .filter(entry -> entry.second().content() == FileContent.POSITION_DELETES)
               .sorted(Comparator.comparingLong(Pair::first))
               .collect(Collectors.toList());
 
@@ -410,9 +430,9 @@ class DeleteFileIndex {
           List<Pair<Long, DeleteFile>> filesSortedBySeq = deleteFilesByPartition.get(partition).stream()
               .map(entry -> {
                 // a delete file is indexed by the sequence number it should be applied to
-                long applySeq = entry.sequenceNumber() -
-                    (entry.file().content() == FileContent.EQUALITY_DELETES ? 1 : 0);
-                return Pair.of(applySeq, entry.file());
+                long applySeq = entry.first() -
+                    (entry.second().content() == FileContent.EQUALITY_DELETES ? 1 : 0);
+                return Pair.of(applySeq, entry.second());
               })
               .sorted(Comparator.comparingLong(Pair::first))
               .collect(Collectors.toList());
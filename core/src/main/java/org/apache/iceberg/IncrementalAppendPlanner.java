@@ -0,0 +1,231 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iceberg;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.apache.iceberg.expressions.Expression;
+import org.apache.iceberg.expressions.Expressions;
+import org.apache.iceberg.io.CloseableIterable;
+import org.apache.iceberg.relocated.com.google.common.base.Preconditions;
+import org.apache.iceberg.relocated.com.google.common.collect.ImmutableList;
+import org.apache.iceberg.relocated.com.google.common.collect.Lists;
+import org.apache.iceberg.relocated.com.google.common.collect.Maps;
+import org.apache.iceberg.relocated.com.google.common.collect.Sets;
+import org.apache.iceberg.util.SnapshotUtil;
+
+/**
+ * Plans the data files appended in a range of snapshots one manifest at a time, for readers that continuously
+ * poll a table for new data.
+ * <p>
+ * An incremental {@link TableScan#appendsBetween(long, long) appends scan} reads the manifest list of every snapshot
+ * in the range and plans all of their new manifests as one batch. When every snapshot in the range is an append,
+ * no file added in the range can have been removed again, so this planner reads only the manifest list of the last
+ * snapshot and selects the manifests written by a snapshot in the range, including manifests that were merged. Only
+ * when the range also contains replace or delete commits does it fall back to the manifest lists of the individual
+ * append snapshots, which preserves the result of the appends scan.
+ * <p>
+ * The selected manifests are exposed by {@link Increment#manifests()} so that callers can plan and hand out the tasks
+ * of each manifest as soon as it is read.
+ */
+public class IncrementalAppendPlanner {
+  private final Table table;
+  private Expression rowFilter = Expressions.alwaysTrue();
+  private boolean caseSensitive = true;
+  private boolean colStats = false;
+
+  public IncrementalAppendPlanner(Table table) {
+    this.table = table;
+  }
+
+  public IncrementalAppendPlanner caseSensitive(boolean isCaseSensitive) {
+    this.caseSensitive = isCaseSensitive;
+    return this;
+  }
+
+  public IncrementalAppendPlanner includeColumnStats() {
+    this.colStats = true;
+    return this;
+  }
+
+  public IncrementalAppendPlanner filter(Expression expr) {
+    this.rowFilter = Expressions.and(rowFilter, expr);
+    return this;
+  }
+
+  /**
+   * Selects the manifests that contain data files appended in the snapshot range (fromSnapshotId, toSnapshotId].
+   *
+   * @param fromSnapshotId the last snapshot id that was already consumed, exclusive
+   * @param toSnapshotId the snapshot id to consume up to, inclusive
+   * @return an {@link Increment} for the range
+   * @throws UnsupportedOperationException if the range contains an overwrite commit
+   */
+  public Increment planAppendsBetween(long fromSnapshotId, long toSnapshotId) {
+    Preconditions.checkArgument(fromSnapshotId != toSnapshotId, "from and to snapshot ids cannot be the same");
+    Preconditions.checkArgument(
+        table.snapshot(fromSnapshotId) != null, "from snapshot %s does not exist", fromSnapshotId);
+    Preconditions.checkArgument(
+        table.snapshot(toSnapshotId) != null, "to snapshot %s does not exist", toSnapshotId);
+    Preconditions.checkArgument(SnapshotUtil.ancestorOf(table, toSnapshotId, fromSnapshotId),
+        "from snapshot %s is not an ancestor of to snapshot %s", fromSnapshotId, toSnapshotId);
+
+    List<Long> snapshotIds = SnapshotUtil.snapshotIdsBetween(table, fromSnapshotId, toSnapshotId);
+    Set<Long> appendSnapshotIds = Sets.newHashSet();
+    for (Long snapshotId : snapshotIds) {
+      Snapshot snapshot = table.snapshot(snapshotId);
+      // same as the appends scan, only appends are consumed
+      if (snapshot.operation().equals(DataOperations.APPEND)) {
+        appendSnapshotIds.add(snapshotId);
+      } else if (snapshot.operation().equals(DataOperations.OVERWRITE)) {
+        throw new UnsupportedOperationException(
+            String.format("Found %s operation, cannot support incremental data in snapshots (%s, %s]",
+                DataOperations.OVERWRITE, fromSnapshotId, toSnapshotId));
+      }
+    }
+
+    boolean onlyAppends = appendSnapshotIds.size() == snapshotIds.size();
+    List<ManifestFile> manifests = Lists.newArrayList();
+    if (appendSnapshotIds.isEmpty()) {
+      // nothing was appended, avoid reading any manifest list
+      return new Increment(fromSnapshotId, toSnapshotId, snapshotIds.size(), appendSnapshotIds, onlyAppends,
+          manifests);
+    }
+
+    if (onlyAppends) {
+      // files appended in the range are all still live, either in the manifest written by their own snapshot or in
+      // a manifest that a later snapshot in the range merged them into. snapshot ids are listed newest first, so
+      // order the manifests from the oldest snapshot.
+      Map<Long, Integer> snapshotOrdinals = Maps.newHashMap();
+      for (int i = 0; i < snapshotIds.size(); i += 1) {
+        snapshotOrdinals.put(snapshotIds.get(i), snapshotIds.size() - i);
+      }
+
+      for (ManifestFile manifest : table.snapshot(toSnapshotId).dataManifests()) {
+        if (snapshotOrdinals.containsKey(manifest.snapshotId()) &&
+            (manifest.hasAddedFiles() || manifest.hasExistingFiles())) {
+          manifests.add(manifest);
+        }
+      }
+
+      manifests.sort(Comparator.comparing(manifest -> snapshotOrdinals.get(manifest.snapshotId())));
+
+    } else {
+      // files may have been appended and removed again within the range, use each snapshot's own manifests
+      Set<String> seen = Sets.newHashSet();
+      for (Long snapshotId : Lists.reverse(snapshotIds)) {
+        if (appendSnapshotIds.contains(snapshotId)) {
+          for (ManifestFile manifest : table.snapshot(snapshotId).dataManifests()) {
+            if (snapshotId.equals(manifest.snapshotId()) && manifest.hasAddedFiles() &&
+                seen.add(manifest.path())) {
+              manifests.add(manifest);
+            }
+          }
+        }
+      }
+    }
+
+    return new Increment(fromSnapshotId, toSnapshotId, snapshotIds.size(), appendSnapshotIds, onlyAppends,
+        manifests);
+  }
+
+  /**
+   * Plans all live data files of a manifest, for readers that start by consuming a whole snapshot before they
+   * continue with the appends of its descendants.
+   *
+   * @param manifest a data manifest of a snapshot
+   * @return the file scan tasks for the added and existing files in the manifest that match the filter
+   */
+  public CloseableIterable<FileScanTask> planLiveFiles(ManifestFile manifest) {
+    ManifestGroup manifestGroup = new ManifestGroup(table.io(), ImmutableList.of(manifest))
+        .caseSensitive(caseSensitive)
+        .select(colStats ? DataTableScan.SCAN_WITH_STATS_COLUMNS : DataTableScan.SCAN_COLUMNS)
+        .filterData(rowFilter)
+        .specsById(table.specs())
+        .ignoreDeleted();
+
+    return manifestGroup.planFiles();
+  }
+
+  /**
+   * The manifests selected for a snapshot range.
+   */
+  public class Increment {
+    private final long fromSnapshotId;
+    private final long toSnapshotId;
+    private final int snapshotCount;
+    private final Set<Long> appendSnapshotIds;
+    private final boolean onlyAppends;
+    private final List<ManifestFile> manifests;
+
+    private Increment(long fromSnapshotId, long toSnapshotId, int snapshotCount, Set<Long> appendSnapshotIds,
+                      boolean onlyAppends, List<ManifestFile> manifests) {
+      this.fromSnapshotId = fromSnapshotId;
+      this.toSnapshotId = toSnapshotId;
+      this.snapshotCount = snapshotCount;
+      this.appendSnapshotIds = appendSnapshotIds;
+      this.onlyAppends = onlyAppends;
+      this.manifests = ImmutableList.copyOf(manifests);
+    }
+
+    public long fromSnapshotId() {
+      return fromSnapshotId;
+    }
+
+    public long toSnapshotId() {
+      return toSnapshotId;
+    }
+
+    /**
+     * Returns the number of snapshots in the range, including snapshots that did not append data.
+     */
+    public int snapshotCount() {
+      return snapshotCount;
+    }
+
+    /**
+     * Returns the manifests that may contain data files appended in the range, from the oldest snapshot.
+     */
+    public List<ManifestFile> manifests() {
+      return manifests;
+    }
+
+    /**
+     * Plans the data files of one of the {@link #manifests() selected manifests} that were appended in the range.
+     *
+     * @param manifest a manifest returned by {@link #manifests()}
+     * @return the file scan tasks for the appended files in the manifest that match the filter
+     */
+    public CloseableIterable<FileScanTask> planFiles(ManifestFile manifest) {
+      ManifestGroup manifestGroup = new ManifestGroup(table.io(), ImmutableList.of(manifest))
+          .caseSensitive(caseSensitive)
+          .select(colStats ? DataTableScan.SCAN_WITH_STATS_COLUMNS : DataTableScan.SCAN_COLUMNS)
+          .filterData(rowFilter)
+          .filterManifestEntries(entry -> appendSnapshotIds.contains(entry.snapshotId()) &&
+              (onlyAppends || entry.status() == ManifestEntry.Status.ADDED))
+          .specsById(table.specs())
+          .ignoreDeleted();
+
+      return manifestGroup.planFiles();
+    }
+  }
+}
@@ -39,6 +39,7 @@ import org.apache.iceberg.relocated.com.google.common.collect.Iterables;
 import org.apache.iceberg.relocated.com.google.common.collect.Lists;
 import org.apache.iceberg.relocated.com.google.common.collect.Sets;
 import org.apache.iceberg.types.Types;
+import org.apache.iceberg.util.Pair;
 import org.apache.iceberg.util.ParallelIterable;
 
 class ManifestGroup {
@@ -141,6 +142,11 @@ class ManifestGroup {
     return this;
   }
 
+  ManifestGroup deleteFiles(List<Pair<Long, DeleteFile>> newDeleteFiles) {
+    deleteIndexBuilder.deleteFiles(newDeleteFiles);
+    return this;
+  }
+
   ManifestGroup planWith(ExecutorService newExecutorService) {
     this.executorService = newExecutorService;
     deleteIndexBuilder.planWith(newExecutorService);
@@ -39,7 +39,10 @@ import org.apache.iceberg.relocated.com.google.common.collect.ImmutableSet;
 import org.apache.iceberg.relocated.com.google.common.collect.Iterables;
 import org.apache.iceberg.relocated.com.google.common.collect.Iterators;
 import org.apache.iceberg.relocated.com.google.common.collect.Lists;
+import org.apache.iceberg.relocated.com.google.common.collect.Maps;
 import org.apache.iceberg.relocated.com.google.common.collect.Sets;
+import org.apache.iceberg.types.Types;
+import org.apache.iceberg.util.StructLikeWrapper;
 
 import static org.apache.iceberg.TableProperties.MANIFEST_MIN_MERGE_COUNT;
 import static org.apache.iceberg.TableProperties.MANIFEST_MIN_MERGE_COUNT_DEFAULT;
@@ -327,6 +330,76 @@ abstract class MergingSnapshotProducer<ThisT> extends SnapshotProducer<ThisT> {
     }
   }
 
+  /**
+   * Validates that no delete files have been added since a starting snapshot to the partitions of a set of data files.
+   * <p>
+   * Deletes in other partitions cannot apply to the data files, so concurrent row-level changes to unrelated partitions
+   * do not fail the validation. Delete files in an unpartitioned spec apply to every partition and always conflict.
+   *
+   * @param base table metadata to validate
+   * @param startingSnapshotId id of the snapshot current at the start of the operation
+   * @param dataFiles data files that new deletes must not apply to
+   */
+  protected void validateNoNewDeletesInPartitions(TableMetadata base, Long startingSnapshotId,
+                                                  Iterable<DataFile> dataFiles) {
+    // if there is no current table state or the table cannot have delete files, no deletes have been added
+    if (base.currentSnapshot() == null || base.formatVersion() < 2) {
+      return;
+    }
+
+    Map<Integer, Set<StructLikeWrapper>> partitionsBySpec = Maps.newHashMap();
+    for (DataFile file : dataFiles) {
+      Types.StructType partitionType = base.spec(file.specId()).partitionType();
+      partitionsBySpec.computeIfAbsent(file.specId(), id -> Sets.newHashSet())
+          .add(StructLikeWrapper.forType(partitionType).set(file.partition()));
+    }
+
+    List<ManifestFile> manifests = Lists.newArrayList();
+    Set<Long> newSnapshots = Sets.newHashSet();
+
+    Long currentSnapshotId = base.currentSnapshot().snapshotId();
+    while (currentSnapshotId != null && !currentSnapshotId.equals(startingSnapshotId)) {
+      Snapshot currentSnapshot = base.snapshot(currentSnapshotId);
+
+      ValidationException.check(currentSnapshot != null,
+          "Cannot determine history between starting snapshot %s and current %s",
+          startingSnapshotId, currentSnapshotId);
+
+      newSnapshots.add(currentSnapshotId);
+      for (ManifestFile manifest : currentSnapshot.deleteManifests()) {
+        if (manifest.snapshotId() == (long) currentSnapshotId) {
+          manifests.add(manifest);
+        }
+      }
+
+      currentSnapshotId = currentSnapshot.parentId();
+    }
+
+    for (ManifestFile manifest : manifests) {
+      PartitionSpec deleteSpec = base.spec(manifest.partitionSpecId());
+      Set<StructLikeWrapper> partitions = partitionsBySpec.get(manifest.partitionSpecId());
+      if (!deleteSpec.isUnpartitioned() && partitions == null) {
+        continue;
+      }
+
+      StructLikeWrapper wrapper = StructLikeWrapper.forType(deleteSpec.partitionType());
+      try (ManifestReader<DeleteFile> reader = ManifestFiles.readDeleteManifest(manifest, ops.io(), base.specsById());
+           CloseableIterator<ManifestEntry<DeleteFile>> entries = reader.entries().iterator()) {
+        while (entries.hasNext()) {
+          ManifestEntry<DeleteFile> entry = entries.next();
+          if (entry.status() == ManifestEntry.Status.ADDED && newSnapshots.contains(entry.snapshotId()) &&
+              (deleteSpec.isUnpartitioned() || partitions.contains(wrapper.set(entry.file().partition())))) {
+            throw new ValidationException("Cannot commit, found new delete file for replaced data: %s",
+                entry.file().path());
+          }
+        }
+
+      } catch (IOException e) {
+        throw new UncheckedIOException("Failed to validate no new delete files", e);
+      }
+    }
+  }
+
   @Override
   protected Map<String, String> summary() {
     summaryBuilder.setPartitionSummaryLimit(ops.current().propertyAsInt(
@@ -0,0 +1,340 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iceberg;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import org.apache.iceberg.exceptions.RuntimeIOException;
+import org.apache.iceberg.expressions.Expression;
+import org.apache.iceberg.expressions.StrictMetricsEvaluator;
+import org.apache.iceberg.io.CloseableIterable;
+import org.apache.iceberg.relocated.com.google.common.base.Preconditions;
+import org.apache.iceberg.relocated.com.google.common.collect.ImmutableList;
+import org.apache.iceberg.relocated.com.google.common.collect.ImmutableSet;
+import org.apache.iceberg.relocated.com.google.common.collect.Lists;
+import org.apache.iceberg.types.Comparators;
+import org.apache.iceberg.types.Conversions;
+import org.apache.iceberg.types.Type;
+import org.apache.iceberg.types.Types;
+
+/**
+ * Answers COUNT, MIN, and MAX aggregates of a {@link TableScan} from the metadata of the files it plans.
+ * <p>
+ * A file is answered from metadata when all of its rows match the scan's filter, because its residual is always true
+ * or its metrics prove it, when it has no delete files, and when its metrics hold the value of every aggregate. MIN
+ * and MAX are only answered for types whose bounds are exact: bounds of strings and binary may be truncated, and
+ * floating point bounds do not track NaN.
+ * <p>
+ * Files that cannot be answered are returned by {@link Result#remainingTasks()} so that an engine can scan only those
+ * files and {@link Result#merge(int, Object) merge} their partial aggregates into the result.
+ */
+public class MetadataAggregator {
+  private static final Set<Type.TypeID> EXACT_BOUND_TYPES = ImmutableSet.of(
+      Type.TypeID.BOOLEAN, Type.TypeID.INTEGER, Type.TypeID.LONG, Type.TypeID.DATE,
+      Type.TypeID.TIME, Type.TypeID.TIMESTAMP, Type.TypeID.DECIMAL);
+  // ORC only keeps millisecond precision in time and timestamp statistics
+  private static final Set<Type.TypeID> PARQUET_ONLY_BOUND_TYPES = ImmutableSet.of(
+      Type.TypeID.TIME, Type.TypeID.TIMESTAMP);
+
+  private final TableScan scan;
+  private final List<BoundAggregate> aggregates;
+
+  /**
+   * @param scan a data table scan, with its snapshot and filter already configured
+   * @param aggregates the aggregates to evaluate
+   * @throws IllegalArgumentException if an aggregate references a column that is not a top-level primitive column
+   */
+  public MetadataAggregator(TableScan scan, List<Aggregate> aggregates) {
+    Preconditions.checkArgument(!aggregates.isEmpty(), "Cannot aggregate: no aggregates");
+    this.scan = scan;
+
+    Schema schema = scan.table().schema();
+    ImmutableList.Builder<BoundAggregate> bound = ImmutableList.builder();
+    for (Aggregate aggregate : aggregates) {
+      bound.add(new BoundAggregate(aggregate, schema));
+    }
+
+    this.aggregates = bound.build();
+  }
+
+  /**
+   * Returns whether MIN and MAX of a type can be answered from the bounds of some files.
+   */
+  public static boolean supportsBounds(Type type) {
+    return EXACT_BOUND_TYPES.contains(type.typeId());
+  }
+
+  /**
+   * Plans the scan and aggregates the metadata of every file that can be answered without reading it.
+   *
+   * @return a {@link Result} with the aggregated values and the tasks that must still be scanned
+   */
+  public Result aggregate() {
+    Expression filter = scan.filter();
+    StrictMetricsEvaluator allRowsMatch = scan.isCaseSensitive() ? new StrictMetricsEvaluator(
+        scan.table().schema(), filter) : null;
+
+    Result result = new Result(aggregates);
+    try (CloseableIterable<FileScanTask> tasks = scan.includeColumnStats().planFiles()) {
+      for (FileScanTask task : tasks) {
+        boolean filtered = task.residual().op() != Expression.Operation.TRUE &&
+            (allRowsMatch == null || !allRowsMatch.eval(task.file()));
+        if (filtered || !task.deletes().isEmpty() || !canAnswer(task.file())) {
+          result.remainingTasks.add(task);
+        } else {
+          for (int index = 0; index < aggregates.size(); index += 1) {
+            result.merge(index, aggregates.get(index).eval(task.file()));
+          }
+
+          result.answeredFiles += 1;
+        }
+      }
+
+    } catch (IOException e) {
+      throw new RuntimeIOException(e, "Failed to close scan: %s", scan);
+    }
+
+    return result;
+  }
+
+  private boolean canAnswer(DataFile file) {
+    for (BoundAggregate aggregate : aggregates) {
+      if (!aggregate.canAnswer(file)) {
+        return false;
+      }
+    }
+
+    return true;
+  }
+
+  /**
+   * An aggregate function over a top-level column of a table.
+   */
+  public static class Aggregate {
+    public enum Operation {
+      COUNT_STAR,
+      COUNT,
+      MIN,
+      MAX
+    }
+
+    private final Operation op;
+    private final String column;
+
+    private Aggregate(Operation op, String column) {
+      this.op = op;
+      this.column = column;
+    }
+
+    public static Aggregate countStar() {
+      return new Aggregate(Operation.COUNT_STAR, null);
+    }
+
+    public static Aggregate count(String column) {
+      return new Aggregate(Operation.COUNT, column);
+    }
+
+    public static Aggregate min(String column) {
+      return new Aggregate(Operation.MIN, column);
+    }
+
+    public static Aggregate max(String column) {
+      return new Aggregate(Operation.MAX, column);
+    }
+
+    public Operation op() {
+      return op;
+    }
+
+    public String column() {
+      return column;
+    }
+
+    @Override
+    public String toString() {
+      return op == Operation.COUNT_STAR ? "count(*)" : String.format("%s(%s)", op.name().toLowerCase(Locale.ROOT),
+          column);
+    }
+  }
+
+  /**
+   * The aggregated values of the files answered from metadata and the tasks that were not.
+   * <p>
+   * COUNT values are longs and MIN and MAX values use the internal representation of the column's type. MIN and MAX
+   * are null when no answered file has a non-null value.
+   */
+  public static class Result {
+    private final List<BoundAggregate> aggregates;
+    private final Object[] values;
+    private final List<FileScanTask> remainingTasks = Lists.newArrayList();
+    private int answeredFiles = 0;
+
+    private Result(List<BoundAggregate> aggregates) {
+      this.aggregates = aggregates;
+      this.values = new Object[aggregates.size()];
+      for (int index = 0; index < aggregates.size(); index += 1) {
+        if (aggregates.get(index).isCount()) {
+          values[index] = 0L;
+        }
+      }
+    }
+
+    /**
+     * Returns whether all files were answered from metadata, in which case the values are the final result.
+     */
+    public boolean isComplete() {
+      return remainingTasks.isEmpty();
+    }
+
+    public Object value(int index) {
+      return values[index];
+    }
+
+    public int answeredFiles() {
+      return answeredFiles;
+    }
+
+    /**
+     * Returns the tasks for the files that must be scanned to complete the aggregates.
+     */
+    public List<FileScanTask> remainingTasks() {
+      return remainingTasks;
+    }
+
+    /**
+     * Merges a partial value of an aggregate, computed from some of the remaining tasks, into the result.
+     *
+     * @param index the index of the aggregate
+     * @param partialValue a partial value, or null for a MIN or MAX over no values
+     */
+    public void merge(int index, Object partialValue) {
+      values[index] = aggregates.get(index).merge(values[index], partialValue);
+    }
+  }
+
+  private static class BoundAggregate {
+    private final Aggregate.Operation op;
+    private final Types.NestedField field;
+    private final Comparator<Object> comparator;
+
+    private BoundAggregate(Aggregate aggregate, Schema schema) {
+      this.op = aggregate.op();
+      if (op == Aggregate.Operation.COUNT_STAR) {
+        this.field = null;
+        this.comparator = null;
+      } else {
+        Types.NestedField column = schema.asStruct().field(aggregate.column());
+        Preconditions.checkArgument(column != null && column.type().isPrimitiveType(),
+            "Cannot aggregate %s: not a top-level primitive column", aggregate);
+        this.field = column;
+        this.comparator = Comparators.forType(column.type().asPrimitiveType());
+      }
+    }
+
+    private boolean isCount() {
+      return op == Aggregate.Operation.COUNT_STAR || op == Aggregate.Operation.COUNT;
+    }
+
+    private boolean canAnswer(DataFile file) {
+      switch (op) {
+        case COUNT_STAR:
+          return true;
+        case COUNT:
+          return field.isRequired() || nullCount(file) != null;
+        case MIN:
+          return canAnswerBound(file, file.lowerBounds());
+        case MAX:
+          return canAnswerBound(file, file.upperBounds());
+        default:
+          throw new UnsupportedOperationException("Unknown aggregate operation: " + op);
+      }
+    }
+
+    private boolean canAnswerBound(DataFile file, Map<Integer, ByteBuffer> bounds) {
+      if (!supportsBounds(field.type())) {
+        return false;
+      }
+
+      if (allNull(file)) {
+        return true;
+      }
+
+      if (PARQUET_ONLY_BOUND_TYPES.contains(field.type().typeId()) && file.format() != FileFormat.PARQUET) {
+        return false;
+      }
+
+      return bounds != null && bounds.get(field.fieldId()) != null;
+    }
+
+    private Object eval(DataFile file) {
+      switch (op) {
+        case COUNT_STAR:
+          return file.recordCount();
+        case COUNT:
+          return field.isRequired() ? file.recordCount() : file.recordCount() - nullCount(file);
+        case MIN:
+          return allNull(file) ? null : fromBound(file.lowerBounds());
+        case MAX:
+          return allNull(file) ? null : fromBound(file.upperBounds());
+        default:
+          throw new UnsupportedOperationException("Unknown aggregate operation: " + op);
+      }
+    }
+
+    private Object fromBound(Map<Integer, ByteBuffer> bounds) {
+      return Conversions.fromByteBuffer(field.type(), bounds.get(field.fieldId()));
+    }
+
+    private Object merge(Object current, Object partial) {
+      if (isCount()) {
+        return ((Number) current).longValue() + ((Number) partial).longValue();
+      } else if (current == null) {
+        return partial;
+      } else if (partial == null) {
+        return current;
+      }
+
+      int cmp = comparator.compare(partial, current);
+      if (op == Aggregate.Operation.MIN) {
+        return cmp < 0 ? partial : current;
+      } else {
+        return cmp > 0 ? partial : current;
+      }
+    }
+
+    private boolean allNull(DataFile file) {
+      if (field.isRequired()) {
+        return file.recordCount() == 0;
+      }
+
+      Long nullCount = nullCount(file);
+      return nullCount != null && nullCount == file.recordCount();
+    }
+
+    private Long nullCount(DataFile file) {
+      return file.nullValueCounts() != null ? file.nullValueCounts().get(field.fieldId()) : null;
+    }
+  }
+}
@@ -63,6 +63,11 @@ public class TableProperties {
   public static final String PARQUET_COMPRESSION_LEVEL = "write.parquet.compression-level";
   public static final String PARQUET_COMPRESSION_LEVEL_DEFAULT = null;
 
+  public static final String PARQUET_BLOOM_FILTER_COLUMN_ENABLED_PREFIX = "write.parquet.bloom-filter-enabled.column.";
+
+  public static final String PARQUET_BLOOM_FILTER_MAX_BYTES = "write.parquet.bloom-filter-max-bytes";
+  public static final int PARQUET_BLOOM_FILTER_MAX_BYTES_DEFAULT = 1024 * 1024;
+
   public static final String AVRO_COMPRESSION = "write.avro.compression-codec";
   public static final String AVRO_COMPRESSION_DEFAULT = "gzip";
 
@@ -78,12 +83,22 @@ public class TableProperties {
   public static final String SPLIT_OPEN_FILE_COST = "read.split.open-file-cost";
   public static final long SPLIT_OPEN_FILE_COST_DEFAULT = 4 * 1024 * 1024; // 4MB
 
+  public static final String SPLIT_COST_BASED_PLANNING_ENABLED = "read.split.cost-based-planning.enabled";
+  public static final boolean SPLIT_COST_BASED_PLANNING_ENABLED_DEFAULT = false;
+
+  public static final String SPLIT_PARTITION_ALIGNED = "read.split.partition-aligned";
+  public static final boolean SPLIT_PARTITION_ALIGNED_DEFAULT = false;
+
   public static final String PARQUET_VECTORIZATION_ENABLED = "read.parquet.vectorization.enabled";
   public static final boolean PARQUET_VECTORIZATION_ENABLED_DEFAULT = false;
 
   public static final String PARQUET_BATCH_SIZE = "read.parquet.vectorization.batch-size";
   public static final int PARQUET_BATCH_SIZE_DEFAULT = 5000;
 
+  public static final String SPARK_DISTRIBUTED_PLANNING_MANIFEST_THRESHOLD =
+      "read.spark.distributed-planning.manifest-threshold";
+  public static final int SPARK_DISTRIBUTED_PLANNING_MANIFEST_THRESHOLD_DEFAULT = Integer.MAX_VALUE;
+
   public static final String OBJECT_STORE_ENABLED = "write.object-storage.enabled";
   public static final boolean OBJECT_STORE_ENABLED_DEFAULT = false;
 
@@ -132,6 +147,11 @@ public class TableProperties {
   public static final String SPARK_WRITE_PARTITIONED_FANOUT_ENABLED = "write.spark.fanout.enabled";
   public static final boolean SPARK_WRITE_PARTITIONED_FANOUT_ENABLED_DEFAULT = false;
 
+  public static final String DELTA_KEY_INDEX_MEMORY_BYTES = "write.delta.key-index.max-memory-bytes";
+  public static final long DELTA_KEY_INDEX_MEMORY_BYTES_DEFAULT = 64L * 1024 * 1024; // 64 MB
+
+  public static final String DELTA_SPILL_DIR = "write.delta.spill-dir";
+
   public static final String SNAPSHOT_ID_INHERITANCE_ENABLED = "compatibility.snapshot-id-inheritance.enabled";
   public static final boolean SNAPSHOT_ID_INHERITANCE_ENABLED_DEFAULT = false;
 
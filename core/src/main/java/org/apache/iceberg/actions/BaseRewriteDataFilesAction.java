@@ -20,15 +20,22 @@
 package org.apache.iceberg.actions;
 
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 import org.apache.iceberg.CombinedScanTask;
 import org.apache.iceberg.DataFile;
 import org.apache.iceberg.FileScanTask;
 import org.apache.iceberg.PartitionSpec;
 import org.apache.iceberg.RewriteFiles;
+import org.apache.iceberg.SortOrder;
 import org.apache.iceberg.Table;
 import org.apache.iceberg.TableProperties;
 import org.apache.iceberg.encryption.EncryptionManager;
@@ -38,14 +45,16 @@ import org.apache.iceberg.io.CloseableIterable;
 import org.apache.iceberg.io.CloseableIterator;
 import org.apache.iceberg.io.FileIO;
 import org.apache.iceberg.relocated.com.google.common.base.Preconditions;
+import org.apache.iceberg.relocated.com.google.common.collect.ImmutableList;
 import org.apache.iceberg.relocated.com.google.common.collect.Iterables;
 import org.apache.iceberg.relocated.com.google.common.collect.ListMultimap;
 import org.apache.iceberg.relocated.com.google.common.collect.Lists;
 import org.apache.iceberg.relocated.com.google.common.collect.Maps;
 import org.apache.iceberg.relocated.com.google.common.collect.Multimaps;
 import org.apache.iceberg.relocated.com.google.common.collect.Sets;
-import org.apache.iceberg.relocated.com.google.common.collect.Streams;
+import org.apache.iceberg.relocated.com.google.common.util.concurrent.ThreadFactoryBuilder;
 import org.apache.iceberg.util.PropertyUtil;
+import org.apache.iceberg.util.SortKeyEncoder;
 import org.apache.iceberg.util.StructLikeWrapper;
 import org.apache.iceberg.util.TableScanUtil;
 import org.apache.iceberg.util.Tasks;
@@ -66,6 +75,10 @@ public abstract class BaseRewriteDataFilesAction<ThisT>
   private long targetSizeInBytes;
   private int splitLookback;
   private long splitOpenFileCost;
+  private SortKeyEncoder sortKey = null;
+  private int maxConcurrentFileGroupRewrites = 1;
+  private boolean partialProgressEnabled = false;
+  private int partialProgressMaxCommits = 10;
 
   protected BaseRewriteDataFilesAction(Table table) {
     this.table = table;
@@ -190,6 +203,101 @@ public abstract class BaseRewriteDataFilesAction<ThisT>
     return this;
   }
 
+  /**
+   * Sort rewritten data by the table's sort order.
+   *
+   * @return this for method chaining
+   * @see #sort(SortOrder)
+   */
+  public BaseRewriteDataFilesAction<ThisT> sort() {
+    return sort(table.sortOrder());
+  }
+
+  /**
+   * Sort rewritten data by a sort order.
+   * <p>
+   * All files of a partition are rewritten together and sorted, and the output is split into files of the target size.
+   * The output files have non-overlapping ranges of the first sort column, so filters on it can skip more files.
+   * Partitions with a single file are also rewritten.
+   *
+   * @param sortOrder a sort order for rewritten data
+   * @return this for method chaining
+   * @throws IllegalArgumentException if this engine does not support sorted rewrites
+   */
+  public BaseRewriteDataFilesAction<ThisT> sort(SortOrder sortOrder) {
+    Preconditions.checkArgument(supportsSortedRewrites(),
+        "Cannot sort rewritten data: sorted rewrites are not supported by %s", getClass().getName());
+    Preconditions.checkArgument(!sortOrder.isUnsorted(), "Cannot sort rewritten data by an unsorted order");
+    this.sortKey = SortKeyEncoder.forSortOrder(sortOrder);
+    return this;
+  }
+
+  /**
+   * Sort rewritten data by a z-order curve of several columns.
+   * <p>
+   * Like {@link #sort(SortOrder)}, all files of a partition are rewritten together. Data is clustered by all of the
+   * columns instead of mostly by the first one, so filters on any of the columns can skip files.
+   *
+   * @param columns names of the columns to cluster data by
+   * @return this for method chaining
+   * @throws IllegalArgumentException if this engine does not support sorted rewrites
+   */
+  public BaseRewriteDataFilesAction<ThisT> zOrder(String... columns) {
+    Preconditions.checkArgument(supportsSortedRewrites(),
+        "Cannot z-order rewritten data: sorted rewrites are not supported by %s", getClass().getName());
+    this.sortKey = SortKeyEncoder.forZOrder(table.schema(), Arrays.asList(columns));
+    return this;
+  }
+
+  /**
+   * Specify the maximum number of file groups to rewrite at the same time.
+   * <p>
+   * A file group is the set of files rewritten together in one partition. By default, all groups are rewritten at once
+   * and committed together. Rewriting groups separately and concurrently keeps the engine busy when partitions have
+   * few files, but the engine must support running several rewrites at the same time.
+   *
+   * @param maxConcurrency maximum number of file groups to rewrite at the same time
+   * @return this for method chaining
+   */
+  public BaseRewriteDataFilesAction<ThisT> maxConcurrentFileGroupRewrites(int maxConcurrency) {
+    Preconditions.checkArgument(maxConcurrency > 0, "Invalid max concurrent file group rewrites %s", maxConcurrency);
+    this.maxConcurrentFileGroupRewrites = maxConcurrency;
+    return this;
+  }
+
+  /**
+   * Enable committing file groups in batches as they are rewritten.
+   * <p>
+   * When enabled, file groups are rewritten separately and a failed rewrite or commit only loses the work of its own
+   * groups. Smaller commits are also less likely to conflict with concurrent writes. Each commit validates that no
+   * delete files were added to its partitions since the rewrite started.
+   * <p>
+   * Failed groups are reported by {@link RewriteDataFilesActionResult#failedFileGroupsCount()}; the action only
+   * throws if no group was committed.
+   *
+   * @param enabled whether to commit rewritten file groups in batches
+   * @return this for method chaining
+   * @see #partialProgressMaxCommits(int)
+   */
+  public BaseRewriteDataFilesAction<ThisT> partialProgress(boolean enabled) {
+    this.partialProgressEnabled = enabled;
+    return this;
+  }
+
+  /**
+   * Specify the maximum number of commits when partial progress is enabled, the default is 10.
+   * <p>
+   * File groups are split evenly between commits, so each commit contains the next groups to finish.
+   *
+   * @param maxCommits maximum number of commits
+   * @return this for method chaining
+   */
+  public BaseRewriteDataFilesAction<ThisT> partialProgressMaxCommits(int maxCommits) {
+    Preconditions.checkArgument(maxCommits > 0, "Invalid partial progress max commits %s", maxCommits);
+    this.partialProgressMaxCommits = maxCommits;
+    return this;
+  }
+
   @Override
   public RewriteDataFilesActionResult execute() {
     CloseableIterable<FileScanTask> fileScanTasks = null;
@@ -211,37 +319,150 @@ public abstract class BaseRewriteDataFilesAction<ThisT>
 
     Map<StructLikeWrapper, Collection<FileScanTask>> groupedTasks = groupTasksByPartition(fileScanTasks.iterator());
     Map<StructLikeWrapper, Collection<FileScanTask>> filteredGroupedTasks = groupedTasks.entrySet().stream()
-        .filter(kv -> kv.getValue().size() > 1)
+        .filter(kv -> sortKey != null || kv.getValue().size() > 1)
         .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
 
-    // Nothing to rewrite if there's only one DataFile in each partition.
+    // Nothing to rewrite if there's only one DataFile in each partition, unless single files need to be sorted.
     if (filteredGroupedTasks.isEmpty()) {
       return RewriteDataFilesActionResult.empty();
     }
-    // Split and combine tasks under each partition
-    List<CombinedScanTask> combinedScanTasks = filteredGroupedTasks.values().stream()
-        .map(scanTasks -> {
-          CloseableIterable<FileScanTask> splitTasks = TableScanUtil.splitFiles(
-              CloseableIterable.withNoopClose(scanTasks), targetSizeInBytes);
-          return TableScanUtil.planTasks(splitTasks, targetSizeInBytes, splitLookback, splitOpenFileCost);
-        })
-        .flatMap(Streams::stream)
-        .filter(task -> task.files().size() > 1 || isPartialFileScan(task))
+
+    List<FileGroup> fileGroups = filteredGroupedTasks.values().stream()
+        .map(this::planFileGroup)
+        .filter(group -> !group.taskGroups.isEmpty())
         .collect(Collectors.toList());
 
-    if (combinedScanTasks.isEmpty()) {
+    if (fileGroups.isEmpty()) {
       return RewriteDataFilesActionResult.empty();
     }
 
-    List<DataFile> addedDataFiles = rewriteDataForTasks(combinedScanTasks);
-    List<DataFile> currentDataFiles = combinedScanTasks.stream()
-        .flatMap(tasks -> tasks.files().stream().map(FileScanTask::file))
+    long startingSnapshotId = table.currentSnapshot().snapshotId();
+    if (maxConcurrentFileGroupRewrites == 1 && !partialProgressEnabled) {
+      // rewrite all partitions at once and commit a single snapshot
+      FileGroup allFiles = rewrite(FileGroup.combine(fileGroups));
+      replaceDataFiles(allFiles.rewrittenFiles, allFiles.addedFiles, startingSnapshotId);
+      return toResult(ImmutableList.of(allFiles));
+    }
+
+    return rewriteFileGroups(fileGroups, startingSnapshotId);
+  }
+
+  private FileGroup planFileGroup(Collection<FileScanTask> scanTasks) {
+    CloseableIterable<FileScanTask> splitTasks = TableScanUtil.splitFiles(
+        CloseableIterable.withNoopClose(scanTasks), targetSizeInBytes);
+    List<CombinedScanTask> tasks = Lists.newArrayList(
+        TableScanUtil.planTasks(splitTasks, targetSizeInBytes, splitLookback, splitOpenFileCost));
+
+    // a sorted rewrite replaces every file in the partition, even if a task reads one whole file
+    if (sortKey == null) {
+      // bin-packing only rewrites tasks that combine files or read part of a file
+      tasks.removeIf(task -> task.files().size() <= 1 && !isPartialFileScan(task));
+      if (tasks.isEmpty()) {
+        return new FileGroup(ImmutableList.of(), ImmutableList.of(), ImmutableList.of());
+      }
+    }
+
+    DataFile first = tasks.get(0).files().iterator().next().file();
+    String partition = table.specs().get(first.specId()).partitionToPath(first.partition());
+    List<DataFile> rewrittenFiles = tasks.stream()
+        .flatMap(task -> task.files().stream().map(FileScanTask::file))
+        .distinct()
         .collect(Collectors.toList());
-    replaceDataFiles(currentDataFiles, addedDataFiles);
 
-    return new RewriteDataFilesActionResult(currentDataFiles, addedDataFiles);
+    return new FileGroup(ImmutableList.of(partition), ImmutableList.of(tasks), rewrittenFiles);
+  }
+
+  private FileGroup rewrite(FileGroup group) {
+    long start = System.currentTimeMillis();
+
+    List<DataFile> addedFiles;
+    if (sortKey != null) {
+      // every partition is sorted as a whole, but its files are still read in parallel by several tasks
+      addedFiles = rewriteSortedDataForTasks(group.taskGroups, sortKey, targetSizeInBytes);
+    } else {
+      addedFiles = rewriteDataForTasks(group.taskGroups.stream()
+          .flatMap(List::stream)
+          .collect(Collectors.toList()));
+    }
+
+    group.rewritten(addedFiles, System.currentTimeMillis() - start);
+    LOG.info("Rewrote file group {}", group.result());
+
+    return group;
   }
 
+  private RewriteDataFilesActionResult rewriteFileGroups(List<FileGroup> fileGroups, long startingSnapshotId) {
+    Queue<Exception> failures = new ConcurrentLinkedQueue<>();
+    AtomicInteger failedGroups = new AtomicInteger(0);
+    int groupsPerCommit = (fileGroups.size() + partialProgressMaxCommits - 1) / partialProgressMaxCommits;
+    FileGroupCommitter committer =
+        new FileGroupCommitter(startingSnapshotId, groupsPerCommit, failures, failedGroups);
+
+    ExecutorService rewritePool = Executors.newFixedThreadPool(maxConcurrentFileGroupRewrites,
+        new ThreadFactoryBuilder()
+            .setDaemon(true)
+            .setNameFormat("rewrite-data-files-%d")
+            .build());
+
+    try {
+      if (partialProgressEnabled) {
+        // groups are committed in batches as they finish, so a failed group only loses its own work
+        Tasks.foreach(fileGroups)
+            .executeWith(rewritePool)
+            .noRetry()
+            .suppressFailureWhenFinished()
+            .onFailure((group, exc) -> {
+              LOG.warn("Failed to rewrite file group for partitions {}", group.partitions, exc);
+              failures.add(exc);
+              failedGroups.incrementAndGet();
+            })
+            .run(group -> committer.add(rewrite(group)));
+        committer.commitPending();
+
+      } else {
+        Tasks.foreach(fileGroups)
+            .executeWith(rewritePool)
+            .noRetry()
+            .stopOnFailure()
+            .revertWith(group -> deleteFiles(group.addedFiles))
+            .run(this::rewrite);
+        committer.commit(fileGroups);
+      }
+
+    } finally {
+      rewritePool.shutdown();
+    }
+
+    List<FileGroup> committedGroups = committer.committedGroups();
+    if (committedGroups.isEmpty() && !failures.isEmpty()) {
+      throw new RuntimeException("Failed to rewrite and commit any file group", failures.peek());
+    }
+
+    if (failedGroups.get() > 0) {
+      LOG.warn("Failed to rewrite or commit {} of {} file groups", failedGroups.get(), fileGroups.size());
+    }
+
+    return toResult(committedGroups, failedGroups.get(), ImmutableList.copyOf(failures));
+  }
+
+  private RewriteDataFilesActionResult toResult(List<FileGroup> committedGroups) {
+    return toResult(committedGroups, 0, ImmutableList.of());
+  }
+
+  private RewriteDataFilesActionResult toResult(List<FileGroup> committedGroups, int failedGroupCount,
+                                                List<Exception> failures) {
+    List<DataFile> rewrittenFiles = committedGroups.stream()
+        .flatMap(group -> group.rewrittenFiles.stream())
+        .collect(Collectors.toList());
+    List<DataFile> addedFiles = committedGroups.stream()
+        .flatMap(group -> group.addedFiles.stream())
+        .collect(Collectors.toList());
+    List<FileGroupRewriteResult> groupResults = committedGroups.stream()
+        .map(FileGroup::result)
+        .collect(Collectors.toList());
+
+    return new RewriteDataFilesActionResult(rewrittenFiles, addedFiles, groupResults, failedGroupCount, failures);
+  }
 
   private Map<StructLikeWrapper, Collection<FileScanTask>> groupTasksByPartition(
       CloseableIterator<FileScanTask> tasksIter) {
@@ -258,21 +479,114 @@ public abstract class BaseRewriteDataFilesAction<ThisT>
     return tasksGroupedByPartition.asMap();
   }
 
-  private void replaceDataFiles(Iterable<DataFile> deletedDataFiles, Iterable<DataFile> addedDataFiles) {
+  private void replaceDataFiles(Iterable<DataFile> deletedDataFiles, Iterable<DataFile> addedDataFiles,
+                                long startingSnapshotId) {
     try {
-      RewriteFiles rewriteFiles = table.newRewrite();
+      RewriteFiles rewriteFiles = table.newRewrite()
+          .validateFromSnapshot(startingSnapshotId);
       rewriteFiles.rewriteFiles(Sets.newHashSet(deletedDataFiles), Sets.newHashSet(addedDataFiles));
       commit(rewriteFiles);
     } catch (Exception e) {
-      Tasks.foreach(Iterables.transform(addedDataFiles, f -> f.path().toString()))
-          .noRetry()
-          .suppressFailureWhenFinished()
-          .onFailure((location, exc) -> LOG.warn("Failed to delete: {}", location, exc))
-          .run(fileIO::deleteFile);
+      deleteFiles(addedDataFiles);
       throw e;
     }
   }
 
+  private void deleteFiles(Iterable<DataFile> dataFiles) {
+    Tasks.foreach(Iterables.transform(dataFiles, f -> f.path().toString()))
+        .noRetry()
+        .suppressFailureWhenFinished()
+        .onFailure((location, exc) -> LOG.warn("Failed to delete: {}", location, exc))
+        .run(fileIO::deleteFile);
+  }
+
+  private static class FileGroup {
+    private final List<String> partitions;
+    private final List<List<CombinedScanTask>> taskGroups;
+    private final List<DataFile> rewrittenFiles;
+    private List<DataFile> addedFiles = ImmutableList.of();
+    private long durationMillis = 0L;
+
+    private FileGroup(List<String> partitions, List<List<CombinedScanTask>> taskGroups,
+                      List<DataFile> rewrittenFiles) {
+      this.partitions = partitions;
+      this.taskGroups = taskGroups;
+      this.rewrittenFiles = rewrittenFiles;
+    }
+
+    private static FileGroup combine(List<FileGroup> groups) {
+      return new FileGroup(
+          groups.stream().flatMap(group -> group.partitions.stream()).collect(Collectors.toList()),
+          groups.stream().flatMap(group -> group.taskGroups.stream()).collect(Collectors.toList()),
+          groups.stream().flatMap(group -> group.rewrittenFiles.stream()).collect(Collectors.toList()));
+    }
+
+    private void rewritten(List<DataFile> newAddedFiles, long newDurationMillis) {
+      this.addedFiles = newAddedFiles;
+      this.durationMillis = newDurationMillis;
+    }
+
+    private FileGroupRewriteResult result() {
+      return new FileGroupRewriteResult(partitions,
+          rewrittenFiles.size(), rewrittenFiles.stream().mapToLong(DataFile::fileSizeInBytes).sum(),
+          addedFiles.size(), addedFiles.stream().mapToLong(DataFile::fileSizeInBytes).sum(),
+          durationMillis);
+    }
+  }
+
+  private class FileGroupCommitter {
+    private final long startingSnapshotId;
+    private final int groupsPerCommit;
+    private final Queue<Exception> failures;
+    private final AtomicInteger failedGroups;
+    private final List<FileGroup> pending = Lists.newArrayList();
+    private final List<FileGroup> committed = Lists.newArrayList();
+
+    private FileGroupCommitter(long startingSnapshotId, int groupsPerCommit, Queue<Exception> failures,
+                               AtomicInteger failedGroups) {
+      this.startingSnapshotId = startingSnapshotId;
+      this.groupsPerCommit = groupsPerCommit;
+      this.failures = failures;
+      this.failedGroups = failedGroups;
+    }
+
+    private synchronized void add(FileGroup group) {
+      pending.add(group);
+      if (pending.size() >= groupsPerCommit) {
+        commitPending();
+      }
+    }
+
+    private synchronized void commitPending() {
+      if (pending.isEmpty()) {
+        return;
+      }
+
+      List<FileGroup> batch = Lists.newArrayList(pending);
+      pending.clear();
+      try {
+        commit(batch);
+      } catch (RuntimeException e) {
+        for (FileGroup group : batch) {
+          LOG.warn("Failed to commit file group for partitions {}", group.partitions, e);
+        }
+        failures.add(e);
+        failedGroups.addAndGet(batch.size());
+      }
+    }
+
+    private synchronized void commit(List<FileGroup> batch) {
+      FileGroup combined = FileGroup.combine(batch);
+      replaceDataFiles(combined.rewrittenFiles, combined.addedFiles, startingSnapshotId);
+      committed.addAll(batch);
+      LOG.info("Committed {} file groups replacing {} files", batch.size(), combined.rewrittenFiles.size());
+    }
+
+    private synchronized List<FileGroup> committedGroups() {
+      return ImmutableList.copyOf(committed);
+    }
+  }
+
   private boolean isPartialFileScan(CombinedScanTask task) {
     if (task.files().size() == 1) {
       FileScanTask fileScanTask = task.files().iterator().next();
@@ -285,4 +599,29 @@ public abstract class BaseRewriteDataFilesAction<ThisT>
   protected abstract FileIO fileIO();
 
   protected abstract List<DataFile> rewriteDataForTasks(List<CombinedScanTask> combinedScanTask);
+
+  /**
+   * Returns whether this engine implements {@link #rewriteSortedDataForTasks(List, SortKeyEncoder, long)}.
+   *
+   * @return true if rewritten data can be sorted
+   */
+  protected boolean supportsSortedRewrites() {
+    return false;
+  }
+
+  /**
+   * Rewrites groups of tasks into files sorted by a key. All rows of a group are sorted together, so the files written
+   * for a group have non-overlapping key ranges.
+   * <p>
+   * This is only called if {@link #supportsSortedRewrites()} returns true.
+   *
+   * @param taskGroups groups of tasks to rewrite together
+   * @param sortKey an encoder for the keys to sort rows by, compared as unsigned bytes
+   * @param targetFileSize the target size of written files
+   * @return the written data files
+   */
+  protected List<DataFile> rewriteSortedDataForTasks(List<List<CombinedScanTask>> taskGroups,
+                                                     SortKeyEncoder sortKey, long targetFileSize) {
+    throw new UnsupportedOperationException("Sorted rewrites are not supported by " + getClass().getName());
+  }
 }
@@ -0,0 +1,101 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iceberg.actions;
+
+import java.util.List;
+import org.apache.iceberg.relocated.com.google.common.base.MoreObjects;
+
+/**
+ * Summary of a group of data files that were rewritten and committed together.
+ */
+public class FileGroupRewriteResult {
+  private final List<String> partitions;
+  private final int rewrittenFilesCount;
+  private final long rewrittenBytes;
+  private final int addedFilesCount;
+  private final long addedBytes;
+  private final long durationMillis;
+
+  FileGroupRewriteResult(List<String> partitions, int rewrittenFilesCount, long rewrittenBytes,
+                         int addedFilesCount, long addedBytes, long durationMillis) {
+    this.partitions = partitions;
+    this.rewrittenFilesCount = rewrittenFilesCount;
+    this.rewrittenBytes = rewrittenBytes;
+    this.addedFilesCount = addedFilesCount;
+    this.addedBytes = addedBytes;
+    this.durationMillis = durationMillis;
+  }
+
+  /**
+   * @return paths of the partitions rewritten in this group
+   */
+  public List<String> partitions() {
+    return partitions;
+  }
+
+  public int rewrittenFilesCount() {
+    return rewrittenFilesCount;
+  }
+
+  public long rewrittenBytes() {
+    return rewrittenBytes;
+  }
+
+  public int addedFilesCount() {
+    return addedFilesCount;
+  }
+
+  public long addedBytes() {
+    return addedBytes;
+  }
+
+  /**
+   * @return time spent rewriting this group in milliseconds, not including the commit
+   */
+  public long durationMillis() {
+    return durationMillis;
+  }
+
+  /**
+   * @return the difference between rewritten and added bytes, which is negative if the new files are larger
+   */
+  public long bytesSaved() {
+    return rewrittenBytes - addedBytes;
+  }
+
+  /**
+   * @return the number of rewritten bytes processed per second
+   */
+  public double bytesPerSecond() {
+    return durationMillis > 0 ? rewrittenBytes * 1000.0 / durationMillis : 0.0;
+  }
+
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper(this)
+        .add("partitions", partitions)
+        .add("rewrittenFilesCount", rewrittenFilesCount)
+        .add("rewrittenBytes", rewrittenBytes)
+        .add("addedFilesCount", addedFilesCount)
+        .add("addedBytes", addedBytes)
+        .add("durationMillis", durationMillis)
+        .toString();
+  }
+}
@@ -30,10 +30,27 @@ public class RewriteDataFilesActionResult {
 
   private List<DataFile> deletedDataFiles;
   private List<DataFile> addedDataFiles;
+  private List<FileGroupRewriteResult> fileGroupResults;
+  private int failedFileGroupsCount;
+  private List<Exception> fileGroupFailures;
 
   public RewriteDataFilesActionResult(List<DataFile> deletedDataFiles, List<DataFile> addedDataFiles) {
+    this(deletedDataFiles, addedDataFiles, ImmutableList.of());
+  }
+
+  public RewriteDataFilesActionResult(List<DataFile> deletedDataFiles, List<DataFile> addedDataFiles,
+                                      List<FileGroupRewriteResult> fileGroupResults) {
+    this(deletedDataFiles, addedDataFiles, fileGroupResults, 0, ImmutableList.of());
+  }
+
+  public RewriteDataFilesActionResult(List<DataFile> deletedDataFiles, List<DataFile> addedDataFiles,
+                                      List<FileGroupRewriteResult> fileGroupResults,
+                                      int failedFileGroupsCount, List<Exception> fileGroupFailures) {
     this.deletedDataFiles = deletedDataFiles;
     this.addedDataFiles = addedDataFiles;
+    this.fileGroupResults = fileGroupResults;
+    this.failedFileGroupsCount = failedFileGroupsCount;
+    this.fileGroupFailures = fileGroupFailures;
   }
 
   static RewriteDataFilesActionResult empty() {
@@ -47,4 +64,26 @@ public class RewriteDataFilesActionResult {
   public List<DataFile> addedDataFiles() {
     return addedDataFiles;
   }
+
+  /**
+   * @return results of the committed file groups
+   */
+  public List<FileGroupRewriteResult> fileGroupResults() {
+    return fileGroupResults;
+  }
+
+  /**
+   * @return the number of file groups that failed to rewrite or commit when partial progress is enabled
+   */
+  public int failedFileGroupsCount() {
+    return failedFileGroupsCount;
+  }
+
+  /**
+   * @return the exceptions for file groups that failed to rewrite or commit; a failed commit of several groups is
+   *     reported once
+   */
+  public List<Exception> fileGroupFailures() {
+    return fileGroupFailures;
+  }
 }
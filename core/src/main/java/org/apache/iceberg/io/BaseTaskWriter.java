@@ -20,9 +20,9 @@
 package org.apache.iceberg.io;
 
 import java.io.Closeable;
+import java.io.File;
 import java.io.IOException;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
 import org.apache.iceberg.DataFile;
 import org.apache.iceberg.DeleteFile;
@@ -31,14 +31,13 @@ import org.apache.iceberg.PartitionKey;
 import org.apache.iceberg.PartitionSpec;
 import org.apache.iceberg.Schema;
 import org.apache.iceberg.StructLike;
+import org.apache.iceberg.TableProperties;
 import org.apache.iceberg.deletes.EqualityDeleteWriter;
 import org.apache.iceberg.encryption.EncryptedOutputFile;
-import org.apache.iceberg.relocated.com.google.common.base.MoreObjects;
 import org.apache.iceberg.relocated.com.google.common.base.Preconditions;
 import org.apache.iceberg.relocated.com.google.common.collect.Iterables;
 import org.apache.iceberg.relocated.com.google.common.collect.Lists;
 import org.apache.iceberg.util.CharSequenceSet;
-import org.apache.iceberg.util.StructLikeMap;
 import org.apache.iceberg.util.StructProjection;
 import org.apache.iceberg.util.Tasks;
 
@@ -53,15 +52,35 @@ public abstract class BaseTaskWriter<T> implements TaskWriter<T> {
   private final OutputFileFactory fileFactory;
   private final FileIO io;
   private final long targetFileSize;
+  private final SpillMemoryBudget keyIndexBudget;
+  private final SpillMemoryBudget posDeleteBudget;
 
   protected BaseTaskWriter(PartitionSpec spec, FileFormat format, FileAppenderFactory<T> appenderFactory,
                            OutputFileFactory fileFactory, FileIO io, long targetFileSize) {
+    this(spec, format, appenderFactory, fileFactory, io, targetFileSize,
+        TableProperties.DELTA_KEY_INDEX_MEMORY_BYTES_DEFAULT, null);
+  }
+
+  /**
+   * Creates a task writer with limits for the buffers of its equality delta writers.
+   * <p>
+   * The key indexes of all delta writers share the key index memory limit, and the position delete buffers of all delta
+   * writers share a separate limit, so the memory of this writer does not grow with the number of partitions.
+   *
+   * @param keyIndexMemoryBytes the memory limit of the key indexes of all delta writers
+   * @param spillDirectory a local directory for spilled key indexes and position deletes, or null for java.io.tmpdir
+   */
+  protected BaseTaskWriter(PartitionSpec spec, FileFormat format, FileAppenderFactory<T> appenderFactory,
+                           OutputFileFactory fileFactory, FileIO io, long targetFileSize,
+                           long keyIndexMemoryBytes, File spillDirectory) {
     this.spec = spec;
     this.format = format;
     this.appenderFactory = appenderFactory;
     this.fileFactory = fileFactory;
     this.io = io;
     this.targetFileSize = targetFileSize;
+    this.keyIndexBudget = new SpillMemoryBudget(keyIndexMemoryBytes, spillDirectory);
+    this.posDeleteBudget = new SpillMemoryBudget(SortedPosDeleteWriter.DEFAULT_MAX_MEMORY_BYTES, spillDirectory);
   }
 
   protected PartitionSpec spec() {
@@ -98,8 +117,13 @@ public abstract class BaseTaskWriter<T> implements TaskWriter<T> {
     private RollingFileWriter dataWriter;
     private RollingEqDeleteWriter eqDeleteWriter;
     private SortedPosDeleteWriter<T> posDeleteWriter;
-    private Map<StructLike, PathOffset> insertedRowMap;
+    private KeyPositionIndex insertedRowIndex;
 
+    /**
+     * Creates a delta writer that keeps the positions of inserted rows in a key index. The memory of the key index and
+     * of the buffered position deletes is limited across all delta writers of the task writer; when a limit is
+     * exceeded, the largest buffers are spilled to local disk.
+     */
     protected BaseEqualityDeltaWriter(PartitionKey partition, Schema schema, Schema deleteSchema) {
       Preconditions.checkNotNull(schema, "Iceberg table schema cannot be null.");
       Preconditions.checkNotNull(deleteSchema, "Equality-delete schema cannot be null.");
@@ -107,8 +131,9 @@ public abstract class BaseTaskWriter<T> implements TaskWriter<T> {
 
       this.dataWriter = new RollingFileWriter(partition);
       this.eqDeleteWriter = new RollingEqDeleteWriter(partition);
-      this.posDeleteWriter = new SortedPosDeleteWriter<>(appenderFactory, fileFactory, format, partition);
-      this.insertedRowMap = StructLikeMap.create(deleteSchema.asStruct());
+      this.posDeleteWriter = new SortedPosDeleteWriter<>(appenderFactory, fileFactory, format, partition,
+          posDeleteBudget);
+      this.insertedRowIndex = new KeyPositionIndex(deleteSchema.asStruct(), keyIndexBudget);
     }
 
     /**
@@ -117,16 +142,14 @@ public abstract class BaseTaskWriter<T> implements TaskWriter<T> {
     protected abstract StructLike asStructLike(T data);
 
     public void write(T row) throws IOException {
-      PathOffset pathOffset = PathOffset.of(dataWriter.currentPath(), dataWriter.currentRows());
-
-      // Create a copied key from this row.
-      StructLike copiedKey = StructCopy.copy(structProjection.wrap(asStructLike(row)));
+      // The key is encoded by the index, so it doesn't need to be copied from this row.
+      StructLike key = structProjection.wrap(asStructLike(row));
 
       // Adding a pos-delete to replace the old path-offset.
-      PathOffset previous = insertedRowMap.put(copiedKey, pathOffset);
-      if (previous != null) {
+      long previous = insertedRowIndex.put(key, dataWriter.currentPath(), dataWriter.currentRows());
+      if (previous != KeyPositionIndex.NOT_FOUND) {
         // TODO attach the previous row if has a positional-delete row schema in appender factory.
-        posDeleteWriter.delete(previous.path, previous.rowOffset, null);
+        posDeleteWriter.delete(insertedRowIndex.path(previous), insertedRowIndex.offset(previous), null);
       }
 
       dataWriter.write(row);
@@ -138,14 +161,35 @@ public abstract class BaseTaskWriter<T> implements TaskWriter<T> {
      * @param key has the same columns with the equality fields.
      */
     private void internalPosDelete(StructLike key) {
-      PathOffset previous = insertedRowMap.remove(key);
+      long previous = insertedRowIndex.remove(key);
 
-      if (previous != null) {
+      if (previous != KeyPositionIndex.NOT_FOUND) {
         // TODO attach the previous row if has a positional-delete row schema in appender factory.
-        posDeleteWriter.delete(previous.path, previous.rowOffset, null);
+        posDeleteWriter.delete(insertedRowIndex.path(previous), insertedRowIndex.offset(previous), null);
       }
     }
 
+    /**
+     * Returns the number of keys of inserted rows that are tracked by this writer.
+     */
+    public long keyIndexSize() {
+      return insertedRowIndex != null ? insertedRowIndex.size() : 0L;
+    }
+
+    /**
+     * Returns the number of bytes used by the in-memory part of the key index.
+     */
+    public long keyIndexMemoryBytes() {
+      return insertedRowIndex != null ? insertedRowIndex.memoryBytes() : 0L;
+    }
+
+    /**
+     * Returns the number of bytes of the key index that were spilled to local disk.
+     */
+    public long keyIndexSpilledBytes() {
+      return insertedRowIndex != null ? insertedRowIndex.spilledBytes() : 0L;
+    }
+
     /**
      * Delete those rows whose equality fields has the same values with the given row. It will write the entire row into
      * the equality-delete file.
@@ -184,9 +228,9 @@ public abstract class BaseTaskWriter<T> implements TaskWriter<T> {
         eqDeleteWriter = null;
       }
 
-      if (insertedRowMap != null) {
-        insertedRowMap.clear();
-        insertedRowMap = null;
+      if (insertedRowIndex != null) {
+        insertedRowIndex.close();
+        insertedRowIndex = null;
       }
 
       // Add the completed pos-delete files.
@@ -198,25 +242,78 @@ public abstract class BaseTaskWriter<T> implements TaskWriter<T> {
     }
   }
 
-  private static class PathOffset {
-    private final CharSequence path;
-    private final long rowOffset;
+  /**
+   * Base delta writer to write insert records, and to delete records either by their position in a data file or with
+   * equality-deletes. It's for callers that track the position of each key themselves, so that replaced rows of a key
+   * are deleted by position, also when they were written to a data file that is already committed.
+   */
+  protected class BasePositionDeltaWriter implements Closeable {
+    private RollingFileWriter dataWriter;
+    private RollingEqDeleteWriter eqDeleteWriter;
+    private SortedPosDeleteWriter<T> posDeleteWriter;
 
-    private PathOffset(CharSequence path, long rowOffset) {
-      this.path = path;
-      this.rowOffset = rowOffset;
+    protected BasePositionDeltaWriter(PartitionKey partition) {
+      this.dataWriter = new RollingFileWriter(partition);
+      this.eqDeleteWriter = new RollingEqDeleteWriter(partition);
+      this.posDeleteWriter = new SortedPosDeleteWriter<>(appenderFactory, fileFactory, format, partition,
+          posDeleteBudget);
+    }
+
+    /**
+     * Returns the path of the data file that the next record will be written to.
+     */
+    public CharSequence currentPath() {
+      return dataWriter.currentPath();
     }
 
-    private static PathOffset of(CharSequence path, long rowOffset) {
-      return new PathOffset(path, rowOffset);
+    /**
+     * Returns the position in {@link #currentPath()} that the next record will be written to.
+     */
+    public long currentPosition() {
+      return dataWriter.currentRows();
+    }
+
+    public void write(T row) throws IOException {
+      dataWriter.write(row);
+    }
+
+    /**
+     * Delete the row at the given position of a data file, which has the same partition as this writer.
+     *
+     * @param path the path of the data file.
+     * @param pos the position of the row in the data file.
+     */
+    public void delete(CharSequence path, long pos) {
+      posDeleteWriter.delete(path, pos);
+    }
+
+    /**
+     * Delete those rows whose equality fields has the same values with the given row, for rows whose position is
+     * unknown. It will write the entire row into the equality-delete file.
+     *
+     * @param row the given row to delete.
+     */
+    public void delete(T row) throws IOException {
+      eqDeleteWriter.write(row);
     }
 
     @Override
-    public String toString() {
-      return MoreObjects.toStringHelper(this)
-          .add("path", path)
-          .add("row_offset", rowOffset)
-          .toString();
+    public void close() throws IOException {
+      if (dataWriter != null) {
+        dataWriter.close();
+        dataWriter = null;
+      }
+
+      if (eqDeleteWriter != null) {
+        eqDeleteWriter.close();
+        eqDeleteWriter = null;
+      }
+
+      if (posDeleteWriter != null) {
+        completedDeleteFiles.addAll(posDeleteWriter.complete());
+        referencedDataFiles.addAll(posDeleteWriter.referencedDataFiles());
+        posDeleteWriter = null;
+      }
     }
   }
 
@@ -0,0 +1,1016 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iceberg.io;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import org.apache.iceberg.StructLike;
+import org.apache.iceberg.relocated.com.google.common.annotations.VisibleForTesting;
+import org.apache.iceberg.relocated.com.google.common.base.Preconditions;
+import org.apache.iceberg.relocated.com.google.common.collect.Lists;
+import org.apache.iceberg.relocated.com.google.common.collect.Maps;
+import org.apache.iceberg.types.Conversions;
+import org.apache.iceberg.types.Type;
+import org.apache.iceberg.types.Types;
+import org.apache.iceberg.util.CharSequenceWrapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A memory-bounded index from equality keys to the position of the last row inserted with that key.
+ * <p>
+ * Keys are stored in a compact binary encoding in an open-addressing hash table that is backed by large byte pages,
+ * and positions are stored as a single long that packs a data file id and the row offset in that file. When the
+ * table exceeds the memory limit, its entries are written to a sorted run on local disk. Runs are looked up through an
+ * in-memory bloom filter and a sparse block index, and are merged when there are too many of them, so throughput
+ * degrades gradually as the number of keys grows instead of failing with an out of memory error.
+ * <p>
+ * The memory limit is a {@link SpillMemoryBudget} that can be shared by the indexes of all partitions of a task
+ * writer, in which case the largest index is spilled when their total memory exceeds the limit. The bloom filters and
+ * block indexes of spilled runs stay in memory and are charged to the budget, so an index with many spilled keys
+ * leaves less memory for the hash tables and spills more often.
+ */
+class KeyPositionIndex implements Closeable, SpillMemoryBudget.Spillable {
+  private static final Logger LOG = LoggerFactory.getLogger(KeyPositionIndex.class);
+
+  static final long NOT_FOUND = -1L;
+
+  // marks a removed key so that it shadows the same key in older runs
+  private static final long TOMBSTONE = -2L;
+
+  private static final int OFFSET_BITS = 40;
+  private static final long MAX_OFFSET = (1L << OFFSET_BITS) - 1;
+  private static final int MAX_PATHS = 1 << (63 - OFFSET_BITS);
+  private static final int MAX_RUNS = 8;
+
+  private final KeyEncoder encoder;
+  private final SpillMemoryBudget budget;
+  private final List<CharSequence> paths = Lists.newArrayList();
+  private final Map<CharSequenceWrapper, Integer> pathIds = Maps.newHashMap();
+  private final CharSequenceWrapper pathWrapper = CharSequenceWrapper.wrap(null);
+  private final MemoryTable memory = new MemoryTable();
+  private final List<SpillRun> runs = Lists.newArrayList(); // ordered from oldest to newest
+
+  private long size = 0L;
+  private long spillCount = 0L;
+  private long reportedMemoryBytes = 0L;
+
+  KeyPositionIndex(Types.StructType keyType, long maxMemoryBytes) {
+    this(keyType, maxMemoryBytes, null);
+  }
+
+  KeyPositionIndex(Types.StructType keyType, long maxMemoryBytes, File spillDirectory) {
+    this(keyType, new SpillMemoryBudget(maxMemoryBytes, spillDirectory));
+  }
+
+  KeyPositionIndex(Types.StructType keyType, SpillMemoryBudget budget) {
+    this.encoder = new KeyEncoder(keyType);
+    this.budget = budget;
+    budget.register(this);
+  }
+
+  /**
+   * Sets the position of the row for a key.
+   *
+   * @param key the equality key of the row
+   * @param path the path of the data file that contains the row
+   * @param offset the offset of the row in the data file
+   * @return the previous position for the key, or {@link #NOT_FOUND} if the key was not present
+   */
+  long put(StructLike key, CharSequence path, long offset) {
+    Preconditions.checkArgument(offset >= 0 && offset <= MAX_OFFSET, "Invalid row offset: %s", offset);
+    long position = ((long) pathId(path) << OFFSET_BITS) | offset;
+
+    encoder.encode(key);
+    byte[] keyBytes = encoder.buffer();
+    int keyLength = encoder.length();
+    int hash = hash(keyBytes, keyLength);
+
+    long previous;
+    int slot = memory.find(hash, keyBytes, keyLength);
+    if (slot >= 0) {
+      previous = memory.value(slot);
+      memory.setValue(slot, position);
+    } else {
+      previous = findInRuns(hash, keyBytes, keyLength);
+      memory.insert(-slot - 1, hash, keyBytes, keyLength, position);
+    }
+
+    if (previous == TOMBSTONE || previous == NOT_FOUND) {
+      size += 1;
+      previous = NOT_FOUND;
+    }
+
+    spillIfNeeded();
+
+    return previous;
+  }
+
+  /**
+   * Removes a key from the index.
+   *
+   * @param key the equality key of the row
+   * @return the previous position for the key, or {@link #NOT_FOUND} if the key was not present
+   */
+  long remove(StructLike key) {
+    encoder.encode(key);
+    byte[] keyBytes = encoder.buffer();
+    int keyLength = encoder.length();
+    int hash = hash(keyBytes, keyLength);
+
+    long previous;
+    int slot = memory.find(hash, keyBytes, keyLength);
+    if (slot >= 0) {
+      previous = memory.value(slot);
+      memory.setValue(slot, TOMBSTONE);
+    } else {
+      previous = findInRuns(hash, keyBytes, keyLength);
+      if (previous != NOT_FOUND && previous != TOMBSTONE) {
+        // shadow the key in the spilled runs
+        memory.insert(-slot - 1, hash, keyBytes, keyLength, TOMBSTONE);
+      }
+    }
+
+    if (previous == TOMBSTONE || previous == NOT_FOUND) {
+      return NOT_FOUND;
+    }
+
+    size -= 1;
+    spillIfNeeded();
+
+    return previous;
+  }
+
+  /**
+   * Returns the data file path of a position returned by {@link #put} or {@link #remove}.
+   */
+  CharSequence path(long position) {
+    return paths.get((int) (position >>> OFFSET_BITS));
+  }
+
+  /**
+   * Returns the row offset of a position returned by {@link #put} or {@link #remove}.
+   */
+  long offset(long position) {
+    return position & MAX_OFFSET;
+  }
+
+  /**
+   * Returns the number of keys in the index.
+   */
+  long size() {
+    return size;
+  }
+
+  /**
+   * Returns the number of bytes used by the in-memory hash table and the lookup structures of spilled runs.
+   */
+  @Override
+  public long memoryBytes() {
+    long bytes = memory.memoryBytes();
+    for (SpillRun run : runs) {
+      bytes += run.indexBytes();
+    }
+
+    return bytes;
+  }
+
+  /**
+   * Returns the number of bytes in spilled runs on local disk.
+   */
+  long spilledBytes() {
+    long bytes = 0L;
+    for (SpillRun run : runs) {
+      bytes += run.length();
+    }
+
+    return bytes;
+  }
+
+  /**
+   * Returns the number of times the in-memory hash table was spilled to disk.
+   */
+  long spillCount() {
+    return spillCount;
+  }
+
+  @VisibleForTesting
+  int runCount() {
+    return runs.size();
+  }
+
+  @Override
+  public boolean spill() {
+    if (memory.count() == 0) {
+      return false;
+    }
+
+    try {
+      // tombstones only need to be kept when they may shadow keys in older runs
+      runs.add(memory.spill(newRunFile(), !runs.isEmpty()));
+      memory.clear();
+      spillCount += 1;
+
+      if (runs.size() > MAX_RUNS) {
+        mergeRuns();
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to spill key index to " + budget.spillDirectory(), e);
+    }
+
+    return true;
+  }
+
+  @Override
+  public void close() throws IOException {
+    budget.unregister(this);
+
+    if (spillCount > 0) {
+      LOG.info("Closing key index with {} keys, spilled {} times to {} bytes on disk",
+          size, spillCount, spilledBytes());
+    }
+
+    memory.clear();
+    paths.clear();
+    pathIds.clear();
+
+    for (SpillRun run : runs) {
+      run.delete();
+    }
+
+    runs.clear();
+    size = 0L;
+  }
+
+  private int pathId(CharSequence path) {
+    Integer id = pathIds.get(pathWrapper.set(path));
+    if (id == null) {
+      Preconditions.checkState(paths.size() < MAX_PATHS, "Too many data files in key index: %s", paths.size());
+      id = paths.size();
+      paths.add(path);
+      pathIds.put(CharSequenceWrapper.wrap(path), id);
+    }
+
+    return id;
+  }
+
+  private long findInRuns(int hash, byte[] key, int keyLength) {
+    for (int i = runs.size() - 1; i >= 0; i -= 1) {
+      long value = runs.get(i).find(hash, key, keyLength);
+      if (value != NOT_FOUND) {
+        return value;
+      }
+    }
+
+    return NOT_FOUND;
+  }
+
+  private void spillIfNeeded() {
+    // memory only changes when the table is resized, a page is added or runs are spilled, so the budget is not
+    // checked for every key
+    long currentMemoryBytes = memoryBytes();
+    if (currentMemoryBytes != reportedMemoryBytes) {
+      this.reportedMemoryBytes = currentMemoryBytes;
+      budget.checkMemory();
+    }
+  }
+
+  private void mergeRuns() throws IOException {
+    long expectedEntries = 0L;
+    List<RunCursor> cursors = Lists.newArrayListWithExpectedSize(runs.size());
+    for (int i = 0; i < runs.size(); i += 1) {
+      expectedEntries += runs.get(i).entries();
+      RunCursor cursor = new RunCursor(runs.get(i), i);
+      if (cursor.advance()) {
+        cursors.add(cursor);
+      } else {
+        cursor.close();
+      }
+    }
+
+    PriorityQueue<RunCursor> queue = new PriorityQueue<>(Comparator.comparingInt(RunCursor::hash));
+    queue.addAll(cursors);
+
+    RunWriter writer = new RunWriter(newRunFile(), expectedEntries);
+    try {
+      List<RunCursor> group = Lists.newArrayList();
+      List<byte[]> writtenKeys = Lists.newArrayList();
+      while (!queue.isEmpty()) {
+        // gather the records of all runs with the same hash; newer runs take precedence
+        int hash = queue.peek().hash();
+        while (!queue.isEmpty() && queue.peek().hash() == hash) {
+          group.add(queue.poll());
+        }
+
+        group.sort(Comparator.comparingInt(RunCursor::runIndex).reversed());
+        for (RunCursor cursor : group) {
+          do {
+            byte[] key = cursor.key();
+            if (!containsKey(writtenKeys, key)) {
+              writtenKeys.add(key);
+              if (cursor.value() != TOMBSTONE) {
+                // all runs are merged, so removed keys do not need to be kept
+                writer.write(hash, key, key.length, cursor.value());
+              }
+            }
+          } while (cursor.advance() && cursor.hash() == hash);
+
+          if (cursor.hasCurrent()) {
+            queue.add(cursor);
+          } else {
+            cursor.close();
+          }
+        }
+
+        group.clear();
+        writtenKeys.clear();
+      }
+    } finally {
+      writer.close();
+      for (RunCursor cursor : queue) {
+        cursor.close();
+      }
+    }
+
+    for (SpillRun run : runs) {
+      run.delete();
+    }
+
+    runs.clear();
+    runs.add(writer.toRun());
+  }
+
+  private static boolean containsKey(List<byte[]> keys, byte[] key) {
+    for (byte[] other : keys) {
+      if (Arrays.equals(other, key)) {
+        return true;
+      }
+    }
+
+    return false;
+  }
+
+  private File newRunFile() throws IOException {
+    return budget.newSpillFile("iceberg-key-index-");
+  }
+
+  private static int hash(byte[] bytes, int length) {
+    // FNV-1a followed by the murmur3 finalizer to spread the bits
+    int hash = 0x811C9DC5;
+    for (int i = 0; i < length; i += 1) {
+      hash ^= bytes[i];
+      hash *= 0x01000193;
+    }
+
+    hash ^= hash >>> 16;
+    hash *= 0x85EBCA6B;
+    hash ^= hash >>> 13;
+    hash *= 0xC2B2AE35;
+    hash ^= hash >>> 16;
+
+    return hash;
+  }
+
+  private static boolean equals(byte[] left, int leftOffset, int leftLength, byte[] right, int rightLength) {
+    if (leftLength != rightLength) {
+      return false;
+    }
+
+    for (int i = 0; i < leftLength; i += 1) {
+      if (left[leftOffset + i] != right[i]) {
+        return false;
+      }
+    }
+
+    return true;
+  }
+
+  /**
+   * Encodes keys into a reused buffer.
+   * <p>
+   * Each field is written as a null marker followed by the single-value serialization of the value; variable-length
+   * values are prefixed with their length so that the encoding of a key is unique.
+   */
+  private static class KeyEncoder {
+    private final Types.StructType keyType;
+    private byte[] buffer = new byte[64];
+    private int length = 0;
+
+    private KeyEncoder(Types.StructType keyType) {
+      this.keyType = keyType;
+    }
+
+    byte[] buffer() {
+      return buffer;
+    }
+
+    int length() {
+      return length;
+    }
+
+    void encode(StructLike key) {
+      this.length = 0;
+      encodeStruct(keyType, key);
+    }
+
+    private void encodeStruct(Types.StructType struct, StructLike value) {
+      List<Types.NestedField> fields = struct.fields();
+      for (int pos = 0; pos < fields.size(); pos += 1) {
+        Type fieldType = fields.get(pos).type();
+        Object fieldValue = value.get(pos, Object.class);
+        if (fieldValue == null) {
+          writeByte(0);
+        } else if (fieldType.isStructType()) {
+          writeByte(1);
+          encodeStruct(fieldType.asStructType(), (StructLike) fieldValue);
+        } else {
+          writeByte(1);
+          encodePrimitive(fieldType, fieldValue);
+        }
+      }
+    }
+
+    private void encodePrimitive(Type type, Object value) {
+      ByteBuffer bytes;
+      if (value instanceof byte[]) {
+        bytes = ByteBuffer.wrap((byte[]) value);
+      } else if (value instanceof ByteBuffer) {
+        bytes = ((ByteBuffer) value).duplicate();
+      } else {
+        bytes = Conversions.toByteBuffer(type, value);
+      }
+
+      switch (type.typeId()) {
+        case STRING:
+        case BINARY:
+        case DECIMAL:
+          writeVarInt(bytes.remaining());
+          break;
+        default:
+          // values of other types have a fixed length
+      }
+
+      int size = bytes.remaining();
+      ensureCapacity(size);
+      bytes.get(buffer, length, size);
+      length += size;
+    }
+
+    private void writeByte(int value) {
+      ensureCapacity(1);
+      buffer[length] = (byte) value;
+      length += 1;
+    }
+
+    private void writeVarInt(int value) {
+      int remaining = value;
+      while ((remaining & ~0x7F) != 0) {
+        writeByte((remaining & 0x7F) | 0x80);
+        remaining >>>= 7;
+      }
+
+      writeByte(remaining);
+    }
+
+    private void ensureCapacity(int bytes) {
+      if (length + bytes > buffer.length) {
+        this.buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, length + bytes));
+      }
+    }
+  }
+
+  /**
+   * An open-addressing hash table with keys stored in large byte pages.
+   */
+  private static class MemoryTable {
+    private static final int INITIAL_CAPACITY = 64;
+    private static final int MIN_PAGE_SIZE = 1 << 12;
+    private static final int PAGE_SIZE = 1 << 20;
+    private static final int PAGE_BITS = 32;
+
+    private final List<byte[]> pages = Lists.newArrayList();
+    private int pageOffset = 0;
+    private long pageBytes = 0L;
+
+    private int[] hashes;
+    private long[] keyAddresses; // address + 1 of the key in the pages, 0 for empty slots
+    private long[] values;
+    private int count;
+
+    private MemoryTable() {
+      clear();
+    }
+
+    int count() {
+      return count;
+    }
+
+    long memoryBytes() {
+      return pageBytes + (long) hashes.length * (Integer.BYTES + Long.BYTES + Long.BYTES);
+    }
+
+    long value(int slot) {
+      return values[slot];
+    }
+
+    void setValue(int slot, long value) {
+      values[slot] = value;
+    }
+
+    /**
+     * Returns the slot of the key, or -(insert slot) - 1 if the key is not present.
+     */
+    int find(int hash, byte[] key, int keyLength) {
+      int mask = hashes.length - 1;
+      int slot = hash & mask;
+      while (keyAddresses[slot] != 0) {
+        if (hashes[slot] == hash && keyEquals(keyAddresses[slot] - 1, key, keyLength)) {
+          return slot;
+        }
+
+        slot = (slot + 1) & mask;
+      }
+
+      return -slot - 1;
+    }
+
+    void insert(int slot, int hash, byte[] key, int keyLength, long value) {
+      hashes[slot] = hash;
+      keyAddresses[slot] = storeKey(key, keyLength) + 1;
+      values[slot] = value;
+      count += 1;
+
+      if (count > hashes.length * 3 / 4) {
+        resize(hashes.length * 2);
+      }
+    }
+
+    SpillRun spill(File file, boolean keepTombstones) throws IOException {
+      // sort slots by hash; the slot index is in the low bits so that the sort is on primitives
+      long[] order = new long[count];
+      int numEntries = 0;
+      for (int slot = 0; slot < hashes.length; slot += 1) {
+        if (keyAddresses[slot] != 0 && (keepTombstones || values[slot] != TOMBSTONE)) {
+          order[numEntries] = ((long) hashes[slot] << 32) | slot;
+          numEntries += 1;
+        }
+      }
+
+      Arrays.sort(order, 0, numEntries);
+
+      RunWriter writer = new RunWriter(file, numEntries);
+      try {
+        byte[] key = new byte[64];
+        for (int i = 0; i < numEntries; i += 1) {
+          int slot = (int) order[i];
+          long address = keyAddresses[slot] - 1;
+          byte[] page = pages.get((int) (address >>> PAGE_BITS));
+          int offset = (int) address;
+          int keyLength = readVarInt(page, offset);
+          int keyOffset = offset + varIntSize(keyLength);
+          if (key.length < keyLength) {
+            key = new byte[keyLength];
+          }
+
+          System.arraycopy(page, keyOffset, key, 0, keyLength);
+          writer.write(hashes[slot], key, keyLength, values[slot]);
+        }
+      } finally {
+        writer.close();
+      }
+
+      return writer.toRun();
+    }
+
+    void clear() {
+      pages.clear();
+      this.pageOffset = 0;
+      this.pageBytes = 0L;
+      this.hashes = new int[INITIAL_CAPACITY];
+      this.keyAddresses = new long[INITIAL_CAPACITY];
+      this.values = new long[INITIAL_CAPACITY];
+      this.count = 0;
+    }
+
+    private boolean keyEquals(long address, byte[] key, int keyLength) {
+      byte[] page = pages.get((int) (address >>> PAGE_BITS));
+      int offset = (int) address;
+      int storedLength = readVarInt(page, offset);
+      return KeyPositionIndex.equals(page, offset + varIntSize(storedLength), storedLength, key, keyLength);
+    }
+
+    private long storeKey(byte[] key, int keyLength) {
+      int size = varIntSize(keyLength) + keyLength;
+      if (pages.isEmpty() || pageOffset + size > pages.get(pages.size() - 1).length) {
+        // pages grow with the table so that the indexes of small partitions stay small; large keys get their own page
+        int pageSize = (int) Math.min(PAGE_SIZE, Math.max(MIN_PAGE_SIZE, pageBytes));
+        byte[] page = new byte[Math.max(pageSize, size)];
+        pages.add(page);
+        pageBytes += page.length;
+        this.pageOffset = 0;
+      }
+
+      int pageIndex = pages.size() - 1;
+      byte[] page = pages.get(pageIndex);
+      int offset = pageOffset;
+      int pos = writeVarInt(page, offset, keyLength);
+      System.arraycopy(key, 0, page, pos, keyLength);
+      this.pageOffset = pos + keyLength;
+
+      return ((long) pageIndex << PAGE_BITS) | offset;
+    }
+
+    private void resize(int newCapacity) {
+      int[] oldHashes = hashes;
+      long[] oldAddresses = keyAddresses;
+      long[] oldValues = values;
+
+      this.hashes = new int[newCapacity];
+      this.keyAddresses = new long[newCapacity];
+      this.values = new long[newCapacity];
+
+      int mask = newCapacity - 1;
+      for (int i = 0; i < oldHashes.length; i += 1) {
+        if (oldAddresses[i] != 0) {
+          int slot = oldHashes[i] & mask;
+          while (keyAddresses[slot] != 0) {
+            slot = (slot + 1) & mask;
+          }
+
+          hashes[slot] = oldHashes[i];
+          keyAddresses[slot] = oldAddresses[i];
+          values[slot] = oldValues[i];
+        }
+      }
+    }
+
+    private static int writeVarInt(byte[] page, int offset, int value) {
+      int pos = offset;
+      int remaining = value;
+      while ((remaining & ~0x7F) != 0) {
+        page[pos] = (byte) ((remaining & 0x7F) | 0x80);
+        pos += 1;
+        remaining >>>= 7;
+      }
+
+      page[pos] = (byte) remaining;
+      return pos + 1;
+    }
+
+    private static int readVarInt(byte[] page, int offset) {
+      int value = 0;
+      int shift = 0;
+      int pos = offset;
+      byte current;
+      do {
+        current = page[pos];
+        value |= (current & 0x7F) << shift;
+        shift += 7;
+        pos += 1;
+      } while ((current & 0x80) != 0);
+
+      return value;
+    }
+
+    private static int varIntSize(int value) {
+      int size = 1;
+      int remaining = value >>> 7;
+      while (remaining != 0) {
+        size += 1;
+        remaining >>>= 7;
+      }
+
+      return size;
+    }
+  }
+
+  /**
+   * Writes a run of records sorted by hash: the hash, key length, key bytes, and value of each record.
+   */
+  private static class RunWriter implements Closeable {
+    private static final int BLOCK_SIZE = 64;
+
+    private final File file;
+    private final DataOutputStream out;
+    private final BloomFilter bloom;
+    private int[] blockHashes = new int[16];
+    private long[] blockOffsets = new long[16];
+    private int numBlocks = 0;
+    private long position = 0L;
+    private long entries = 0L;
+    private boolean closed = false;
+
+    private RunWriter(File file, long expectedEntries) throws IOException {
+      this.file = file;
+      this.out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+      this.bloom = new BloomFilter(expectedEntries);
+    }
+
+    void write(int hash, byte[] key, int keyLength, long value) throws IOException {
+      if (entries % BLOCK_SIZE == 0) {
+        if (numBlocks == blockHashes.length) {
+          this.blockHashes = Arrays.copyOf(blockHashes, numBlocks * 2);
+          this.blockOffsets = Arrays.copyOf(blockOffsets, numBlocks * 2);
+        }
+
+        blockHashes[numBlocks] = hash;
+        blockOffsets[numBlocks] = position;
+        numBlocks += 1;
+      }
+
+      out.writeInt(hash);
+      out.writeInt(keyLength);
+      out.write(key, 0, keyLength);
+      out.writeLong(value);
+
+      bloom.add(hash);
+      position += Integer.BYTES + Integer.BYTES + keyLength + Long.BYTES;
+      entries += 1;
+    }
+
+    SpillRun toRun() throws IOException {
+      Preconditions.checkState(closed, "Cannot open run before it is closed: %s", file);
+      return new SpillRun(file, new RunIndex(
+          Arrays.copyOf(blockHashes, numBlocks), Arrays.copyOf(blockOffsets, numBlocks), position, entries, bloom));
+    }
+
+    @Override
+    public void close() throws IOException {
+      if (!closed) {
+        this.closed = true;
+        out.close();
+      }
+    }
+  }
+
+  /**
+   * In-memory lookup structures of a run.
+   */
+  private static class RunIndex {
+    private final int[] blockHashes;
+    private final long[] blockOffsets;
+    private final long length;
+    private final long entries;
+    private final BloomFilter bloom;
+
+    private RunIndex(int[] blockHashes, long[] blockOffsets, long length, long entries, BloomFilter bloom) {
+      this.blockHashes = blockHashes;
+      this.blockOffsets = blockOffsets;
+      this.length = length;
+      this.entries = entries;
+      this.bloom = bloom;
+    }
+
+    long memoryBytes() {
+      return (long) blockHashes.length * Integer.BYTES + (long) blockOffsets.length * Long.BYTES + bloom.memoryBytes();
+    }
+  }
+
+  /**
+   * A sorted run on local disk.
+   */
+  private static class SpillRun {
+    private final File file;
+    private final RunIndex index;
+    private final RandomAccessFile input;
+    private byte[] readBuffer = new byte[4096];
+
+    private SpillRun(File file, RunIndex index) throws IOException {
+      this.file = file;
+      this.index = index;
+      this.input = new RandomAccessFile(file, "r");
+    }
+
+    File file() {
+      return file;
+    }
+
+    long length() {
+      return index.length;
+    }
+
+    long entries() {
+      return index.entries;
+    }
+
+    long indexBytes() {
+      return index.memoryBytes();
+    }
+
+    long find(int hash, byte[] key, int keyLength) {
+      if (index.entries == 0 || !index.bloom.mightContain(hash)) {
+        return NOT_FOUND;
+      }
+
+      // records with the same hash may start in the block before the first block that starts with the hash
+      int firstBlock = lastBlockBefore(hash);
+      int endBlock = firstBlock + 1;
+      while (endBlock < index.blockHashes.length && index.blockHashes[endBlock] <= hash) {
+        endBlock += 1;
+      }
+
+      long start = index.blockOffsets[firstBlock];
+      long end = endBlock < index.blockOffsets.length ? index.blockOffsets[endBlock] : index.length;
+      int length = (int) (end - start);
+
+      try {
+        if (readBuffer.length < length) {
+          this.readBuffer = new byte[length];
+        }
+
+        input.seek(start);
+        input.readFully(readBuffer, 0, length);
+      } catch (IOException e) {
+        throw new UncheckedIOException("Failed to read key index run " + file, e);
+      }
+
+      ByteBuffer records = ByteBuffer.wrap(readBuffer, 0, length);
+      while (records.hasRemaining()) {
+        int recordHash = records.getInt();
+        int recordKeyLength = records.getInt();
+        int keyOffset = records.position();
+        records.position(keyOffset + recordKeyLength);
+        long value = records.getLong();
+
+        if (recordHash > hash) {
+          break;
+        } else if (recordHash == hash &&
+            KeyPositionIndex.equals(readBuffer, keyOffset, recordKeyLength, key, keyLength)) {
+          return value;
+        }
+      }
+
+      return NOT_FOUND;
+    }
+
+    private int lastBlockBefore(int hash) {
+      int low = 0;
+      int high = index.blockHashes.length - 1;
+      int result = 0;
+      while (low <= high) {
+        int mid = (low + high) >>> 1;
+        if (index.blockHashes[mid] < hash) {
+          result = mid;
+          low = mid + 1;
+        } else {
+          high = mid - 1;
+        }
+      }
+
+      return result;
+    }
+
+    void delete() {
+      try {
+        input.close();
+      } catch (IOException e) {
+        LOG.warn("Failed to close key index run {}", file, e);
+      }
+
+      if (!file.delete()) {
+        LOG.warn("Failed to delete key index run {}", file);
+      }
+    }
+  }
+
+  /**
+   * Sequentially reads the records of a run for merging.
+   */
+  private static class RunCursor implements Closeable {
+    private final int runIndex;
+    private final DataInputStream in;
+    private boolean hasCurrent = false;
+    private int hash;
+    private byte[] key;
+    private long value;
+
+    private RunCursor(SpillRun run, int runIndex) throws IOException {
+      this.runIndex = runIndex;
+      this.in = new DataInputStream(new BufferedInputStream(new FileInputStream(run.file())));
+    }
+
+    boolean advance() throws IOException {
+      try {
+        this.hash = in.readInt();
+      } catch (EOFException e) {
+        this.hasCurrent = false;
+        return false;
+      }
+
+      this.key = new byte[in.readInt()];
+      in.readFully(key);
+      this.value = in.readLong();
+      this.hasCurrent = true;
+
+      return true;
+    }
+
+    boolean hasCurrent() {
+      return hasCurrent;
+    }
+
+    int runIndex() {
+      return runIndex;
+    }
+
+    int hash() {
+      return hash;
+    }
+
+    byte[] key() {
+      return key;
+    }
+
+    long value() {
+      return value;
+    }
+
+    @Override
+    public void close() throws IOException {
+      in.close();
+    }
+  }
+
+  /**
+   * A bloom filter over key hashes, with about 10 bits per entry.
+   */
+  private static class BloomFilter {
+    private static final int NUM_PROBES = 5;
+
+    private final long[] bits;
+    private final long numBits;
+
+    private BloomFilter(long expectedEntries) {
+      long words = Math.max(1L, (expectedEntries * 10 + 63) / 64);
+      this.bits = new long[(int) Math.min(words, Integer.MAX_VALUE - 8)];
+      this.numBits = (long) bits.length * 64;
+    }
+
+    long memoryBytes() {
+      return (long) bits.length * Long.BYTES;
+    }
+
+    void add(int hash) {
+      long combined = hash;
+      long step = secondHash(hash);
+      for (int i = 0; i < NUM_PROBES; i += 1) {
+        long bit = Math.floorMod(combined, numBits);
+        bits[(int) (bit >>> 6)] |= 1L << bit;
+        combined += step;
+      }
+    }
+
+    boolean mightContain(int hash) {
+      long combined = hash;
+      long step = secondHash(hash);
+      for (int i = 0; i < NUM_PROBES; i += 1) {
+        long bit = Math.floorMod(combined, numBits);
+        if ((bits[(int) (bit >>> 6)] & (1L << bit)) == 0) {
+          return false;
+        }
+
+        combined += step;
+      }
+
+      return true;
+    }
+
+    private static long secondHash(int hash) {
+      long mixed = hash * 0x9E3779B97F4A7C15L;
+      return (mixed >>> 32) | 1L;
+    }
+  }
+}
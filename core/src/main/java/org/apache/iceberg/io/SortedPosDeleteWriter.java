@@ -19,57 +19,134 @@
 
 package org.apache.iceberg.io;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
 import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.UncheckedIOException;
+import java.util.Arrays;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
+import java.util.PriorityQueue;
 import java.util.Set;
+import java.util.function.Consumer;
 import org.apache.iceberg.DeleteFile;
 import org.apache.iceberg.FileFormat;
 import org.apache.iceberg.PartitionKey;
 import org.apache.iceberg.deletes.PositionDeleteWriter;
 import org.apache.iceberg.encryption.EncryptedOutputFile;
+import org.apache.iceberg.relocated.com.google.common.base.Preconditions;
 import org.apache.iceberg.relocated.com.google.common.collect.Lists;
 import org.apache.iceberg.relocated.com.google.common.collect.Maps;
 import org.apache.iceberg.types.Comparators;
 import org.apache.iceberg.util.CharSequenceSet;
 import org.apache.iceberg.util.CharSequenceWrapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
-class SortedPosDeleteWriter<T> implements Closeable {
-  private static final long DEFAULT_RECORDS_NUM_THRESHOLD = 100_000L;
+/**
+ * Buffers position deletes and writes them to position delete files sorted by path and position.
+ * <p>
+ * Deletes are buffered as primitive longs that pack a path id and a position. When the buffer exceeds its memory
+ * limit, it is sorted and spilled to a run on local disk, and all runs are merged into a single delete file when the
+ * writer is closed. Deletes with rows cannot be spilled, so a delete file is written whenever a buffer with rows is
+ * full.
+ * <p>
+ * The memory limit is a {@link SpillMemoryBudget} that can be shared by the writers of all partitions of a task
+ * writer, in which case the largest buffer is spilled when their total memory exceeds the limit.
+ */
+class SortedPosDeleteWriter<T> implements Closeable, SpillMemoryBudget.Spillable {
+  private static final Logger LOG = LoggerFactory.getLogger(SortedPosDeleteWriter.class);
+
+  private static final long DEFAULT_RECORDS_NUM_THRESHOLD = Long.MAX_VALUE;
+  static final long DEFAULT_MAX_MEMORY_BYTES = 32L * 1024 * 1024; // 32 MB
+  private static final int INITIAL_CAPACITY = 1024;
+  // estimates for the memory that is not held by the buffer: the references to a path and the rows of deletes
+  private static final long PATH_OVERHEAD_BYTES = 96L;
+  private static final long ESTIMATED_ROW_BYTES = 256L;
+  private static final int ROW_MEMORY_CHECK_INTERVAL = 1024;
+
+  private static final int POS_BITS = 40;
+  private static final long MAX_POS = (1L << POS_BITS) - 1;
+  private static final int MAX_PATHS = 1 << (63 - POS_BITS);
 
-  private final Map<CharSequenceWrapper, List<PosRow<T>>> posDeletes = Maps.newHashMap();
+  private final List<CharSequence> paths = Lists.newArrayList();
+  private final Map<CharSequenceWrapper, Integer> pathIds = Maps.newHashMap();
   private final List<DeleteFile> completedFiles = Lists.newArrayList();
   private final Set<CharSequence> referencedDataFiles = CharSequenceSet.empty();
   private final CharSequenceWrapper wrapper = CharSequenceWrapper.wrap(null);
+  private final List<File> runs = Lists.newArrayList();
+  private final List<Integer> runSizes = Lists.newArrayList();
 
   private final FileAppenderFactory<T> appenderFactory;
   private final OutputFileFactory fileFactory;
   private final FileFormat format;
   private final PartitionKey partition;
   private final long recordsNumThreshold;
+  private final SpillMemoryBudget budget;
+  private final int maxBufferedRecords;
 
+  // each buffered delete is a path id in the high bits and a position in the low bits
+  private long[] buffer = new long[INITIAL_CAPACITY];
+  private List<T> rows = null;
   private int records = 0;
+  private long pathBytes = 0L;
 
   SortedPosDeleteWriter(FileAppenderFactory<T> appenderFactory,
                         OutputFileFactory fileFactory,
                         FileFormat format,
                         PartitionKey partition,
-                        long recordsNumThreshold) {
+                        long recordsNumThreshold,
+                        long maxMemoryBytes) {
+    this(appenderFactory, fileFactory, format, partition, recordsNumThreshold,
+        newBudget(maxMemoryBytes));
+  }
+
+  SortedPosDeleteWriter(FileAppenderFactory<T> appenderFactory,
+                        OutputFileFactory fileFactory,
+                        FileFormat format,
+                        PartitionKey partition,
+                        long recordsNumThreshold,
+                        SpillMemoryBudget budget) {
+    Preconditions.checkArgument(recordsNumThreshold > 0,
+        "Invalid records number threshold: %s (must be > 0)", recordsNumThreshold);
     this.appenderFactory = appenderFactory;
     this.fileFactory = fileFactory;
     this.format = format;
     this.partition = partition;
     this.recordsNumThreshold = recordsNumThreshold;
+    this.budget = budget;
+    this.maxBufferedRecords = (int) Math.min(budget.maxMemoryBytes() / Long.BYTES, Integer.MAX_VALUE - 8);
+    budget.register(this);
+  }
+
+  SortedPosDeleteWriter(FileAppenderFactory<T> appenderFactory,
+                        OutputFileFactory fileFactory,
+                        FileFormat format,
+                        PartitionKey partition,
+                        SpillMemoryBudget budget) {
+    this(appenderFactory, fileFactory, format, partition, DEFAULT_RECORDS_NUM_THRESHOLD, budget);
+  }
+
+  SortedPosDeleteWriter(FileAppenderFactory<T> appenderFactory,
+                        OutputFileFactory fileFactory,
+                        FileFormat format,
+                        PartitionKey partition,
+                        long recordsNumThreshold) {
+    this(appenderFactory, fileFactory, format, partition, recordsNumThreshold, DEFAULT_MAX_MEMORY_BYTES);
   }
 
   SortedPosDeleteWriter(FileAppenderFactory<T> appenderFactory,
                         OutputFileFactory fileFactory,
                         FileFormat format,
                         PartitionKey partition) {
-    this(appenderFactory, fileFactory, format, partition, DEFAULT_RECORDS_NUM_THRESHOLD);
+    this(appenderFactory, fileFactory, format, partition, DEFAULT_RECORDS_NUM_THRESHOLD, DEFAULT_MAX_MEMORY_BYTES);
   }
 
   public void delete(CharSequence path, long pos) {
@@ -77,18 +154,41 @@ class SortedPosDeleteWriter<T> implements Closeable {
   }
 
   public void delete(CharSequence path, long pos, T row) {
-    List<PosRow<T>> posRows = posDeletes.get(wrapper.set(path));
-    if (posRows != null) {
-      posRows.add(PosRow.of(pos, row));
-    } else {
-      posDeletes.put(CharSequenceWrapper.wrap(path), Lists.newArrayList(PosRow.of(pos, row)));
+    Preconditions.checkArgument(pos >= 0 && pos <= MAX_POS, "Invalid position: %s", pos);
+
+    if (records == buffer.length) {
+      this.buffer = Arrays.copyOf(buffer, (int) Math.min((long) buffer.length * 2, maxBufferedRecords));
+      // the budget may spill this buffer, which also frees it
+      budget.checkMemory();
+    } else if (rows != null && records % ROW_MEMORY_CHECK_INTERVAL == 0) {
+      // buffered rows grow the memory without growing the buffer
+      budget.checkMemory();
+    }
+
+    buffer[records] = ((long) pathId(path) << POS_BITS) | pos;
+
+    if (row != null && rows == null) {
+      this.rows = Lists.newArrayListWithCapacity(records + 1);
+      for (int i = 0; i < records; i += 1) {
+        rows.add(null);
+      }
+    }
+
+    if (rows != null) {
+      rows.add(row);
     }
 
     records += 1;
 
-    // TODO Flush buffer based on the policy that checking whether whole heap memory size exceed the threshold.
     if (records >= recordsNumThreshold) {
       flushDeletes();
+    } else if (records >= maxBufferedRecords) {
+      if (rows != null) {
+        // rows cannot be spilled to disk
+        flushDeletes();
+      } else {
+        spillDeletes();
+      }
     }
   }
 
@@ -102,16 +202,233 @@ class SortedPosDeleteWriter<T> implements Closeable {
     return referencedDataFiles;
   }
 
+  /**
+   * Returns the memory held by the buffer, with estimates for the buffered paths and rows.
+   * <p>
+   * Paths are kept until the writer is closed, because spilled runs refer to them by id.
+   */
+  @Override
+  public long memoryBytes() {
+    long rowBytes = rows != null ? records * ESTIMATED_ROW_BYTES : 0L;
+    return (long) buffer.length * Long.BYTES + pathBytes + rowBytes;
+  }
+
+  @Override
+  public boolean spill() {
+    if (records == 0) {
+      return false;
+    }
+
+    if (rows != null) {
+      // rows cannot be spilled to disk
+      flushDeletes();
+    } else {
+      spillDeletes();
+    }
+
+    this.buffer = new long[INITIAL_CAPACITY];
+    return true;
+  }
+
   @Override
   public void close() throws IOException {
     flushDeletes();
+    budget.unregister(this);
   }
 
-  private void flushDeletes() {
-    if (posDeletes.isEmpty()) {
+  private static SpillMemoryBudget newBudget(long maxMemoryBytes) {
+    Preconditions.checkArgument(maxMemoryBytes >= Long.BYTES,
+        "Invalid max memory bytes: %s (must be >= %s)", maxMemoryBytes, Long.BYTES);
+    return new SpillMemoryBudget(maxMemoryBytes, null);
+  }
+
+  private int pathId(CharSequence path) {
+    Integer id = pathIds.get(wrapper.set(path));
+    if (id == null) {
+      Preconditions.checkState(paths.size() < MAX_PATHS, "Too many data files: %s", paths.size());
+      id = paths.size();
+      paths.add(path);
+      pathIds.put(CharSequenceWrapper.wrap(path), id);
+      // chars of the path and its entries in the path list and id map
+      this.pathBytes += PATH_OVERHEAD_BYTES + 2L * path.length();
+    }
+
+    return id;
+  }
+
+  private static int pathIdOf(long delete) {
+    return (int) (delete >>> POS_BITS);
+  }
+
+  private static long posOf(long delete) {
+    return delete & MAX_POS;
+  }
+
+  private static long sortKey(int[] ranks, long delete) {
+    return ((long) ranks[pathIdOf(delete)] << POS_BITS) | posOf(delete);
+  }
+
+  /**
+   * Returns the rank of each path id in the sorted order of all paths.
+   * <p>
+   * Paths seen later change the ranks, but not the relative order of paths seen earlier, so runs sorted by earlier
+   * ranks are still sorted by the current ranks.
+   */
+  private int[] pathRanks() {
+    Integer[] sortedIds = new Integer[paths.size()];
+    for (int i = 0; i < sortedIds.length; i += 1) {
+      sortedIds[i] = i;
+    }
+
+    Arrays.sort(sortedIds, (id1, id2) -> Comparators.charSequences().compare(paths.get(id1), paths.get(id2)));
+
+    int[] ranks = new int[sortedIds.length];
+    for (int rank = 0; rank < sortedIds.length; rank += 1) {
+      ranks[sortedIds[rank]] = rank;
+    }
+
+    return ranks;
+  }
+
+  /**
+   * Sorts the buffered deletes without rows by path and position, in place.
+   */
+  private void sortBuffer() {
+    int[] ranks = pathRanks();
+    int[] idsByRank = new int[ranks.length];
+    for (int id = 0; id < ranks.length; id += 1) {
+      idsByRank[ranks[id]] = id;
+    }
+
+    // replace path ids with ranks to sort primitives, then restore the ids
+    for (int i = 0; i < records; i += 1) {
+      buffer[i] = sortKey(ranks, buffer[i]);
+    }
+
+    Arrays.sort(buffer, 0, records);
+
+    for (int i = 0; i < records; i += 1) {
+      buffer[i] = ((long) idsByRank[pathIdOf(buffer[i])] << POS_BITS) | posOf(buffer[i]);
+    }
+  }
+
+  private void spillDeletes() {
+    if (records == 0) {
       return;
     }
 
+    sortBuffer();
+
+    File run;
+    try {
+      run = budget.newSpillFile("iceberg-pos-deletes-");
+      try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(run)))) {
+        for (int i = 0; i < records; i += 1) {
+          out.writeLong(buffer[i]);
+        }
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to spill position deletes to " + budget.spillDirectory(), e);
+    }
+
+    runs.add(run);
+    runSizes.add(records);
+    records = 0;
+  }
+
+  private void flushDeletes() {
+    if (!runs.isEmpty()) {
+      if (rows == null) {
+        spillDeletes();
+      }
+
+      writeMergedRuns();
+    }
+
+    if (records > 0) {
+      writeBuffer();
+    }
+  }
+
+  private void writeBuffer() {
+    if (rows == null) {
+      sortBuffer();
+      writeDeleteFile(writer -> {
+        for (int i = 0; i < records; i += 1) {
+          writer.delete(paths.get(pathIdOf(buffer[i])), posOf(buffer[i]), null);
+        }
+      });
+
+    } else {
+      int[] ranks = pathRanks();
+      Integer[] order = new Integer[records];
+      for (int i = 0; i < records; i += 1) {
+        order[i] = i;
+      }
+
+      Arrays.sort(order, Comparator.comparingLong(i -> sortKey(ranks, buffer[i])));
+      writeDeleteFile(writer -> {
+        for (int i : order) {
+          writer.delete(paths.get(pathIdOf(buffer[i])), posOf(buffer[i]), rows.get(i));
+        }
+      });
+
+      this.rows = null;
+    }
+
+    // Clear the buffered pos-deletions.
+    records = 0;
+  }
+
+  private void writeMergedRuns() {
+    int[] ranks = pathRanks();
+    List<RunCursor> cursors = Lists.newArrayListWithCapacity(runs.size());
+    long numDeletes = 0L;
+    try {
+      for (int i = 0; i < runs.size(); i += 1) {
+        cursors.add(new RunCursor(runs.get(i), runSizes.get(i), ranks));
+        numDeletes += runSizes.get(i);
+      }
+
+      LOG.info("Merging {} position deletes from {} spilled runs", numDeletes, runs.size());
+
+      PriorityQueue<RunCursor> queue = new PriorityQueue<>(Comparator.comparingLong(RunCursor::key));
+      for (RunCursor cursor : cursors) {
+        if (cursor.advance()) {
+          queue.add(cursor);
+        }
+      }
+
+      writeDeleteFile(writer -> {
+        while (!queue.isEmpty()) {
+          RunCursor cursor = queue.poll();
+          writer.delete(paths.get(pathIdOf(cursor.current())), posOf(cursor.current()), null);
+          if (cursor.advance()) {
+            queue.add(cursor);
+          }
+        }
+      });
+
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to open spilled position deletes", e);
+
+    } finally {
+      for (RunCursor cursor : cursors) {
+        cursor.close();
+      }
+
+      for (File run : runs) {
+        if (!run.delete()) {
+          LOG.warn("Failed to delete spilled position deletes: {}", run);
+        }
+      }
+
+      runs.clear();
+      runSizes.clear();
+    }
+  }
+
+  private void writeDeleteFile(Consumer<PositionDeleteWriter<T>> writeDeletes) {
     // Create a new output file.
     EncryptedOutputFile outputFile;
     if (partition == null) {
@@ -122,29 +439,12 @@ class SortedPosDeleteWriter<T> implements Closeable {
 
     PositionDeleteWriter<T> writer = appenderFactory.newPosDeleteWriter(outputFile, format, partition);
     try (PositionDeleteWriter<T> closeableWriter = writer) {
-      // Sort all the paths.
-      List<CharSequence> paths = Lists.newArrayListWithCapacity(posDeletes.keySet().size());
-      for (CharSequenceWrapper charSequenceWrapper : posDeletes.keySet()) {
-        paths.add(charSequenceWrapper.get());
-      }
-      paths.sort(Comparators.charSequences());
-
-      // Write all the sorted <path, pos, row> triples.
-      for (CharSequence path : paths) {
-        List<PosRow<T>> positions = posDeletes.get(wrapper.set(path));
-        positions.sort(Comparator.comparingLong(PosRow::pos));
-
-        positions.forEach(posRow -> closeableWriter.delete(path, posRow.pos(), posRow.row()));
-      }
+      writeDeletes.accept(closeableWriter);
     } catch (IOException e) {
       throw new UncheckedIOException("Failed to write the sorted path/pos pairs to pos-delete file: " +
           outputFile.encryptingOutputFile().location(), e);
     }
 
-    // Clear the buffered pos-deletions.
-    posDeletes.clear();
-    records = 0;
-
     // Add the referenced data files.
     referencedDataFiles.addAll(writer.referencedDataFiles());
 
@@ -152,25 +452,54 @@ class SortedPosDeleteWriter<T> implements Closeable {
     completedFiles.add(writer.toDeleteFile());
   }
 
-  private static class PosRow<R> {
-    private final long pos;
-    private final R row;
+  /**
+   * Reads the sorted deletes of a spilled run.
+   */
+  private static class RunCursor implements Closeable {
+    private final DataInputStream in;
+    private final int[] ranks;
+    private int remaining;
+    private long current;
+    private long key;
 
-    static <R> PosRow<R> of(long pos, R row) {
-      return new PosRow<>(pos, row);
+    private RunCursor(File run, int size, int[] ranks) throws IOException {
+      this.in = new DataInputStream(new BufferedInputStream(new FileInputStream(run)));
+      this.remaining = size;
+      this.ranks = ranks;
     }
 
-    private PosRow(long pos, R row) {
-      this.pos = pos;
-      this.row = row;
+    boolean advance() {
+      if (remaining == 0) {
+        return false;
+      }
+
+      try {
+        this.current = in.readLong();
+      } catch (IOException e) {
+        throw new UncheckedIOException("Failed to read spilled position deletes", e);
+      }
+
+      this.key = sortKey(ranks, current);
+      remaining -= 1;
+
+      return true;
+    }
+
+    long current() {
+      return current;
     }
 
-    long pos() {
-      return pos;
+    long key() {
+      return key;
     }
 
-    R row() {
-      return row;
+    @Override
+    public void close() {
+      try {
+        in.close();
+      } catch (IOException e) {
+        LOG.warn("Failed to close spilled position deletes", e);
+      }
     }
   }
 }
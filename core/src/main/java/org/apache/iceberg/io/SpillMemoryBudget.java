@@ -0,0 +1,127 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iceberg.io;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Comparator;
+import java.util.List;
+import org.apache.iceberg.relocated.com.google.common.base.Preconditions;
+import org.apache.iceberg.relocated.com.google.common.collect.Lists;
+
+/**
+ * A memory limit shared by the spillable buffers of a task writer, and the local directory that they spill to.
+ * <p>
+ * A task writer that writes many partitions creates buffers for each of them. Buffers report when their memory grows,
+ * and when the total memory of all buffers exceeds the limit, the largest buffers are spilled until it fits again. This
+ * bounds the memory of a task writer independently of the number of partitions that it writes.
+ * <p>
+ * This class is not thread-safe; buffers must be used by the thread that owns the task writer.
+ */
+class SpillMemoryBudget {
+
+  /**
+   * A buffer that can free its memory by spilling to local disk.
+   */
+  interface Spillable {
+    /**
+     * Returns the number of bytes of memory held by this buffer.
+     */
+    long memoryBytes();
+
+    /**
+     * Spills the contents of this buffer to free its memory.
+     *
+     * @return true if anything was spilled, false if the buffer was empty
+     */
+    boolean spill();
+  }
+
+  private final long maxMemoryBytes;
+  private final File spillDirectory;
+  private final List<Spillable> buffers = Lists.newArrayList();
+
+  SpillMemoryBudget(long maxMemoryBytes, File spillDirectory) {
+    Preconditions.checkArgument(maxMemoryBytes > 0, "Invalid max memory bytes: %s (must be > 0)", maxMemoryBytes);
+    this.maxMemoryBytes = maxMemoryBytes;
+    this.spillDirectory = spillDirectory != null ? spillDirectory : new File(System.getProperty("java.io.tmpdir"));
+  }
+
+  long maxMemoryBytes() {
+    return maxMemoryBytes;
+  }
+
+  File spillDirectory() {
+    return spillDirectory;
+  }
+
+  void register(Spillable buffer) {
+    buffers.add(buffer);
+  }
+
+  void unregister(Spillable buffer) {
+    buffers.removeIf(registered -> registered == buffer);
+  }
+
+  /**
+   * Returns the number of bytes of memory held by all registered buffers.
+   */
+  long memoryBytes() {
+    long bytes = 0L;
+    for (Spillable buffer : buffers) {
+      bytes += buffer.memoryBytes();
+    }
+
+    return bytes;
+  }
+
+  /**
+   * Spills the largest buffers until the memory of all buffers is within the limit.
+   * <p>
+   * Buffers call this when their memory has grown, which can spill a buffer of another partition.
+   */
+  void checkMemory() {
+    long totalBytes = memoryBytes();
+    if (totalBytes <= maxMemoryBytes) {
+      return;
+    }
+
+    List<Spillable> largestFirst = Lists.newArrayList(buffers);
+    largestFirst.sort(Comparator.comparingLong(Spillable::memoryBytes).reversed());
+    for (Spillable buffer : largestFirst) {
+      long bytesBefore = buffer.memoryBytes();
+      if (buffer.spill()) {
+        totalBytes -= bytesBefore - buffer.memoryBytes();
+        if (totalBytes <= maxMemoryBytes) {
+          return;
+        }
+      }
+    }
+  }
+
+  /**
+   * Creates a new file in the spill directory that is deleted when the JVM exits if it was not deleted before.
+   */
+  File newSpillFile(String prefix) throws IOException {
+    File file = File.createTempFile(prefix, ".run", spillDirectory);
+    file.deleteOnExit();
+    return file;
+  }
+}
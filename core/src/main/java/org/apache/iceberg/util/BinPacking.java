@@ -25,12 +25,14 @@ import java.util.Comparator;
 import java.util.Deque;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.function.Function;
 import org.apache.iceberg.relocated.com.google.common.base.Preconditions;
 import org.apache.iceberg.relocated.com.google.common.collect.ImmutableList;
 import org.apache.iceberg.relocated.com.google.common.collect.Iterables;
 import org.apache.iceberg.relocated.com.google.common.collect.Lists;
+import org.apache.iceberg.relocated.com.google.common.collect.Maps;
 
 public class BinPacking {
   public static class ListPacker<T> {
@@ -84,6 +86,116 @@ public class BinPacking {
     }
   }
 
+  /**
+   * Packs items into bins that only hold items with the same key.
+   * <p>
+   * Each key keeps up to lookback open bins, so memory is bounded by the open bins rather than by the number of items.
+   * Bins are returned as soon as they are closed and the remaining open bins are returned once the items are consumed.
+   */
+  public static class KeyedPackingIterable<T, K> implements Iterable<List<T>> {
+    private final Iterable<T> iterable;
+    private final long targetWeight;
+    private final int lookback;
+    private final Function<T, Long> weightFunc;
+    private final Function<T, K> keyFunc;
+    private final boolean largestBinFirst;
+
+    public KeyedPackingIterable(Iterable<T> iterable, long targetWeight, int lookback,
+                                Function<T, Long> weightFunc, Function<T, K> keyFunc, boolean largestBinFirst) {
+      Preconditions.checkArgument(lookback > 0,
+          "Bin look-back size must be greater than 0: %s", lookback);
+      this.iterable = iterable;
+      this.targetWeight = targetWeight;
+      this.lookback = lookback;
+      this.weightFunc = weightFunc;
+      this.keyFunc = keyFunc;
+      this.largestBinFirst = largestBinFirst;
+    }
+
+    @Override
+    public Iterator<List<T>> iterator() {
+      return new KeyedPackingIterator<>(
+          iterable.iterator(), targetWeight, lookback, weightFunc, keyFunc, largestBinFirst);
+    }
+  }
+
+  private static class KeyedPackingIterator<T, K> implements Iterator<List<T>> {
+    private final Map<K, Deque<Bin<T>>> binsByKey = Maps.newLinkedHashMap();
+    private final Iterator<T> items;
+    private final long targetWeight;
+    private final int lookback;
+    private final Function<T, Long> weightFunc;
+    private final Function<T, K> keyFunc;
+    private final boolean largestBinFirst;
+
+    private KeyedPackingIterator(Iterator<T> items, long targetWeight, int lookback,
+                                 Function<T, Long> weightFunc, Function<T, K> keyFunc, boolean largestBinFirst) {
+      this.items = items;
+      this.targetWeight = targetWeight;
+      this.lookback = lookback;
+      this.weightFunc = weightFunc;
+      this.keyFunc = keyFunc;
+      this.largestBinFirst = largestBinFirst;
+    }
+
+    @Override
+    public boolean hasNext() {
+      return items.hasNext() || !binsByKey.isEmpty();
+    }
+
+    @Override
+    public List<T> next() {
+      while (items.hasNext()) {
+        T item = items.next();
+
+        long weight = weightFunc.apply(item);
+        Deque<Bin<T>> bins = binsByKey.computeIfAbsent(keyFunc.apply(item), key -> Lists.newLinkedList());
+        Bin<T> bin = findBin(bins, weight);
+
+        if (bin != null) {
+          bin.add(item, weight);
+
+        } else {
+          bin = new Bin<>(targetWeight);
+          bin.add(item, weight);
+          bins.addLast(bin);
+
+          if (bins.size() > lookback) {
+            Bin<T> binToRemove;
+            if (largestBinFirst) {
+              binToRemove = PackingIterator.removeLargestBin(bins);
+            } else {
+              binToRemove = bins.removeFirst();
+            }
+            return ImmutableList.copyOf(binToRemove.items());
+          }
+        }
+      }
+
+      Iterator<Deque<Bin<T>>> remaining = binsByKey.values().iterator();
+      if (!remaining.hasNext()) {
+        throw new NoSuchElementException();
+      }
+
+      Deque<Bin<T>> bins = remaining.next();
+      Bin<T> bin = bins.removeFirst();
+      if (bins.isEmpty()) {
+        remaining.remove();
+      }
+
+      return ImmutableList.copyOf(bin.items());
+    }
+
+    private static <T> Bin<T> findBin(Deque<Bin<T>> bins, long weight) {
+      for (Bin<T> bin : bins) {
+        if (bin.canAdd(weight)) {
+          return bin;
+        }
+      }
+      return null;
+    }
+  }
+
   private static class PackingIterator<T> implements Iterator<List<T>> {
     private final Deque<Bin<T>> bins = Lists.newLinkedList();
     private final Iterator<T> items;
@@ -0,0 +1,337 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iceberg.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import org.apache.iceberg.Accessor;
+import org.apache.iceberg.NullOrder;
+import org.apache.iceberg.Schema;
+import org.apache.iceberg.SortDirection;
+import org.apache.iceberg.SortField;
+import org.apache.iceberg.SortOrder;
+import org.apache.iceberg.StructLike;
+import org.apache.iceberg.relocated.com.google.common.base.Preconditions;
+import org.apache.iceberg.relocated.com.google.common.collect.ImmutableSet;
+import org.apache.iceberg.transforms.Transform;
+import org.apache.iceberg.types.Type;
+import org.apache.iceberg.types.Types;
+
+/**
+ * Encodes rows into keys that sort rows when compared as unsigned bytes.
+ * <p>
+ * A key for a {@link SortOrder} concatenates an order-preserving encoding of each sort field, so comparing keys is
+ * equivalent to comparing rows by the sort order.
+ * <p>
+ * A z-order key interleaves the bits of an order-preserving encoding of each column, starting with the most significant
+ * bit of every column. Each column is encoded in its own width, so 4-byte values contribute as many significant bits
+ * to the start of the key as 8-byte values. Rows that are close in all of the columns get close keys, so files written
+ * from sorted keys have narrow bounds for every z-order column instead of only for the first sort column. Strings and
+ * binary values are only ordered by their first 8 bytes.
+ */
+public class SortKeyEncoder implements Serializable {
+  private static final int ZORDER_PREFIX_BYTES = 8;
+  private static final byte NULL_FIRST = 0x00;
+  private static final byte NOT_NULL = 0x01;
+  private static final byte NULL_LAST = 0x02;
+  private static final Set<Type.TypeID> ZORDER_TYPES = ImmutableSet.of(
+      Type.TypeID.BOOLEAN, Type.TypeID.INTEGER, Type.TypeID.DATE, Type.TypeID.LONG, Type.TypeID.TIME,
+      Type.TypeID.TIMESTAMP, Type.TypeID.FLOAT, Type.TypeID.DOUBLE, Type.TypeID.STRING, Type.TypeID.BINARY,
+      Type.TypeID.FIXED);
+  private static final Set<Type.TypeID> SORT_TYPES = ImmutableSet.<Type.TypeID>builder()
+      .addAll(ZORDER_TYPES)
+      .add(Type.TypeID.DECIMAL)
+      .build();
+
+  private final Accessor<StructLike>[] accessors;
+  private final Transform<Object, Object>[] transforms;
+  private final Type[] types;
+  private final boolean[] descending;
+  private final boolean[] nullsFirst;
+  private final boolean zOrder;
+
+  private SortKeyEncoder(Accessor<StructLike>[] accessors, Transform<Object, Object>[] transforms, Type[] types,
+                         boolean[] descending, boolean[] nullsFirst, boolean zOrder) {
+    this.accessors = accessors;
+    this.transforms = transforms;
+    this.types = types;
+    this.descending = descending;
+    this.nullsFirst = nullsFirst;
+    this.zOrder = zOrder;
+  }
+
+  /**
+   * Returns an encoder for keys that sort rows by a sort order.
+   *
+   * @param sortOrder a sort order
+   * @return an encoder for rows of the sort order's schema
+   */
+  @SuppressWarnings("unchecked")
+  public static SortKeyEncoder forSortOrder(SortOrder sortOrder) {
+    Preconditions.checkArgument(!sortOrder.isUnsorted(), "Cannot encode sort keys for an unsorted order");
+
+    Schema schema = sortOrder.schema();
+    List<SortField> fields = sortOrder.fields();
+    Accessor<StructLike>[] accessors = new Accessor[fields.size()];
+    Transform<Object, Object>[] transforms = new Transform[fields.size()];
+    Type[] types = new Type[fields.size()];
+    boolean[] descending = new boolean[fields.size()];
+    boolean[] nullsFirst = new boolean[fields.size()];
+
+    for (int i = 0; i < fields.size(); i += 1) {
+      SortField field = fields.get(i);
+      Type sourceType = schema.findType(field.sourceId());
+      accessors[i] = schema.accessorForField(field.sourceId());
+      transforms[i] = field.transform();
+      types[i] = transforms[i].getResultType(sourceType);
+      descending[i] = field.direction() == SortDirection.DESC;
+      nullsFirst[i] = field.nullOrder() == NullOrder.NULLS_FIRST;
+      Preconditions.checkArgument(SORT_TYPES.contains(types[i].typeId()),
+          "Cannot sort by type: %s", types[i]);
+    }
+
+    return new SortKeyEncoder(accessors, transforms, types, descending, nullsFirst, false);
+  }
+
+  /**
+   * Returns an encoder for z-order keys of the given columns.
+   *
+   * @param schema a schema
+   * @param columns names of primitive columns in the schema
+   * @return an encoder for rows of the schema
+   */
+  @SuppressWarnings("unchecked")
+  public static SortKeyEncoder forZOrder(Schema schema, List<String> columns) {
+    Preconditions.checkArgument(!columns.isEmpty(), "Cannot z-order by an empty list of columns");
+
+    Accessor<StructLike>[] accessors = new Accessor[columns.size()];
+    Type[] types = new Type[columns.size()];
+    for (int i = 0; i < columns.size(); i += 1) {
+      Types.NestedField field = schema.findField(columns.get(i));
+      Preconditions.checkArgument(field != null, "Cannot find z-order column: %s", columns.get(i));
+      accessors[i] = schema.accessorForField(field.fieldId());
+      types[i] = field.type();
+      Preconditions.checkArgument(ZORDER_TYPES.contains(types[i].typeId()),
+          "Cannot z-order by type: %s", types[i]);
+    }
+
+    return new SortKeyEncoder(accessors, null, types, null, null, true);
+  }
+
+  /**
+   * Returns the key of a row. Keys must be compared as unsigned bytes.
+   *
+   * @param row a row of the encoder's schema
+   * @return the row's key
+   */
+  public byte[] encode(StructLike row) {
+    return zOrder ? encodeZOrder(row) : encodeSortOrder(row);
+  }
+
+  private byte[] encodeSortOrder(StructLike row) {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    for (int i = 0; i < accessors.length; i += 1) {
+      Object source = accessors[i].get(row);
+      Object value = source != null ? transforms[i].apply(source) : null;
+      if (value == null) {
+        out.write(nullsFirst[i] ? NULL_FIRST : NULL_LAST);
+      } else {
+        out.write(NOT_NULL);
+        byte[] bytes = orderedBytes(types[i], value);
+        if (descending[i]) {
+          // all encodings are prefix-free, so inverting the bytes reverses the order
+          for (int j = 0; j < bytes.length; j += 1) {
+            bytes[j] = (byte) ~bytes[j];
+          }
+        }
+
+        out.write(bytes, 0, bytes.length);
+      }
+    }
+
+    return out.toByteArray();
+  }
+
+  private byte[] encodeZOrder(StructLike row) {
+    byte[][] columns = new byte[accessors.length][];
+    for (int i = 0; i < accessors.length; i += 1) {
+      Object value = accessors[i].get(row);
+      // nulls are ordered first, the same as the minimum value
+      columns[i] = value == null ? new byte[zOrderWidth(types[i])] : zOrderBytes(types[i], value);
+    }
+
+    return interleaveBits(columns);
+  }
+
+  /**
+   * Interleaves the bits of columns of any width, starting from the most significant bit of each column. Once the bits
+   * of a narrower column run out, the remaining bits of the wider columns are interleaved.
+   */
+  static byte[] interleaveBits(byte[][] columns) {
+    int keyLength = 0;
+    int maxBits = 0;
+    for (byte[] column : columns) {
+      keyLength += column.length;
+      maxBits = Math.max(maxBits, column.length * 8);
+    }
+
+    byte[] key = new byte[keyLength];
+    int outBit = 0;
+    for (int bit = 0; bit < maxBits; bit += 1) {
+      int inByte = bit / 8;
+      int inShift = 7 - (bit % 8);
+      for (byte[] column : columns) {
+        if (inByte < column.length) {
+          if (((column[inByte] >> inShift) & 1) != 0) {
+            key[outBit / 8] |= (byte) (1 << (7 - (outBit % 8)));
+          }
+
+          outBit += 1;
+        }
+      }
+    }
+
+    return key;
+  }
+
+  private static int zOrderWidth(Type type) {
+    switch (type.typeId()) {
+      case BOOLEAN:
+        return 1;
+      case INTEGER:
+      case DATE:
+      case FLOAT:
+        return 4;
+      case LONG:
+      case TIME:
+      case TIMESTAMP:
+      case DOUBLE:
+        return 8;
+      case STRING:
+      case BINARY:
+      case FIXED:
+        return ZORDER_PREFIX_BYTES;
+      default:
+        throw new UnsupportedOperationException("Cannot z-order by type: " + type);
+    }
+  }
+
+  private static byte[] zOrderBytes(Type type, Object value) {
+    switch (type.typeId()) {
+      case BOOLEAN:
+        // use the most significant bit so that booleans are interleaved with the first bits of other columns
+        return new byte[] { (byte) ((Boolean) value ? 0x80 : 0x00) };
+      case INTEGER:
+      case DATE:
+        return ByteBuffer.allocate(4).putInt((Integer) value ^ Integer.MIN_VALUE).array();
+      case LONG:
+      case TIME:
+      case TIMESTAMP:
+        return orderedLong((Long) value);
+      case FLOAT:
+        return ByteBuffer.allocate(4).putInt(orderedBits((Float) value)).array();
+      case DOUBLE:
+        return orderedDouble((Double) value);
+      case STRING:
+        return Arrays.copyOf(value.toString().getBytes(StandardCharsets.UTF_8), ZORDER_PREFIX_BYTES);
+      case BINARY:
+      case FIXED:
+        return Arrays.copyOf(ByteBuffers.toByteArray((ByteBuffer) value), ZORDER_PREFIX_BYTES);
+      default:
+        throw new UnsupportedOperationException("Cannot z-order by type: " + type);
+    }
+  }
+
+  private static byte[] orderedBytes(Type type, Object value) {
+    switch (type.typeId()) {
+      case BOOLEAN:
+        return new byte[] { (byte) ((Boolean) value ? 1 : 0) };
+      case INTEGER:
+      case DATE:
+        return ByteBuffer.allocate(4).putInt((Integer) value ^ Integer.MIN_VALUE).array();
+      case LONG:
+      case TIME:
+      case TIMESTAMP:
+        return orderedLong((Long) value);
+      case FLOAT:
+        return ByteBuffer.allocate(4).putInt(orderedBits((Float) value)).array();
+      case DOUBLE:
+        return orderedDouble((Double) value);
+      case DECIMAL:
+        return orderedDecimal((BigDecimal) value);
+      case STRING:
+        return escaped(value.toString().getBytes(StandardCharsets.UTF_8));
+      case BINARY:
+      case FIXED:
+        return escaped(ByteBuffers.toByteArray((ByteBuffer) value));
+      default:
+        throw new UnsupportedOperationException("Cannot sort by type: " + type);
+    }
+  }
+
+  private static byte[] orderedLong(long value) {
+    return ByteBuffer.allocate(8).putLong(value ^ Long.MIN_VALUE).array();
+  }
+
+  private static int orderedBits(float value) {
+    int bits = Float.floatToIntBits(value);
+    return bits < 0 ? ~bits : bits ^ Integer.MIN_VALUE;
+  }
+
+  private static byte[] orderedDouble(double value) {
+    long bits = Double.doubleToLongBits(value);
+    return ByteBuffer.allocate(8).putLong(bits < 0 ? ~bits : bits ^ Long.MIN_VALUE).array();
+  }
+
+  private static byte[] orderedDecimal(BigDecimal value) {
+    // decimals of a type share a scale and fit in 16 bytes, so the unscaled value is ordered like a long
+    byte[] unscaled = value.unscaledValue().toByteArray();
+    byte[] bytes = new byte[16];
+    byte signExtension = (byte) (value.signum() < 0 ? 0xFF : 0x00);
+    int padding = bytes.length - unscaled.length;
+    Arrays.fill(bytes, 0, padding, signExtension);
+    System.arraycopy(unscaled, 0, bytes, padding, unscaled.length);
+    bytes[0] ^= (byte) 0x80;
+    return bytes;
+  }
+
+  /**
+   * Escapes 0x00 as 0x00 0xFF and terminates with 0x00 0x00 so that a value is never a prefix of another value.
+   */
+  private static byte[] escaped(byte[] bytes) {
+    ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length + 2);
+    for (byte b : bytes) {
+      out.write(b);
+      if (b == 0) {
+        out.write(0xFF);
+      }
+    }
+
+    out.write(0);
+    out.write(0);
+    return out.toByteArray();
+  }
+}
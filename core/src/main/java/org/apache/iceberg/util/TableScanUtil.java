@@ -19,14 +19,26 @@
 
 package org.apache.iceberg.util;
 
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.function.Function;
 import org.apache.iceberg.BaseCombinedScanTask;
 import org.apache.iceberg.CombinedScanTask;
+import org.apache.iceberg.DataFile;
+import org.apache.iceberg.DeleteFile;
+import org.apache.iceberg.FileFormat;
 import org.apache.iceberg.FileScanTask;
+import org.apache.iceberg.PartitionSpec;
+import org.apache.iceberg.Schema;
 import org.apache.iceberg.io.CloseableIterable;
 import org.apache.iceberg.relocated.com.google.common.collect.FluentIterable;
+import org.apache.iceberg.relocated.com.google.common.collect.ImmutableSet;
+import org.apache.iceberg.types.TypeUtil;
 
 public class TableScanUtil {
+  // formats that only read the bytes of projected columns
+  private static final Set<FileFormat> COLUMNAR_FORMATS = ImmutableSet.of(FileFormat.PARQUET, FileFormat.ORC);
 
   private TableScanUtil() {
   }
@@ -50,11 +62,87 @@ public class TableScanUtil {
   public static CloseableIterable<CombinedScanTask> planTasks(CloseableIterable<FileScanTask> splitFiles,
                                                               long splitSize, int lookback, long openFileCost) {
     Function<FileScanTask, Long> weightFunc = file -> Math.max(file.length(), openFileCost);
+    return planTasks(splitFiles, splitSize, lookback, weightFunc, false);
+  }
+
+  /**
+   * Combines splits into tasks using a weight function as the cost of reading each split.
+   *
+   * @param splitFiles splits to combine
+   * @param splitSize target weight of each combined task
+   * @param lookback number of open tasks to consider when placing a split
+   * @param weightFunc a function that returns the cost of reading a split, see {@link #costWeight(Schema, long)}
+   * @param partitionAligned whether to only combine splits from the same partition
+   * @return an iterable of combined tasks
+   */
+  public static CloseableIterable<CombinedScanTask> planTasks(CloseableIterable<FileScanTask> splitFiles,
+                                                              long splitSize, int lookback,
+                                                              Function<FileScanTask, Long> weightFunc,
+                                                              boolean partitionAligned) {
+    Iterable<List<FileScanTask>> packed;
+    if (partitionAligned) {
+      packed = new BinPacking.KeyedPackingIterable<>(
+          splitFiles, splitSize, lookback, weightFunc, TableScanUtil::partitionKey, true);
+    } else {
+      packed = new BinPacking.PackingIterable<>(splitFiles, splitSize, lookback, weightFunc, true);
+    }
+
+    return CloseableIterable.transform(CloseableIterable.combine(packed, splitFiles), BaseCombinedScanTask::new);
+  }
+
+  /**
+   * Returns a weight function that estimates the cost of reading a split.
+   * <p>
+   * For columnar formats, only the share of the split that belongs to projected columns is counted when the file has
+   * column sizes. Each delete file is read by every split of the data file that it applies to, so its size is added
+   * to the weight of each split, with the open file cost as a minimum.
+   *
+   * @param projection the projected schema, used to weigh columnar files by the size of projected columns
+   * @param openFileCost minimum cost of opening a file
+   * @return a function that returns the cost of reading a split
+   */
+  public static Function<FileScanTask, Long> costWeight(Schema projection, long openFileCost) {
+    Set<Integer> projectedIds = TypeUtil.getProjectedIds(projection);
+    return task -> {
+      long deleteCost = 0L;
+      for (DeleteFile deleteFile : task.deletes()) {
+        deleteCost += Math.max(deleteFile.fileSizeInBytes(), openFileCost);
+      }
+
+      return Math.max(projectedLength(task, projectedIds), openFileCost) + deleteCost;
+    };
+  }
+
+  private static long projectedLength(FileScanTask task, Set<Integer> projectedIds) {
+    DataFile file = task.file();
+    Map<Integer, Long> columnSizes = file.columnSizes();
+    if (!COLUMNAR_FORMATS.contains(file.format()) || columnSizes == null || columnSizes.isEmpty()) {
+      return task.length();
+    }
+
+    long totalSize = 0L;
+    long projectedSize = 0L;
+    for (Map.Entry<Integer, Long> entry : columnSizes.entrySet()) {
+      totalSize += entry.getValue();
+      if (projectedIds.contains(entry.getKey())) {
+        projectedSize += entry.getValue();
+      }
+    }
+
+    if (totalSize <= 0L) {
+      return task.length();
+    }
+
+    return (long) (task.length() * ((double) projectedSize / totalSize));
+  }
+
+  private static Pair<Integer, StructLikeWrapper> partitionKey(FileScanTask split) {
+    PartitionSpec spec = split.spec();
+    if (spec.isUnpartitioned()) {
+      // metadata tasks are unpartitioned and may not have a partition tuple
+      return Pair.of(spec.specId(), null);
+    }
 
-    return CloseableIterable.transform(
-        CloseableIterable.combine(
-            new BinPacking.PackingIterable<>(splitFiles, splitSize, lookback, weightFunc, true),
-            splitFiles),
-        BaseCombinedScanTask::new);
+    return Pair.of(spec.specId(), StructLikeWrapper.forType(spec.partitionType()).set(split.file().partition()));
   }
 }
@@ -20,10 +20,15 @@
 package org.apache.iceberg;
 
 import java.io.IOException;
+import java.util.List;
+import java.util.Map;
 import org.apache.iceberg.expressions.Expressions;
 import org.apache.iceberg.io.CloseableIterable;
+import org.apache.iceberg.relocated.com.google.common.collect.ImmutableList;
 import org.apache.iceberg.relocated.com.google.common.collect.Iterables;
+import org.apache.iceberg.relocated.com.google.common.collect.Maps;
 import org.apache.iceberg.types.Types;
+import org.apache.iceberg.util.Pair;
 import org.junit.Assert;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -111,4 +116,50 @@ public class TestDataTableScan extends TableTestBase {
       }
     }
   }
+
+  @Test
+  public void testPlanDataManifestsSeparately() throws IOException {
+    table.newFastAppend()
+        .appendFile(FILE_A)
+        .commit();
+
+    table.newFastAppend()
+        .appendFile(FILE_B)
+        .commit();
+
+    if (formatVersion >= 2) {
+      table.newRowDelta()
+          .addDeletes(FILE_A_DELETES)
+          .commit();
+    }
+
+    Map<String, Integer> expected = Maps.newHashMap();
+    try (CloseableIterable<FileScanTask> tasks = table.newScan().planFiles()) {
+      for (FileScanTask task : tasks) {
+        expected.put(task.file().path().toString(), task.deletes().size());
+      }
+    }
+
+    Snapshot snapshot = table.currentSnapshot();
+    Assert.assertEquals("Should have 2 data manifests", 2, snapshot.dataManifests().size());
+
+    List<Pair<Long, DeleteFile>> deleteFiles = DataTableScan.planDeleteFiles(
+        table.io(), table.specs(), snapshot.deleteManifests(), Expressions.alwaysTrue(), true);
+    Assert.assertEquals("Should read the delete files once", formatVersion >= 2 ? 1 : 0, deleteFiles.size());
+
+    Map<String, Integer> actual = Maps.newHashMap();
+    for (ManifestFile manifest : snapshot.dataManifests()) {
+      try (CloseableIterable<FileScanTask> tasks = DataTableScan.planDataManifests(
+          table.io(), table.specs(), ImmutableList.of(manifest), deleteFiles,
+          Expressions.alwaysTrue(), true, false)) {
+        for (FileScanTask task : tasks) {
+          actual.put(task.file().path().toString(), task.deletes().size());
+        }
+      }
+    }
+
+    Assert.assertEquals("Should plan the same files and deletes as a scan", expected, actual);
+    Assert.assertEquals("Should apply deletes to FILE_A",
+        formatVersion >= 2 ? 1 : 0, (int) actual.get(FILE_A.path().toString()));
+  }
 }
@@ -0,0 +1,200 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iceberg;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import org.apache.iceberg.expressions.Expressions;
+import org.apache.iceberg.io.CloseableIterable;
+import org.apache.iceberg.relocated.com.google.common.collect.Lists;
+import org.apache.iceberg.relocated.com.google.common.collect.Sets;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+@RunWith(Parameterized.class)
+public class TestIncrementalAppendPlanner extends TableTestBase {
+  @Parameterized.Parameters(name = "formatVersion = {0}")
+  public static Object[] parameters() {
+    return new Object[] { 1, 2 };
+  }
+
+  public TestIncrementalAppendPlanner(int formatVersion) {
+    super(formatVersion);
+  }
+
+  @Before
+  public void setupTableProperties() {
+    table.updateProperties().set(TableProperties.MANIFEST_MIN_MERGE_COUNT, "3").commit();
+  }
+
+  @Test
+  public void testInvalidRanges() {
+    add(table.newAppend(), files("A"));
+    AssertHelpers.assertThrows("Should reject an empty range",
+        IllegalArgumentException.class, "from and to snapshot ids cannot be the same",
+        () -> new IncrementalAppendPlanner(table).planAppendsBetween(1, 1));
+    AssertHelpers.assertThrows("Should reject a missing snapshot",
+        IllegalArgumentException.class, "to snapshot 2 does not exist",
+        () -> new IncrementalAppendPlanner(table).planAppendsBetween(1, 2));
+  }
+
+  @Test
+  public void testAppendsReadOnlyLastManifestList() {
+    add(table.newAppend(), files("A")); // 1
+    add(table.newAppend(), files("B"));
+    add(table.newAppend(), files("C"));
+    add(table.newAppend(), files("D"));
+    add(table.newAppend(), files("E")); // 5
+
+    // the appends of snapshots 2 and 3 have been merged into the manifests of later snapshots
+    filesMatch(Lists.newArrayList("B", "C", "D", "E"), planAppendsBetween(1, 5));
+    filesMatch(Lists.newArrayList("C", "D", "E"), planAppendsBetween(2, 5));
+    filesMatch(Lists.newArrayList("E"), planAppendsBetween(4, 5));
+    filesMatch(Lists.newArrayList("C", "D"), planAppendsBetween(2, 4));
+
+    IncrementalAppendPlanner.Increment increment = new IncrementalAppendPlanner(table).planAppendsBetween(1, 5);
+    Assert.assertEquals("Should count every snapshot in the range", 4, increment.snapshotCount());
+    for (ManifestFile manifest : increment.manifests()) {
+      Assert.assertTrue("Should only select manifests written in the range", manifest.snapshotId() > 1);
+    }
+
+    List<Long> manifestSnapshotIds = Lists.transform(increment.manifests(), ManifestFile::snapshotId);
+    List<Long> sorted = Lists.newArrayList(manifestSnapshotIds);
+    Collections.sort(sorted);
+    Assert.assertEquals("Should order manifests from the oldest snapshot", sorted, manifestSnapshotIds);
+  }
+
+  @Test
+  public void testReplaceAndDeletesMatchAppendsScan() {
+    add(table.newAppend(), files("A")); // 1
+    add(table.newAppend(), files("B"));
+    add(table.newAppend(), files("C"));
+    add(table.newAppend(), files("D"));
+    add(table.newAppend(), files("E")); // 5
+    replace(table.newRewrite(), files("A", "B", "C"), files("F", "G")); // 6
+    delete(table.newDelete(), files("D")); // 7
+    add(table.newAppend(), files("I")); // 8
+
+    // files that were removed after they were appended are still returned, like the appends scan
+    filesMatch(Lists.newArrayList("B", "C", "D", "E", "I"), planAppendsBetween(1, 8));
+    filesMatch(Lists.newArrayList("E"), planAppendsBetween(4, 6));
+    filesMatch(Lists.newArrayList("I"), planAppendsBetween(6, 8));
+    Assert.assertTrue("Replace and delete commits are ignored", planAppendsBetween(5, 7).isEmpty());
+    Assert.assertTrue("Should not select manifests without appends",
+        new IncrementalAppendPlanner(table).planAppendsBetween(5, 7).manifests().isEmpty());
+
+    overwrite(table.newOverwrite(), files("H"), files("E")); // 9
+    AssertHelpers.assertThrows("Overwrites are not supported",
+        UnsupportedOperationException.class,
+        "Found overwrite operation, cannot support incremental data in snapshots (8, 9]",
+        () -> planAppendsBetween(8, 9));
+  }
+
+  @Test
+  public void testFilterResiduals() {
+    add(table.newAppend(), files("A"));
+    add(table.newAppend(), files("B"));
+    add(table.newAppend(), files("C"));
+
+    IncrementalAppendPlanner.Increment increment = new IncrementalAppendPlanner(table)
+        .filter(Expressions.equal("id", 5))
+        .planAppendsBetween(1, 3);
+
+    List<String> files = Lists.newArrayList();
+    for (ManifestFile manifest : increment.manifests()) {
+      for (FileScanTask task : increment.planFiles(manifest)) {
+        Assert.assertNotEquals("Residuals must be preserved", Expressions.alwaysTrue(), task.residual());
+        files.add(task.file().path().toString().split("\\.")[0]);
+      }
+    }
+
+    filesMatch(Lists.newArrayList("B", "C"), files);
+  }
+
+  private static DataFile file(String name) {
+    return DataFiles.builder(SPEC)
+        .withPath(name + ".parquet")
+        .withFileSizeInBytes(10)
+        .withPartitionPath("data_bucket=0") // easy way to set partition data for now
+        .withRecordCount(1)
+        .build();
+  }
+
+  private static void add(AppendFiles appendFiles, List<DataFile> adds) {
+    for (DataFile f : adds) {
+      appendFiles.appendFile(f);
+    }
+    appendFiles.commit();
+  }
+
+  private static void delete(DeleteFiles deleteFiles, List<DataFile> deletes) {
+    for (DataFile f : deletes) {
+      deleteFiles.deleteFile(f);
+    }
+    deleteFiles.commit();
+  }
+
+  private static void replace(RewriteFiles rewriteFiles, List<DataFile> deletes, List<DataFile> adds) {
+    rewriteFiles.rewriteFiles(Sets.newHashSet(deletes), Sets.newHashSet(adds));
+    rewriteFiles.commit();
+  }
+
+  private static void overwrite(OverwriteFiles overwriteFiles, List<DataFile> adds, List<DataFile> deletes) {
+    for (DataFile f : adds) {
+      overwriteFiles.addFile(f);
+    }
+    for (DataFile f : deletes) {
+      overwriteFiles.deleteFile(f);
+    }
+    overwriteFiles.commit();
+  }
+
+  private static List<DataFile> files(String... names) {
+    return Lists.transform(Lists.newArrayList(names), TestIncrementalAppendPlanner::file);
+  }
+
+  private List<String> planAppendsBetween(long fromSnapshotId, long toSnapshotId) {
+    IncrementalAppendPlanner.Increment increment = new IncrementalAppendPlanner(table)
+        .planAppendsBetween(fromSnapshotId, toSnapshotId);
+
+    List<String> files = Lists.newArrayList();
+    for (ManifestFile manifest : increment.manifests()) {
+      try (CloseableIterable<FileScanTask> tasks = increment.planFiles(manifest)) {
+        for (FileScanTask task : tasks) {
+          files.add(task.file().path().toString().split("\\.")[0]);
+        }
+      } catch (IOException e) {
+        throw new RuntimeException(e);
+      }
+    }
+
+    return files;
+  }
+
+  private static void filesMatch(List<String> expected, List<String> actual) {
+    Collections.sort(expected);
+    Collections.sort(actual);
+    Assert.assertEquals(expected, actual);
+  }
+}
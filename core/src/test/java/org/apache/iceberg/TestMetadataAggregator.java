@@ -0,0 +1,238 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iceberg;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+import org.apache.iceberg.MetadataAggregator.Aggregate;
+import org.apache.iceberg.expressions.Expressions;
+import org.apache.iceberg.relocated.com.google.common.collect.ImmutableList;
+import org.apache.iceberg.relocated.com.google.common.collect.ImmutableMap;
+import org.apache.iceberg.types.Conversions;
+import org.apache.iceberg.types.Type;
+import org.apache.iceberg.types.Types;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import static org.apache.iceberg.types.Types.NestedField.optional;
+import static org.apache.iceberg.types.Types.NestedField.required;
+
+@RunWith(Parameterized.class)
+public class TestMetadataAggregator extends TableTestBase {
+  private static final String TABLE_NAME = "aggregate_table";
+
+  private static final Schema AGG_SCHEMA = new Schema(
+      required(1, "id", Types.LongType.get()),
+      optional(2, "ts", Types.TimestampType.withZone()),
+      optional(3, "data", Types.StringType.get()),
+      required(4, "date", Types.StringType.get()));
+
+  private static final PartitionSpec AGG_SPEC = PartitionSpec.builderFor(AGG_SCHEMA)
+      .identity("date")
+      .build();
+
+  private static final DataFile FILE_DAY_1 = DataFiles.builder(AGG_SPEC)
+      .withPath("/path/to/data-1.parquet")
+      .withFormat(FileFormat.PARQUET)
+      .withFileSizeInBytes(10)
+      .withPartitionPath("date=2021-01-01")
+      .withMetrics(new Metrics(5L,
+          null, // no column sizes
+          ImmutableMap.of(1, 5L, 2, 5L, 3, 5L), // value count
+          ImmutableMap.of(1, 0L, 2, 1L, 3, 0L), // null count
+          null, // no nan counts
+          ImmutableMap.of(1, toBuffer(Types.LongType.get(), 0L), 2, toBuffer(Types.TimestampType.withZone(), 100L),
+              3, toBuffer(Types.StringType.get(), "a")), // lower bounds
+          ImmutableMap.of(1, toBuffer(Types.LongType.get(), 4L), 2, toBuffer(Types.TimestampType.withZone(), 200L),
+              3, toBuffer(Types.StringType.get(), "z")) // upper bounds
+      ))
+      .build();
+
+  private static final DataFile FILE_DAY_2 = DataFiles.builder(AGG_SPEC)
+      .withPath("/path/to/data-2.parquet")
+      .withFormat(FileFormat.PARQUET)
+      .withFileSizeInBytes(10)
+      .withPartitionPath("date=2021-01-02")
+      .withMetrics(new Metrics(5L,
+          null, // no column sizes
+          ImmutableMap.of(1, 5L, 2, 5L), // value count
+          ImmutableMap.of(1, 0L, 2, 0L), // null count
+          null, // no nan counts
+          ImmutableMap.of(1, toBuffer(Types.LongType.get(), 5L), 2, toBuffer(Types.TimestampType.withZone(), 50L)),
+          ImmutableMap.of(1, toBuffer(Types.LongType.get(), 9L), 2, toBuffer(Types.TimestampType.withZone(), 300L))
+      ))
+      .build();
+
+  private static final DataFile FILE_DAY_2_ORC = DataFiles.builder(AGG_SPEC)
+      .withPath("/path/to/data-3.orc")
+      .withFormat(FileFormat.ORC)
+      .withFileSizeInBytes(10)
+      .withPartitionPath("date=2021-01-02")
+      .withMetrics(new Metrics(5L,
+          null, // no column sizes
+          ImmutableMap.of(1, 5L, 2, 5L), // value count
+          ImmutableMap.of(1, 0L, 2, 0L), // null count
+          null, // no nan counts
+          ImmutableMap.of(1, toBuffer(Types.LongType.get(), 10L), 2, toBuffer(Types.TimestampType.withZone(), 10L)),
+          ImmutableMap.of(1, toBuffer(Types.LongType.get(), 14L), 2, toBuffer(Types.TimestampType.withZone(), 20L))
+      ))
+      .build();
+
+  private static final DataFile FILE_DAY_3_NO_STATS = DataFiles.builder(AGG_SPEC)
+      .withPath("/path/to/data-4.avro")
+      .withFormat(FileFormat.AVRO)
+      .withFileSizeInBytes(10)
+      .withPartitionPath("date=2021-01-03")
+      .withRecordCount(5)
+      .build();
+
+  @Parameterized.Parameters(name = "formatVersion = {0}")
+  public static Object[] parameters() {
+    return new Object[] { 1, 2 };
+  }
+
+  public TestMetadataAggregator(int formatVersion) {
+    super(formatVersion);
+  }
+
+  private Table aggTable = null;
+
+  @Before
+  public void createAggTable() throws IOException {
+    File aggTableDir = temp.newFolder();
+    Assert.assertTrue(aggTableDir.delete());
+    this.aggTable = TestTables.create(aggTableDir, TABLE_NAME, AGG_SCHEMA, AGG_SPEC, formatVersion);
+    aggTable.newFastAppend()
+        .appendFile(FILE_DAY_1)
+        .appendFile(FILE_DAY_2)
+        .appendFile(FILE_DAY_2_ORC)
+        .appendFile(FILE_DAY_3_NO_STATS)
+        .commit();
+  }
+
+  @Test
+  public void testCountStar() {
+    MetadataAggregator.Result result = aggregate(aggTable.newScan(), Aggregate.countStar());
+    Assert.assertTrue("Should answer all files", result.isComplete());
+    Assert.assertEquals("Should answer all files", 4, result.answeredFiles());
+    Assert.assertEquals("Should count all rows", 20L, result.value(0));
+  }
+
+  @Test
+  public void testMinMaxAndCount() {
+    MetadataAggregator.Result result = aggregate(
+        aggTable.newScan().filter(Expressions.in("date", "2021-01-01", "2021-01-02")),
+        Aggregate.min("id"), Aggregate.max("id"), Aggregate.count("ts"), Aggregate.count("id"));
+
+    Assert.assertTrue("Should answer all files", result.isComplete());
+    Assert.assertEquals("Should use the lowest lower bound", 0L, result.value(0));
+    Assert.assertEquals("Should use the highest upper bound", 14L, result.value(1));
+    Assert.assertEquals("Should not count nulls", 14L, result.value(2));
+    Assert.assertEquals("Should count a required column from row counts", 15L, result.value(3));
+  }
+
+  @Test
+  public void testPerFileFallback() {
+    MetadataAggregator.Result result = aggregate(aggTable.newScan(), Aggregate.min("ts"));
+
+    Assert.assertFalse("Should not answer all files", result.isComplete());
+    Assert.assertEquals("Should answer the Parquet files", 2, result.answeredFiles());
+    Assert.assertEquals("Should scan the ORC file and the file without stats",
+        ImmutableList.of(FILE_DAY_2_ORC.path().toString(), FILE_DAY_3_NO_STATS.path().toString()),
+        remainingPaths(result));
+    Assert.assertEquals("Should aggregate the answered files", 50L, result.value(0));
+
+    result.merge(0, 10L);
+    result.merge(0, null);
+    Assert.assertEquals("Should merge partial values", 10L, result.value(0));
+  }
+
+  @Test
+  public void testRowFilterProvenByMetrics() {
+    MetadataAggregator.Result result = aggregate(
+        aggTable.newScan().filter(Expressions.greaterThan("id", 4L)), Aggregate.countStar());
+
+    Assert.assertEquals("Should answer files whose rows all match",
+        ImmutableList.of(FILE_DAY_3_NO_STATS.path().toString()), remainingPaths(result));
+    Assert.assertEquals("Should count the rows of answered files", 10L, result.value(0));
+
+    result = aggregate(aggTable.newScan().filter(Expressions.greaterThan("id", 6L)), Aggregate.countStar());
+    Assert.assertEquals("Should scan files that may contain rows that do not match",
+        ImmutableList.of(FILE_DAY_2.path().toString(), FILE_DAY_3_NO_STATS.path().toString()), remainingPaths(result));
+  }
+
+  @Test
+  public void testStringBoundsAreNotExact() {
+    MetadataAggregator.Result result = aggregate(
+        aggTable.newScan().filter(Expressions.equal("date", "2021-01-01")), Aggregate.max("data"));
+    Assert.assertFalse("Should not answer string bounds, which may be truncated", result.isComplete());
+    Assert.assertNull("Should not have a value", result.value(0));
+  }
+
+  @Test
+  public void testDeleteFiles() {
+    Assume.assumeTrue("Delete files require format v2", formatVersion == 2);
+
+    DeleteFile deletes = FileMetadata.deleteFileBuilder(AGG_SPEC)
+        .ofPositionDeletes()
+        .withPath("/path/to/data-1-deletes.parquet")
+        .withFileSizeInBytes(10)
+        .withPartitionPath("date=2021-01-01")
+        .withRecordCount(1)
+        .build();
+    aggTable.newRowDelta().addDeletes(deletes).commit();
+
+    MetadataAggregator.Result result = aggregate(
+        aggTable.newScan().filter(Expressions.equal("date", "2021-01-01")), Aggregate.countStar());
+    Assert.assertEquals("Should scan files with deletes",
+        ImmutableList.of(FILE_DAY_1.path().toString()), remainingPaths(result));
+    Assert.assertEquals("Should not count rows of files with deletes", 0L, result.value(0));
+  }
+
+  @Test
+  public void testInvalidColumn() {
+    AssertHelpers.assertThrows("Should reject unknown columns",
+        IllegalArgumentException.class, "not a top-level primitive column",
+        () -> new MetadataAggregator(aggTable.newScan(), ImmutableList.of(Aggregate.min("missing"))));
+  }
+
+  private static MetadataAggregator.Result aggregate(TableScan scan, Aggregate... aggregates) {
+    return new MetadataAggregator(scan, ImmutableList.copyOf(aggregates)).aggregate();
+  }
+
+  private static List<String> remainingPaths(MetadataAggregator.Result result) {
+    ImmutableList.Builder<String> paths = ImmutableList.builder();
+    for (FileScanTask task : result.remainingTasks()) {
+      paths.add(task.file().path().toString());
+    }
+
+    return paths.build();
+  }
+
+  private static ByteBuffer toBuffer(Type type, Object value) {
+    return Conversions.toByteBuffer(type, value);
+  }
+}
@@ -24,6 +24,7 @@ import java.util.Collections;
 import org.apache.iceberg.exceptions.CommitFailedException;
 import org.apache.iceberg.exceptions.ValidationException;
 import org.junit.Assert;
+import org.junit.Assume;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.junit.runners.Parameterized;
@@ -294,4 +295,37 @@ public class TestRewriteFiles extends TableTestBase {
 
     Assert.assertEquals("Only 3 manifests should exist", 3, listManifestFiles().size());
   }
+
+  @Test
+  public void testValidateNewDeletesInReplacedPartitions() {
+    Assume.assumeTrue("Delete files require format v2", formatVersion == 2);
+
+    table.newAppend()
+        .appendFile(FILE_A)
+        .appendFile(FILE_B)
+        .commit();
+    long readSnapshotId = table.currentSnapshot().snapshotId();
+
+    table.newRowDelta()
+        .addDeletes(FILE_B_DELETES)
+        .commit();
+
+    table.newRewrite()
+        .rewriteFiles(Sets.newSet(FILE_A), Sets.newSet(FILE_C))
+        .validateFromSnapshot(readSnapshotId)
+        .commit();
+
+    AssertHelpers.assertThrows("Should fail when deletes were added to a replaced partition",
+        ValidationException.class,
+        "Cannot commit, found new delete file for replaced data: /path/to/data-b-deletes.parquet",
+        () -> table.newRewrite()
+            .rewriteFiles(Sets.newSet(FILE_B), Sets.newSet(FILE_D))
+            .validateFromSnapshot(readSnapshotId)
+            .commit());
+
+    table.newRewrite()
+        .rewriteFiles(Sets.newSet(FILE_B), Sets.newSet(FILE_D))
+        .validateFromSnapshot(table.currentSnapshot().snapshotId())
+        .commit();
+  }
 }
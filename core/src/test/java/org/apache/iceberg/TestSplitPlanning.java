@@ -22,14 +22,17 @@ package org.apache.iceberg;
 import java.io.File;
 import java.io.IOException;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.iceberg.hadoop.HadoopTables;
 import org.apache.iceberg.io.CloseableIterable;
+import org.apache.iceberg.relocated.com.google.common.collect.ImmutableMap;
 import org.apache.iceberg.relocated.com.google.common.collect.Iterables;
 import org.apache.iceberg.relocated.com.google.common.collect.Lists;
 import org.apache.iceberg.types.Types;
 import org.junit.Assert;
+import org.junit.Assume;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
@@ -173,6 +176,81 @@ public class TestSplitPlanning extends TableTestBase {
     Assert.assertEquals(4, Iterables.size(scan.planTasks()));
   }
 
+  @Test
+  public void testCostBasedPlanningWithProjection() {
+    table.updateProperties()
+        .set(TableProperties.SPLIT_COST_BASED_PLANNING_ENABLED, "true")
+        .commit();
+    List<DataFile> files128Mb = Lists.newArrayList();
+    for (int fileNum = 0; fileNum < 8; fileNum++) {
+      files128Mb.add(newFileWithColumnSizes(16 * 1024 * 1024, 112 * 1024 * 1024));
+    }
+    appendFiles(files128Mb);
+    // we expect 8 bins when reading all columns, since each split reads 128MB
+    Assert.assertEquals(8, Iterables.size(table.newScan().planTasks()));
+    // id is 1/8th of each file, so all 8 splits fit in one 128MB bin
+    Assert.assertEquals(1, Iterables.size(table.newScan().select("id").planTasks()));
+    // without cost-based planning, only the split length is used
+    TableScan scan = table.newScan()
+        .select("id")
+        .option(TableProperties.SPLIT_COST_BASED_PLANNING_ENABLED, "false");
+    Assert.assertEquals(8, Iterables.size(scan.planTasks()));
+  }
+
+  @Test
+  public void testCostBasedPlanningWithDeletes() {
+    Assume.assumeTrue("Only V2 Tables Support Deletes", formatVersion >= 2);
+
+    TableOperations ops = ((HasTableOperations) table).operations();
+    ops.commit(ops.current(), ops.current().upgradeToFormatVersion(2));
+    table.refresh();
+
+    List<DataFile> files32Mb = newFiles(4, 32 * 1024 * 1024);
+    appendFiles(files32Mb);
+    table.newRowDelta()
+        .addDeletes(FileMetadata.deleteFileBuilder(PartitionSpec.unpartitioned())
+            .ofPositionDeletes()
+            .withPath(FileFormat.PARQUET.addExtension(UUID.randomUUID().toString()))
+            .withFileSizeInBytes(64 * 1024 * 1024)
+            .withRecordCount(2)
+            .build())
+        .commit();
+    // without cost-based planning, the 4 files fit in a single 128MB bin
+    Assert.assertEquals(1, Iterables.size(table.newScan().planTasks()));
+    // each split also reads the 64MB delete file, so each split weighs 96MB
+    TableScan scan = table.newScan()
+        .option(TableProperties.SPLIT_COST_BASED_PLANNING_ENABLED, "true");
+    Assert.assertEquals(4, Iterables.size(scan.planTasks()));
+  }
+
+  @Test
+  public void testPartitionAlignedPlanning() throws IOException {
+    PartitionSpec spec = PartitionSpec.builderFor(SCHEMA).identity("data").build();
+    Table partitionedTable = TABLES.create(SCHEMA, spec, temp.newFolder().toURI().toString());
+    AppendFiles append = partitionedTable.newAppend();
+    for (int fileNum = 0; fileNum < 8; fileNum++) {
+      append.appendFile(DataFiles.builder(spec)
+          .withPath(FileFormat.PARQUET.addExtension(UUID.randomUUID().toString()))
+          .withPartitionPath(fileNum % 2 == 0 ? "data=a" : "data=b")
+          .withFileSizeInBytes(16 * 1024 * 1024)
+          .withRecordCount(2)
+          .build());
+    }
+    append.commit();
+    // all 8 files fit in a single 128MB bin
+    Assert.assertEquals(1, Iterables.size(partitionedTable.newScan().planTasks()));
+    // with partition-aligned planning, each partition gets its own bin
+    TableScan scan = partitionedTable.newScan()
+        .option(TableProperties.SPLIT_PARTITION_ALIGNED, "true");
+    List<CombinedScanTask> tasks = Lists.newArrayList(scan.planTasks());
+    Assert.assertEquals(2, tasks.size());
+    for (CombinedScanTask task : tasks) {
+      Assert.assertEquals("Each bin should have 4 files", 4, task.files().size());
+      Assert.assertEquals("Each bin should have files from one partition", 1,
+          task.files().stream().map(file -> file.file().partition().get(0, String.class)).distinct().count());
+    }
+  }
+
   private void appendFiles(Iterable<DataFile> files) {
     AppendFiles appendFiles = table.newAppend();
     files.forEach(appendFiles::appendFile);
@@ -191,6 +269,16 @@ public class TestSplitPlanning extends TableTestBase {
     return files;
   }
 
+  private DataFile newFileWithColumnSizes(long idSizeInBytes, long dataSizeInBytes) {
+    String fileName = UUID.randomUUID().toString();
+    Map<Integer, Long> columnSizes = ImmutableMap.of(1, idSizeInBytes, 2, dataSizeInBytes);
+    return DataFiles.builder(PartitionSpec.unpartitioned())
+        .withPath(FileFormat.PARQUET.addExtension(fileName))
+        .withFileSizeInBytes(idSizeInBytes + dataSizeInBytes)
+        .withMetrics(new Metrics(2L, columnSizes, null, null, null))
+        .build();
+  }
+
   private DataFile newFile(long sizeInBytes, FileFormat fileFormat) {
     String fileName = UUID.randomUUID().toString();
     return DataFiles.builder(PartitionSpec.unpartitioned())
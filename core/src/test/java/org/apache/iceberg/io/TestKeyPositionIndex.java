@@ -0,0 +1,233 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iceberg.io;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Map;
+import java.util.Random;
+import org.apache.iceberg.AssertHelpers;
+import org.apache.iceberg.data.GenericRecord;
+import org.apache.iceberg.data.Record;
+import org.apache.iceberg.relocated.com.google.common.collect.Maps;
+import org.apache.iceberg.types.Types;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class TestKeyPositionIndex {
+  private static final Types.StructType KEY_TYPE = Types.StructType.of(
+      Types.NestedField.required(1, "id", Types.LongType.get()),
+      Types.NestedField.optional(2, "data", Types.StringType.get())
+  );
+
+  // small enough that every few thousand keys are spilled
+  private static final long SMALL_MEMORY_BYTES = 64 * 1024;
+
+  @Rule
+  public TemporaryFolder temp = new TemporaryFolder();
+
+  private final Record keyRecord = GenericRecord.create(KEY_TYPE);
+  private File spillDir = null;
+
+  @Before
+  public void createSpillDir() throws IOException {
+    this.spillDir = temp.newFolder();
+  }
+
+  private Record key(long id, String data) {
+    keyRecord.setField("id", id);
+    keyRecord.setField("data", data);
+    return keyRecord;
+  }
+
+  @Test
+  public void testPutAndRemove() throws IOException {
+    try (KeyPositionIndex index = new KeyPositionIndex(KEY_TYPE, 1024 * 1024, spillDir)) {
+      Assert.assertEquals(KeyPositionIndex.NOT_FOUND, index.put(key(1L, "a"), "file-1", 0L));
+      Assert.assertEquals(KeyPositionIndex.NOT_FOUND, index.put(key(1L, null), "file-1", 1L));
+      Assert.assertEquals(KeyPositionIndex.NOT_FOUND, index.put(key(2L, "a"), "file-2", 0L));
+      Assert.assertEquals("Should have 3 keys", 3, index.size());
+
+      long previous = index.put(key(1L, "a"), "file-2", 1L);
+      Assert.assertEquals("Should return the previous path", "file-1", index.path(previous).toString());
+      Assert.assertEquals("Should return the previous offset", 0L, index.offset(previous));
+      Assert.assertEquals("Replacing a key should not change the size", 3, index.size());
+
+      previous = index.remove(key(1L, "a"));
+      Assert.assertEquals("Should return the removed path", "file-2", index.path(previous).toString());
+      Assert.assertEquals("Should return the removed offset", 1L, index.offset(previous));
+      Assert.assertEquals("Should have 2 keys", 2, index.size());
+
+      Assert.assertEquals("Should not find a removed key", KeyPositionIndex.NOT_FOUND, index.remove(key(1L, "a")));
+      Assert.assertEquals("Should not find a missing key", KeyPositionIndex.NOT_FOUND, index.remove(key(3L, "a")));
+      Assert.assertEquals("Should re-insert a removed key",
+          KeyPositionIndex.NOT_FOUND, index.put(key(1L, "a"), "file-3", 2L));
+      Assert.assertEquals("Should have 3 keys", 3, index.size());
+
+      Assert.assertEquals("Should not spill", 0, index.spillCount());
+      Assert.assertEquals("Should not have spilled bytes", 0L, index.spilledBytes());
+    }
+  }
+
+  @Test
+  public void testSpillKeepsAllKeys() throws IOException {
+    int numKeys = 50000;
+    try (KeyPositionIndex index = new KeyPositionIndex(KEY_TYPE, SMALL_MEMORY_BYTES, spillDir)) {
+      for (int i = 0; i < numKeys; i += 1) {
+        Assert.assertEquals(KeyPositionIndex.NOT_FOUND, index.put(key(i, "data-" + i), "file-1", i));
+      }
+
+      Assert.assertTrue("Should spill", index.spillCount() > 0);
+      Assert.assertTrue("Should have spilled bytes", index.spilledBytes() > 0);
+      Assert.assertTrue("Should merge runs", index.runCount() <= 8);
+      Assert.assertEquals("Should have all keys", numKeys, index.size());
+
+      for (int i = 0; i < numKeys; i += 1) {
+        long previous = index.put(key(i, "data-" + i), "file-2", i);
+        Assert.assertNotEquals("Should find spilled key " + i, KeyPositionIndex.NOT_FOUND, previous);
+        Assert.assertEquals("file-1", index.path(previous).toString());
+        Assert.assertEquals(i, index.offset(previous));
+      }
+
+      Assert.assertEquals("Should have all keys", numKeys, index.size());
+    }
+
+    Assert.assertEquals("Should delete spilled runs on close", 0, spillDir.listFiles().length);
+  }
+
+  @Test
+  public void testRemoveShadowsSpilledKeys() throws IOException {
+    int numKeys = 20000;
+    try (KeyPositionIndex index = new KeyPositionIndex(KEY_TYPE, SMALL_MEMORY_BYTES, spillDir)) {
+      for (int i = 0; i < numKeys; i += 1) {
+        index.put(key(i, "data"), "file-1", i);
+      }
+
+      Assert.assertTrue("Should spill", index.spillCount() > 0);
+
+      for (int i = 0; i < numKeys; i += 2) {
+        long previous = index.remove(key(i, "data"));
+        Assert.assertEquals("Should remove spilled key " + i, i, index.offset(previous));
+      }
+
+      Assert.assertEquals("Should have half of the keys", numKeys / 2, index.size());
+
+      for (int i = 0; i < numKeys; i += 1) {
+        long previous = index.remove(key(i, "data"));
+        if (i % 2 == 0) {
+          Assert.assertEquals("Should not find removed key " + i, KeyPositionIndex.NOT_FOUND, previous);
+        } else {
+          Assert.assertEquals("Should remove spilled key " + i, i, index.offset(previous));
+        }
+      }
+
+      Assert.assertEquals("Should have no keys", 0, index.size());
+    }
+  }
+
+  @Test
+  public void testRandomOperations() throws IOException {
+    Random random = new Random(381);
+    Map<Long, Long> expected = Maps.newHashMap();
+
+    try (KeyPositionIndex index = new KeyPositionIndex(KEY_TYPE, SMALL_MEMORY_BYTES, spillDir)) {
+      for (long offset = 0; offset < 200000; offset += 1) {
+        long id = random.nextInt(30000);
+        if (random.nextInt(4) == 0) {
+          Long expectedOffset = expected.remove(id);
+          long previous = index.remove(key(id, "data"));
+          assertPosition(expectedOffset, index, previous);
+        } else {
+          Long expectedOffset = expected.put(id, offset);
+          long previous = index.put(key(id, "data"), "file-" + (offset % 3), offset);
+          assertPosition(expectedOffset, index, previous);
+        }
+      }
+
+      Assert.assertTrue("Should spill", index.spillCount() > 8);
+      Assert.assertEquals("Should have the expected number of keys", expected.size(), index.size());
+    }
+  }
+
+  @Test
+  public void testSpilledRunsAreCharged() throws IOException {
+    try (KeyPositionIndex index = new KeyPositionIndex(KEY_TYPE, SMALL_MEMORY_BYTES, spillDir)) {
+      long emptyBytes = index.memoryBytes();
+      for (int i = 0; i < 200; i += 1) {
+        index.put(key(i, "data"), "file-1", i);
+      }
+
+      Assert.assertTrue("Should spill the keys", index.spill());
+      Assert.assertTrue("Should charge the bloom filter and block index of the run",
+          index.memoryBytes() > emptyBytes);
+    }
+  }
+
+  @Test
+  public void testSharedBudgetSpillsLargestIndex() throws IOException {
+    SpillMemoryBudget budget = new SpillMemoryBudget(SMALL_MEMORY_BYTES, spillDir);
+    try (KeyPositionIndex large = new KeyPositionIndex(KEY_TYPE, budget);
+         KeyPositionIndex small = new KeyPositionIndex(KEY_TYPE, budget)) {
+      for (int i = 0; i < 100; i += 1) {
+        small.put(key(i, "small"), "file-1", i);
+      }
+
+      for (int i = 0; i < 20000; i += 1) {
+        large.put(key(i, "large"), "file-2", i);
+        Assert.assertTrue("Indexes should stay within the shared budget",
+            budget.memoryBytes() <= SMALL_MEMORY_BYTES);
+      }
+
+      Assert.assertTrue("Should spill the large index", large.spillCount() > 0);
+      Assert.assertEquals("Should not spill the small index", 0, small.spillCount());
+      Assert.assertTrue("Should spill to the configured directory", spillDir.listFiles().length > 0);
+
+      for (int i = 0; i < 100; i += 1) {
+        Assert.assertEquals("Should find key " + i, i, small.offset(small.remove(key(i, "small"))));
+      }
+    }
+
+    Assert.assertEquals("Should unregister closed indexes", 0L, budget.memoryBytes());
+    Assert.assertEquals("Should delete spilled runs on close", 0, spillDir.listFiles().length);
+  }
+
+  @Test
+  public void testInvalidOffset() throws IOException {
+    try (KeyPositionIndex index = new KeyPositionIndex(KEY_TYPE, 1024, spillDir)) {
+      AssertHelpers.assertThrows("Should reject negative offsets",
+          IllegalArgumentException.class, "Invalid row offset",
+          () -> index.put(key(1L, "a"), "file", -1L));
+    }
+  }
+
+  private static void assertPosition(Long expectedOffset, KeyPositionIndex index, long position) {
+    if (expectedOffset == null) {
+      Assert.assertEquals("Should not find a previous position", KeyPositionIndex.NOT_FOUND, position);
+    } else {
+      Assert.assertNotEquals("Should find a previous position", KeyPositionIndex.NOT_FOUND, position);
+      Assert.assertEquals("Should return the previous offset", expectedOffset.longValue(), index.offset(position));
+      Assert.assertEquals("Should return the previous path",
+          "file-" + (expectedOffset % 3), index.path(position).toString());
+    }
+  }
+}
@@ -173,6 +173,19 @@ public class TestBinPacking {
         pack(list(64, 64, 128, 32, 32, 32, 32), 128, 1, true));
   }
 
+  @Test
+  public void testKeyedBinPacking() {
+    Iterable<List<Integer>> packed = new BinPacking.KeyedPackingIterable<>(
+        list(1, 2, 3, 4, 5, 6), 10, 1, Integer::longValue, item -> item % 2, false);
+    Assert.assertEquals("Should close bins per key and return open bins at the end",
+        list(list(2, 4), list(1, 3, 5), list(6)), Lists.newArrayList(packed));
+
+    Assert.assertEquals("Should pack every key in its own bin",
+        list(list(1, 3, 5), list(2, 4, 6)),
+        Lists.newArrayList(new BinPacking.KeyedPackingIterable<>(
+            list(1, 2, 3, 4, 5, 6), 15, 1, Integer::longValue, item -> item % 2, false)));
+  }
+
   private List<List<Integer>> pack(List<Integer> items, long targetWeight) {
     return pack(items, targetWeight, Integer.MAX_VALUE);
   }
@@ -0,0 +1,200 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iceberg.util;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import org.apache.iceberg.AssertHelpers;
+import org.apache.iceberg.NullOrder;
+import org.apache.iceberg.Schema;
+import org.apache.iceberg.SortOrder;
+import org.apache.iceberg.StructLike;
+import org.apache.iceberg.TestHelpers.Row;
+import org.apache.iceberg.relocated.com.google.common.collect.ImmutableList;
+import org.apache.iceberg.relocated.com.google.common.collect.Lists;
+import org.apache.iceberg.types.Comparators;
+import org.apache.iceberg.types.Types;
+import org.junit.Assert;
+import org.junit.Test;
+
+import static org.apache.iceberg.types.Types.NestedField.optional;
+
+public class TestSortKeyEncoder {
+  private static final Schema SCHEMA = new Schema(
+      optional(1, "id", Types.IntegerType.get()),
+      optional(2, "data", Types.StringType.get()),
+      optional(3, "value", Types.DoubleType.get()),
+      optional(4, "amount", Types.DecimalType.of(9, 2))
+  );
+  private static final Comparator<ByteBuffer> KEY_COMPARATOR = Comparators.unsignedBytes();
+
+  @Test
+  public void testSortOrderKeys() {
+    SortOrder order = SortOrder.builderFor(SCHEMA)
+        .asc("data", NullOrder.NULLS_FIRST)
+        .desc("id", NullOrder.NULLS_LAST)
+        .build();
+    SortKeyEncoder encoder = SortKeyEncoder.forSortOrder(order);
+
+    Comparator<StructLike> expected = Comparator
+        .comparing((StructLike row) -> row.get(1, String.class), Comparator.nullsFirst(Comparator.naturalOrder()))
+        .thenComparing(row -> row.get(0, Integer.class), Comparator.nullsLast(Comparator.reverseOrder()));
+
+    Random random = new Random(482);
+    List<StructLike> rows = Lists.newArrayList();
+    for (int i = 0; i < 200; i += 1) {
+      Integer id = random.nextInt(10) == 0 ? null : random.nextInt(20) - 10;
+      String data = random.nextInt(10) == 0 ? null : randomString(random);
+      rows.add(Row.of(id, data, null, null));
+    }
+
+    for (StructLike left : rows) {
+      for (StructLike right : rows) {
+        Assert.assertEquals("Keys should compare like rows: " + left + " and " + right,
+            Integer.signum(expected.compare(left, right)), Integer.signum(compare(encoder, left, right)));
+      }
+    }
+  }
+
+  @Test
+  public void testOrderedValues() {
+    assertOrdered("id", Row.of(Integer.MIN_VALUE, null, null, null), Row.of(-1, null, null, null),
+        Row.of(0, null, null, null), Row.of(1, null, null, null), Row.of(Integer.MAX_VALUE, null, null, null));
+
+    assertOrdered("data", Row.of(null, "", null, null), Row.of(null, "a", null, null),
+        Row.of(null, "a\u0000", null, null), Row.of(null, "a\u0000b", null, null), Row.of(null, "ab", null, null),
+        Row.of(null, "b", null, null));
+
+    assertOrdered("value", Row.of(null, null, Double.NEGATIVE_INFINITY, null), Row.of(null, null, -1.5D, null),
+        Row.of(null, null, -0.0D, null), Row.of(null, null, 0.0D, null), Row.of(null, null, 2.5D, null),
+        Row.of(null, null, Double.POSITIVE_INFINITY, null), Row.of(null, null, Double.NaN, null));
+
+    assertOrdered("amount", Row.of(null, null, null, new BigDecimal("-1000.00")),
+        Row.of(null, null, null, new BigDecimal("-0.01")),
+        Row.of(null, null, null, new BigDecimal("0.00")),
+        Row.of(null, null, null, new BigDecimal("0.01")),
+        Row.of(null, null, null, new BigDecimal("1000.00")));
+  }
+
+  @Test
+  public void testInterleaveBits() {
+    byte[] ones = new byte[] { (byte) 0xFF, 0, 0, 0, 0, 0, 0, 0 };
+    byte[] zeros = new byte[8];
+
+    byte[] key = SortKeyEncoder.interleaveBits(new byte[][] { ones, zeros });
+    Assert.assertEquals("Should have 8 bytes per column", 16, key.length);
+    Assert.assertEquals("Should interleave bits of the first column", (byte) 0xAA, key[0]);
+    Assert.assertEquals("Should interleave bits of the first column", (byte) 0xAA, key[1]);
+    for (int i = 2; i < key.length; i += 1) {
+      Assert.assertEquals("Should not set other bits", 0, key[i]);
+    }
+
+    byte[] narrow = new byte[] { (byte) 0xFF };
+    byte[] wide = new byte[] { 0, (byte) 0xFF };
+    byte[] mixedKey = SortKeyEncoder.interleaveBits(new byte[][] { narrow, wide });
+    Assert.assertArrayEquals("Should append the remaining bits of wider columns",
+        new byte[] { (byte) 0xAA, (byte) 0xAA, (byte) 0xFF }, mixedKey);
+  }
+
+  @Test
+  public void testZOrderColumnWidth() {
+    Schema schema = new Schema(
+        optional(1, "i", Types.IntegerType.get()),
+        optional(2, "l", Types.LongType.get()));
+    SortKeyEncoder encoder = SortKeyEncoder.forZOrder(schema, ImmutableList.of("i", "l"));
+
+    byte[] key = encoder.encode(Row.of(0, 0L));
+    Assert.assertEquals("Should encode ints in 4 bytes and longs in 8 bytes", 12, key.length);
+
+    // the second most significant bit of the int is interleaved into the first byte of the key
+    byte[] otherKey = encoder.encode(Row.of(1 << 30, 0L));
+    Assert.assertNotEquals("High bits of int columns should be at the start of the key", key[0], otherKey[0]);
+  }
+
+  @Test
+  public void testZOrderLocality() {
+    Schema pointSchema = new Schema(
+        optional(1, "x", Types.IntegerType.get()),
+        optional(2, "y", Types.DateType.get()));
+    SortKeyEncoder encoder = SortKeyEncoder.forZOrder(pointSchema, ImmutableList.of("x", "y"));
+
+    List<StructLike> points = Lists.newArrayList();
+    for (int x = 0; x < 8; x += 1) {
+      for (int y = 0; y < 8; y += 1) {
+        points.add(Row.of(x, y));
+      }
+    }
+
+    points.sort((left, right) -> compare(encoder, left, right));
+
+    // each quarter of a z-order curve covers one quadrant of the grid
+    for (int quarter = 0; quarter < 4; quarter += 1) {
+      List<StructLike> quadrant = points.subList(quarter * 16, (quarter + 1) * 16);
+      int minX = quadrant.stream().mapToInt(row -> row.get(0, Integer.class)).min().getAsInt();
+      int maxX = quadrant.stream().mapToInt(row -> row.get(0, Integer.class)).max().getAsInt();
+      int minY = quadrant.stream().mapToInt(row -> row.get(1, Integer.class)).min().getAsInt();
+      int maxY = quadrant.stream().mapToInt(row -> row.get(1, Integer.class)).max().getAsInt();
+      Assert.assertEquals("Quarter should cover 4 values of x", 3, maxX - minX);
+      Assert.assertEquals("Quarter should cover 4 values of y", 3, maxY - minY);
+    }
+  }
+
+  @Test
+  public void testInvalidColumns() {
+    AssertHelpers.assertThrows("Should reject unknown columns",
+        IllegalArgumentException.class, "Cannot find z-order column: missing",
+        () -> SortKeyEncoder.forZOrder(SCHEMA, ImmutableList.of("missing")));
+
+    AssertHelpers.assertThrows("Should reject decimal z-order columns",
+        IllegalArgumentException.class, "Cannot z-order by type: decimal(9, 2)",
+        () -> SortKeyEncoder.forZOrder(SCHEMA, ImmutableList.of("amount")));
+
+    AssertHelpers.assertThrows("Should reject unsorted orders",
+        IllegalArgumentException.class, "Cannot encode sort keys for an unsorted order",
+        () -> SortKeyEncoder.forSortOrder(SortOrder.unsorted()));
+  }
+
+  private static void assertOrdered(String column, StructLike... rows) {
+    SortKeyEncoder ascending = SortKeyEncoder.forSortOrder(SortOrder.builderFor(SCHEMA).asc(column).build());
+    SortKeyEncoder descending = SortKeyEncoder.forSortOrder(SortOrder.builderFor(SCHEMA).desc(column).build());
+    for (int i = 1; i < rows.length; i += 1) {
+      Assert.assertTrue("Should sort ascending: " + rows[i - 1] + " < " + rows[i],
+          compare(ascending, rows[i - 1], rows[i]) < 0);
+      Assert.assertTrue("Should sort descending: " + rows[i - 1] + " > " + rows[i],
+          compare(descending, rows[i - 1], rows[i]) > 0);
+    }
+  }
+
+  private static int compare(SortKeyEncoder encoder, StructLike left, StructLike right) {
+    return KEY_COMPARATOR.compare(ByteBuffer.wrap(encoder.encode(left)), ByteBuffer.wrap(encoder.encode(right)));
+  }
+
+  private static String randomString(Random random) {
+    char[] chars = new char[random.nextInt(4)];
+    for (int i = 0; i < chars.length; i += 1) {
+      chars[i] = (char) ('a' + random.nextInt(3));
+    }
+
+    return new String(chars);
+  }
+}
@@ -0,0 +1,169 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iceberg;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.iceberg.data.GenericAppenderFactory;
+import org.apache.iceberg.data.GenericRecord;
+import org.apache.iceberg.data.IcebergGenerics;
+import org.apache.iceberg.data.Record;
+import org.apache.iceberg.hadoop.HadoopTables;
+import org.apache.iceberg.io.CloseableIterable;
+import org.apache.iceberg.io.FileAppender;
+import org.apache.iceberg.io.OutputFile;
+import org.apache.iceberg.relocated.com.google.common.collect.ImmutableList;
+import org.apache.iceberg.types.Types;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import static org.apache.iceberg.types.Types.NestedField.optional;
+import static org.apache.iceberg.types.Types.NestedField.required;
+
+/**
+ * A benchmark that compares answering COUNT(*), MIN, and MAX from file metadata with scanning a partitioned table.
+ *
+ * To run this benchmark:
+ * <code>
+ *   ./gradlew :iceberg-data:jmh
+ *       -PjmhIncludeRegex=MetadataAggregatorBenchmark
+ *       -PjmhOutputPath=benchmark/metadata-aggregator-benchmark-result.txt
+ * </code>
+ */
+@Fork(1)
+@State(Scope.Benchmark)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@BenchmarkMode(Mode.SingleShotTime)
+public class MetadataAggregatorBenchmark {
+
+  private static final Schema SCHEMA = new Schema(
+      required(1, "id", Types.LongType.get()),
+      required(2, "day", Types.IntegerType.get()),
+      optional(3, "data", Types.StringType.get()));
+  private static final PartitionSpec SPEC = PartitionSpec.builderFor(SCHEMA).identity("day").build();
+  private static final List<MetadataAggregator.Aggregate> AGGREGATES = ImmutableList.of(
+      MetadataAggregator.Aggregate.countStar(),
+      MetadataAggregator.Aggregate.min("id"),
+      MetadataAggregator.Aggregate.max("id"));
+  private static final int NUM_PARTITIONS = 10;
+  private static final int ROWS_PER_FILE = 10000;
+
+  @Param({"100", "1000"})
+  private int numFiles;
+
+  private File location;
+  private Table table;
+
+  @Setup
+  public void setupBenchmark() throws IOException {
+    this.location = File.createTempFile("metadata-aggregator-benchmark", "");
+    location.delete();
+
+    this.table = new HadoopTables(new Configuration()).create(SCHEMA, SPEC, location.toString());
+
+    GenericAppenderFactory appenderFactory = new GenericAppenderFactory(SCHEMA, SPEC);
+    GenericRecord record = GenericRecord.create(SCHEMA);
+    AppendFiles append = table.newFastAppend();
+    long id = 0L;
+    for (int fileNum = 0; fileNum < numFiles; fileNum += 1) {
+      int day = fileNum % NUM_PARTITIONS;
+      OutputFile outputFile = table.io().newOutputFile(
+          table.locationProvider().newDataLocation(String.format("day=%d/file-%d.parquet", day, fileNum)));
+
+      FileAppender<Record> appender = appenderFactory.newAppender(outputFile, FileFormat.PARQUET);
+      try (FileAppender<Record> closeableAppender = appender) {
+        for (int row = 0; row < ROWS_PER_FILE; row += 1) {
+          record.setField("id", id);
+          record.setField("day", day);
+          record.setField("data", "data-" + id);
+          closeableAppender.add(record);
+          id += 1;
+        }
+      }
+
+      append.appendFile(DataFiles.builder(SPEC)
+          .withInputFile(outputFile.toInputFile())
+          .withPartitionPath("day=" + day)
+          .withMetrics(appender.metrics())
+          .build());
+    }
+
+    append.commit();
+  }
+
+  @TearDown
+  public void tearDownBenchmark() {
+    deleteRecursively(location);
+  }
+
+  @Benchmark
+  @Threads(1)
+  public void aggregateFromMetadata(Blackhole blackhole) {
+    MetadataAggregator.Result result = new MetadataAggregator(table.newScan(), AGGREGATES).aggregate();
+    for (int index = 0; index < AGGREGATES.size(); index += 1) {
+      blackhole.consume(result.value(index));
+    }
+  }
+
+  @Benchmark
+  @Threads(1)
+  public void aggregateFromScan(Blackhole blackhole) throws IOException {
+    long count = 0L;
+    long min = Long.MAX_VALUE;
+    long max = Long.MIN_VALUE;
+    try (CloseableIterable<Record> records = IcebergGenerics.read(table).select("id").build()) {
+      for (Record record : records) {
+        long id = (Long) record.getField("id");
+        count += 1;
+        min = Math.min(min, id);
+        max = Math.max(max, id);
+      }
+    }
+
+    blackhole.consume(count);
+    blackhole.consume(min);
+    blackhole.consume(max);
+  }
+
+  private static void deleteRecursively(File file) {
+    File[] children = file.listFiles();
+    if (children != null) {
+      for (File child : children) {
+        deleteRecursively(child);
+      }
+    }
+
+    file.delete();
+  }
+}
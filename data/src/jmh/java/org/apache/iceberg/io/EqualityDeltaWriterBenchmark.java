@@ -0,0 +1,185 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iceberg.io;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.iceberg.FileFormat;
+import org.apache.iceberg.LocationProviders;
+import org.apache.iceberg.PartitionSpec;
+import org.apache.iceberg.Schema;
+import org.apache.iceberg.StructLike;
+import org.apache.iceberg.data.GenericAppenderFactory;
+import org.apache.iceberg.data.GenericRecord;
+import org.apache.iceberg.data.Record;
+import org.apache.iceberg.encryption.PlaintextEncryptionManager;
+import org.apache.iceberg.hadoop.HadoopFileIO;
+import org.apache.iceberg.relocated.com.google.common.collect.ImmutableMap;
+import org.apache.iceberg.types.Types;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import static org.apache.iceberg.types.Types.NestedField.optional;
+import static org.apache.iceberg.types.Types.NestedField.required;
+
+/**
+ * A benchmark that evaluates the upsert throughput of equality delta writers as the number of distinct keys in a
+ * checkpoint grows beyond the memory limit of the key index.
+ *
+ * Every key is inserted once and then upserted once, so that half of the writes look up a key that may have been
+ * spilled to local disk.
+ *
+ * To run this benchmark:
+ * <code>
+ *   ./gradlew :iceberg-data:jmh
+ *       -PjmhIncludeRegex=EqualityDeltaWriterBenchmark
+ *       -PjmhOutputPath=benchmark/equality-delta-writer-benchmark-result.txt
+ * </code>
+ */
+@Fork(1)
+@State(Scope.Benchmark)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@BenchmarkMode(Mode.SingleShotTime)
+public class EqualityDeltaWriterBenchmark {
+
+  private static final Schema SCHEMA = new Schema(
+      required(1, "id", Types.LongType.get()),
+      optional(2, "data", Types.StringType.get()));
+  private static final Schema DELETE_SCHEMA = SCHEMA.select("id");
+  private static final long TARGET_FILE_SIZE = 512 * 1024 * 1024L;
+
+  @Param({"100000", "1000000", "5000000"})
+  private int numKeys;
+
+  @Param({"67108864", "8388608"})
+  private long keyIndexMemoryBytes;
+
+  private File location;
+  private long[] ids;
+  private FileIO io;
+  private OutputFileFactory fileFactory;
+  private FileAppenderFactory<Record> appenderFactory;
+
+  @Setup
+  public void setupBenchmark() throws IOException {
+    this.location = File.createTempFile("equality-delta-writer-benchmark", "");
+    location.delete();
+
+    // shuffle the keys so that lookups are not served in hash order
+    Random random = new Random(42);
+    this.ids = new long[numKeys];
+    for (int i = 0; i < numKeys; i += 1) {
+      ids[i] = i;
+    }
+
+    for (int i = numKeys - 1; i > 0; i -= 1) {
+      int swap = random.nextInt(i + 1);
+      long tmp = ids[i];
+      ids[i] = ids[swap];
+      ids[swap] = tmp;
+    }
+
+    PartitionSpec spec = PartitionSpec.unpartitioned();
+    this.io = new HadoopFileIO(new Configuration());
+    this.fileFactory = new OutputFileFactory(spec, FileFormat.AVRO,
+        LocationProviders.locationsFor(location.toURI().toString(), ImmutableMap.of()),
+        io, new PlaintextEncryptionManager(), 1, 1);
+    this.appenderFactory = new GenericAppenderFactory(SCHEMA, spec,
+        new int[] { SCHEMA.findField("id").fieldId() }, DELETE_SCHEMA, null);
+  }
+
+  @TearDown
+  public void tearDownBenchmark() {
+    deleteRecursively(location);
+  }
+
+  @Benchmark
+  @Threads(1)
+  public void upsert() throws IOException {
+    GenericRecord record = GenericRecord.create(SCHEMA);
+    try (UpsertTaskWriter writer = new UpsertTaskWriter(appenderFactory, fileFactory, io, keyIndexMemoryBytes)) {
+      for (int pass = 0; pass < 2; pass += 1) {
+        for (long id : ids) {
+          record.setField("id", id);
+          record.setField("data", "data-" + pass);
+          writer.write(record);
+        }
+      }
+
+      writer.complete();
+    }
+  }
+
+  private static void deleteRecursively(File file) {
+    File[] children = file.listFiles();
+    if (children != null) {
+      for (File child : children) {
+        deleteRecursively(child);
+      }
+    }
+
+    file.delete();
+  }
+
+  private static class UpsertTaskWriter extends BaseTaskWriter<Record> {
+    private final RecordDeltaWriter deltaWriter;
+
+    private UpsertTaskWriter(FileAppenderFactory<Record> appenderFactory, OutputFileFactory fileFactory,
+                             FileIO io, long keyIndexMemoryBytes) {
+      super(PartitionSpec.unpartitioned(), FileFormat.AVRO, appenderFactory, fileFactory, io, TARGET_FILE_SIZE,
+          keyIndexMemoryBytes, null);
+      this.deltaWriter = new RecordDeltaWriter();
+    }
+
+    @Override
+    public void write(Record row) throws IOException {
+      deltaWriter.write(row);
+    }
+
+    @Override
+    public void close() throws IOException {
+      deltaWriter.close();
+    }
+
+    private class RecordDeltaWriter extends BaseEqualityDeltaWriter {
+      private RecordDeltaWriter() {
+        super(null, SCHEMA, DELETE_SCHEMA);
+      }
+
+      @Override
+      protected StructLike asStructLike(Record row) {
+        return row;
+      }
+    }
+  }
+}
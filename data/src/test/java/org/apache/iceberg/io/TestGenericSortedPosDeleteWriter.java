@@ -308,6 +308,83 @@ public class TestGenericSortedPosDeleteWriter extends TableTestBase {
     Assert.assertEquals("Should have no record.", expectedRowSet(ImmutableList.of()), actualRowSet("*"));
   }
 
+  @Test
+  public void testSpillAndMerge() throws IOException {
+    FileAppenderFactory<Record> appenderFactory = new GenericAppenderFactory(table.schema(), table.spec(),
+        null, null, null);
+
+    List<DataFile> dataFiles = Lists.newArrayList();
+    for (int fileIndex = 0; fileIndex < 5; fileIndex++) {
+      List<Record> recordList = Lists.newLinkedList();
+      for (int recordIndex = 0; recordIndex < 100; recordIndex++) {
+        int id = fileIndex * 100 + recordIndex;
+        recordList.add(createRow(id, String.format("val-%s", id)));
+      }
+
+      dataFiles.add(prepareDataFile(appenderFactory, recordList));
+    }
+
+    RowDelta rowDelta = table.newRowDelta();
+    dataFiles.forEach(rowDelta::addRows);
+    rowDelta.commit();
+
+    // Buffer 8 deletes in memory, so that 500 deletes are spilled to 63 runs.
+    SortedPosDeleteWriter<Record> writer = new SortedPosDeleteWriter<>(appenderFactory, fileFactory, format, null,
+        Long.MAX_VALUE, 64);
+    try (SortedPosDeleteWriter<Record> closeableWriter = writer) {
+      for (int pos = 99; pos >= 0; pos--) {
+        for (int fileIndex = 4; fileIndex >= 0; fileIndex--) {
+          closeableWriter.delete(dataFiles.get(fileIndex).path(), pos);
+        }
+      }
+    }
+
+    List<DeleteFile> deleteFiles = writer.complete();
+    Assert.assertEquals("Should merge all runs into one delete file", 1, deleteFiles.size());
+
+    Schema pathPosSchema = DeleteSchemaUtil.pathPosSchema();
+    Record record = GenericRecord.create(pathPosSchema);
+    List<DataFile> sortedDataFiles = Lists.newArrayList(dataFiles);
+    sortedDataFiles.sort((file1, file2) -> file1.path().toString().compareTo(file2.path().toString()));
+
+    List<Record> expectedDeletes = Lists.newArrayList();
+    for (DataFile dataFile : sortedDataFiles) {
+      for (long pos = 0; pos < 100; pos++) {
+        expectedDeletes.add(record.copy("file_path", dataFile.path(), "pos", pos));
+      }
+    }
+
+    Assert.assertEquals(expectedDeletes, readRecordsAsList(pathPosSchema, deleteFiles.get(0).path()));
+    Assert.assertEquals("Should reference all data files", 5, writer.referencedDataFiles().size());
+
+    rowDelta = table.newRowDelta();
+    deleteFiles.forEach(rowDelta::addDeletes);
+    rowDelta.commit();
+
+    Assert.assertEquals("Should have no record.", expectedRowSet(ImmutableList.of()), actualRowSet("*"));
+  }
+
+  @Test
+  public void testMemoryIncludesPathsAndRows() throws IOException {
+    FileAppenderFactory<Record> appenderFactory = new GenericAppenderFactory(table.schema(), table.spec(),
+        null, null, table.schema());
+    DataFile dataFile = prepareDataFile(appenderFactory, ImmutableList.of(createRow(0, "aaa"), createRow(1, "bbb")));
+
+    SortedPosDeleteWriter<Record> writer = new SortedPosDeleteWriter<>(appenderFactory, fileFactory, format, null, 100);
+    try (SortedPosDeleteWriter<Record> closeableWriter = writer) {
+      long emptyBytes = closeableWriter.memoryBytes();
+
+      closeableWriter.delete(dataFile.path(), 0);
+      long pathBytes = closeableWriter.memoryBytes();
+      Assert.assertTrue("Should count the buffered path", pathBytes > emptyBytes);
+
+      closeableWriter.delete(dataFile.path(), 1, createRow(1, "bbb"));
+      Assert.assertTrue("Should count the buffered rows", closeableWriter.memoryBytes() > pathBytes);
+    }
+
+    Assert.assertEquals("Should write the buffered deletes", 1, writer.complete().size());
+  }
+
   private List<Record> readRecordsAsList(Schema schema, CharSequence path) throws IOException {
     CloseableIterable<Record> iterable;
 
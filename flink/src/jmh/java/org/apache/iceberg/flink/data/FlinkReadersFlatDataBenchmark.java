@@ -0,0 +1,226 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iceberg.flink.data;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import org.apache.flink.table.data.ColumnarRowData;
+import org.apache.flink.table.data.RowData;
+import org.apache.flink.table.data.vector.VectorizedColumnBatch;
+import org.apache.flink.table.types.logical.RowType;
+import org.apache.iceberg.FileFormat;
+import org.apache.iceberg.Files;
+import org.apache.iceberg.Schema;
+import org.apache.iceberg.data.RandomGenericData;
+import org.apache.iceberg.data.Record;
+import org.apache.iceberg.data.orc.GenericOrcWriter;
+import org.apache.iceberg.data.parquet.GenericParquetWriter;
+import org.apache.iceberg.flink.FlinkSchemaUtil;
+import org.apache.iceberg.flink.data.vectorized.VectorizedFlinkOrcReaders;
+import org.apache.iceberg.flink.data.vectorized.VectorizedFlinkParquetReaders;
+import org.apache.iceberg.io.CloseableIterable;
+import org.apache.iceberg.io.FileAppender;
+import org.apache.iceberg.orc.ORC;
+import org.apache.iceberg.parquet.Parquet;
+import org.apache.iceberg.relocated.com.google.common.collect.ImmutableMap;
+import org.apache.iceberg.types.Types;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import static org.apache.iceberg.types.Types.NestedField.optional;
+import static org.apache.iceberg.types.Types.NestedField.required;
+
+/**
+ * A benchmark that evaluates the performance of reading Parquet and ORC data with a flat schema using the row-based
+ * and the vectorized Flink readers.
+ *
+ * Every field of every row is read, because the vectorized readers only decode values when they are accessed.
+ *
+ * To run this benchmark:
+ * <code>
+ *   ./gradlew :iceberg-flink:jmh
+ *       -PjmhIncludeRegex=FlinkReadersFlatDataBenchmark
+ *       -PjmhOutputPath=benchmark/flink-readers-flat-data-benchmark-result.txt
+ * </code>
+ */
+@Fork(1)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.SingleShotTime)
+public class FlinkReadersFlatDataBenchmark {
+
+  private static final Schema SCHEMA = new Schema(
+      required(1, "longCol", Types.LongType.get()),
+      required(2, "intCol", Types.IntegerType.get()),
+      required(3, "floatCol", Types.FloatType.get()),
+      optional(4, "doubleCol", Types.DoubleType.get()),
+      optional(5, "decimalCol", Types.DecimalType.of(20, 5)),
+      optional(6, "dateCol", Types.DateType.get()),
+      optional(7, "timestampCol", Types.TimestampType.withZone()),
+      optional(8, "stringCol", Types.StringType.get()));
+  private static final Schema PROJECTED_SCHEMA = SCHEMA.select("longCol", "decimalCol", "stringCol");
+  private static final int NUM_RECORDS = 5000000;
+  private static final int BATCH_SIZE = 2048;
+
+  @Param({"parquet", "orc"})
+  private String format;
+
+  private File dataFile;
+
+  @Setup
+  public void setupBenchmark() throws IOException {
+    dataFile = File.createTempFile("flink-flat-data-benchmark", "." + format);
+    dataFile.delete();
+    List<Record> records = RandomGenericData.generate(SCHEMA, NUM_RECORDS, 0L);
+
+    FileAppender<Record> writer;
+    if (fileFormat() == FileFormat.PARQUET) {
+      writer = Parquet.write(Files.localOutput(dataFile))
+          .schema(SCHEMA)
+          .createWriterFunc(GenericParquetWriter::buildWriter)
+          .build();
+    } else {
+      writer = ORC.write(Files.localOutput(dataFile))
+          .schema(SCHEMA)
+          .createWriterFunc(GenericOrcWriter::buildWriter)
+          .build();
+    }
+
+    try (FileAppender<Record> appender = writer) {
+      appender.addAll(records);
+    }
+  }
+
+  @TearDown
+  public void tearDownBenchmark() {
+    if (dataFile != null) {
+      dataFile.delete();
+    }
+  }
+
+  @Benchmark
+  @Threads(1)
+  public void readUsingRowReader(Blackhole blackhole) throws IOException {
+    readRows(SCHEMA, blackhole);
+  }
+
+  @Benchmark
+  @Threads(1)
+  public void readUsingVectorizedReader(Blackhole blackhole) throws IOException {
+    readBatches(SCHEMA, blackhole);
+  }
+
+  @Benchmark
+  @Threads(1)
+  public void readWithProjectionUsingRowReader(Blackhole blackhole) throws IOException {
+    readRows(PROJECTED_SCHEMA, blackhole);
+  }
+
+  @Benchmark
+  @Threads(1)
+  public void readWithProjectionUsingVectorizedReader(Blackhole blackhole) throws IOException {
+    readBatches(PROJECTED_SCHEMA, blackhole);
+  }
+
+  private FileFormat fileFormat() {
+    return FileFormat.valueOf(format.toUpperCase());
+  }
+
+  private void readRows(Schema schema, Blackhole blackhole) throws IOException {
+    CloseableIterable<RowData> rows;
+    if (fileFormat() == FileFormat.PARQUET) {
+      rows = Parquet.read(Files.localInput(dataFile))
+          .project(schema)
+          .createReaderFunc(type -> FlinkParquetReaders.buildReader(schema, type))
+          .reuseContainers()
+          .build();
+    } else {
+      rows = ORC.read(Files.localInput(dataFile))
+          .project(schema)
+          .createReaderFunc(type -> new FlinkOrcReader(schema, type))
+          .build();
+    }
+
+    RowData.FieldGetter[] getters = fieldGetters(schema);
+    try (CloseableIterable<RowData> closeable = rows) {
+      for (RowData row : closeable) {
+        consume(getters, row, blackhole);
+      }
+    }
+  }
+
+  private void readBatches(Schema schema, Blackhole blackhole) throws IOException {
+    CloseableIterable<VectorizedColumnBatch> batches;
+    if (fileFormat() == FileFormat.PARQUET) {
+      batches = Parquet.read(Files.localInput(dataFile))
+          .project(schema)
+          .createBatchedReaderFunc(type -> VectorizedFlinkParquetReaders.buildReader(schema, type))
+          .recordsPerBatch(BATCH_SIZE)
+          .reuseContainers()
+          .build();
+    } else {
+      batches = ORC.read(Files.localInput(dataFile))
+          .project(schema)
+          .createBatchedReaderFunc(type -> VectorizedFlinkOrcReaders.buildReader(schema, type, ImmutableMap.of()))
+          .recordsPerBatch(BATCH_SIZE)
+          .build();
+    }
+
+    RowData.FieldGetter[] getters = fieldGetters(schema);
+    try (CloseableIterable<VectorizedColumnBatch> closeable = batches) {
+      for (VectorizedColumnBatch batch : closeable) {
+        ColumnarRowData row = new ColumnarRowData(batch);
+        for (int rowId = 0; rowId < batch.getNumRows(); rowId += 1) {
+          row.setRowId(rowId);
+          consume(getters, row, blackhole);
+        }
+      }
+    }
+  }
+
+  private static RowData.FieldGetter[] fieldGetters(Schema schema) {
+    RowType rowType = FlinkSchemaUtil.convert(schema);
+    RowData.FieldGetter[] getters = new RowData.FieldGetter[rowType.getFieldCount()];
+    for (int i = 0; i < getters.length; i += 1) {
+      getters[i] = RowData.createFieldGetter(rowType.getTypeAt(i), i);
+    }
+
+    return getters;
+  }
+
+  private static void consume(RowData.FieldGetter[] getters, RowData row, Blackhole blackhole) {
+    for (RowData.FieldGetter getter : getters) {
+      blackhole.consume(getter.getFieldOrNull(row));
+    }
+  }
+}
@@ -20,6 +20,7 @@
 package org.apache.iceberg.flink;
 
 
+import java.time.Duration;
 import org.apache.flink.configuration.ConfigOption;
 import org.apache.flink.configuration.ConfigOptions;
 
@@ -40,4 +41,42 @@ public class FlinkTableOptions {
           .intType()
           .defaultValue(100)
           .withDescription("Sets max infer parallelism for source operator.");
+
+  public static final ConfigOption<Boolean> TABLE_EXEC_ICEBERG_USE_VECTORIZED_READ =
+      ConfigOptions.key("table.exec.iceberg.vectorized-read.enabled")
+          .booleanType()
+          .defaultValue(false)
+          .withDescription("If is true, Parquet and ORC files with flat schemas are read in columnar batches.");
+
+  public static final ConfigOption<Integer> TABLE_EXEC_ICEBERG_VECTORIZED_READ_BATCH_SIZE =
+      ConfigOptions.key("table.exec.iceberg.vectorized-read.batch-size")
+          .intType()
+          .defaultValue(2048)
+          .withDescription("Sets the number of rows in each batch of vectorized reads.");
+
+  public static final ConfigOption<Long> LOOKUP_CACHE_MAX_ROWS =
+      ConfigOptions.key("lookup.cache.max-rows")
+          .longType()
+          .defaultValue(1_000_000L)
+          .withDescription("Sets the maximum number of rows of the loaded data files that each lookup join task " +
+              "keeps in memory.");
+
+  public static final ConfigOption<Duration> LOOKUP_CACHE_TTL =
+      ConfigOptions.key("lookup.cache.ttl")
+          .durationType()
+          .defaultValue(Duration.ofMinutes(1))
+          .withDescription("Sets the interval to check the table for a new snapshot in lookup joins. The loaded " +
+              "data files that are no longer in the new snapshot are removed from the cache.");
+
+  public static final ConfigOption<Boolean> LOOKUP_ASYNC =
+      ConfigOptions.key("lookup.async")
+          .booleanType()
+          .defaultValue(false)
+          .withDescription("If is true, lookup joins load the data files in a pool of threads.");
+
+  public static final ConfigOption<Integer> LOOKUP_ASYNC_THREADS =
+      ConfigOptions.key("lookup.async.threads")
+          .intType()
+          .defaultValue(4)
+          .withDescription("Sets the number of threads of asynchronous lookup joins.");
 }
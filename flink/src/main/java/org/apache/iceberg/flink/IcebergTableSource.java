@@ -22,30 +22,36 @@ package org.apache.iceberg.flink;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import org.apache.flink.configuration.Configuration;
 import org.apache.flink.configuration.ReadableConfig;
 import org.apache.flink.streaming.api.datastream.DataStream;
 import org.apache.flink.streaming.api.environment.StreamExecutionEnvironment;
 import org.apache.flink.table.api.TableSchema;
 import org.apache.flink.table.data.RowData;
 import org.apache.flink.table.expressions.Expression;
+import org.apache.flink.table.functions.AsyncTableFunction;
+import org.apache.flink.table.functions.TableFunction;
 import org.apache.flink.table.sources.FilterableTableSource;
 import org.apache.flink.table.sources.LimitableTableSource;
+import org.apache.flink.table.sources.LookupableTableSource;
 import org.apache.flink.table.sources.ProjectableTableSource;
 import org.apache.flink.table.sources.StreamTableSource;
 import org.apache.flink.table.sources.TableSource;
 import org.apache.flink.table.types.DataType;
 import org.apache.flink.table.utils.TableConnectorUtils;
 import org.apache.iceberg.flink.source.FlinkSource;
+import org.apache.iceberg.flink.source.IcebergAsyncLookupFunction;
+import org.apache.iceberg.flink.source.IcebergLookupFunction;
 import org.apache.iceberg.relocated.com.google.common.base.Joiner;
 import org.apache.iceberg.relocated.com.google.common.collect.ImmutableList;
 import org.apache.iceberg.relocated.com.google.common.collect.Lists;
 
 /**
- * Flink Iceberg table source.
+ * Flink Iceberg table source, which can also be the lookup side of a lookup join.
  */
 public class IcebergTableSource
     implements StreamTableSource<RowData>, ProjectableTableSource<RowData>, FilterableTableSource<RowData>,
-    LimitableTableSource<RowData> {
+    LimitableTableSource<RowData>, LookupableTableSource<RowData> {
 
   private static final Joiner COMMA = Joiner.on(',');
 
@@ -100,6 +106,26 @@ public class IcebergTableSource
         .build();
   }
 
+  @Override
+  public TableFunction<RowData> getLookupFunction(String[] lookupKeys) {
+    Configuration options = Configuration.fromMap(properties);
+    return new IcebergLookupFunction(loader, getProjectedSchema(), filters, lookupKeys,
+        options.get(FlinkTableOptions.LOOKUP_CACHE_MAX_ROWS), options.get(FlinkTableOptions.LOOKUP_CACHE_TTL));
+  }
+
+  @Override
+  public AsyncTableFunction<RowData> getAsyncLookupFunction(String[] lookupKeys) {
+    Configuration options = Configuration.fromMap(properties);
+    return new IcebergAsyncLookupFunction(loader, getProjectedSchema(), filters, lookupKeys,
+        options.get(FlinkTableOptions.LOOKUP_CACHE_MAX_ROWS), options.get(FlinkTableOptions.LOOKUP_CACHE_TTL),
+        options.get(FlinkTableOptions.LOOKUP_ASYNC_THREADS));
+  }
+
+  @Override
+  public boolean isAsyncEnabled() {
+    return Configuration.fromMap(properties).get(FlinkTableOptions.LOOKUP_ASYNC);
+  }
+
   @Override
   public TableSchema getTableSchema() {
     return schema;
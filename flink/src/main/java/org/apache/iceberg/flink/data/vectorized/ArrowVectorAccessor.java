@@ -0,0 +1,67 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iceberg.flink.data.vectorized;
+
+import org.apache.flink.table.data.DecimalData;
+import org.apache.flink.table.data.TimestampData;
+import org.apache.flink.table.data.vector.BytesColumnVector.Bytes;
+
+/**
+ * Reads the values of a single Arrow vector, or a dictionary-encoded Arrow vector, as Flink's internal data
+ * structures. Accessors only implement the getters for their type and throw for all others.
+ */
+abstract class ArrowVectorAccessor {
+
+  boolean getBoolean(int rowId) {
+    throw new UnsupportedOperationException("Unsupported type: boolean");
+  }
+
+  int getInt(int rowId) {
+    throw new UnsupportedOperationException("Unsupported type: int");
+  }
+
+  long getLong(int rowId) {
+    throw new UnsupportedOperationException("Unsupported type: long");
+  }
+
+  float getFloat(int rowId) {
+    throw new UnsupportedOperationException("Unsupported type: float");
+  }
+
+  double getDouble(int rowId) {
+    throw new UnsupportedOperationException("Unsupported type: double");
+  }
+
+  Bytes getBytes(int rowId) {
+    throw new UnsupportedOperationException("Unsupported type: bytes");
+  }
+
+  DecimalData getDecimal(int rowId, int precision, int scale) {
+    throw new UnsupportedOperationException("Unsupported type: decimal");
+  }
+
+  TimestampData getTimestamp(int rowId, int precision) {
+    throw new UnsupportedOperationException("Unsupported type: timestamp");
+  }
+
+  static TimestampData timestampFromMicros(long micros) {
+    return TimestampData.fromEpochMillis(Math.floorDiv(micros, 1000), (int) Math.floorMod(micros, 1000) * 1000);
+  }
+}
@@ -0,0 +1,352 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iceberg.flink.data.vectorized;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import org.apache.arrow.memory.ArrowBuf;
+import org.apache.arrow.vector.BaseFixedWidthVector;
+import org.apache.arrow.vector.BaseVariableWidthVector;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.BitVector;
+import org.apache.arrow.vector.BitVectorHelper;
+import org.apache.arrow.vector.DateDayVector;
+import org.apache.arrow.vector.DecimalVector;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.FixedSizeBinaryVector;
+import org.apache.arrow.vector.Float4Vector;
+import org.apache.arrow.vector.Float8Vector;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.TimeStampVector;
+import org.apache.arrow.vector.util.DecimalUtility;
+import org.apache.flink.table.data.DecimalData;
+import org.apache.flink.table.data.TimestampData;
+import org.apache.flink.table.data.vector.BytesColumnVector.Bytes;
+import org.apache.iceberg.arrow.vectorized.VectorHolder;
+import org.apache.iceberg.relocated.com.google.common.base.Preconditions;
+import org.apache.parquet.column.ColumnDescriptor;
+import org.apache.parquet.column.Dictionary;
+import org.apache.parquet.schema.OriginalType;
+import org.apache.parquet.schema.PrimitiveType;
+
+/**
+ * Creates {@link ArrowVectorAccessor accessors} for the vectors produced by
+ * {@link org.apache.iceberg.arrow.vectorized.VectorizedArrowReader}.
+ * <p>
+ * Accessors read values directly from the Arrow data buffers because Iceberg tracks nulls in a
+ * {@link org.apache.iceberg.arrow.vectorized.NullabilityHolder} and does not set Arrow's validity buffers.
+ */
+class ArrowVectorAccessors {
+
+  private ArrowVectorAccessors() {
+  }
+
+  static ArrowVectorAccessor getVectorAccessor(VectorHolder holder) {
+    if (holder.isDictionaryEncoded()) {
+      return getDictionaryVectorAccessor(holder.dictionary(), holder.descriptor(), holder.vector());
+    } else {
+      return getPlainVectorAccessor(holder.vector());
+    }
+  }
+
+  private static ArrowVectorAccessor getDictionaryVectorAccessor(Dictionary dictionary, ColumnDescriptor desc,
+                                                                 FieldVector vector) {
+    Preconditions.checkState(vector instanceof IntVector, "Dictionary ids should be stored in IntVectors only");
+    IntVector ids = (IntVector) vector;
+    PrimitiveType primitive = desc.getPrimitiveType();
+    OriginalType originalType = primitive.getOriginalType();
+
+    if (originalType == OriginalType.DECIMAL) {
+      return new DictionaryDecimalAccessor(ids, dictionary, primitive.getPrimitiveTypeName());
+    } else if (originalType == OriginalType.TIMESTAMP_MILLIS) {
+      return new DictionaryLongAccessor(ids, dictionary, 1000L);
+    }
+
+    switch (primitive.getPrimitiveTypeName()) {
+      case FIXED_LEN_BYTE_ARRAY:
+      case BINARY:
+        return new DictionaryBinaryAccessor(ids, dictionary);
+      case INT32:
+        return new DictionaryIntAccessor(ids, dictionary);
+      case INT64:
+        return new DictionaryLongAccessor(ids, dictionary, 1L);
+      case FLOAT:
+        return new DictionaryFloatAccessor(ids, dictionary);
+      case DOUBLE:
+        return new DictionaryDoubleAccessor(ids, dictionary);
+      default:
+        throw new UnsupportedOperationException("Unsupported dictionary-encoded type: " + primitive);
+    }
+  }
+
+  private static ArrowVectorAccessor getPlainVectorAccessor(FieldVector vector) {
+    if (vector instanceof BitVector) {
+      return new BooleanAccessor((BitVector) vector);
+    } else if (vector instanceof IntVector || vector instanceof DateDayVector) {
+      return new IntAccessor((BaseFixedWidthVector) vector);
+    } else if (vector instanceof BigIntVector || vector instanceof TimeStampVector) {
+      return new LongAccessor((BaseFixedWidthVector) vector);
+    } else if (vector instanceof Float4Vector) {
+      return new FloatAccessor((Float4Vector) vector);
+    } else if (vector instanceof Float8Vector) {
+      return new DoubleAccessor((Float8Vector) vector);
+    } else if (vector instanceof DecimalVector) {
+      return new DecimalAccessor((DecimalVector) vector);
+    } else if (vector instanceof BaseVariableWidthVector) {
+      return new VariableWidthBinaryAccessor((BaseVariableWidthVector) vector);
+    } else if (vector instanceof FixedSizeBinaryVector) {
+      return new FixedWidthBinaryAccessor((FixedSizeBinaryVector) vector);
+    }
+
+    throw new UnsupportedOperationException("Unsupported vector: " + vector.getClass());
+  }
+
+  private static class BooleanAccessor extends ArrowVectorAccessor {
+    private final BitVector vector;
+
+    private BooleanAccessor(BitVector vector) {
+      this.vector = vector;
+    }
+
+    @Override
+    boolean getBoolean(int rowId) {
+      return BitVectorHelper.get(vector.getDataBuffer(), rowId) == 1;
+    }
+  }
+
+  private static class IntAccessor extends ArrowVectorAccessor {
+    private final BaseFixedWidthVector vector;
+
+    private IntAccessor(BaseFixedWidthVector vector) {
+      this.vector = vector;
+    }
+
+    @Override
+    int getInt(int rowId) {
+      return vector.getDataBuffer().getInt((long) rowId * IntVector.TYPE_WIDTH);
+    }
+  }
+
+  private static class LongAccessor extends ArrowVectorAccessor {
+    private final BaseFixedWidthVector vector;
+
+    private LongAccessor(BaseFixedWidthVector vector) {
+      this.vector = vector;
+    }
+
+    @Override
+    long getLong(int rowId) {
+      return vector.getDataBuffer().getLong((long) rowId * BigIntVector.TYPE_WIDTH);
+    }
+
+    @Override
+    TimestampData getTimestamp(int rowId, int precision) {
+      return timestampFromMicros(getLong(rowId));
+    }
+  }
+
+  private static class FloatAccessor extends ArrowVectorAccessor {
+    private final Float4Vector vector;
+
+    private FloatAccessor(Float4Vector vector) {
+      this.vector = vector;
+    }
+
+    @Override
+    float getFloat(int rowId) {
+      return vector.getDataBuffer().getFloat((long) rowId * Float4Vector.TYPE_WIDTH);
+    }
+  }
+
+  private static class DoubleAccessor extends ArrowVectorAccessor {
+    private final Float8Vector vector;
+
+    private DoubleAccessor(Float8Vector vector) {
+      this.vector = vector;
+    }
+
+    @Override
+    double getDouble(int rowId) {
+      return vector.getDataBuffer().getDouble((long) rowId * Float8Vector.TYPE_WIDTH);
+    }
+  }
+
+  private static class DecimalAccessor extends ArrowVectorAccessor {
+    private final DecimalVector vector;
+
+    private DecimalAccessor(DecimalVector vector) {
+      this.vector = vector;
+    }
+
+    @Override
+    DecimalData getDecimal(int rowId, int precision, int scale) {
+      ArrowBuf buffer = vector.getDataBuffer();
+      if (DecimalData.isCompact(precision)) {
+        // Arrow stores little-endian two's complement values, so the low 8 bytes hold any compact decimal
+        return DecimalData.fromUnscaledLong(buffer.getLong((long) rowId * DecimalVector.TYPE_WIDTH), precision, scale);
+      }
+
+      return DecimalData.fromBigDecimal(DecimalUtility.getBigDecimalFromArrowBuf(buffer, rowId, scale),
+          precision, scale);
+    }
+  }
+
+  private static class VariableWidthBinaryAccessor extends ArrowVectorAccessor {
+    private final BaseVariableWidthVector vector;
+
+    private VariableWidthBinaryAccessor(BaseVariableWidthVector vector) {
+      this.vector = vector;
+    }
+
+    @Override
+    Bytes getBytes(int rowId) {
+      ArrowBuf offsets = vector.getOffsetBuffer();
+      int start = offsets.getInt((long) rowId * BaseVariableWidthVector.OFFSET_WIDTH);
+      int end = offsets.getInt((long) (rowId + 1) * BaseVariableWidthVector.OFFSET_WIDTH);
+      byte[] bytes = new byte[end - start];
+      vector.getDataBuffer().getBytes(start, bytes, 0, bytes.length);
+      return new Bytes(bytes, 0, bytes.length);
+    }
+  }
+
+  private static class FixedWidthBinaryAccessor extends ArrowVectorAccessor {
+    private final FixedSizeBinaryVector vector;
+
+    private FixedWidthBinaryAccessor(FixedSizeBinaryVector vector) {
+      this.vector = vector;
+    }
+
+    @Override
+    Bytes getBytes(int rowId) {
+      int width = vector.getByteWidth();
+      byte[] bytes = new byte[width];
+      vector.getDataBuffer().getBytes((long) rowId * width, bytes, 0, width);
+      return new Bytes(bytes, 0, width);
+    }
+  }
+
+  private abstract static class DictionaryAccessor extends ArrowVectorAccessor {
+    private final IntVector ids;
+    private final Dictionary dictionary;
+
+    private DictionaryAccessor(IntVector ids, Dictionary dictionary) {
+      this.ids = ids;
+      this.dictionary = dictionary;
+    }
+
+    protected Dictionary dictionary() {
+      return dictionary;
+    }
+
+    protected int id(int rowId) {
+      return ids.getDataBuffer().getInt((long) rowId * IntVector.TYPE_WIDTH);
+    }
+  }
+
+  private static class DictionaryIntAccessor extends DictionaryAccessor {
+    private DictionaryIntAccessor(IntVector ids, Dictionary dictionary) {
+      super(ids, dictionary);
+    }
+
+    @Override
+    int getInt(int rowId) {
+      return dictionary().decodeToInt(id(rowId));
+    }
+  }
+
+  private static class DictionaryLongAccessor extends DictionaryAccessor {
+    private final long multiplier;
+
+    private DictionaryLongAccessor(IntVector ids, Dictionary dictionary, long multiplier) {
+      super(ids, dictionary);
+      this.multiplier = multiplier;
+    }
+
+    @Override
+    long getLong(int rowId) {
+      return dictionary().decodeToLong(id(rowId)) * multiplier;
+    }
+
+    @Override
+    TimestampData getTimestamp(int rowId, int precision) {
+      return timestampFromMicros(getLong(rowId));
+    }
+  }
+
+  private static class DictionaryFloatAccessor extends DictionaryAccessor {
+    private DictionaryFloatAccessor(IntVector ids, Dictionary dictionary) {
+      super(ids, dictionary);
+    }
+
+    @Override
+    float getFloat(int rowId) {
+      return dictionary().decodeToFloat(id(rowId));
+    }
+  }
+
+  private static class DictionaryDoubleAccessor extends DictionaryAccessor {
+    private DictionaryDoubleAccessor(IntVector ids, Dictionary dictionary) {
+      super(ids, dictionary);
+    }
+
+    @Override
+    double getDouble(int rowId) {
+      return dictionary().decodeToDouble(id(rowId));
+    }
+  }
+
+  private static class DictionaryBinaryAccessor extends DictionaryAccessor {
+    private DictionaryBinaryAccessor(IntVector ids, Dictionary dictionary) {
+      super(ids, dictionary);
+    }
+
+    @Override
+    Bytes getBytes(int rowId) {
+      byte[] bytes = dictionary().decodeToBinary(id(rowId)).getBytes();
+      return new Bytes(bytes, 0, bytes.length);
+    }
+  }
+
+  private static class DictionaryDecimalAccessor extends DictionaryAccessor {
+    private final PrimitiveType.PrimitiveTypeName physicalType;
+
+    private DictionaryDecimalAccessor(IntVector ids, Dictionary dictionary,
+                                      PrimitiveType.PrimitiveTypeName physicalType) {
+      super(ids, dictionary);
+      this.physicalType = physicalType;
+    }
+
+    @Override
+    DecimalData getDecimal(int rowId, int precision, int scale) {
+      switch (physicalType) {
+        case INT32:
+          return DecimalData.fromUnscaledLong(dictionary().decodeToInt(id(rowId)), precision, scale);
+        case INT64:
+          return DecimalData.fromUnscaledLong(dictionary().decodeToLong(id(rowId)), precision, scale);
+        case BINARY:
+        case FIXED_LEN_BYTE_ARRAY:
+          BigInteger unscaled = new BigInteger(dictionary().decodeToBinary(id(rowId)).getBytes());
+          return DecimalData.fromBigDecimal(new BigDecimal(unscaled, scale), precision, scale);
+        default:
+          throw new UnsupportedOperationException("Unsupported base type for decimal: " + physicalType);
+      }
+    }
+  }
+}
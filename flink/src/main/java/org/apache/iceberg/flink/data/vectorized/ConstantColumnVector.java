@@ -0,0 +1,100 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iceberg.flink.data.vectorized;
+
+import org.apache.flink.table.data.DecimalData;
+import org.apache.flink.table.data.StringData;
+import org.apache.flink.table.data.TimestampData;
+import org.apache.flink.table.data.binary.BinaryStringData;
+import org.apache.flink.table.data.vector.BooleanColumnVector;
+import org.apache.flink.table.data.vector.BytesColumnVector;
+import org.apache.flink.table.data.vector.DecimalColumnVector;
+import org.apache.flink.table.data.vector.DoubleColumnVector;
+import org.apache.flink.table.data.vector.FloatColumnVector;
+import org.apache.flink.table.data.vector.IntColumnVector;
+import org.apache.flink.table.data.vector.LongColumnVector;
+import org.apache.flink.table.data.vector.TimestampColumnVector;
+
+/**
+ * A column vector that returns the same value for every row, used for identity partition values and for columns
+ * that are missing from a data file. The value must already be converted to Flink's internal representation.
+ */
+class ConstantColumnVector implements BooleanColumnVector, IntColumnVector, LongColumnVector,
+    FloatColumnVector, DoubleColumnVector, BytesColumnVector, DecimalColumnVector, TimestampColumnVector {
+
+  private final Object constant;
+  private final byte[] bytes;
+
+  ConstantColumnVector(Object constant) {
+    this.constant = constant;
+    if (constant instanceof StringData) {
+      this.bytes = ((BinaryStringData) constant).toBytes();
+    } else if (constant instanceof byte[]) {
+      this.bytes = (byte[]) constant;
+    } else {
+      this.bytes = null;
+    }
+  }
+
+  @Override
+  public boolean isNullAt(int rowId) {
+    return constant == null;
+  }
+
+  @Override
+  public boolean getBoolean(int rowId) {
+    return (Boolean) constant;
+  }
+
+  @Override
+  public int getInt(int rowId) {
+    return (Integer) constant;
+  }
+
+  @Override
+  public long getLong(int rowId) {
+    return (Long) constant;
+  }
+
+  @Override
+  public float getFloat(int rowId) {
+    return (Float) constant;
+  }
+
+  @Override
+  public double getDouble(int rowId) {
+    return (Double) constant;
+  }
+
+  @Override
+  public Bytes getBytes(int rowId) {
+    return new Bytes(bytes, 0, bytes.length);
+  }
+
+  @Override
+  public DecimalData getDecimal(int rowId, int precision, int scale) {
+    return (DecimalData) constant;
+  }
+
+  @Override
+  public TimestampData getTimestamp(int rowId, int precision) {
+    return (TimestampData) constant;
+  }
+}
@@ -0,0 +1,287 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iceberg.flink.data.vectorized;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import org.apache.flink.table.data.DecimalData;
+import org.apache.flink.table.data.TimestampData;
+import org.apache.flink.table.data.vector.BooleanColumnVector;
+import org.apache.flink.table.data.vector.BytesColumnVector;
+import org.apache.flink.table.data.vector.ColumnVector;
+import org.apache.flink.table.data.vector.DecimalColumnVector;
+import org.apache.flink.table.data.vector.DoubleColumnVector;
+import org.apache.flink.table.data.vector.FloatColumnVector;
+import org.apache.flink.table.data.vector.IntColumnVector;
+import org.apache.flink.table.data.vector.LongColumnVector;
+import org.apache.flink.table.data.vector.TimestampColumnVector;
+import org.apache.flink.table.data.vector.VectorizedColumnBatch;
+import org.apache.iceberg.MetadataColumns;
+import org.apache.iceberg.Schema;
+import org.apache.iceberg.orc.OrcBatchReader;
+import org.apache.iceberg.orc.OrcSchemaWithTypeVisitor;
+import org.apache.iceberg.relocated.com.google.common.base.Preconditions;
+import org.apache.iceberg.types.Type;
+import org.apache.iceberg.types.Types;
+import org.apache.orc.TypeDescription;
+import org.apache.orc.storage.ql.exec.vector.VectorizedRowBatch;
+import org.apache.orc.storage.serde2.io.HiveDecimalWritable;
+
+public class VectorizedFlinkOrcReaders {
+
+  private VectorizedFlinkOrcReaders() {
+  }
+
+  /**
+   * Builds a reader for a flat {@link Schema}. The values in {@code idToConstant} must already be converted to
+   * Flink's internal representation.
+   */
+  public static OrcBatchReader<VectorizedColumnBatch> buildReader(Schema expectedSchema, TypeDescription fileSchema,
+                                                                  Map<Integer, ?> idToConstant) {
+    Converter converter = OrcSchemaWithTypeVisitor.visit(expectedSchema, fileSchema, new ReadBuilder());
+    Preconditions.checkArgument(converter instanceof StructConverter,
+        "Cannot build a vectorized reader for a non-struct schema: %s", fileSchema);
+    StructConverter struct = (StructConverter) converter;
+
+    return new OrcBatchReader<VectorizedColumnBatch>() {
+      private long batchOffsetInFile;
+
+      @Override
+      public VectorizedColumnBatch read(VectorizedRowBatch batch) {
+        VectorizedColumnBatch columnarBatch = new VectorizedColumnBatch(
+            struct.convertFields(batch.cols, batch.size, batchOffsetInFile, idToConstant));
+        columnarBatch.setNumRows(batch.size);
+        return columnarBatch;
+      }
+
+      @Override
+      public void setBatchContext(long batchOffsetInFile) {
+        this.batchOffsetInFile = batchOffsetInFile;
+      }
+    };
+  }
+
+  private interface Converter {
+    ColumnVector convert(org.apache.orc.storage.ql.exec.vector.ColumnVector vector, int batchSize,
+                         long batchOffsetInFile);
+  }
+
+  private static class ReadBuilder extends OrcSchemaWithTypeVisitor<Converter> {
+    @Override
+    public Converter record(Types.StructType iStruct, TypeDescription record, List<String> names,
+                            List<Converter> fields) {
+      return new StructConverter(iStruct, fields);
+    }
+
+    @Override
+    public Converter list(Types.ListType iList, TypeDescription array, Converter element) {
+      throw new UnsupportedOperationException("Vectorized reads are not supported yet for list fields");
+    }
+
+    @Override
+    public Converter map(Types.MapType iMap, TypeDescription map, Converter key, Converter value) {
+      throw new UnsupportedOperationException("Vectorized reads are not supported yet for map fields");
+    }
+
+    @Override
+    public Converter primitive(Type.PrimitiveType iPrimitive, TypeDescription primitive) {
+      switch (iPrimitive.typeId()) {
+        case BOOLEAN:
+        case INTEGER:
+        case LONG:
+        case DATE:
+          return (vector, batchSize, batchOffsetInFile) ->
+              new OrcLongVector((org.apache.orc.storage.ql.exec.vector.LongColumnVector) vector);
+        case FLOAT:
+        case DOUBLE:
+          return (vector, batchSize, batchOffsetInFile) ->
+              new OrcDoubleVector((org.apache.orc.storage.ql.exec.vector.DoubleColumnVector) vector);
+        case TIMESTAMP:
+          return (vector, batchSize, batchOffsetInFile) ->
+              new OrcTimestampVector((org.apache.orc.storage.ql.exec.vector.TimestampColumnVector) vector);
+        case STRING:
+        case FIXED:
+        case BINARY:
+          return (vector, batchSize, batchOffsetInFile) ->
+              new OrcBytesVector((org.apache.orc.storage.ql.exec.vector.BytesColumnVector) vector);
+        case DECIMAL:
+          return (vector, batchSize, batchOffsetInFile) ->
+              new OrcDecimalVector((org.apache.orc.storage.ql.exec.vector.DecimalColumnVector) vector);
+        default:
+          throw new UnsupportedOperationException(String.format(
+              "Vectorized reads are not supported yet for iceberg type %s corresponding to ORC type %s",
+              iPrimitive, primitive));
+      }
+    }
+  }
+
+  private static class StructConverter implements Converter {
+    private final Types.StructType structType;
+    private final List<Converter> fieldConverters;
+
+    private StructConverter(Types.StructType structType, List<Converter> fieldConverters) {
+      this.structType = structType;
+      this.fieldConverters = fieldConverters;
+    }
+
+    @Override
+    public ColumnVector convert(org.apache.orc.storage.ql.exec.vector.ColumnVector vector, int batchSize,
+                                long batchOffsetInFile) {
+      throw new UnsupportedOperationException("Vectorized reads are not supported yet for struct fields");
+    }
+
+    private ColumnVector[] convertFields(org.apache.orc.storage.ql.exec.vector.ColumnVector[] vectors, int batchSize,
+                                         long batchOffsetInFile, Map<Integer, ?> idToConstant) {
+      List<Types.NestedField> fields = structType.fields();
+      ColumnVector[] fieldVectors = new ColumnVector[fields.size()];
+      for (int pos = 0, vectorIndex = 0; pos < fields.size(); pos += 1) {
+        Types.NestedField field = fields.get(pos);
+        if (idToConstant.containsKey(field.fieldId())) {
+          fieldVectors[pos] = new ConstantColumnVector(idToConstant.get(field.fieldId()));
+        } else if (field.equals(MetadataColumns.ROW_POSITION)) {
+          fieldVectors[pos] = new RowPositionColumnVector(batchOffsetInFile);
+        } else {
+          fieldVectors[pos] = fieldConverters.get(vectorIndex).convert(vectors[vectorIndex], batchSize,
+              batchOffsetInFile);
+          vectorIndex += 1;
+        }
+      }
+
+      return fieldVectors;
+    }
+  }
+
+  private abstract static class BaseOrcColumnVector implements ColumnVector {
+    private final org.apache.orc.storage.ql.exec.vector.ColumnVector vector;
+
+    BaseOrcColumnVector(org.apache.orc.storage.ql.exec.vector.ColumnVector vector) {
+      this.vector = vector;
+    }
+
+    protected int getRowIndex(int rowId) {
+      return vector.isRepeating ? 0 : rowId;
+    }
+
+    @Override
+    public boolean isNullAt(int rowId) {
+      return !vector.noNulls && vector.isNull[getRowIndex(rowId)];
+    }
+  }
+
+  private static class OrcLongVector extends BaseOrcColumnVector
+      implements BooleanColumnVector, IntColumnVector, LongColumnVector {
+    private final long[] values;
+
+    OrcLongVector(org.apache.orc.storage.ql.exec.vector.LongColumnVector vector) {
+      super(vector);
+      this.values = vector.vector;
+    }
+
+    @Override
+    public boolean getBoolean(int rowId) {
+      return values[getRowIndex(rowId)] != 0;
+    }
+
+    @Override
+    public int getInt(int rowId) {
+      return (int) values[getRowIndex(rowId)];
+    }
+
+    @Override
+    public long getLong(int rowId) {
+      return values[getRowIndex(rowId)];
+    }
+  }
+
+  private static class OrcDoubleVector extends BaseOrcColumnVector implements FloatColumnVector, DoubleColumnVector {
+    private final double[] values;
+
+    OrcDoubleVector(org.apache.orc.storage.ql.exec.vector.DoubleColumnVector vector) {
+      super(vector);
+      this.values = vector.vector;
+    }
+
+    @Override
+    public float getFloat(int rowId) {
+      return (float) values[getRowIndex(rowId)];
+    }
+
+    @Override
+    public double getDouble(int rowId) {
+      return values[getRowIndex(rowId)];
+    }
+  }
+
+  private static class OrcBytesVector extends BaseOrcColumnVector implements BytesColumnVector {
+    private final org.apache.orc.storage.ql.exec.vector.BytesColumnVector vector;
+
+    OrcBytesVector(org.apache.orc.storage.ql.exec.vector.BytesColumnVector vector) {
+      super(vector);
+      this.vector = vector;
+    }
+
+    @Override
+    public Bytes getBytes(int rowId) {
+      int index = getRowIndex(rowId);
+      return new Bytes(vector.vector[index], vector.start[index], vector.length[index]);
+    }
+  }
+
+  private static class OrcDecimalVector extends BaseOrcColumnVector implements DecimalColumnVector {
+    private final HiveDecimalWritable[] values;
+
+    OrcDecimalVector(org.apache.orc.storage.ql.exec.vector.DecimalColumnVector vector) {
+      super(vector);
+      this.values = vector.vector;
+    }
+
+    @Override
+    public DecimalData getDecimal(int rowId, int precision, int scale) {
+      HiveDecimalWritable value = values[getRowIndex(rowId)];
+
+      // The hive ORC writer may will adjust the scale of decimal data.
+      Preconditions.checkArgument(value.precision() <= precision,
+          "Cannot read value as decimal(%s,%s), too large: %s", precision, scale, value);
+
+      if (DecimalData.isCompact(precision)) {
+        return DecimalData.fromUnscaledLong(value.serialize64(scale), precision, scale);
+      }
+
+      return DecimalData.fromBigDecimal(value.getHiveDecimal().bigDecimalValue(), precision, scale);
+    }
+  }
+
+  private static class OrcTimestampVector extends BaseOrcColumnVector implements TimestampColumnVector {
+    private final org.apache.orc.storage.ql.exec.vector.TimestampColumnVector vector;
+
+    OrcTimestampVector(org.apache.orc.storage.ql.exec.vector.TimestampColumnVector vector) {
+      super(vector);
+      this.vector = vector;
+    }
+
+    @Override
+    public TimestampData getTimestamp(int rowId, int precision) {
+      int index = getRowIndex(rowId);
+      return TimestampData.fromInstant(
+          Instant.ofEpochSecond(Math.floorDiv(vector.time[index], 1_000), vector.nanos[index]));
+    }
+  }
+}
@@ -19,6 +19,7 @@
 
 package org.apache.iceberg.flink.sink;
 
+import java.io.File;
 import java.io.IOException;
 import java.util.List;
 import org.apache.flink.table.data.RowData;
@@ -50,8 +51,10 @@ abstract class BaseDeltaTaskWriter extends BaseTaskWriter<RowData> {
                       long targetFileSize,
                       Schema schema,
                       RowType flinkSchema,
-                      List<Integer> equalityFieldIds) {
-    super(spec, format, appenderFactory, fileFactory, io, targetFileSize);
+                      List<Integer> equalityFieldIds,
+                      long keyIndexMemoryBytes,
+                      File spillDirectory) {
+    super(spec, format, appenderFactory, fileFactory, io, targetFileSize, keyIndexMemoryBytes, spillDirectory);
     this.schema = schema;
     this.deleteSchema = TypeUtil.select(schema, Sets.newHashSet(equalityFieldIds));
     this.wrapper = new RowDataWrapper(flinkSchema, schema.asStruct());
@@ -0,0 +1,109 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iceberg.flink.sink;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import org.apache.flink.api.java.functions.KeySelector;
+import org.apache.flink.table.data.RowData;
+import org.apache.flink.table.types.logical.RowType;
+import org.apache.iceberg.Accessor;
+import org.apache.iceberg.Schema;
+import org.apache.iceberg.StructLike;
+import org.apache.iceberg.flink.RowDataWrapper;
+import org.apache.iceberg.relocated.com.google.common.base.Preconditions;
+import org.apache.iceberg.relocated.com.google.common.collect.Lists;
+import org.apache.iceberg.types.Conversions;
+import org.apache.iceberg.types.Type;
+
+/**
+ * Create a {@link KeySelector} to shuffle by the values of the equality fields, so that all the changes of a key are
+ * written by the same task and are processed with the same keyed state.
+ * <p>
+ * The key is an unambiguous string encoding of the equality field values: each value is written as its length and its
+ * single-value binary serialization, so that different keys never share keyed state, and the key hash is stable
+ * across JVMs.
+ */
+class EqualityFieldKeySelector implements KeySelector<RowData, String> {
+
+  private static final char NULL_VALUE = 'n';
+  private static final char VALUE_SEPARATOR = ':';
+
+  private final Schema schema;
+  private final RowType flinkSchema;
+  private final List<Integer> equalityFieldIds;
+
+  private transient RowDataWrapper rowDataWrapper;
+  private transient List<Accessor<StructLike>> accessors;
+  private transient List<Type> types;
+  private transient StringBuilder builder;
+
+  EqualityFieldKeySelector(Schema schema, RowType flinkSchema, List<Integer> equalityFieldIds) {
+    for (Integer fieldId : equalityFieldIds) {
+      Type type = schema.findType(fieldId);
+      Preconditions.checkArgument(type != null && type.isPrimitiveType(),
+          "Invalid equality field %s: must be a primitive field of schema %s", fieldId, schema);
+    }
+
+    this.schema = schema;
+    this.flinkSchema = flinkSchema;
+    this.equalityFieldIds = Lists.newArrayList(equalityFieldIds);
+  }
+
+  /**
+   * Construct the {@link RowDataWrapper} and the accessors lazily here because few members in them are not
+   * serializable. In this way, we don't have to serialize them with forcing.
+   */
+  private void lazyInitialize() {
+    this.rowDataWrapper = new RowDataWrapper(flinkSchema, schema.asStruct());
+    this.accessors = Lists.newArrayList();
+    this.types = Lists.newArrayList();
+    for (Integer fieldId : equalityFieldIds) {
+      accessors.add(schema.accessorForField(fieldId));
+      types.add(schema.findType(fieldId));
+    }
+
+    this.builder = new StringBuilder();
+  }
+
+  @Override
+  public String getKey(RowData row) {
+    if (rowDataWrapper == null) {
+      lazyInitialize();
+    }
+
+    StructLike struct = rowDataWrapper.wrap(row);
+    builder.setLength(0);
+    for (int i = 0; i < accessors.size(); i += 1) {
+      ByteBuffer value = Conversions.toByteBuffer(types.get(i), accessors.get(i).get(struct));
+      if (value == null) {
+        builder.append(NULL_VALUE);
+      } else {
+        ByteBuffer bytes = value.duplicate();
+        builder.append(bytes.remaining()).append(VALUE_SEPARATOR);
+        while (bytes.hasRemaining()) {
+          builder.append((char) (bytes.get() & 0xFF));
+        }
+      }
+    }
+
+    return builder.toString();
+  }
+}
@@ -39,8 +39,10 @@ import org.apache.flink.types.Row;
 import org.apache.iceberg.DataFile;
 import org.apache.iceberg.DistributionMode;
 import org.apache.iceberg.FileFormat;
+import org.apache.iceberg.PartitionField;
 import org.apache.iceberg.PartitionSpec;
 import org.apache.iceberg.Schema;
+import org.apache.iceberg.SortOrder;
 import org.apache.iceberg.Table;
 import org.apache.iceberg.flink.FlinkSchemaUtil;
 import org.apache.iceberg.flink.TableLoader;
@@ -64,7 +66,18 @@ public class FlinkSink {
   private static final Logger LOG = LoggerFactory.getLogger(FlinkSink.class);
 
   private static final String ICEBERG_STREAM_WRITER_NAME = IcebergStreamWriter.class.getSimpleName();
+  private static final String ICEBERG_UPSERT_WRITER_NAME = IcebergUpsertWriter.class.getSimpleName();
+  private static final String ICEBERG_FILES_MERGER_NAME = IcebergFilesMerger.class.getSimpleName();
   private static final String ICEBERG_FILES_COMMITTER_NAME = IcebergFilesCommitter.class.getSimpleName();
+  private static final String ICEBERG_FILES_COMPACTOR_NAME = IcebergFilesCompactor.class.getSimpleName();
+  private static final int DEFAULT_MERGE_THREADS = 4;
+  private static final int DEFAULT_COMPACTION_MIN_INPUT_FILES = 5;
+  private static final int COMPACTION_REWRITES_PER_CHECKPOINT = 4;
+
+  // Each upstream subtask samples 100 keys per writer subtask to compute the ranges of the 'range' distribution mode,
+  // and recomputes them from a fresh sample every 100000 rows.
+  private static final int RANGE_SAMPLES_PER_SUBTASK = 100;
+  private static final long RANGE_REBALANCE_RECORDS = 100_000L;
 
   private FlinkSink() {
   }
@@ -124,6 +137,12 @@ public class FlinkSink {
     private DistributionMode distributionMode = null;
     private Integer writeParallelism = null;
     private List<String> equalityFieldColumns = null;
+    private long smallFileSizeBytes = 0L;
+    private int mergeThreads = DEFAULT_MERGE_THREADS;
+    private boolean asyncCommit = false;
+    private boolean keyedUpsert = false;
+    private long compactionFileSizeBytes = 0L;
+    private int compactionMinInputFiles = DEFAULT_COMPACTION_MIN_INPUT_FILES;
 
     private Builder() {
     }
@@ -170,15 +189,15 @@ public class FlinkSink {
     }
 
     /**
-     * Configure the write {@link DistributionMode} that the flink sink will use. Currently, flink support
-     * {@link DistributionMode#NONE} and {@link DistributionMode#HASH}.
+     * Configure the write {@link DistributionMode} that the flink sink will use. With {@link DistributionMode#HASH}
+     * the rows are shuffled by partition, with {@link DistributionMode#RANGE} the rows are shuffled by ranges of the
+     * partition and the table's sort order that are computed from sampled keys, which balances skewed partitions
+     * across the writers.
      *
      * @param mode to specify the write distribution mode.
      * @return {@link Builder} to connect the iceberg table.
      */
     public Builder distributionMode(DistributionMode mode) {
-      Preconditions.checkArgument(!DistributionMode.RANGE.equals(mode),
-          "Flink does not support 'range' write distribution mode now.");
       this.distributionMode = mode;
       return this;
     }
@@ -205,6 +224,93 @@ public class FlinkSink {
       return this;
     }
 
+    /**
+     * Merge the data files smaller than the given size that are completed in the same checkpoint before committing
+     * them, which avoids committing one small file per partition for every writer subtask and checkpoint. The files
+     * of each partition are rewritten into files of the table's target file size by an extra operator between the
+     * writers and the committer. Merging is disabled by default and is not supported for equality field columns.
+     *
+     * @param newSmallFileSizeBytes the size in bytes below which completed data files are merged.
+     * @return {@link Builder} to connect the iceberg table.
+     */
+    public Builder mergeSmallFiles(long newSmallFileSizeBytes) {
+      Preconditions.checkArgument(newSmallFileSizeBytes > 0,
+          "Invalid small file size: %s (must be positive)", newSmallFileSizeBytes);
+      this.smallFileSizeBytes = newSmallFileSizeBytes;
+      return this;
+    }
+
+    /**
+     * Configuring the number of threads that merge small files, see {@link #mergeSmallFiles(long)}.
+     *
+     * @param newMergeThreads the number of threads that merge small files in parallel.
+     * @return {@link Builder} to connect the iceberg table.
+     */
+    public Builder mergeThreads(int newMergeThreads) {
+      Preconditions.checkArgument(newMergeThreads > 0,
+          "Invalid number of merge threads: %s (must be positive)", newMergeThreads);
+      this.mergeThreads = newMergeThreads;
+      return this;
+    }
+
+    /**
+     * Commit the completed checkpoints to the iceberg table on a dedicated thread instead of the task thread, so that
+     * a slow catalog doesn't block processing and back pressure the job. Checkpoints are still committed in order and
+     * exactly once, only the commit of a checkpoint may finish after the next checkpoint started.
+     *
+     * @param newAsyncCommit whether to commit asynchronously.
+     * @return {@link Builder} to connect the iceberg table.
+     */
+    public Builder asyncCommit(boolean newAsyncCommit) {
+      this.asyncCommit = newAsyncCommit;
+      return this;
+    }
+
+    /**
+     * Write the changes of the equality field columns with a keyed writer, which keeps the data file and position of
+     * the latest row of each key in Flink keyed state. Replaced and deleted rows are then deleted by position, also
+     * when they are in data files committed by earlier checkpoints, which is much cheaper to read than equality
+     * deletes. The input is shuffled by the equality fields, which must contain the partition source columns. A state
+     * backend that keeps the state on disk, such as RocksDB, is recommended for tables with many keys.
+     *
+     * @param newKeyedUpsert whether to track the position of each key in keyed state.
+     * @return {@link Builder} to connect the iceberg table.
+     */
+    public Builder keyedUpsert(boolean newKeyedUpsert) {
+      this.keyedUpsert = newKeyedUpsert;
+      return this;
+    }
+
+    /**
+     * Continuously compact the data files smaller than the given size that are committed to the table while the job
+     * is running. After each completed checkpoint, an extra operator after the committer bin-packs the small files of
+     * each partition into files of the table's target file size and commits the rewrites, a few groups at a time and
+     * on a background thread. Small files are not compacted while the table gets delete files. Compaction is disabled
+     * by default and cannot be used with {@link #keyedUpsert(boolean)}.
+     *
+     * @param newCompactionFileSizeBytes the size in bytes below which committed data files are compacted.
+     * @return {@link Builder} to connect the iceberg table.
+     */
+    public Builder compactSmallFiles(long newCompactionFileSizeBytes) {
+      Preconditions.checkArgument(newCompactionFileSizeBytes > 0,
+          "Invalid compaction file size: %s (must be positive)", newCompactionFileSizeBytes);
+      this.compactionFileSizeBytes = newCompactionFileSizeBytes;
+      return this;
+    }
+
+    /**
+     * Configuring the minimum number of small files that are compacted together, see {@link #compactSmallFiles(long)}.
+     *
+     * @param newCompactionMinInputFiles the minimum number of small files to rewrite into one group.
+     * @return {@link Builder} to connect the iceberg table.
+     */
+    public Builder compactionMinInputFiles(int newCompactionMinInputFiles) {
+      Preconditions.checkArgument(newCompactionMinInputFiles > 1,
+          "Invalid minimum number of compaction input files: %s (must be larger than 1)", newCompactionMinInputFiles);
+      this.compactionMinInputFiles = newCompactionMinInputFiles;
+      return this;
+    }
+
     @SuppressWarnings("unchecked")
     public DataStreamSink<RowData> build() {
       Preconditions.checkArgument(rowDataInput != null,
@@ -231,25 +337,73 @@ public class FlinkSink {
         }
       }
 
+      Preconditions.checkArgument(smallFileSizeBytes == 0 || equalityFieldIds.isEmpty(),
+          "Cannot merge small files when writing with equality field columns");
+
+      if (keyedUpsert) {
+        Preconditions.checkArgument(!equalityFieldIds.isEmpty(),
+            "Equality field columns shouldn't be empty when writing with keyed upsert");
+        // The keyed state references the positions of rows in committed data files, which compaction would replace.
+        Preconditions.checkArgument(compactionFileSizeBytes == 0,
+            "Cannot compact small files when writing with keyed upsert");
+        for (PartitionField partitionField : table.spec().fields()) {
+          Preconditions.checkArgument(equalityFieldIds.contains(partitionField.sourceId()),
+              "Partition field '%s' should be included in equality fields '%s' when writing with keyed upsert",
+              partitionField, equalityFieldColumns);
+        }
+      }
+
       // Convert the requested flink table schema to flink row type.
       RowType flinkRowType = toFlinkRowType(table.schema(), tableSchema);
 
-      // Distribute the records from input data stream based on the write.distribution-mode.
-      rowDataInput = distributeDataStream(rowDataInput, table.properties(), table.spec(), table.schema(), flinkRowType);
-
-      // Chain the iceberg stream writer and committer operator.
-      IcebergStreamWriter<RowData> streamWriter = createStreamWriter(table, flinkRowType, equalityFieldIds);
-      IcebergFilesCommitter filesCommitter = new IcebergFilesCommitter(tableLoader, overwrite);
+      IcebergFilesCommitter filesCommitter = new IcebergFilesCommitter(tableLoader, overwrite, asyncCommit);
 
       this.writeParallelism = writeParallelism == null ? rowDataInput.getParallelism() : writeParallelism;
 
-      DataStream<Void> returnStream = rowDataInput
-          .transform(ICEBERG_STREAM_WRITER_NAME, TypeInformation.of(WriteResult.class), streamWriter)
-          .setParallelism(writeParallelism)
+      DataStream<WriteResult> writeResults;
+      if (keyedUpsert) {
+        // Key the records by the equality fields, so that the keyed writer finds the position of the previous row.
+        IcebergUpsertWriter upsertWriter = createUpsertWriter(table, flinkRowType, equalityFieldIds);
+        writeResults = rowDataInput
+            .keyBy(new EqualityFieldKeySelector(table.schema(), flinkRowType, equalityFieldIds))
+            .transform(ICEBERG_UPSERT_WRITER_NAME, TypeInformation.of(WriteResult.class), upsertWriter)
+            .setParallelism(writeParallelism);
+      } else {
+        // Distribute the records from input data stream based on the write.distribution-mode.
+        rowDataInput = distributeDataStream(rowDataInput, table.properties(), table.spec(), table.sortOrder(),
+            table.schema(), flinkRowType, equalityFieldIds);
+
+        // Chain the iceberg stream writer and committer operator.
+        IcebergStreamWriter<RowData> streamWriter = createStreamWriter(table, flinkRowType, equalityFieldIds);
+        writeResults = rowDataInput
+            .transform(ICEBERG_STREAM_WRITER_NAME, TypeInformation.of(WriteResult.class), streamWriter)
+            .setParallelism(writeParallelism);
+      }
+
+      // Merge the small files of all writers in a single task, the merging itself runs in a thread pool.
+      if (smallFileSizeBytes > 0) {
+        IcebergFilesMerger filesMerger = createFilesMerger(table, smallFileSizeBytes, mergeThreads);
+        writeResults = writeResults
+            .transform(ICEBERG_FILES_MERGER_NAME, TypeInformation.of(WriteResult.class), filesMerger)
+            .setParallelism(1)
+            .setMaxParallelism(1);
+      }
+
+      DataStream<Void> returnStream = writeResults
           .transform(ICEBERG_FILES_COMMITTER_NAME, Types.VOID, filesCommitter)
           .setParallelism(1)
           .setMaxParallelism(1);
 
+      // Compact the committed small files in a single task after the committer.
+      if (compactionFileSizeBytes > 0) {
+        IcebergFilesCompactor filesCompactor = new IcebergFilesCompactor(tableLoader, compactionFileSizeBytes,
+            compactionMinInputFiles, COMPACTION_REWRITES_PER_CHECKPOINT);
+        returnStream = returnStream
+            .transform(ICEBERG_FILES_COMPACTOR_NAME, Types.VOID, filesCompactor)
+            .setParallelism(1)
+            .setMaxParallelism(1);
+      }
+
       return returnStream.addSink(new DiscardingSink())
           .name(String.format("IcebergSink %s", table.name()))
           .setParallelism(1);
@@ -258,8 +412,10 @@ public class FlinkSink {
     private DataStream<RowData> distributeDataStream(DataStream<RowData> input,
                                                      Map<String, String> properties,
                                                      PartitionSpec partitionSpec,
+                                                     SortOrder sortOrder,
                                                      Schema iSchema,
-                                                     RowType flinkRowType) {
+                                                     RowType flinkRowType,
+                                                     List<Integer> equalityFieldIds) {
       DistributionMode writeMode;
       if (distributionMode == null) {
         // Fallback to use distribution mode parsed from table properties if don't specify in job level.
@@ -284,9 +440,20 @@ public class FlinkSink {
           }
 
         case RANGE:
-          LOG.warn("Fallback to use 'none' distribution mode, because {}={} is not supported in flink now",
-              WRITE_DISTRIBUTION_MODE, DistributionMode.RANGE.modeName());
-          return input;
+          if (!equalityFieldIds.isEmpty()) {
+            // The rows of a skewed key are spread over several writers, which breaks the order of the changes to an
+            // equality key.
+            LOG.warn("Fallback to use 'none' distribution mode, because {}={} is not supported with equality fields",
+                WRITE_DISTRIBUTION_MODE, DistributionMode.RANGE.modeName());
+            return input;
+          } else if (partitionSpec.isUnpartitioned() && sortOrder.isUnsorted()) {
+            return input;
+          } else {
+            return input.partitionCustom(
+                new RangePartitioner(iSchema, partitionSpec, sortOrder, flinkRowType,
+                    RANGE_SAMPLES_PER_SUBTASK, RANGE_REBALANCE_RECORDS),
+                new RangePartitioner.RowKeySelector());
+          }
 
         default:
           throw new RuntimeException("Unrecognized write.distribution-mode: " + writeMode);
@@ -324,6 +491,34 @@ public class FlinkSink {
     return new IcebergStreamWriter<>(table.name(), taskWriterFactory);
   }
 
+  static IcebergUpsertWriter createUpsertWriter(Table table,
+                                                RowType flinkRowType,
+                                                List<Integer> equalityFieldIds) {
+    Map<String, String> props = table.properties();
+    long targetFileSize = getTargetFileSizeBytes(props);
+    FileFormat fileFormat = getFileFormat(props);
+
+    RowDataTaskWriterFactory taskWriterFactory = new RowDataTaskWriterFactory(table.schema(), flinkRowType,
+        table.spec(), table.locationProvider(), table.io(), table.encryption(), targetFileSize, fileFormat, props,
+        equalityFieldIds);
+
+    return new IcebergUpsertWriter(table.name(), taskWriterFactory);
+  }
+
+  static IcebergFilesMerger createFilesMerger(Table table, long smallFileSizeBytes, int mergeThreads) {
+    Map<String, String> props = table.properties();
+    long targetFileSize = getTargetFileSizeBytes(props);
+    FileFormat fileFormat = getFileFormat(props);
+
+    // The small files are read with the table schema, so the merged files are written with the same schema.
+    TaskWriterFactory<RowData> taskWriterFactory = new RowDataTaskWriterFactory(table.schema(),
+        FlinkSchemaUtil.convert(table.schema()), table.spec(), table.locationProvider(), table.io(),
+        table.encryption(), targetFileSize, fileFormat, props, null);
+
+    return new IcebergFilesMerger(table.name(), table.schema(), table.spec(), table.io(), table.encryption(),
+        taskWriterFactory, smallFileSizeBytes, targetFileSize, mergeThreads);
+  }
+
   private static FileFormat getFileFormat(Map<String, String> properties) {
     String formatString = properties.getOrDefault(DEFAULT_FILE_FORMAT, DEFAULT_FILE_FORMAT_DEFAULT);
     return FileFormat.valueOf(formatString.toUpperCase(Locale.ENGLISH));
@@ -26,15 +26,25 @@ import java.util.List;
 import java.util.Map;
 import java.util.NavigableMap;
 import java.util.SortedMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.apache.flink.api.common.state.ListState;
 import org.apache.flink.api.common.state.ListStateDescriptor;
 import org.apache.flink.api.common.typeinfo.BasicTypeInfo;
 import org.apache.flink.api.common.typeinfo.PrimitiveArrayTypeInfo;
 import org.apache.flink.core.io.SimpleVersionedSerialization;
+import org.apache.flink.metrics.Gauge;
+import org.apache.flink.metrics.Histogram;
+import org.apache.flink.metrics.MetricGroup;
+import org.apache.flink.runtime.metrics.DescriptiveStatisticsHistogram;
 import org.apache.flink.runtime.state.StateInitializationContext;
 import org.apache.flink.runtime.state.StateSnapshotContext;
 import org.apache.flink.streaming.api.operators.AbstractStreamOperator;
 import org.apache.flink.streaming.api.operators.BoundedOneInput;
+import org.apache.flink.streaming.api.operators.MailboxExecutor;
 import org.apache.flink.streaming.api.operators.OneInputStreamOperator;
 import org.apache.flink.streaming.runtime.streamrecord.StreamRecord;
 import org.apache.flink.table.runtime.typeutils.SortedMapTypeInfo;
@@ -53,6 +63,7 @@ import org.apache.iceberg.relocated.com.google.common.base.Strings;
 import org.apache.iceberg.relocated.com.google.common.collect.ImmutableList;
 import org.apache.iceberg.relocated.com.google.common.collect.Lists;
 import org.apache.iceberg.relocated.com.google.common.collect.Maps;
+import org.apache.iceberg.relocated.com.google.common.util.concurrent.ThreadFactoryBuilder;
 import org.apache.iceberg.types.Comparators;
 import org.apache.iceberg.types.Types;
 import org.slf4j.Logger;
@@ -64,6 +75,7 @@ class IcebergFilesCommitter extends AbstractStreamOperator<Void>
   private static final long serialVersionUID = 1L;
   private static final long INITIAL_CHECKPOINT_ID = -1L;
   private static final byte[] EMPTY_MANIFEST_DATA = new byte[0];
+  private static final int HISTOGRAM_WINDOW_SIZE = 1024;
 
   private static final Logger LOG = LoggerFactory.getLogger(IcebergFilesCommitter.class);
   private static final String FLINK_JOB_ID = "flink.job-id";
@@ -77,6 +89,7 @@ class IcebergFilesCommitter extends AbstractStreamOperator<Void>
   // TableLoader to load iceberg table lazily.
   private final TableLoader tableLoader;
   private final boolean replacePartitions;
+  private final boolean asyncCommit;
 
   // A sorted map to maintain the completed data files for each pending checkpointId (which have not been committed
   // to iceberg table). We need a sorted map here because there's possible that few checkpoints snapshot failed, for
@@ -84,6 +97,8 @@ class IcebergFilesCommitter extends AbstractStreamOperator<Void>
   // <2, <file3>>. Snapshot for checkpoint#1 interrupted because of network/disk failure etc, while we don't expect
   // any data loss in iceberg table. So we keep the finished files <1, <file0, file1>> in memory and retry to commit
   // iceberg table when the next checkpoint happen.
+  // With asynchronous commits, the committed checkpoints are removed by the commit thread, so all the accesses to this
+  // map are synchronized on it.
   private final NavigableMap<Long, byte[]> dataFilesPerCheckpoint = Maps.newTreeMap();
 
   // The completed files cache for current checkpoint. Once the snapshot barrier received, it will be flushed to the
@@ -93,8 +108,23 @@ class IcebergFilesCommitter extends AbstractStreamOperator<Void>
   // It will have an unique identifier for one job.
   private transient String flinkJobId;
   private transient Table table;
+  // The table instance used for commits. Asynchronous commits use their own instance, because commits refresh the
+  // table and Table instances are not thread-safe.
+  private transient Table commitTable;
   private transient ManifestOutputFileFactory manifestOutputFileFactory;
-  private transient long maxCommittedCheckpointId;
+  private transient volatile long maxCommittedCheckpointId;
+
+  // The max checkpoint id that has been committed or queued for an asynchronous commit. It's only used by the task
+  // thread to avoid committing the same checkpoint twice.
+  private transient long maxQueuedCheckpointId;
+
+  // The single commit thread that commits checkpoints in order when committing asynchronously. A failed commit is
+  // reported to the task thread, which fails the job on its next call into this operator.
+  private transient ExecutorService commitExecutor;
+  private transient AtomicInteger pendingCommits;
+  private transient volatile Throwable commitFailure;
+  private transient MailboxExecutor mailboxExecutor;
+  private transient Histogram commitDurations;
 
   // There're two cases that we restore from flink checkpoints: the first case is restoring from snapshot created by the
   // same flink job; another case is restoring from snapshot created by another different job. For the second case, we
@@ -108,8 +138,13 @@ class IcebergFilesCommitter extends AbstractStreamOperator<Void>
   private transient ListState<SortedMap<Long, byte[]>> checkpointsState;
 
   IcebergFilesCommitter(TableLoader tableLoader, boolean replacePartitions) {
+    this(tableLoader, replacePartitions, false);
+  }
+
+  IcebergFilesCommitter(TableLoader tableLoader, boolean replacePartitions, boolean asyncCommit) {
     this.tableLoader = tableLoader;
     this.replacePartitions = replacePartitions;
+    this.asyncCommit = asyncCommit;
   }
 
   @Override
@@ -126,6 +161,23 @@ class IcebergFilesCommitter extends AbstractStreamOperator<Void>
     this.manifestOutputFileFactory = FlinkManifestUtil.createOutputFileFactory(table, flinkJobId, subTaskId, attemptId);
     this.maxCommittedCheckpointId = INITIAL_CHECKPOINT_ID;
 
+    this.pendingCommits = new AtomicInteger(0);
+    MetricGroup metrics = getMetricGroup();
+    this.commitDurations = metrics.histogram("commitDurationMs",
+        new DescriptiveStatisticsHistogram(HISTOGRAM_WINDOW_SIZE));
+    metrics.gauge("pendingCommits", (Gauge<Integer>) pendingCommits::get);
+    if (asyncCommit) {
+      this.commitTable = tableLoader.loadTable();
+      this.mailboxExecutor = getContainingTask().getMailboxExecutorFactory()
+          .createExecutor(getOperatorConfig().getChainIndex());
+      this.commitExecutor = Executors.newSingleThreadExecutor(new ThreadFactoryBuilder()
+          .setDaemon(true)
+          .setNameFormat("iceberg-files-committer-" + subTaskId)
+          .build());
+    } else {
+      this.commitTable = table;
+    }
+
     this.checkpointsState = context.getOperatorStateStore().getListState(STATE_DESCRIPTOR);
     this.jobIdState = context.getOperatorStateStore().getListState(JOB_ID_DESCRIPTOR);
     if (context.isRestored()) {
@@ -147,6 +199,8 @@ class IcebergFilesCommitter extends AbstractStreamOperator<Void>
         commitUpToCheckpoint(uncommittedDataFiles, restoredFlinkJobId, maxUncommittedCheckpointId);
       }
     }
+
+    this.maxQueuedCheckpointId = maxCommittedCheckpointId;
   }
 
   @Override
@@ -154,13 +208,20 @@ class IcebergFilesCommitter extends AbstractStreamOperator<Void>
     super.snapshotState(context);
     long checkpointId = context.getCheckpointId();
     LOG.info("Start to flush snapshot state to state backend, table: {}, checkpointId: {}", table, checkpointId);
-
-    // Update the checkpoint state.
-    dataFilesPerCheckpoint.put(checkpointId, writeToManifest(checkpointId));
+    checkCommitFailure();
+
+    // Update the checkpoint state. Checkpoints that are still being committed asynchronously are kept in the state, the
+    // max-committed-checkpoint-id filters them out if they are restored after their commit succeeded.
+    byte[] manifestData = writeToManifest(checkpointId);
+    SortedMap<Long, byte[]> uncommittedDataFiles;
+    synchronized (dataFilesPerCheckpoint) {
+      dataFilesPerCheckpoint.put(checkpointId, manifestData);
+      uncommittedDataFiles = Maps.newTreeMap(dataFilesPerCheckpoint);
+    }
 
     // Reset the snapshot state to the latest state.
     checkpointsState.clear();
-    checkpointsState.add(dataFilesPerCheckpoint);
+    checkpointsState.add(uncommittedDataFiles);
 
     jobIdState.clear();
     jobIdState.add(flinkJobId);
@@ -179,9 +240,85 @@ class IcebergFilesCommitter extends AbstractStreamOperator<Void>
     //   4. notifyCheckpointComplete(ckpId);
     // For step#4, we don't need to commit iceberg table again because in step#3 we've committed all the files,
     // Besides, we need to maintain the max-committed-checkpoint-id to be increasing.
-    if (checkpointId > maxCommittedCheckpointId) {
-      commitUpToCheckpoint(dataFilesPerCheckpoint, flinkJobId, checkpointId);
-      this.maxCommittedCheckpointId = checkpointId;
+    checkCommitFailure();
+    if (checkpointId > maxQueuedCheckpointId) {
+      this.maxQueuedCheckpointId = checkpointId;
+
+      if (asyncCommit) {
+        // Commit on the commit thread so that a slow catalog doesn't block processing of the next checkpoint. The
+        // single thread commits the checkpoints in order, each one up to its own checkpoint id.
+        pendingCommits.incrementAndGet();
+        commitExecutor.execute(() -> {
+          try {
+            if (commitFailure == null) {
+              commitCheckpoint(checkpointId);
+            }
+          } catch (Throwable t) {
+            LOG.error("Failed to commit checkpoint {} to table {}", checkpointId, table, t);
+            this.commitFailure = t;
+          } finally {
+            pendingCommits.decrementAndGet();
+          }
+        });
+      } else {
+        commitCheckpoint(checkpointId);
+      }
+    }
+  }
+
+  private void commitCheckpoint(long checkpointId) throws IOException {
+    long start = System.currentTimeMillis();
+
+    NavigableMap<Long, byte[]> pendingDataFiles;
+    synchronized (dataFilesPerCheckpoint) {
+      pendingDataFiles = Maps.newTreeMap(dataFilesPerCheckpoint.headMap(checkpointId, true));
+    }
+
+    commitUpToCheckpoint(pendingDataFiles, flinkJobId, checkpointId);
+
+    synchronized (dataFilesPerCheckpoint) {
+      dataFilesPerCheckpoint.headMap(checkpointId, true).clear();
+    }
+
+    this.maxCommittedCheckpointId = checkpointId;
+    reportCommitDuration(System.currentTimeMillis() - start);
+  }
+
+  private void reportCommitDuration(long durationMillis) {
+    if (mailboxExecutor == null) {
+      commitDurations.update(durationMillis);
+      return;
+    }
+
+    // Metrics are not thread-safe, so the commit thread hands the duration to the task thread.
+    try {
+      mailboxExecutor.execute(() -> commitDurations.update(durationMillis), "update commit duration metric");
+    } catch (RejectedExecutionException e) {
+      LOG.debug("Skipping commit duration metric, the task is shutting down", e);
+    }
+  }
+
+  /**
+   * Waits until the queued asynchronous commits are finished, and rethrows the failure of a commit if there was one.
+   */
+  void waitForCommits() throws IOException {
+    if (commitExecutor != null) {
+      try {
+        commitExecutor.submit(() -> { }).get();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IOException("Interrupted while waiting for commits to table " + table, e);
+      } catch (ExecutionException e) {
+        throw new IOException("Failed to wait for commits to table " + table, e.getCause());
+      }
+    }
+
+    checkCommitFailure();
+  }
+
+  private void checkCommitFailure() throws IOException {
+    if (commitFailure != null) {
+      throw new IOException("Failed to commit to table " + table, commitFailure);
     }
   }
 
@@ -200,7 +337,7 @@ class IcebergFilesCommitter extends AbstractStreamOperator<Void>
 
       DeltaManifests deltaManifests = SimpleVersionedSerialization
           .readVersionAndDeSerialize(DeltaManifestsSerializer.INSTANCE, e.getValue());
-      pendingResults.put(e.getKey(), FlinkManifestUtil.readCompletedFiles(deltaManifests, table.io()));
+      pendingResults.put(e.getKey(), FlinkManifestUtil.readCompletedFiles(deltaManifests, commitTable.io()));
       manifests.addAll(deltaManifests.manifests());
     }
 
@@ -215,7 +352,7 @@ class IcebergFilesCommitter extends AbstractStreamOperator<Void>
     // Delete the committed manifests.
     for (ManifestFile manifest : manifests) {
       try {
-        table.io().deleteFile(manifest.path());
+        commitTable.io().deleteFile(manifest.path());
       } catch (Exception e) {
         // The flink manifests cleaning failure shouldn't abort the completed checkpoint.
         String details = MoreObjects.toStringHelper(this)
@@ -236,7 +373,7 @@ class IcebergFilesCommitter extends AbstractStreamOperator<Void>
     Preconditions.checkState(deleteFilesNum == 0, "Cannot overwrite partitions with delete files.");
 
     // Commit the overwrite transaction.
-    ReplacePartitions dynamicOverwrite = table.newReplacePartitions();
+    ReplacePartitions dynamicOverwrite = commitTable.newReplacePartitions();
 
     int numFiles = 0;
     for (WriteResult result : pendingResults.values()) {
@@ -254,7 +391,7 @@ class IcebergFilesCommitter extends AbstractStreamOperator<Void>
 
     if (deleteFilesNum == 0) {
       // To be compatible with iceberg format V1.
-      AppendFiles appendFiles = table.newAppend();
+      AppendFiles appendFiles = commitTable.newAppend();
 
       int numFiles = 0;
       for (WriteResult result : pendingResults.values()) {
@@ -272,7 +409,7 @@ class IcebergFilesCommitter extends AbstractStreamOperator<Void>
         // txn2, the equality-delete files of txn2 are required to be applied to data files from txn1. Committing the
         // merged one will lead to the incorrect delete semantic.
         WriteResult result = e.getValue();
-        RowDelta rowDelta = table.newRowDelta()
+        RowDelta rowDelta = commitTable.newRowDelta()
             .validateDataFilesExist(ImmutableList.copyOf(result.referencedDataFiles()))
             .validateDeletedFiles();
 
@@ -301,12 +438,16 @@ class IcebergFilesCommitter extends AbstractStreamOperator<Void>
   }
 
   @Override
-  public void processElement(StreamRecord<WriteResult> element) {
+  public void processElement(StreamRecord<WriteResult> element) throws IOException {
+    checkCommitFailure();
     this.writeResultsOfCurrentCkpt.add(element.getValue());
   }
 
   @Override
   public void endInput() throws IOException {
+    // Finish the queued commits firstly, so that the remaining data files are committed after them.
+    waitForCommits();
+
     // Flush the buffered data files into 'dataFilesPerCheckpoint' firstly.
     long currentCheckpointId = Long.MAX_VALUE;
     dataFilesPerCheckpoint.put(currentCheckpointId, writeToManifest(currentCheckpointId));
@@ -315,6 +456,13 @@ class IcebergFilesCommitter extends AbstractStreamOperator<Void>
     commitUpToCheckpoint(dataFilesPerCheckpoint, flinkJobId, currentCheckpointId);
   }
 
+  @Override
+  public void close() throws Exception {
+    super.close();
+    // Don't lose the commits of the checkpoints that completed right before a graceful shutdown.
+    waitForCommits();
+  }
+
   /**
    * Write all the complete data files to a newly created manifest file and return the manifest's avro serialized bytes.
    */
@@ -332,6 +480,11 @@ class IcebergFilesCommitter extends AbstractStreamOperator<Void>
 
   @Override
   public void dispose() throws Exception {
+    if (commitExecutor != null) {
+      commitExecutor.shutdownNow();
+      commitExecutor = null;
+    }
+
     if (tableLoader != null) {
       tableLoader.close();
     }
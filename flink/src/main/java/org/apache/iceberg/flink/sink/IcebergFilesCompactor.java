@@ -0,0 +1,455 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iceberg.flink.sink;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.apache.flink.api.common.state.ListState;
+import org.apache.flink.api.common.state.ListStateDescriptor;
+import org.apache.flink.api.common.typeinfo.BasicTypeInfo;
+import org.apache.flink.metrics.Counter;
+import org.apache.flink.metrics.Gauge;
+import org.apache.flink.metrics.MetricGroup;
+import org.apache.flink.runtime.state.StateInitializationContext;
+import org.apache.flink.runtime.state.StateSnapshotContext;
+import org.apache.flink.streaming.api.operators.AbstractStreamOperator;
+import org.apache.flink.streaming.api.operators.BoundedOneInput;
+import org.apache.flink.streaming.api.operators.ChainingStrategy;
+import org.apache.flink.streaming.api.operators.OneInputStreamOperator;
+import org.apache.flink.streaming.runtime.streamrecord.StreamRecord;
+import org.apache.flink.table.data.RowData;
+import org.apache.iceberg.DataFile;
+import org.apache.iceberg.FileFormat;
+import org.apache.iceberg.PartitionSpec;
+import org.apache.iceberg.Snapshot;
+import org.apache.iceberg.SnapshotSummary;
+import org.apache.iceberg.Table;
+import org.apache.iceberg.flink.FlinkSchemaUtil;
+import org.apache.iceberg.flink.TableLoader;
+import org.apache.iceberg.io.CloseableIterable;
+import org.apache.iceberg.io.TaskWriter;
+import org.apache.iceberg.relocated.com.google.common.base.MoreObjects;
+import org.apache.iceberg.relocated.com.google.common.base.Preconditions;
+import org.apache.iceberg.relocated.com.google.common.collect.Lists;
+import org.apache.iceberg.relocated.com.google.common.collect.Maps;
+import org.apache.iceberg.relocated.com.google.common.collect.Sets;
+import org.apache.iceberg.relocated.com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.apache.iceberg.util.BinPacking;
+import org.apache.iceberg.util.Pair;
+import org.apache.iceberg.util.PropertyUtil;
+import org.apache.iceberg.util.SnapshotUtil;
+import org.apache.iceberg.util.StructLikeWrapper;
+import org.apache.iceberg.util.Tasks;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static org.apache.iceberg.TableProperties.DEFAULT_FILE_FORMAT;
+import static org.apache.iceberg.TableProperties.DEFAULT_FILE_FORMAT_DEFAULT;
+import static org.apache.iceberg.TableProperties.WRITE_TARGET_FILE_SIZE_BYTES;
+import static org.apache.iceberg.TableProperties.WRITE_TARGET_FILE_SIZE_BYTES_DEFAULT;
+
+/**
+ * An optional operator after the {@link IcebergFilesCommitter} that continuously compacts the small data files that
+ * were committed to the table while the job is running.
+ * <p>
+ * When a checkpoint completes, the compactor reads the snapshots committed since the last compaction, by this job or
+ * by other writers, and collects the added data files smaller than the configured size by partition. It bin-packs the
+ * small files of each partition into groups of the table's target file size, rewrites at most a few groups on a single
+ * background thread, and commits each group with its own {@link org.apache.iceberg.RewriteFiles}, so that concurrent
+ * appends don't conflict with the compaction. Compaction is best effort: a failed rewrite is logged and counted, and
+ * doesn't fail the job.
+ * <p>
+ * Data files can only be rewritten while no deletes apply to them. A snapshot that adds delete files discards the
+ * collected small files, and a rewrite is not committed if delete files were committed to its partition while it was
+ * running. The files of a group that failed to rewrite or commit stay collected and are retried by the next compaction.
+ */
+class IcebergFilesCompactor extends AbstractStreamOperator<Void>
+    implements OneInputStreamOperator<Void, Void>, BoundedOneInput {
+
+  private static final long serialVersionUID = 1L;
+  private static final Logger LOG = LoggerFactory.getLogger(IcebergFilesCompactor.class);
+  private static final long NO_SNAPSHOT_ID = -1L;
+  private static final String COMPACTION_SNAPSHOT_PROP = "flink.compaction";
+
+  // The snapshot id from which the committed files are scanned again after a restore, so that the small files that
+  // were collected but not compacted yet are collected again.
+  private static final ListStateDescriptor<Long> SNAPSHOT_ID_DESCRIPTOR = new ListStateDescriptor<>(
+      "iceberg-compactor-snapshot-id", BasicTypeInfo.LONG_TYPE_INFO);
+
+  private final TableLoader tableLoader;
+  private final long smallFileSizeBytes;
+  private final int minInputFiles;
+  private final int maxRewritesPerCycle;
+
+  private transient Table table;
+  private transient TaskWriterFactory<RowData> taskWriterFactory;
+  private transient long targetFileSizeBytes;
+  private transient ListState<Long> snapshotIdState;
+
+  // Small files by partition spec id and partition. Only accessed by the compaction thread, except when no compaction
+  // is running.
+  private transient Map<Pair<Integer, StructLikeWrapper>, Map<String, DataFile>> smallFilesByPartition;
+  private transient long lastSnapshotId;
+  private transient long collectedSinceSnapshotId;
+
+  private transient volatile long restartSnapshotId;
+  private transient volatile int smallFileCount;
+  private transient ExecutorService compactionExecutor;
+  private transient Future<CompactionResult> runningCompaction;
+
+  private transient Counter compactedFiles;
+  private transient Counter compactionOutputFiles;
+  private transient Counter failedCompactions;
+
+  IcebergFilesCompactor(TableLoader tableLoader, long smallFileSizeBytes, int minInputFiles, int maxRewritesPerCycle) {
+    Preconditions.checkArgument(minInputFiles > 1,
+        "Invalid minimum number of input files: %s (must be larger than 1)", minInputFiles);
+    Preconditions.checkArgument(maxRewritesPerCycle > 0,
+        "Invalid number of rewrites per compaction: %s (must be positive)", maxRewritesPerCycle);
+    this.tableLoader = tableLoader;
+    this.smallFileSizeBytes = smallFileSizeBytes;
+    this.minInputFiles = minInputFiles;
+    this.maxRewritesPerCycle = maxRewritesPerCycle;
+    setChainingStrategy(ChainingStrategy.ALWAYS);
+  }
+
+  @Override
+  public void initializeState(StateInitializationContext context) throws Exception {
+    super.initializeState(context);
+
+    // Open the table loader and load the table.
+    this.tableLoader.open();
+    this.table = tableLoader.loadTable();
+
+    Map<String, String> props = table.properties();
+    this.targetFileSizeBytes = PropertyUtil.propertyAsLong(props,
+        WRITE_TARGET_FILE_SIZE_BYTES, WRITE_TARGET_FILE_SIZE_BYTES_DEFAULT);
+    FileFormat format = FileFormat.valueOf(props.getOrDefault(DEFAULT_FILE_FORMAT, DEFAULT_FILE_FORMAT_DEFAULT)
+        .toUpperCase(Locale.ENGLISH));
+    this.taskWriterFactory = new RowDataTaskWriterFactory(table.schema(), FlinkSchemaUtil.convert(table.schema()),
+        table.spec(), table.locationProvider(), table.io(), table.encryption(), targetFileSizeBytes, format, props,
+        null);
+
+    int subTaskId = getRuntimeContext().getIndexOfThisSubtask();
+    int attemptId = getRuntimeContext().getAttemptNumber();
+    taskWriterFactory.initialize(subTaskId, attemptId);
+
+    this.smallFilesByPartition = Maps.newHashMap();
+    this.snapshotIdState = context.getOperatorStateStore().getListState(SNAPSHOT_ID_DESCRIPTOR);
+    if (context.isRestored() && snapshotIdState.get().iterator().hasNext()) {
+      this.lastSnapshotId = snapshotIdState.get().iterator().next();
+    } else {
+      // Only the files that are committed after the job started are compacted.
+      Snapshot current = table.currentSnapshot();
+      this.lastSnapshotId = current != null ? current.snapshotId() : NO_SNAPSHOT_ID;
+    }
+
+    this.collectedSinceSnapshotId = lastSnapshotId;
+    this.restartSnapshotId = lastSnapshotId;
+
+    this.compactionExecutor = Executors.newSingleThreadExecutor(new ThreadFactoryBuilder()
+        .setDaemon(true)
+        .setNameFormat("iceberg-files-compactor-" + subTaskId)
+        .build());
+
+    MetricGroup metrics = getMetricGroup();
+    this.compactedFiles = metrics.counter("compactedFiles");
+    this.compactionOutputFiles = metrics.counter("compactionOutputFiles");
+    this.failedCompactions = metrics.counter("failedCompactions");
+    metrics.gauge("compactionCandidateFiles", (Gauge<Integer>) () -> smallFileCount);
+  }
+
+  @Override
+  public void snapshotState(StateSnapshotContext context) throws Exception {
+    super.snapshotState(context);
+    snapshotIdState.clear();
+    snapshotIdState.add(restartSnapshotId);
+  }
+
+  @Override
+  public void notifyCheckpointComplete(long checkpointId) throws Exception {
+    super.notifyCheckpointComplete(checkpointId);
+
+    // Start the next compaction when the previous one has finished, the files committed in between are collected by
+    // the next one.
+    if (runningCompaction == null || runningCompaction.isDone()) {
+      waitForCompaction();
+      this.runningCompaction = compactionExecutor.submit(this::compactAndLog);
+    }
+  }
+
+  @Override
+  public void processElement(StreamRecord<Void> element) {
+  }
+
+  @Override
+  public void endInput() throws IOException {
+    // Compact the files committed by the end of a bounded input before the job finishes.
+    waitForCompaction();
+    compact().updateMetrics();
+  }
+
+  /**
+   * Waits for the running compaction and updates the metrics with its result on the task thread, because metrics are
+   * not thread-safe.
+   */
+  private void waitForCompaction() throws IOException {
+    if (runningCompaction != null) {
+      try {
+        runningCompaction.get().updateMetrics();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IOException("Interrupted while compacting table " + table, e);
+      } catch (ExecutionException e) {
+        throw new IOException("Failed to compact table " + table, e.getCause());
+      } finally {
+        this.runningCompaction = null;
+      }
+    }
+  }
+
+  private CompactionResult compactAndLog() {
+    try {
+      return compact();
+    } catch (RuntimeException e) {
+      LOG.warn("Failed to compact small files of table {}", table, e);
+      CompactionResult result = new CompactionResult();
+      result.failures += 1;
+      return result;
+    }
+  }
+
+  /**
+   * Collects the small files committed since the last compaction and rewrites the groups that have enough files.
+   *
+   * @return the numbers of compacted files, output files and failed rewrites, for the metrics
+   */
+  CompactionResult compact() {
+    table.refresh();
+    collectSmallFiles();
+
+    CompactionResult result = new CompactionResult();
+    List<List<DataFile>> groups = planRewrites();
+    for (List<DataFile> group : groups) {
+      rewrite(group, result);
+    }
+
+    this.smallFileCount = smallFilesByPartition.values().stream().mapToInt(Map::size).sum();
+    if (smallFilesByPartition.isEmpty()) {
+      this.collectedSinceSnapshotId = lastSnapshotId;
+    }
+
+    this.restartSnapshotId = collectedSinceSnapshotId;
+
+    return result;
+  }
+
+  private void collectSmallFiles() {
+    Snapshot current = table.currentSnapshot();
+    if (current == null || current.snapshotId() == lastSnapshotId) {
+      return;
+    }
+
+    List<Long> snapshotIds;
+    if (lastSnapshotId == NO_SNAPSHOT_ID) {
+      snapshotIds = SnapshotUtil.currentAncestors(table);
+    } else if (SnapshotUtil.ancestorOf(table, current.snapshotId(), lastSnapshotId)) {
+      snapshotIds = SnapshotUtil.snapshotIdsBetween(table, lastSnapshotId, current.snapshotId());
+    } else {
+      // The last snapshot was expired or rolled back, start over from the current snapshot.
+      LOG.info("Snapshot {} is not an ancestor of the current snapshot of table {}, discarding {} small files",
+          lastSnapshotId, table, smallFileCount);
+      smallFilesByPartition.clear();
+      this.lastSnapshotId = current.snapshotId();
+      this.collectedSinceSnapshotId = lastSnapshotId;
+      return;
+    }
+
+    // The snapshot ids are ordered from the newest to the oldest.
+    List<Long> oldestFirst = Lists.newArrayList(snapshotIds);
+    Collections.reverse(oldestFirst);
+    for (Long snapshotId : oldestFirst) {
+      collectSmallFiles(table.snapshot(snapshotId));
+    }
+
+    this.lastSnapshotId = current.snapshotId();
+  }
+
+  private void collectSmallFiles(Snapshot snapshot) {
+    if (PropertyUtil.propertyAsLong(snapshot.summary(), SnapshotSummary.ADDED_DELETE_FILES_PROP, 0L) > 0) {
+      // The new deletes may apply to the collected files, and position deletes may apply to the files added in the
+      // same snapshot, none of them can be rewritten without applying the deletes.
+      smallFilesByPartition.clear();
+      this.collectedSinceSnapshotId = snapshot.snapshotId();
+      return;
+    }
+
+    for (DataFile file : snapshot.deletedFiles()) {
+      removeSmallFile(file);
+    }
+
+    if (snapshot.summary().containsKey(COMPACTION_SNAPSHOT_PROP)) {
+      // The files written by a compaction are not compacted again, even if the partition was too small to fill them.
+      return;
+    }
+
+    for (DataFile file : snapshot.addedFiles()) {
+      if (file.fileSizeInBytes() < smallFileSizeBytes) {
+        if (smallFilesByPartition.isEmpty() && snapshot.parentId() != null) {
+          this.collectedSinceSnapshotId = snapshot.parentId();
+        }
+
+        smallFilesByPartition.computeIfAbsent(partitionOf(file), key -> Maps.newHashMap())
+            .put(file.path().toString(), file.copy());
+      }
+    }
+  }
+
+  private void removeSmallFile(DataFile file) {
+    Pair<Integer, StructLikeWrapper> partition = partitionOf(file);
+    Map<String, DataFile> files = smallFilesByPartition.get(partition);
+    if (files != null) {
+      files.remove(file.path().toString());
+      if (files.isEmpty()) {
+        smallFilesByPartition.remove(partition);
+      }
+    }
+  }
+
+  private Pair<Integer, StructLikeWrapper> partitionOf(DataFile file) {
+    // Files of older specs are grouped by their own partition, the rewritten files are written with the current spec.
+    PartitionSpec spec = table.specs().get(file.specId());
+    return Pair.of(file.specId(), StructLikeWrapper.forType(spec.partitionType()).set(file.partition()));
+  }
+
+  private List<List<DataFile>> planRewrites() {
+    List<List<DataFile>> groups = Lists.newArrayList();
+    BinPacking.ListPacker<DataFile> packer = new BinPacking.ListPacker<>(targetFileSizeBytes, 1, false);
+    for (Map<String, DataFile> files : smallFilesByPartition.values()) {
+      for (List<DataFile> group : packer.pack(files.values(), DataFile::fileSizeInBytes)) {
+        if (group.size() >= minInputFiles && groups.size() < maxRewritesPerCycle) {
+          groups.add(group);
+        }
+      }
+    }
+
+    return groups;
+  }
+
+  private void rewrite(List<DataFile> group, CompactionResult result) {
+    long startingSnapshotId = table.currentSnapshot().snapshotId();
+    TaskWriter<RowData> writer = taskWriterFactory.create();
+    List<DataFile> rewrittenFiles;
+    try {
+      for (DataFile file : group) {
+        try (CloseableIterable<RowData> rows = IcebergFilesMerger.readDataFile(file, table.schema(), table.io(),
+            table.encryption())) {
+          for (RowData row : rows) {
+            writer.write(row);
+          }
+        }
+      }
+
+      rewrittenFiles = Lists.newArrayList(writer.dataFiles());
+    } catch (IOException | RuntimeException e) {
+      LOG.warn("Failed to rewrite {} small files of table {}, retrying in the next compaction",
+          group.size(), table, e);
+      result.failures += 1;
+      abort(writer);
+      return;
+    }
+
+    try {
+      // The commit fails if delete files were committed to the rewritten partitions since the rewrite started.
+      table.newRewrite()
+          .validateFromSnapshot(startingSnapshotId)
+          .rewriteFiles(Sets.newHashSet(group), Sets.newHashSet(rewrittenFiles))
+          .set(COMPACTION_SNAPSHOT_PROP, "true")
+          .commit();
+    } catch (RuntimeException e) {
+      LOG.warn("Failed to commit the rewrite of {} small files of table {}, retrying in the next compaction",
+          group.size(), table, e);
+      result.failures += 1;
+      Tasks.foreach(rewrittenFiles)
+          .suppressFailureWhenFinished()
+          .noRetry()
+          .run(file -> table.io().deleteFile(file.path().toString()));
+      return;
+    }
+
+    // The group is only done once it is committed, the files of a failed group stay collected.
+    group.forEach(this::removeSmallFile);
+    result.compactedFiles += group.size();
+    result.outputFiles += rewrittenFiles.size();
+    LOG.info("Compacted {} small files into {} files of table {}", group.size(), rewrittenFiles.size(), table);
+  }
+
+  private static void abort(TaskWriter<RowData> writer) {
+    try {
+      writer.abort();
+    } catch (IOException e) {
+      LOG.warn("Failed to abort compaction writer", e);
+    }
+  }
+
+  @Override
+  public void dispose() throws Exception {
+    super.dispose();
+    if (compactionExecutor != null) {
+      compactionExecutor.shutdownNow();
+      compactionExecutor = null;
+    }
+
+    if (tableLoader != null) {
+      tableLoader.close();
+    }
+  }
+
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper(this)
+        .add("table", table)
+        .add("small_file_size_bytes", smallFileSizeBytes)
+        .add("min_input_files", minInputFiles)
+        .toString();
+  }
+
+  /**
+   * The outcome of a compaction, which is applied to the metrics by the task thread.
+   */
+  class CompactionResult {
+    private int compactedFiles = 0;
+    private int outputFiles = 0;
+    private int failures = 0;
+
+    private void updateMetrics() {
+      IcebergFilesCompactor.this.compactedFiles.inc(compactedFiles);
+      compactionOutputFiles.inc(outputFiles);
+      failedCompactions.inc(failures);
+    }
+  }
+}
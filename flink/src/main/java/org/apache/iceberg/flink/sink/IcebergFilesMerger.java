@@ -0,0 +1,361 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iceberg.flink.sink;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.apache.flink.metrics.Counter;
+import org.apache.flink.metrics.Histogram;
+import org.apache.flink.metrics.MetricGroup;
+import org.apache.flink.runtime.metrics.DescriptiveStatisticsHistogram;
+import org.apache.flink.streaming.api.operators.AbstractStreamOperator;
+import org.apache.flink.streaming.api.operators.BoundedOneInput;
+import org.apache.flink.streaming.api.operators.ChainingStrategy;
+import org.apache.flink.streaming.api.operators.OneInputStreamOperator;
+import org.apache.flink.streaming.runtime.streamrecord.StreamRecord;
+import org.apache.flink.table.data.RowData;
+import org.apache.iceberg.DataFile;
+import org.apache.iceberg.PartitionSpec;
+import org.apache.iceberg.Schema;
+import org.apache.iceberg.avro.Avro;
+import org.apache.iceberg.encryption.EncryptedFiles;
+import org.apache.iceberg.encryption.EncryptionManager;
+import org.apache.iceberg.flink.data.FlinkAvroReader;
+import org.apache.iceberg.flink.data.FlinkOrcReader;
+import org.apache.iceberg.flink.data.FlinkParquetReaders;
+import org.apache.iceberg.io.CloseableIterable;
+import org.apache.iceberg.io.FileIO;
+import org.apache.iceberg.io.InputFile;
+import org.apache.iceberg.io.TaskWriter;
+import org.apache.iceberg.io.WriteResult;
+import org.apache.iceberg.orc.ORC;
+import org.apache.iceberg.parquet.Parquet;
+import org.apache.iceberg.relocated.com.google.common.base.MoreObjects;
+import org.apache.iceberg.relocated.com.google.common.collect.Lists;
+import org.apache.iceberg.relocated.com.google.common.collect.Maps;
+import org.apache.iceberg.relocated.com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.apache.iceberg.util.StructLikeWrapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * An optional operator between the {@link IcebergStreamWriter}s and the {@link IcebergFilesCommitter} that merges the
+ * small data files completed in a checkpoint before they are committed.
+ * <p>
+ * Every writer subtask completes one file per partition in each checkpoint, so short checkpoints and a high write
+ * parallelism produce many small files. This operator collects the data files smaller than the configured size by
+ * partition, rewrites them into files of the target size in a background thread pool as soon as a partition has
+ * enough data, and merges the remaining small files of each partition right before the checkpoint barrier is
+ * forwarded to the committer. The merged files replace the small files in the emitted {@link WriteResult}s and the
+ * small files, which were never committed, are deleted.
+ * <p>
+ * Results with delete files are forwarded as-is, because position deletes reference the paths of the data files
+ * written in the same checkpoint.
+ */
+class IcebergFilesMerger extends AbstractStreamOperator<WriteResult>
+    implements OneInputStreamOperator<WriteResult, WriteResult>, BoundedOneInput {
+
+  private static final long serialVersionUID = 1L;
+  private static final Logger LOG = LoggerFactory.getLogger(IcebergFilesMerger.class);
+  private static final int HISTOGRAM_WINDOW_SIZE = 1024;
+
+  private final String fullTableName;
+  private final Schema schema;
+  private final PartitionSpec spec;
+  private final FileIO io;
+  private final EncryptionManager encryption;
+  private final TaskWriterFactory<RowData> taskWriterFactory;
+  private final long smallFileSizeBytes;
+  private final long targetFileSizeBytes;
+  private final int mergeThreads;
+
+  // Small files of the current checkpoint, and their total size, by partition.
+  private transient Map<StructLikeWrapper, List<DataFile>> smallFilesByPartition;
+  private transient Map<StructLikeWrapper, Long> smallFileBytesByPartition;
+  private transient List<Future<MergeResult>> pendingMerges;
+  private transient ExecutorService mergePool;
+
+  private transient Histogram inputFileSizes;
+  private transient Histogram outputFileSizes;
+  private transient Counter mergedFiles;
+  private transient Counter failedMerges;
+
+  IcebergFilesMerger(String fullTableName, Schema schema, PartitionSpec spec, FileIO io, EncryptionManager encryption,
+                     TaskWriterFactory<RowData> taskWriterFactory, long smallFileSizeBytes, long targetFileSizeBytes,
+                     int mergeThreads) {
+    this.fullTableName = fullTableName;
+    this.schema = schema;
+    this.spec = spec;
+    this.io = io;
+    this.encryption = encryption;
+    this.taskWriterFactory = taskWriterFactory;
+    this.smallFileSizeBytes = smallFileSizeBytes;
+    this.targetFileSizeBytes = targetFileSizeBytes;
+    this.mergeThreads = mergeThreads;
+    setChainingStrategy(ChainingStrategy.ALWAYS);
+  }
+
+  @Override
+  public void open() throws Exception {
+    super.open();
+    int subTaskId = getRuntimeContext().getIndexOfThisSubtask();
+    int attemptId = getRuntimeContext().getAttemptNumber();
+    this.taskWriterFactory.initialize(subTaskId, attemptId);
+
+    this.smallFilesByPartition = Maps.newHashMap();
+    this.smallFileBytesByPartition = Maps.newHashMap();
+    this.pendingMerges = Lists.newArrayList();
+    this.mergePool = Executors.newFixedThreadPool(mergeThreads, new ThreadFactoryBuilder()
+        .setDaemon(true)
+        .setNameFormat("iceberg-files-merger-" + subTaskId + "-%d")
+        .build());
+
+    MetricGroup metrics = getRuntimeContext().getMetricGroup();
+    this.inputFileSizes = metrics.histogram("inputFileSizeBytes",
+        new DescriptiveStatisticsHistogram(HISTOGRAM_WINDOW_SIZE));
+    this.outputFileSizes = metrics.histogram("outputFileSizeBytes",
+        new DescriptiveStatisticsHistogram(HISTOGRAM_WINDOW_SIZE));
+    this.mergedFiles = metrics.counter("mergedFiles");
+    this.failedMerges = metrics.counter("failedMerges");
+  }
+
+  @Override
+  public void processElement(StreamRecord<WriteResult> element) {
+    WriteResult result = element.getValue();
+    for (DataFile dataFile : result.dataFiles()) {
+      inputFileSizes.update(dataFile.fileSizeInBytes());
+    }
+
+    if (result.deleteFiles().length > 0 || result.referencedDataFiles().length > 0) {
+      emit(result);
+      return;
+    }
+
+    List<DataFile> largeFiles = Lists.newArrayList();
+    for (DataFile dataFile : result.dataFiles()) {
+      if (dataFile.fileSizeInBytes() >= smallFileSizeBytes || dataFile.specId() != spec.specId()) {
+        largeFiles.add(dataFile);
+      } else {
+        addSmallFile(dataFile);
+      }
+    }
+
+    if (!largeFiles.isEmpty()) {
+      emit(WriteResult.builder().addDataFiles(largeFiles).build());
+    }
+  }
+
+  private void addSmallFile(DataFile dataFile) {
+    StructLikeWrapper partition = StructLikeWrapper.forType(spec.partitionType()).set(dataFile.partition());
+    List<DataFile> files = smallFilesByPartition.computeIfAbsent(partition, key -> Lists.newArrayList());
+    files.add(dataFile);
+    long bytes = smallFileBytesByPartition.merge(partition, dataFile.fileSizeInBytes(), Long::sum);
+
+    // Start merging as soon as the partition has enough data for a target size file.
+    if (bytes >= targetFileSizeBytes) {
+      smallFilesByPartition.remove(partition);
+      smallFileBytesByPartition.remove(partition);
+      submitMerge(files);
+    }
+  }
+
+  @Override
+  public void prepareSnapshotPreBarrier(long checkpointId) throws Exception {
+    // All the write results of this checkpoint have arrived, merge the remaining small files and emit the merged
+    // files before the barrier so that the committer includes them in this checkpoint.
+    flush();
+  }
+
+  @Override
+  public void endInput() throws IOException {
+    flush();
+  }
+
+  private void flush() throws IOException {
+    List<DataFile> singleFiles = Lists.newArrayList();
+    for (List<DataFile> files : smallFilesByPartition.values()) {
+      if (files.size() > 1) {
+        submitMerge(files);
+      } else {
+        singleFiles.addAll(files);
+      }
+    }
+
+    smallFilesByPartition.clear();
+    smallFileBytesByPartition.clear();
+
+    WriteResult.Builder builder = WriteResult.builder().addDataFiles(singleFiles);
+    for (Future<MergeResult> merge : pendingMerges) {
+      try {
+        MergeResult mergeResult = merge.get();
+        // Metrics are not thread-safe, so they are updated by the task thread instead of the merge threads.
+        mergeResult.updateMetrics();
+        builder.addDataFiles(mergeResult.files);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IOException("Interrupted while merging small files", e);
+      } catch (ExecutionException e) {
+        throw new IOException("Failed to merge small files", e.getCause());
+      }
+    }
+
+    pendingMerges.clear();
+
+    WriteResult result = builder.build();
+    if (result.dataFiles().length > 0) {
+      emit(result);
+    }
+  }
+
+  private void submitMerge(List<DataFile> files) {
+    pendingMerges.add(mergePool.submit(() -> merge(files)));
+  }
+
+  /**
+   * Rewrites the given files of one partition and returns the new files. If the rewrite fails, the partially written
+   * files are removed and the original files are returned so that they are committed unchanged.
+   * <p>
+   * This runs in the merge pool and must not update metrics.
+   */
+  private MergeResult merge(List<DataFile> files) {
+    TaskWriter<RowData> writer = taskWriterFactory.create();
+    DataFile[] merged;
+    try {
+      for (DataFile file : files) {
+        try (CloseableIterable<RowData> rows = readDataFile(file, schema, io, encryption)) {
+          for (RowData row : rows) {
+            writer.write(row);
+          }
+        }
+      }
+
+      merged = writer.dataFiles();
+    } catch (IOException | RuntimeException e) {
+      LOG.warn("Failed to merge {} small files of table {}, committing them unchanged", files.size(),
+          fullTableName, e);
+      abort(writer);
+      return new MergeResult(files.toArray(new DataFile[0]), 0, true);
+    }
+
+    // The small files were never committed, nothing references them once the merged files replace them.
+    for (DataFile file : files) {
+      try {
+        io.deleteFile(file.path().toString());
+      } catch (RuntimeException e) {
+        LOG.warn("Failed to delete merged small file {}", file.path(), e);
+      }
+    }
+
+    return new MergeResult(merged, files.size(), false);
+  }
+
+  private static void abort(TaskWriter<RowData> writer) {
+    try {
+      writer.abort();
+    } catch (IOException e) {
+      LOG.warn("Failed to abort merging writer", e);
+    }
+  }
+
+  /**
+   * Reads the rows of a data file without deletes with the given schema, which is also used by the
+   * {@link IcebergFilesCompactor}.
+   */
+  static CloseableIterable<RowData> readDataFile(DataFile file, Schema schema, FileIO io,
+                                                 EncryptionManager encryption) {
+    InputFile input = encryption.decrypt(EncryptedFiles.encryptedInput(
+        io.newInputFile(file.path().toString()), file.keyMetadata()));
+
+    switch (file.format()) {
+      case PARQUET:
+        return Parquet.read(input)
+            .project(schema)
+            .createReaderFunc(fileSchema -> FlinkParquetReaders.buildReader(schema, fileSchema))
+            .reuseContainers()
+            .build();
+
+      case AVRO:
+        return Avro.read(input)
+            .project(schema)
+            .createReaderFunc(readSchema -> new FlinkAvroReader(schema, readSchema))
+            .reuseContainers()
+            .build();
+
+      case ORC:
+        return ORC.read(input)
+            .project(schema)
+            .createReaderFunc(readSchema -> new FlinkOrcReader(schema, readSchema))
+            .build();
+
+      default:
+        throw new UnsupportedOperationException("Cannot merge unsupported file format: " + file.format());
+    }
+  }
+
+  @Override
+  public void dispose() throws Exception {
+    super.dispose();
+    if (mergePool != null) {
+      mergePool.shutdownNow();
+      mergePool = null;
+    }
+  }
+
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper(this)
+        .add("table_name", fullTableName)
+        .add("small_file_size_bytes", smallFileSizeBytes)
+        .add("target_file_size_bytes", targetFileSizeBytes)
+        .toString();
+  }
+
+  private void emit(WriteResult result) {
+    output.collect(new StreamRecord<>(result));
+  }
+
+  private class MergeResult {
+    private final DataFile[] files;
+    private final int mergedFileCount;
+    private final boolean failed;
+
+    private MergeResult(DataFile[] files, int mergedFileCount, boolean failed) {
+      this.files = files;
+      this.mergedFileCount = mergedFileCount;
+      this.failed = failed;
+    }
+
+    private void updateMetrics() {
+      if (failed) {
+        failedMerges.inc();
+      } else {
+        mergedFiles.inc(mergedFileCount);
+        for (DataFile file : files) {
+          outputFileSizes.update(file.fileSizeInBytes());
+        }
+      }
+    }
+  }
+}
@@ -20,6 +20,9 @@
 package org.apache.iceberg.flink.sink;
 
 import java.io.IOException;
+import org.apache.flink.metrics.Counter;
+import org.apache.flink.metrics.MeterView;
+import org.apache.flink.metrics.MetricGroup;
 import org.apache.flink.streaming.api.operators.AbstractStreamOperator;
 import org.apache.flink.streaming.api.operators.BoundedOneInput;
 import org.apache.flink.streaming.api.operators.ChainingStrategy;
@@ -40,6 +43,7 @@ class IcebergStreamWriter<T> extends AbstractStreamOperator<WriteResult>
   private transient TaskWriter<T> writer;
   private transient int subTaskId;
   private transient int attemptId;
+  private transient Counter writtenRecords;
 
   IcebergStreamWriter(String fullTableName, TaskWriterFactory<T> taskWriterFactory) {
     this.fullTableName = fullTableName;
@@ -57,6 +61,11 @@ class IcebergStreamWriter<T> extends AbstractStreamOperator<WriteResult>
 
     // Initialize the task writer.
     this.writer = taskWriterFactory.create();
+
+    // Report the throughput of each writer subtask, to observe how balanced the distribution of the rows is.
+    MetricGroup metrics = getRuntimeContext().getMetricGroup();
+    this.writtenRecords = metrics.counter("writtenRecords");
+    metrics.meter("writtenRecordsPerSecond", new MeterView(writtenRecords));
   }
 
   @Override
@@ -70,6 +79,7 @@ class IcebergStreamWriter<T> extends AbstractStreamOperator<WriteResult>
   @Override
   public void processElement(StreamRecord<T> element) throws Exception {
     writer.write(element.getValue());
+    writtenRecords.inc();
   }
 
   @Override
@@ -0,0 +1,255 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iceberg.flink.sink;
+
+import java.io.IOException;
+import java.util.Map;
+import org.apache.flink.api.common.state.ListState;
+import org.apache.flink.api.common.state.ListStateDescriptor;
+import org.apache.flink.api.common.state.ValueState;
+import org.apache.flink.api.common.state.ValueStateDescriptor;
+import org.apache.flink.api.common.typeinfo.TypeHint;
+import org.apache.flink.api.common.typeinfo.TypeInformation;
+import org.apache.flink.api.java.tuple.Tuple2;
+import org.apache.flink.metrics.Counter;
+import org.apache.flink.metrics.MetricGroup;
+import org.apache.flink.runtime.state.StateInitializationContext;
+import org.apache.flink.runtime.state.StateSnapshotContext;
+import org.apache.flink.streaming.api.operators.AbstractStreamOperator;
+import org.apache.flink.streaming.api.operators.BoundedOneInput;
+import org.apache.flink.streaming.api.operators.ChainingStrategy;
+import org.apache.flink.streaming.api.operators.OneInputStreamOperator;
+import org.apache.flink.streaming.runtime.streamrecord.StreamRecord;
+import org.apache.flink.table.data.RowData;
+import org.apache.iceberg.io.WriteResult;
+import org.apache.iceberg.relocated.com.google.common.base.MoreObjects;
+import org.apache.iceberg.relocated.com.google.common.base.Preconditions;
+import org.apache.iceberg.relocated.com.google.common.collect.Maps;
+
+/**
+ * A keyed writer for CDC and UPSERT streams, which keeps the data file and position of the latest row of each key in
+ * Flink keyed state. The input must be keyed by the equality fields, see {@link EqualityFieldKeySelector}.
+ * <p>
+ * The keyed state only stores an ordinal of the data file. The paths of the data files are kept once per subtask in
+ * union operator state, so that every subtask can resolve the ordinals of the keys it is assigned after rescaling.
+ * Ordinals hold the index of the subtask that wrote the file in their low bits, so subtasks never assign the same
+ * ordinal. A path is kept as long as the job runs, which is one entry per data file instead of one per key.
+ * <p>
+ * A row that replaces or deletes a key whose position is known is deleted with a position delete, also when the
+ * replaced row is in a data file that was committed by an earlier checkpoint. Only the deletes of keys whose position
+ * is unknown, for example rows written before the job started, are written as equality deletes. The keyed state is
+ * snapshotted at the same barrier as the completed data files, so restored positions always point to committed files.
+ * <p>
+ * The equality fields must contain the partition source fields, so that all the rows of a key are in one partition.
+ * Data files referenced by the index must not be rewritten while the job is running, the commit of a position delete
+ * to a removed data file fails.
+ */
+class IcebergUpsertWriter extends AbstractStreamOperator<WriteResult>
+    implements OneInputStreamOperator<RowData, WriteResult>, BoundedOneInput {
+
+  private static final long serialVersionUID = 1L;
+
+  private static final ValueStateDescriptor<Tuple2<Long, Long>> POSITION_DESCRIPTOR = new ValueStateDescriptor<>(
+      "iceberg-row-position", TypeInformation.of(new TypeHint<Tuple2<Long, Long>>() {}));
+  private static final ListStateDescriptor<Tuple2<Long, String>> DATA_FILES_DESCRIPTOR = new ListStateDescriptor<>(
+      "iceberg-upsert-data-files", TypeInformation.of(new TypeHint<Tuple2<Long, String>>() {}));
+
+  // Flink's maximum parallelism is 32768, so a subtask index fits in the low 16 bits of an ordinal.
+  private static final int SUBTASK_BITS = 16;
+
+  private final String fullTableName;
+  private final RowDataTaskWriterFactory taskWriterFactory;
+
+  private transient PositionDeltaTaskWriter writer;
+  private transient ValueState<Tuple2<Long, Long>> positionState;
+  private transient ListState<Tuple2<Long, String>> dataFilesState;
+  // Restored paths are snapshotted again by the first subtask only, the union state would grow with every restore.
+  private transient Map<Long, String> restoredPaths;
+  private transient Map<Long, String> pathsByOrdinal;
+  // The ordinals of the files of the current task writer.
+  private transient Map<CharSequence, Long> ordinalsByPath;
+  private transient long nextOrdinal;
+  private transient CharSequence lastPath;
+  private transient long lastOrdinal;
+  private transient Counter positionDeletes;
+  private transient Counter equalityDeletes;
+  private transient int subTaskId;
+  private transient int attemptId;
+
+  IcebergUpsertWriter(String fullTableName, RowDataTaskWriterFactory taskWriterFactory) {
+    this.fullTableName = fullTableName;
+    this.taskWriterFactory = taskWriterFactory;
+    setChainingStrategy(ChainingStrategy.ALWAYS);
+  }
+
+  @Override
+  public void initializeState(StateInitializationContext context) throws Exception {
+    super.initializeState(context);
+
+    this.restoredPaths = Maps.newHashMap();
+    this.pathsByOrdinal = Maps.newHashMap();
+    this.ordinalsByPath = Maps.newHashMap();
+    this.dataFilesState = context.getOperatorStateStore().getUnionListState(DATA_FILES_DESCRIPTOR);
+
+    long maxCount = -1L;
+    if (context.isRestored()) {
+      for (Tuple2<Long, String> dataFile : dataFilesState.get()) {
+        restoredPaths.put(dataFile.f0, dataFile.f1);
+        maxCount = Math.max(maxCount, dataFile.f0 >>> SUBTASK_BITS);
+      }
+    }
+
+    // Ordinals assigned after a restore are larger than all restored ordinals, whatever the new parallelism.
+    this.nextOrdinal = maxCount + 1;
+  }
+
+  @Override
+  public void snapshotState(StateSnapshotContext context) throws Exception {
+    super.snapshotState(context);
+
+    dataFilesState.clear();
+    for (Map.Entry<Long, String> entry : pathsByOrdinal.entrySet()) {
+      dataFilesState.add(Tuple2.of(entry.getKey(), entry.getValue()));
+    }
+
+    if (subTaskId == 0) {
+      for (Map.Entry<Long, String> entry : restoredPaths.entrySet()) {
+        dataFilesState.add(Tuple2.of(entry.getKey(), entry.getValue()));
+      }
+    }
+  }
+
+  @Override
+  public void open() {
+    this.subTaskId = getRuntimeContext().getIndexOfThisSubtask();
+    this.attemptId = getRuntimeContext().getAttemptNumber();
+
+    // Initialize the task writer factory.
+    this.taskWriterFactory.initialize(subTaskId, attemptId);
+
+    // Initialize the task writer.
+    this.writer = taskWriterFactory.createPositionDeltaWriter();
+
+    this.positionState = getRuntimeContext().getState(POSITION_DESCRIPTOR);
+
+    MetricGroup metrics = getRuntimeContext().getMetricGroup();
+    this.positionDeletes = metrics.counter("positionDeletes");
+    this.equalityDeletes = metrics.counter("equalityDeletes");
+  }
+
+  @Override
+  public void prepareSnapshotPreBarrier(long checkpointId) throws Exception {
+    // close all open files and emit files to downstream committer operator
+    emit(writer.complete());
+
+    this.writer = taskWriterFactory.createPositionDeltaWriter();
+    ordinalsByPath.clear();
+    this.lastPath = null;
+  }
+
+  @Override
+  public void processElement(StreamRecord<RowData> element) throws Exception {
+    RowData row = element.getValue();
+    PositionDeltaTaskWriter.RowDataPositionDeltaWriter deltaWriter = writer.route(row);
+    Tuple2<Long, Long> previous = positionState.value();
+
+    switch (row.getRowKind()) {
+      case INSERT:
+      case UPDATE_AFTER:
+        if (previous != null) {
+          deltaWriter.delete(path(previous.f0), previous.f1);
+          positionDeletes.inc();
+        }
+
+        positionState.update(Tuple2.of(ordinal(deltaWriter.currentPath()), deltaWriter.currentPosition()));
+        deltaWriter.write(row);
+        break;
+
+      case DELETE:
+      case UPDATE_BEFORE:
+        if (previous != null) {
+          deltaWriter.delete(path(previous.f0), previous.f1);
+          positionDeletes.inc();
+          positionState.clear();
+        } else {
+          deltaWriter.delete(row);
+          equalityDeletes.inc();
+        }
+        break;
+
+      default:
+        throw new UnsupportedOperationException("Unknown row kind: " + row.getRowKind());
+    }
+  }
+
+  private long ordinal(CharSequence path) {
+    // Consecutive rows are mostly written to the same file, which returns the same path instance.
+    if (path != lastPath) {
+      this.lastOrdinal = ordinalsByPath.computeIfAbsent(path, newPath -> {
+        long ordinal = (nextOrdinal << SUBTASK_BITS) | subTaskId;
+        this.nextOrdinal += 1;
+        pathsByOrdinal.put(ordinal, newPath.toString());
+        return ordinal;
+      });
+      this.lastPath = path;
+    }
+
+    return lastOrdinal;
+  }
+
+  private String path(long ordinal) {
+    String path = pathsByOrdinal.get(ordinal);
+    if (path == null) {
+      path = restoredPaths.get(ordinal);
+    }
+
+    Preconditions.checkState(path != null, "Cannot find the data file of ordinal %s", ordinal);
+    return path;
+  }
+
+  @Override
+  public void dispose() throws Exception {
+    super.dispose();
+    if (writer != null) {
+      writer.close();
+      writer = null;
+    }
+  }
+
+  @Override
+  public void endInput() throws IOException {
+    // For bounded stream, it may don't enable the checkpoint mechanism so we'd better to emit the remaining
+    // completed files to downstream before closing the writer so that we won't miss any of them.
+    emit(writer.complete());
+  }
+
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper(this)
+        .add("table_name", fullTableName)
+        .add("subtask_id", subTaskId)
+        .add("attempt_id", attemptId)
+        .toString();
+  }
+
+  private void emit(WriteResult result) {
+    output.collect(new StreamRecord<>(result));
+  }
+}
@@ -19,6 +19,7 @@
 
 package org.apache.iceberg.flink.sink;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.UncheckedIOException;
 import java.util.List;
@@ -49,8 +50,11 @@ class PartitionedDeltaWriter extends BaseDeltaTaskWriter {
                          long targetFileSize,
                          Schema schema,
                          RowType flinkSchema,
-                         List<Integer> equalityFieldIds) {
-    super(spec, format, appenderFactory, fileFactory, io, targetFileSize, schema, flinkSchema, equalityFieldIds);
+                         List<Integer> equalityFieldIds,
+                         long keyIndexMemoryBytes,
+                         File spillDirectory) {
+    super(spec, format, appenderFactory, fileFactory, io, targetFileSize, schema, flinkSchema, equalityFieldIds,
+        keyIndexMemoryBytes, spillDirectory);
     this.partitionKey = new PartitionKey(spec, schema);
   }
 
@@ -0,0 +1,102 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iceberg.flink.sink;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import org.apache.flink.table.data.RowData;
+import org.apache.flink.table.types.logical.RowType;
+import org.apache.iceberg.FileFormat;
+import org.apache.iceberg.PartitionKey;
+import org.apache.iceberg.PartitionSpec;
+import org.apache.iceberg.Schema;
+import org.apache.iceberg.flink.RowDataWrapper;
+import org.apache.iceberg.io.BaseTaskWriter;
+import org.apache.iceberg.io.FileAppenderFactory;
+import org.apache.iceberg.io.FileIO;
+import org.apache.iceberg.io.OutputFileFactory;
+import org.apache.iceberg.relocated.com.google.common.collect.Maps;
+import org.apache.iceberg.util.Tasks;
+
+/**
+ * A task writer for {@link IcebergUpsertWriter}, which keeps the position of each key in keyed state and deletes the
+ * replaced rows by position. The rows are routed to one delta writer per partition.
+ */
+class PositionDeltaTaskWriter extends BaseTaskWriter<RowData> {
+
+  private final PartitionKey partitionKey;
+  private final RowDataWrapper wrapper;
+  private final Map<PartitionKey, RowDataPositionDeltaWriter> writers = Maps.newHashMap();
+
+  PositionDeltaTaskWriter(PartitionSpec spec,
+                          FileFormat format,
+                          FileAppenderFactory<RowData> appenderFactory,
+                          OutputFileFactory fileFactory,
+                          FileIO io,
+                          long targetFileSize,
+                          Schema schema,
+                          RowType flinkSchema) {
+    super(spec, format, appenderFactory, fileFactory, io, targetFileSize);
+    this.partitionKey = spec.isUnpartitioned() ? null : new PartitionKey(spec, schema);
+    this.wrapper = new RowDataWrapper(flinkSchema, schema.asStruct());
+  }
+
+  RowDataPositionDeltaWriter route(RowData row) {
+    if (partitionKey != null) {
+      partitionKey.partition(wrapper.wrap(row));
+    }
+
+    RowDataPositionDeltaWriter writer = writers.get(partitionKey);
+    if (writer == null) {
+      // NOTICE: we need to copy a new partition key here, in case of messing up the keys in writers.
+      PartitionKey copiedKey = partitionKey != null ? partitionKey.copy() : null;
+      writer = new RowDataPositionDeltaWriter(copiedKey);
+      writers.put(copiedKey, writer);
+    }
+
+    return writer;
+  }
+
+  @Override
+  public void write(RowData row) throws IOException {
+    route(row).write(row);
+  }
+
+  @Override
+  public void close() {
+    try {
+      Tasks.foreach(writers.values())
+          .throwFailureWhenFinished()
+          .noRetry()
+          .run(RowDataPositionDeltaWriter::close, IOException.class);
+
+      writers.clear();
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to close position delta writer", e);
+    }
+  }
+
+  class RowDataPositionDeltaWriter extends BasePositionDeltaWriter {
+    RowDataPositionDeltaWriter(PartitionKey partition) {
+      super(partition);
+    }
+  }
+}
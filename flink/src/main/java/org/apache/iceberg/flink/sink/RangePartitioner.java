@@ -0,0 +1,278 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iceberg.flink.sink;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import org.apache.flink.api.common.functions.Partitioner;
+import org.apache.flink.api.java.functions.KeySelector;
+import org.apache.flink.table.data.RowData;
+import org.apache.flink.table.types.logical.RowType;
+import org.apache.iceberg.Accessor;
+import org.apache.iceberg.NullOrder;
+import org.apache.iceberg.PartitionKey;
+import org.apache.iceberg.PartitionSpec;
+import org.apache.iceberg.Schema;
+import org.apache.iceberg.SortDirection;
+import org.apache.iceberg.SortField;
+import org.apache.iceberg.SortOrder;
+import org.apache.iceberg.StructLike;
+import org.apache.iceberg.flink.RowDataWrapper;
+import org.apache.iceberg.relocated.com.google.common.base.Preconditions;
+import org.apache.iceberg.relocated.com.google.common.collect.Lists;
+import org.apache.iceberg.transforms.Transform;
+import org.apache.iceberg.types.Comparators;
+import org.apache.iceberg.types.Type;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A {@link Partitioner} that distributes rows to the writer subtasks by ranges of their partition and sort key, so that
+ * each writer gets a balanced share of the rows and writes a clustered range of partitions.
+ * <p>
+ * Each upstream subtask samples the keys of the rows it sends with a reservoir sample, and computes the range
+ * boundaries from the sample once it is full. The boundaries are recomputed from a fresh sample every
+ * {@code rebalanceRecords} rows, so the ranges follow a changing key distribution. A key that covers more than one
+ * range (for example a single hot partition) is spread round-robin over the writers of all the ranges it covers,
+ * instead of pinning a single writer. Until the first sample is full, rows are distributed by the hash of their key.
+ * <p>
+ * The partitioner computes the key itself, so it is used with {@link RowKeySelector} that passes each row through.
+ */
+class RangePartitioner implements Partitioner<RowData> {
+
+  private static final long serialVersionUID = 1L;
+  private static final Logger LOG = LoggerFactory.getLogger(RangePartitioner.class);
+
+  private final Schema schema;
+  private final PartitionSpec spec;
+  private final SortOrder sortOrder;
+  private final RowType flinkSchema;
+  private final int samplesPerSubtask;
+  private final long rebalanceRecords;
+
+  private transient RowDataWrapper rowDataWrapper;
+  private transient PartitionKey partitionKey;
+  private transient List<Accessor<StructLike>> sortAccessors;
+  private transient List<Transform<Object, Object>> sortTransforms;
+  private transient Comparator<Object[]> keyComparator;
+  private transient Random random;
+  private transient Object[][] sample;
+  private transient long sampledRecords;
+  private transient Object[][] boundaries;
+  private transient int skewedKeyCounter;
+
+  RangePartitioner(Schema schema, PartitionSpec spec, SortOrder sortOrder, RowType flinkSchema,
+                   int samplesPerSubtask, long rebalanceRecords) {
+    Preconditions.checkArgument(samplesPerSubtask > 0,
+        "Invalid number of samples per subtask: %s (must be positive)", samplesPerSubtask);
+    Preconditions.checkArgument(rebalanceRecords > 0,
+        "Invalid number of records between rebalances: %s (must be positive)", rebalanceRecords);
+    this.schema = schema;
+    this.spec = spec;
+    this.sortOrder = sortOrder;
+    this.flinkSchema = flinkSchema;
+    this.samplesPerSubtask = samplesPerSubtask;
+    this.rebalanceRecords = rebalanceRecords;
+  }
+
+  @Override
+  public int partition(RowData row, int numPartitions) {
+    if (numPartitions == 1) {
+      return 0;
+    }
+
+    Object[] key = sortKey(row);
+    sample(key, numPartitions);
+
+    if (boundaries == null) {
+      return Math.floorMod(Arrays.hashCode(key), numPartitions);
+    }
+
+    return route(key);
+  }
+
+  /**
+   * Returns the number of range boundaries in use, or -1 if the first sample is not complete yet.
+   */
+  int boundaryCount() {
+    return boundaries == null ? -1 : boundaries.length;
+  }
+
+  private void sample(Object[] key, int numPartitions) {
+    if (sample == null) {
+      this.sample = new Object[samplesPerSubtask * numPartitions][];
+      this.random = new Random();
+    }
+
+    if (sampledRecords < sample.length) {
+      sample[(int) sampledRecords] = key;
+    } else {
+      long index = (long) (random.nextDouble() * (sampledRecords + 1));
+      if (index < sample.length) {
+        sample[(int) index] = key;
+      }
+    }
+
+    this.sampledRecords += 1;
+
+    if ((boundaries == null && sampledRecords >= sample.length) || sampledRecords >= rebalanceRecords) {
+      rebalance(numPartitions);
+    }
+  }
+
+  private void rebalance(int numPartitions) {
+    int size = (int) Math.min(sampledRecords, sample.length);
+    Object[][] sortedSample = Arrays.copyOf(sample, size);
+    Arrays.sort(sortedSample, keyComparator);
+
+    // The i-th writer gets the keys in (boundaries[i - 1], boundaries[i]], the last writer gets the keys after the last
+    // boundary.
+    Object[][] newBoundaries = new Object[numPartitions - 1][];
+    for (int i = 0; i < newBoundaries.length; i += 1) {
+      newBoundaries[i] = sortedSample[(int) ((long) (i + 1) * size / numPartitions)];
+    }
+
+    this.boundaries = newBoundaries;
+    // start the next sample from scratch so that keys from before this rebalance do not skew the next boundaries
+    Arrays.fill(sample, null);
+    this.sampledRecords = 0;
+    LOG.debug("Computed {} range boundaries from {} sampled keys", newBoundaries.length, size);
+  }
+
+  private int route(Object[] key) {
+    int lower = lowerBound(key, false);
+    if (lower == boundaries.length || keyComparator.compare(boundaries[lower], key) != 0) {
+      return lower;
+    }
+
+    // The key is equal to the boundaries [lower, upper), so it fills all the ranges from lower to upper - 1.
+    int upper = lowerBound(key, true);
+    int ranges = upper - lower;
+    if (ranges == 1) {
+      return lower;
+    }
+
+    this.skewedKeyCounter = (skewedKeyCounter + 1) % ranges;
+    return lower + skewedKeyCounter;
+  }
+
+  /**
+   * Returns the index of the first boundary that is greater than or equal to the key, or strictly greater than the key
+   * if {@code strict} is true.
+   */
+  private int lowerBound(Object[] key, boolean strict) {
+    int low = 0;
+    int high = boundaries.length;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      int cmp = keyComparator.compare(boundaries[mid], key);
+      if (cmp < 0 || (strict && cmp == 0)) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+
+    return low;
+  }
+
+  private Object[] sortKey(RowData row) {
+    if (rowDataWrapper == null) {
+      initialize();
+    }
+
+    StructLike struct = rowDataWrapper.wrap(row);
+    int partitionFields = spec.fields().size();
+    Object[] key = new Object[partitionFields + sortAccessors.size()];
+
+    if (partitionFields > 0) {
+      partitionKey.partition(struct);
+      for (int i = 0; i < partitionFields; i += 1) {
+        key[i] = partitionKey.get(i, Object.class);
+      }
+    }
+
+    for (int i = 0; i < sortAccessors.size(); i += 1) {
+      key[partitionFields + i] = sortTransforms.get(i).apply(sortAccessors.get(i).get(struct));
+    }
+
+    return key;
+  }
+
+  /**
+   * Initialize the key extraction lazily here because few members are not serializable.
+   */
+  private void initialize() {
+    this.rowDataWrapper = new RowDataWrapper(flinkSchema, schema.asStruct());
+    this.partitionKey = new PartitionKey(spec, schema);
+    this.sortAccessors = Lists.newArrayList();
+    this.sortTransforms = Lists.newArrayList();
+
+    List<Comparator<Object>> comparators = Lists.newArrayList();
+    spec.partitionType().fields().forEach(field ->
+        comparators.add(fieldComparator(field.type(), SortDirection.ASC, NullOrder.NULLS_FIRST)));
+
+    for (SortField field : sortOrder.fields()) {
+      Transform<Object, Object> transform = field.transform();
+      sortAccessors.add(schema.accessorForField(field.sourceId()));
+      sortTransforms.add(transform);
+      Type resultType = transform.getResultType(schema.findType(field.sourceId()));
+      comparators.add(fieldComparator(resultType, field.direction(), field.nullOrder()));
+    }
+
+    this.keyComparator = (left, right) -> {
+      for (int i = 0; i < comparators.size(); i += 1) {
+        int cmp = comparators.get(i).compare(left[i], right[i]);
+        if (cmp != 0) {
+          return cmp;
+        }
+      }
+
+      return 0;
+    };
+  }
+
+  private static Comparator<Object> fieldComparator(Type type, SortDirection direction, NullOrder nullOrder) {
+    Comparator<Object> comparator = Comparators.forType(type.asPrimitiveType());
+    if (direction == SortDirection.DESC) {
+      comparator = comparator.reversed();
+    }
+
+    return nullOrder == NullOrder.NULLS_FIRST ?
+        Comparators.nullsFirst().thenComparing(comparator) :
+        Comparators.nullsLast().thenComparing(comparator);
+  }
+
+  /**
+   * Selects the row itself as the key of {@link RangePartitioner}.
+   * <p>
+   * This is a class rather than a lambda so that Flink can extract the key type from its declaration.
+   */
+  static class RowKeySelector implements KeySelector<RowData, RowData> {
+    private static final long serialVersionUID = 1L;
+
+    @Override
+    public RowData getKey(RowData row) {
+      return row;
+    }
+  }
+}
@@ -19,6 +19,7 @@
 
 package org.apache.iceberg.flink.sink;
 
+import java.io.File;
 import java.util.List;
 import java.util.Map;
 import org.apache.flink.table.data.RowData;
@@ -27,6 +28,7 @@ import org.apache.iceberg.FileFormat;
 import org.apache.iceberg.PartitionKey;
 import org.apache.iceberg.PartitionSpec;
 import org.apache.iceberg.Schema;
+import org.apache.iceberg.TableProperties;
 import org.apache.iceberg.encryption.EncryptionManager;
 import org.apache.iceberg.flink.RowDataWrapper;
 import org.apache.iceberg.io.FileAppenderFactory;
@@ -38,6 +40,7 @@ import org.apache.iceberg.io.TaskWriter;
 import org.apache.iceberg.io.UnpartitionedWriter;
 import org.apache.iceberg.relocated.com.google.common.base.Preconditions;
 import org.apache.iceberg.util.ArrayUtil;
+import org.apache.iceberg.util.PropertyUtil;
 
 public class RowDataTaskWriterFactory implements TaskWriterFactory<RowData> {
   private final Schema schema;
@@ -49,6 +52,8 @@ public class RowDataTaskWriterFactory implements TaskWriterFactory<RowData> {
   private final long targetFileSizeBytes;
   private final FileFormat format;
   private final List<Integer> equalityFieldIds;
+  private final long keyIndexMemoryBytes;
+  private final String spillDirectory;
   private final FileAppenderFactory<RowData> appenderFactory;
 
   private transient OutputFileFactory outputFileFactory;
@@ -72,6 +77,9 @@ public class RowDataTaskWriterFactory implements TaskWriterFactory<RowData> {
     this.targetFileSizeBytes = targetFileSizeBytes;
     this.format = format;
     this.equalityFieldIds = equalityFieldIds;
+    this.keyIndexMemoryBytes = PropertyUtil.propertyAsLong(tableProperties,
+        TableProperties.DELTA_KEY_INDEX_MEMORY_BYTES, TableProperties.DELTA_KEY_INDEX_MEMORY_BYTES_DEFAULT);
+    this.spillDirectory = tableProperties.get(TableProperties.DELTA_SPILL_DIR);
 
     if (equalityFieldIds == null || equalityFieldIds.isEmpty()) {
       this.appenderFactory = new FlinkAppenderFactory(schema, flinkSchema, tableProperties, spec);
@@ -102,16 +110,31 @@ public class RowDataTaskWriterFactory implements TaskWriterFactory<RowData> {
       }
     } else {
       // Initialize a task writer to write both INSERT and equality DELETE.
+      File spillDir = spillDirectory != null ? new File(spillDirectory) : null;
       if (spec.isUnpartitioned()) {
         return new UnpartitionedDeltaWriter(spec, format, appenderFactory, outputFileFactory, io,
-            targetFileSizeBytes, schema, flinkSchema, equalityFieldIds);
+            targetFileSizeBytes, schema, flinkSchema, equalityFieldIds, keyIndexMemoryBytes, spillDir);
       } else {
         return new PartitionedDeltaWriter(spec, format, appenderFactory, outputFileFactory, io,
-            targetFileSizeBytes, schema, flinkSchema, equalityFieldIds);
+            targetFileSizeBytes, schema, flinkSchema, equalityFieldIds, keyIndexMemoryBytes, spillDir);
       }
     }
   }
 
+  /**
+   * Create a task writer that deletes the replaced rows by their position, for {@link IcebergUpsertWriter} which keeps
+   * the position of each key in keyed state.
+   */
+  PositionDeltaTaskWriter createPositionDeltaWriter() {
+    Preconditions.checkNotNull(outputFileFactory,
+        "The outputFileFactory shouldn't be null if we have invoked the initialize().");
+    Preconditions.checkState(equalityFieldIds != null && !equalityFieldIds.isEmpty(),
+        "Equality field ids shouldn't be null or empty when deleting rows by position.");
+
+    return new PositionDeltaTaskWriter(spec, format, appenderFactory, outputFileFactory, io, targetFileSizeBytes,
+        schema, flinkSchema);
+  }
+
   private static class RowDataPartitionedFanoutWriter extends PartitionedFanoutWriter<RowData> {
 
     private final PartitionKey partitionKey;
@@ -19,6 +19,7 @@
 
 package org.apache.iceberg.flink.sink;
 
+import java.io.File;
 import java.io.IOException;
 import java.util.List;
 import org.apache.flink.table.data.RowData;
@@ -41,8 +42,11 @@ class UnpartitionedDeltaWriter extends BaseDeltaTaskWriter {
                            long targetFileSize,
                            Schema schema,
                            RowType flinkSchema,
-                           List<Integer> equalityFieldIds) {
-    super(spec, format, appenderFactory, fileFactory, io, targetFileSize, schema, flinkSchema, equalityFieldIds);
+                           List<Integer> equalityFieldIds,
+                           long keyIndexMemoryBytes,
+                           File spillDirectory) {
+    super(spec, format, appenderFactory, fileFactory, io, targetFileSize, schema, flinkSchema, equalityFieldIds,
+        keyIndexMemoryBytes, spillDirectory);
     this.writer = new RowDataDeltaWriter(null);
   }
 
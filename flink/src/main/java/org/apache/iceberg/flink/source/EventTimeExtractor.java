@@ -0,0 +1,139 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iceberg.flink.source;
+
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.util.Map;
+import org.apache.flink.table.data.RowData;
+import org.apache.iceberg.FileScanTask;
+import org.apache.iceberg.Schema;
+import org.apache.iceberg.relocated.com.google.common.base.Preconditions;
+import org.apache.iceberg.types.Conversions;
+import org.apache.iceberg.types.Type;
+import org.apache.iceberg.types.Types;
+
+/**
+ * Extracts the event time in epoch milliseconds of the rows and data files of a streaming read from a timestamp
+ * column, or from a long column that holds epoch milliseconds.
+ */
+class EventTimeExtractor implements Serializable {
+  private static final long serialVersionUID = 1L;
+
+  // Iceberg timestamps have microsecond precision.
+  private static final int TIMESTAMP_PRECISION = 6;
+
+  /**
+   * The lower event time of a split whose files have no bounds for the event time column.
+   */
+  static final long UNKNOWN_MIN = Long.MIN_VALUE;
+
+  /**
+   * The upper event time of a split whose files have no bounds for the event time column.
+   */
+  static final long UNKNOWN_MAX = Long.MAX_VALUE;
+
+  private final Types.NestedField field;
+  private final int pos;
+
+  private EventTimeExtractor(Types.NestedField field, int pos) {
+    this.field = field;
+    this.pos = pos;
+  }
+
+  static EventTimeExtractor create(Schema schema, String column) {
+    Types.NestedField field = schema.findField(column);
+    Preconditions.checkArgument(field != null, "Cannot find watermark column '%s' in projected schema %s",
+        column, schema);
+
+    int pos = schema.columns().indexOf(field);
+    Preconditions.checkArgument(pos >= 0, "Invalid watermark column '%s': must be a top-level column", column);
+
+    Type.TypeID typeId = field.type().typeId();
+    Preconditions.checkArgument(typeId == Type.TypeID.TIMESTAMP || typeId == Type.TypeID.LONG,
+        "Invalid watermark column '%s' of type %s: must be a timestamp or a long", column, field.type());
+
+    return new EventTimeExtractor(field, pos);
+  }
+
+  /**
+   * Returns the event time of a row, or null if the event time column of the row is null.
+   */
+  Long extract(RowData row) {
+    if (row.isNullAt(pos)) {
+      return null;
+    } else if (field.type().typeId() == Type.TypeID.TIMESTAMP) {
+      return row.getTimestamp(pos, TIMESTAMP_PRECISION).getMillisecond();
+    } else {
+      return row.getLong(pos);
+    }
+  }
+
+  /**
+   * Returns the lowest event time of the files of a split, or {@link #UNKNOWN_MIN} if a file has no lower bound.
+   */
+  long lowerBound(Iterable<FileScanTask> tasks) {
+    long min = UNKNOWN_MAX;
+    for (FileScanTask task : tasks) {
+      Long lower = toMillis(bound(task.file().lowerBounds()));
+      if (lower == null) {
+        return UNKNOWN_MIN;
+      }
+
+      min = Math.min(min, lower);
+    }
+
+    return min == UNKNOWN_MAX ? UNKNOWN_MIN : min;
+  }
+
+  /**
+   * Returns the highest event time of the files of a split, or {@link #UNKNOWN_MAX} if a file has no upper bound.
+   */
+  long upperBound(Iterable<FileScanTask> tasks) {
+    long max = UNKNOWN_MIN;
+    for (FileScanTask task : tasks) {
+      Long upper = toMillis(bound(task.file().upperBounds()));
+      if (upper == null) {
+        return UNKNOWN_MAX;
+      }
+
+      max = Math.max(max, upper);
+    }
+
+    return max == UNKNOWN_MIN ? UNKNOWN_MAX : max;
+  }
+
+  private ByteBuffer bound(Map<Integer, ByteBuffer> bounds) {
+    return bounds != null ? bounds.get(field.fieldId()) : null;
+  }
+
+  private Long toMillis(ByteBuffer bound) {
+    if (bound == null) {
+      return null;
+    }
+
+    Long value = Conversions.fromByteBuffer(field.type(), bound);
+    if (field.type().typeId() == Type.TypeID.TIMESTAMP) {
+      return Math.floorDiv(value, 1000L);
+    } else {
+      return value;
+    }
+  }
+}
@@ -31,10 +31,18 @@ public class FlinkInputSplit implements InputSplit {
 
   private final int splitNumber;
   private final CombinedScanTask task;
+  private final long minEventTime;
+  private final long maxEventTime;
 
   FlinkInputSplit(int splitNumber, CombinedScanTask task) {
+    this(splitNumber, task, EventTimeExtractor.UNKNOWN_MIN, EventTimeExtractor.UNKNOWN_MAX);
+  }
+
+  FlinkInputSplit(int splitNumber, CombinedScanTask task, long minEventTime, long maxEventTime) {
     this.splitNumber = splitNumber;
     this.task = task;
+    this.minEventTime = minEventTime;
+    this.maxEventTime = maxEventTime;
   }
 
   @Override
@@ -46,11 +54,24 @@ public class FlinkInputSplit implements InputSplit {
     return task;
   }
 
+  /**
+   * Returns the lowest event time in milliseconds of the split's data files, if the read has a watermark column.
+   */
+  long minEventTime() {
+    return minEventTime;
+  }
+
+  long maxEventTime() {
+    return maxEventTime;
+  }
+
   @Override
   public String toString() {
     return MoreObjects.toStringHelper(this)
         .add("splitNumber", splitNumber)
         .add("task", task)
+        .add("minEventTime", minEventTime)
+        .add("maxEventTime", maxEventTime)
         .toString();
   }
 }
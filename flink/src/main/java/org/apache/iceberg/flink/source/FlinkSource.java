@@ -34,13 +34,11 @@ import org.apache.flink.table.data.RowData;
 import org.apache.iceberg.Schema;
 import org.apache.iceberg.Table;
 import org.apache.iceberg.TableScan;
-import org.apache.iceberg.encryption.EncryptionManager;
 import org.apache.iceberg.expressions.Expression;
 import org.apache.iceberg.flink.FlinkSchemaUtil;
 import org.apache.iceberg.flink.FlinkTableOptions;
 import org.apache.iceberg.flink.TableLoader;
 import org.apache.iceberg.flink.util.FlinkCompatibilityUtil;
-import org.apache.iceberg.io.FileIO;
 import org.apache.iceberg.relocated.com.google.common.base.Preconditions;
 
 public class FlinkSource {
@@ -167,36 +165,81 @@ public class FlinkSource {
       return this;
     }
 
+    public Builder locality(boolean locality) {
+      contextBuilder.locality(locality);
+      return this;
+    }
+
+    /**
+     * Sets the maximum number of snapshots that a streaming {@link IcebergSource} plans at a time, 10 by default. A
+     * backlog of snapshots is planned in chunks of this size, one chunk per monitor interval.
+     *
+     * @param maxPlanningSnapshotCount the maximum number of snapshots to plan at a time, must be positive
+     * @return this for method chaining
+     */
+    public Builder maxPlanningSnapshotCount(int maxPlanningSnapshotCount) {
+      contextBuilder.maxPlanningSnapshotCount(maxPlanningSnapshotCount);
+      return this;
+    }
+
+    /**
+     * Sets the event time column of a streaming read. The splits are then read in the order of the lowest event time
+     * of their data files, the rows get their event time as timestamp, and the reader emits watermarks below the
+     * lowest event time of its pending splits. The column must be a projected timestamp column or a long column with
+     * epoch milliseconds.
+     *
+     * @param watermarkColumn the name of the event time column.
+     * @return {@link Builder} to connect the iceberg table.
+     */
+    public Builder watermarkColumn(String watermarkColumn) {
+      contextBuilder.watermarkColumn(watermarkColumn);
+      return this;
+    }
+
     public FlinkInputFormat buildFormat() {
+      loadTableAndProjection();
+      return new FlinkInputFormat(tableLoader, table.schema(), table.io(), table.encryption(), buildContext());
+    }
+
+    /**
+     * Builds a {@link IcebergSource} that assigns splits to readers on request, to be added to a job with
+     * {@code StreamExecutionEnvironment#fromSource}.
+     */
+    public IcebergSource buildSource() {
+      loadTableAndProjection();
+      return new IcebergSource(tableLoader, table.schema(), table.io(), table.encryption(), buildContext());
+    }
+
+    private void loadTableAndProjection() {
       Preconditions.checkNotNull(tableLoader, "TableLoader should not be null");
 
-      Schema icebergSchema;
-      FileIO io;
-      EncryptionManager encryption;
       if (table == null) {
         // load required fields by table loader.
         tableLoader.open();
         try (TableLoader loader = tableLoader) {
           table = loader.loadTable();
-          icebergSchema = table.schema();
-          io = table.io();
-          encryption = table.encryption();
         } catch (IOException e) {
           throw new UncheckedIOException(e);
         }
-      } else {
-        icebergSchema = table.schema();
-        io = table.io();
-        encryption = table.encryption();
       }
 
+      Schema icebergSchema = table.schema();
       if (projectedSchema == null) {
         contextBuilder.project(icebergSchema);
       } else {
         contextBuilder.project(FlinkSchemaUtil.convert(icebergSchema, projectedSchema));
       }
+    }
+
+    private ScanContext buildContext() {
+      int batchSize = readableConfig.get(FlinkTableOptions.TABLE_EXEC_ICEBERG_VECTORIZED_READ_BATCH_SIZE);
+      Preconditions.checkArgument(batchSize > 0,
+          FlinkTableOptions.TABLE_EXEC_ICEBERG_VECTORIZED_READ_BATCH_SIZE.key() + " must be positive");
 
-      return new FlinkInputFormat(tableLoader, icebergSchema, io, encryption, contextBuilder.build());
+      return contextBuilder
+          .vectorizedRead(readableConfig.get(FlinkTableOptions.TABLE_EXEC_ICEBERG_USE_VECTORIZED_READ))
+          .vectorizedBatchSize(batchSize)
+          .build();
     }
 
     public DataStream<RowData> build() {
@@ -215,8 +258,10 @@ public class FlinkSource {
         String monitorFunctionName = String.format("Iceberg table (%s) monitor", table);
         String readerOperatorName = String.format("Iceberg table (%s) reader", table);
 
+        EventTimeExtractor eventTime = context.watermarkColumn() != null ?
+            EventTimeExtractor.create(context.project(), context.watermarkColumn()) : null;
         return env.addSource(function, monitorFunctionName)
-            .transform(readerOperatorName, typeInfo, StreamingReaderOperator.factory(format));
+            .transform(readerOperatorName, typeInfo, StreamingReaderOperator.factory(format, eventTime));
       }
     }
 
@@ -22,13 +22,19 @@ package org.apache.iceberg.flink.source;
 import java.io.IOException;
 import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 import org.apache.iceberg.CombinedScanTask;
+import org.apache.iceberg.FileScanTask;
+import org.apache.iceberg.Schema;
 import org.apache.iceberg.Table;
 import org.apache.iceberg.TableProperties;
 import org.apache.iceberg.TableScan;
 import org.apache.iceberg.expressions.Expression;
 import org.apache.iceberg.io.CloseableIterable;
 import org.apache.iceberg.relocated.com.google.common.collect.Lists;
+import org.apache.iceberg.util.PropertyUtil;
+import org.apache.iceberg.util.TableScanUtil;
 
 class FlinkSplitGenerator {
   private FlinkSplitGenerator() {
@@ -38,12 +44,27 @@ class FlinkSplitGenerator {
     List<CombinedScanTask> tasks = tasks(table, context);
     FlinkInputSplit[] splits = new FlinkInputSplit[tasks.size()];
     for (int i = 0; i < tasks.size(); i++) {
-      splits[i] = new FlinkInputSplit(i, tasks.get(i));
+      splits[i] = createInputSplit(table, i, tasks.get(i), context);
     }
     return splits;
   }
 
-  private static List<CombinedScanTask> tasks(Table table, ScanContext context) {
+  /**
+   * Creates a split that carries the event time bounds of its data files if the scan has a watermark column, which
+   * requires the tasks to be planned with column stats.
+   */
+  static FlinkInputSplit createInputSplit(Table table, int splitNumber, CombinedScanTask task, ScanContext context) {
+    if (context.watermarkColumn() == null) {
+      return new FlinkInputSplit(splitNumber, task);
+    }
+
+    Schema schema = context.project() != null ? context.project() : table.schema();
+    EventTimeExtractor eventTime = EventTimeExtractor.create(schema, context.watermarkColumn());
+    return new FlinkInputSplit(splitNumber, task, eventTime.lowerBound(task.files()),
+        eventTime.upperBound(task.files()));
+  }
+
+  static List<CombinedScanTask> tasks(Table table, ScanContext context) {
     TableScan scan = table
         .newScan()
         .caseSensitive(context.caseSensitive())
@@ -83,10 +104,59 @@ class FlinkSplitGenerator {
       }
     }
 
+    if (includeColumnStats(table, context)) {
+      scan = scan.includeColumnStats();
+    }
+
     try (CloseableIterable<CombinedScanTask> tasksIterable = scan.planTasks()) {
       return Lists.newArrayList(tasksIterable);
     } catch (IOException e) {
       throw new UncheckedIOException("Failed to close table scan: " + scan, e);
     }
   }
+
+  /**
+   * Returns whether planned files need their column stats, either for the event time bounds of the watermark column
+   * or for the projected column sizes that cost-based split planning weighs splits with.
+   */
+  static boolean includeColumnStats(Table table, ScanContext context) {
+    return context.watermarkColumn() != null || PropertyUtil.propertyAsBoolean(table.properties(),
+        TableProperties.SPLIT_COST_BASED_PLANNING_ENABLED, TableProperties.SPLIT_COST_BASED_PLANNING_ENABLED_DEFAULT);
+  }
+
+  /**
+   * Splits and combines already planned file scan tasks using the split options of the scan context, falling back to
+   * the table properties like a table scan does.
+   */
+  static List<CombinedScanTask> tasks(Table table, ScanContext context, CloseableIterable<FileScanTask> files) {
+    Map<String, String> properties = table.properties();
+    long splitSize = context.splitSize() != null ? context.splitSize() :
+        PropertyUtil.propertyAsLong(properties, TableProperties.SPLIT_SIZE, TableProperties.SPLIT_SIZE_DEFAULT);
+    int splitLookback = context.splitLookback() != null ? context.splitLookback() :
+        PropertyUtil.propertyAsInt(properties, TableProperties.SPLIT_LOOKBACK, TableProperties.SPLIT_LOOKBACK_DEFAULT);
+    long splitOpenFileCost = context.splitOpenFileCost() != null ? context.splitOpenFileCost() :
+        PropertyUtil.propertyAsLong(properties, TableProperties.SPLIT_OPEN_FILE_COST,
+            TableProperties.SPLIT_OPEN_FILE_COST_DEFAULT);
+
+    boolean costBased = PropertyUtil.propertyAsBoolean(properties,
+        TableProperties.SPLIT_COST_BASED_PLANNING_ENABLED, TableProperties.SPLIT_COST_BASED_PLANNING_ENABLED_DEFAULT);
+    boolean partitionAligned = PropertyUtil.propertyAsBoolean(properties,
+        TableProperties.SPLIT_PARTITION_ALIGNED, TableProperties.SPLIT_PARTITION_ALIGNED_DEFAULT);
+
+    Function<FileScanTask, Long> weightFunc;
+    if (costBased) {
+      Schema projection = context.project() != null ? context.project() : table.schema();
+      weightFunc = TableScanUtil.costWeight(projection, splitOpenFileCost);
+    } else {
+      weightFunc = file -> Math.max(file.length(), splitOpenFileCost);
+    }
+
+    CloseableIterable<FileScanTask> splitFiles = TableScanUtil.splitFiles(files, splitSize);
+    try (CloseableIterable<CombinedScanTask> tasksIterable =
+             TableScanUtil.planTasks(splitFiles, splitSize, splitLookback, weightFunc, partitionAligned)) {
+      return Lists.newArrayList(tasksIterable);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to close planned files", e);
+    }
+  }
 }
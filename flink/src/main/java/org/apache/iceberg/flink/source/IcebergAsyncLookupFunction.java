@@ -0,0 +1,100 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iceberg.flink.source;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.apache.flink.table.api.TableSchema;
+import org.apache.flink.table.data.GenericRowData;
+import org.apache.flink.table.data.RowData;
+import org.apache.flink.table.functions.AsyncTableFunction;
+import org.apache.flink.table.functions.FunctionContext;
+import org.apache.iceberg.expressions.Expression;
+import org.apache.iceberg.flink.TableLoader;
+import org.apache.iceberg.relocated.com.google.common.base.Preconditions;
+import org.apache.iceberg.relocated.com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * An asynchronous version of {@link IcebergLookupFunction}, which answers the lookups in a pool of threads so that
+ * the join keeps processing input rows while data files are loaded.
+ */
+public class IcebergAsyncLookupFunction extends AsyncTableFunction<RowData> {
+  private static final long serialVersionUID = 1L;
+
+  private final TableLoader tableLoader;
+  private final TableSchema projectedSchema;
+  private final List<Expression> filters;
+  private final String[] lookupKeys;
+  private final long maxCachedRows;
+  private final Duration cacheTtl;
+  private final int threads;
+
+  private transient IcebergLookupTable lookupTable;
+  private transient ExecutorService lookupExecutor;
+
+  public IcebergAsyncLookupFunction(TableLoader tableLoader, TableSchema projectedSchema, List<Expression> filters,
+                                    String[] lookupKeys, long maxCachedRows, Duration cacheTtl, int threads) {
+    Preconditions.checkArgument(threads > 0, "Invalid number of lookup threads: %s (must be positive)", threads);
+    this.tableLoader = tableLoader;
+    this.projectedSchema = projectedSchema;
+    this.filters = filters;
+    this.lookupKeys = lookupKeys;
+    this.maxCachedRows = maxCachedRows;
+    this.cacheTtl = cacheTtl;
+    this.threads = threads;
+  }
+
+  @Override
+  public void open(FunctionContext context) throws Exception {
+    super.open(context);
+    this.lookupTable = IcebergLookupFunction.openLookupTable(tableLoader, projectedSchema, filters, lookupKeys,
+        maxCachedRows, cacheTtl);
+    this.lookupExecutor = Executors.newFixedThreadPool(threads, new ThreadFactoryBuilder()
+        .setDaemon(true)
+        .setNameFormat("iceberg-lookup-%d")
+        .build());
+  }
+
+  public void eval(CompletableFuture<Collection<RowData>> result, Object... keys) {
+    GenericRowData key = GenericRowData.of(keys);
+    lookupExecutor.execute(() -> {
+      try {
+        result.complete(lookupTable.lookup(key));
+      } catch (RuntimeException e) {
+        result.completeExceptionally(e);
+      }
+    });
+  }
+
+  @Override
+  public void close() throws Exception {
+    super.close();
+    if (lookupExecutor != null) {
+      lookupExecutor.shutdownNow();
+      lookupExecutor = null;
+    }
+
+    tableLoader.close();
+  }
+}
@@ -0,0 +1,71 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iceberg.flink.source;
+
+import java.io.Serializable;
+import java.util.Collection;
+import org.apache.iceberg.relocated.com.google.common.base.MoreObjects;
+
+/**
+ * Checkpointed state of the {@link IcebergSplitEnumerator}: the last snapshot whose splits were planned and the splits
+ * that were planned but not yet assigned to a reader.
+ */
+class IcebergEnumeratorState implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  private final Long lastEnumeratedSnapshotId;
+  private final boolean enumerationFinished;
+  private final Collection<IcebergSourceSplit> pendingSplits;
+
+  IcebergEnumeratorState(Long lastEnumeratedSnapshotId, boolean enumerationFinished,
+                         Collection<IcebergSourceSplit> pendingSplits) {
+    this.lastEnumeratedSnapshotId = lastEnumeratedSnapshotId;
+    this.enumerationFinished = enumerationFinished;
+    this.pendingSplits = pendingSplits;
+  }
+
+  /**
+   * Returns the id of the last snapshot that was planned, or null if no snapshot was planned.
+   */
+  Long lastEnumeratedSnapshotId() {
+    return lastEnumeratedSnapshotId;
+  }
+
+  /**
+   * Returns whether all splits of a bounded scan were planned.
+   */
+  boolean enumerationFinished() {
+    return enumerationFinished;
+  }
+
+  Collection<IcebergSourceSplit> pendingSplits() {
+    return pendingSplits;
+  }
+
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper(this)
+        .add("lastEnumeratedSnapshotId", lastEnumeratedSnapshotId)
+        .add("enumerationFinished", enumerationFinished)
+        .add("pendingSplits", pendingSplits.size())
+        .toString();
+  }
+}
@@ -0,0 +1,84 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iceberg.flink.source;
+
+import java.time.Duration;
+import java.util.List;
+import org.apache.flink.table.api.TableSchema;
+import org.apache.flink.table.data.GenericRowData;
+import org.apache.flink.table.data.RowData;
+import org.apache.flink.table.functions.FunctionContext;
+import org.apache.flink.table.functions.TableFunction;
+import org.apache.iceberg.Table;
+import org.apache.iceberg.expressions.Expression;
+import org.apache.iceberg.flink.FlinkSchemaUtil;
+import org.apache.iceberg.flink.TableLoader;
+
+/**
+ * A lookup function that joins each input row with the rows of an Iceberg table that have the same lookup key values.
+ */
+public class IcebergLookupFunction extends TableFunction<RowData> {
+  private static final long serialVersionUID = 1L;
+
+  private final TableLoader tableLoader;
+  private final TableSchema projectedSchema;
+  private final List<Expression> filters;
+  private final String[] lookupKeys;
+  private final long maxCachedRows;
+  private final Duration cacheTtl;
+
+  private transient IcebergLookupTable lookupTable;
+
+  public IcebergLookupFunction(TableLoader tableLoader, TableSchema projectedSchema, List<Expression> filters,
+                               String[] lookupKeys, long maxCachedRows, Duration cacheTtl) {
+    this.tableLoader = tableLoader;
+    this.projectedSchema = projectedSchema;
+    this.filters = filters;
+    this.lookupKeys = lookupKeys;
+    this.maxCachedRows = maxCachedRows;
+    this.cacheTtl = cacheTtl;
+  }
+
+  @Override
+  public void open(FunctionContext context) throws Exception {
+    super.open(context);
+    this.lookupTable = openLookupTable(tableLoader, projectedSchema, filters, lookupKeys, maxCachedRows, cacheTtl);
+  }
+
+  public void eval(Object... keys) {
+    for (RowData row : lookupTable.lookup(GenericRowData.of(keys))) {
+      collect(row);
+    }
+  }
+
+  @Override
+  public void close() throws Exception {
+    super.close();
+    tableLoader.close();
+  }
+
+  static IcebergLookupTable openLookupTable(TableLoader loader, TableSchema projectedSchema, List<Expression> filters,
+                                            String[] lookupKeys, long maxCachedRows, Duration cacheTtl) {
+    loader.open();
+    Table table = loader.loadTable();
+    return new IcebergLookupTable(table, FlinkSchemaUtil.convert(table.schema(), projectedSchema), filters,
+        lookupKeys, maxCachedRows, cacheTtl);
+  }
+}
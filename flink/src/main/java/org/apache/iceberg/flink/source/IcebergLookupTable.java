@@ -0,0 +1,444 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iceberg.flink.source;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.apache.flink.table.data.GenericRowData;
+import org.apache.flink.table.data.RowData;
+import org.apache.flink.table.runtime.typeutils.RowDataSerializer;
+import org.apache.flink.table.types.logical.LogicalType;
+import org.apache.flink.table.types.logical.RowType;
+import org.apache.iceberg.BaseCombinedScanTask;
+import org.apache.iceberg.ContentFile;
+import org.apache.iceberg.DataFile;
+import org.apache.iceberg.FileScanTask;
+import org.apache.iceberg.PartitionSpec;
+import org.apache.iceberg.Schema;
+import org.apache.iceberg.Snapshot;
+import org.apache.iceberg.Table;
+import org.apache.iceberg.TableScan;
+import org.apache.iceberg.expressions.Binder;
+import org.apache.iceberg.expressions.Evaluator;
+import org.apache.iceberg.expressions.Expression;
+import org.apache.iceberg.expressions.Expressions;
+import org.apache.iceberg.expressions.InclusiveMetricsEvaluator;
+import org.apache.iceberg.expressions.Projections;
+import org.apache.iceberg.flink.FlinkSchemaUtil;
+import org.apache.iceberg.flink.RowDataWrapper;
+import org.apache.iceberg.io.CloseableIterable;
+import org.apache.iceberg.relocated.com.google.common.base.Preconditions;
+import org.apache.iceberg.relocated.com.google.common.collect.ImmutableList;
+import org.apache.iceberg.relocated.com.google.common.collect.Iterables;
+import org.apache.iceberg.relocated.com.google.common.collect.Lists;
+import org.apache.iceberg.relocated.com.google.common.collect.Maps;
+import org.apache.iceberg.relocated.com.google.common.collect.Sets;
+import org.apache.iceberg.types.Comparators;
+import org.apache.iceberg.types.Conversions;
+import org.apache.iceberg.types.Type;
+import org.apache.iceberg.types.TypeUtil;
+import org.apache.iceberg.types.Types;
+import org.apache.iceberg.util.PropertyUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static org.apache.iceberg.TableProperties.DEFAULT_NAME_MAPPING;
+
+/**
+ * Answers the key lookups of a lookup join from the data files of an Iceberg table.
+ * <p>
+ * The data files of the current snapshot are planned once, with their column stats, and indexed by the bounds of the
+ * first lookup key. A lookup only reads the files whose key bounds, partition and column stats may contain the key.
+ * Each file that is read is indexed by the lookup keys, without the rows that don't match the table filters, and kept
+ * in an LRU cache, so the following lookups of keys in the same file are answered from memory. Files with more rows
+ * than a fraction of the cache are split, and splits that still don't fit in the cache are read for every lookup.
+ * <p>
+ * The table is refreshed once the cache TTL has passed; when it has a new snapshot, the files are planned again and
+ * only the cached files that are no longer part of the table, or whose deletes changed, are dropped.
+ * <p>
+ * Lookups may be called concurrently.
+ */
+class IcebergLookupTable {
+  private static final Logger LOG = LoggerFactory.getLogger(IcebergLookupTable.class);
+
+  // Large files are split so that the cache holds at least this many splits, but not into splits below a minimum size.
+  private static final int MIN_CACHED_SPLITS = 4;
+  private static final long MIN_SPLIT_SIZE = 1024L * 1024L;
+
+  private final Table table;
+  private final Schema projectedSchema;
+  private final Schema readSchema;
+  private final List<Expression> filters;
+  private final String[] keyNames;
+  private final RowType keyRowType;
+  private final Types.StructType keyStruct;
+  private final RowData.FieldGetter[] keyGetters;
+  private final RowData.FieldGetter[] projectedGetters;
+  private final RowType readRowType;
+  private final RowDataSerializer readSerializer;
+  private final String nameMapping;
+  private final long maxCachedRows;
+  private final long ttlMillis;
+  private final Cache<String, Map<RowData, List<RowData>>> loadedFiles;
+
+  private volatile KeyRangeIndex tasks = new KeyRangeIndex(ImmutableList.of(), null);
+  private volatile long snapshotId = -1L;
+  private volatile long nextRefreshMillis = 0L;
+
+  IcebergLookupTable(Table table, Schema projectedSchema, List<Expression> filters, String[] keyNames,
+                     long maxCachedRows, Duration ttl) {
+    Preconditions.checkArgument(keyNames.length > 0, "Lookup keys shouldn't be empty");
+    Preconditions.checkArgument(maxCachedRows > 0,
+        "Invalid maximum number of cached rows: %s (must be positive)", maxCachedRows);
+    this.table = table;
+    this.projectedSchema = projectedSchema;
+    this.filters = filters;
+    this.keyNames = keyNames;
+    this.nameMapping = PropertyUtil.propertyAsString(table.properties(), DEFAULT_NAME_MAPPING, null);
+    this.maxCachedRows = maxCachedRows;
+    this.ttlMillis = ttl.toMillis();
+
+    // The columns of the filters are read to filter the loaded rows, and are dropped before the rows are cached.
+    Set<Integer> filterIds = Sets.newHashSet(Binder.boundReferences(table.schema().asStruct(), filters, true));
+    filterIds.removeAll(TypeUtil.getProjectedIds(projectedSchema));
+    this.readSchema = filterIds.isEmpty() ? projectedSchema :
+        TypeUtil.join(projectedSchema, TypeUtil.select(table.schema(), filterIds));
+    this.readRowType = FlinkSchemaUtil.convert(readSchema);
+    this.readSerializer = new RowDataSerializer(readRowType);
+
+    RowType rowType = FlinkSchemaUtil.convert(projectedSchema);
+    this.projectedGetters = new RowData.FieldGetter[rowType.getFieldCount()];
+    for (int i = 0; i < projectedGetters.length; i += 1) {
+      projectedGetters[i] = RowData.createFieldGetter(rowType.getTypeAt(i), i);
+    }
+
+    List<Types.NestedField> keyFields = Lists.newArrayListWithCapacity(keyNames.length);
+    List<LogicalType> keyTypes = Lists.newArrayListWithCapacity(keyNames.length);
+    this.keyGetters = new RowData.FieldGetter[keyNames.length];
+    for (int i = 0; i < keyNames.length; i += 1) {
+      int pos = rowType.getFieldIndex(keyNames[i]);
+      Preconditions.checkArgument(pos >= 0, "Cannot find lookup key '%s' in projected schema %s",
+          keyNames[i], projectedSchema);
+      keyFields.add(projectedSchema.columns().get(pos));
+      keyTypes.add(rowType.getTypeAt(pos));
+      keyGetters[i] = RowData.createFieldGetter(rowType.getTypeAt(pos), pos);
+    }
+
+    this.keyStruct = Types.StructType.of(keyFields);
+    this.keyRowType = RowType.of(keyTypes.toArray(new LogicalType[0]), keyNames);
+
+    // Each cached file weighs the number of its rows, files that weigh more than the cache are never put in it.
+    this.loadedFiles = Caffeine.newBuilder()
+        .maximumWeight(maxCachedRows)
+        .weigher((String path, Map<RowData, List<RowData>> index) ->
+            index.values().stream().mapToInt(List::size).sum())
+        .build();
+  }
+
+  /**
+   * Returns the rows of the table with the given lookup key values, in the order of the lookup keys.
+   */
+  List<RowData> lookup(RowData key) {
+    refreshIfExpired();
+
+    for (int i = 0; i < keyNames.length; i += 1) {
+      if (key.isNullAt(i)) {
+        // Null keys never match in an equi-join.
+        return Collections.emptyList();
+      }
+    }
+
+    RowDataWrapper wrapper = new RowDataWrapper(keyRowType, keyStruct).wrap(key);
+    Expression keyFilter = keyFilter(wrapper);
+    InclusiveMetricsEvaluator metricsEvaluator = new InclusiveMetricsEvaluator(table.schema(), keyFilter, true);
+    Map<Integer, Evaluator> partitionEvaluators = Maps.newHashMap();
+
+    List<RowData> rows = Lists.newArrayList();
+    for (FileScanTask task : tasks.candidates(wrapper.get(0, Object.class))) {
+      Evaluator partitionEvaluator = partitionEvaluators.computeIfAbsent(task.spec().specId(),
+          specId -> partitionEvaluator(task.spec(), keyFilter));
+      if (partitionEvaluator.eval(task.file().partition()) && metricsEvaluator.eval(task.file())) {
+        List<RowData> matches = lookup(task, key);
+        if (matches != null) {
+          rows.addAll(matches);
+        }
+      }
+    }
+
+    return rows;
+  }
+
+  private List<RowData> lookup(FileScanTask task, RowData key) {
+    String cacheKey = cacheKey(task);
+    Map<RowData, List<RowData>> index = loadedFiles.getIfPresent(cacheKey);
+    if (index == null) {
+      index = load(task);
+      long rows = weight(index);
+      if (rows <= maxCachedRows) {
+        loadedFiles.put(cacheKey, index);
+      } else {
+        LOG.warn("Cannot cache {} rows of data file {} at offset {}, more than lookup.cache.max-rows: {}",
+            rows, task.file().path(), task.start(), maxCachedRows);
+      }
+    }
+
+    return index.get(key);
+  }
+
+  long cachedFiles() {
+    return loadedFiles.estimatedSize();
+  }
+
+  private Expression keyFilter(RowDataWrapper wrapper) {
+    Expression filter = Expressions.alwaysTrue();
+    for (int i = 0; i < keyNames.length; i += 1) {
+      filter = Expressions.and(filter, Expressions.equal(keyNames[i], wrapper.get(i, Object.class)));
+    }
+
+    return filter;
+  }
+
+  private static Evaluator partitionEvaluator(PartitionSpec spec, Expression filter) {
+    return new Evaluator(spec.partitionType(), Projections.inclusive(spec, true).project(filter), true);
+  }
+
+  private void refreshIfExpired() {
+    if (System.currentTimeMillis() >= nextRefreshMillis) {
+      refresh();
+    }
+  }
+
+  private synchronized void refresh() {
+    long now = System.currentTimeMillis();
+    if (now < nextRefreshMillis) {
+      // Another lookup refreshed the table in the meantime.
+      return;
+    }
+
+    table.refresh();
+    Snapshot current = table.currentSnapshot();
+    long currentSnapshotId = current != null ? current.snapshotId() : -1L;
+    if (currentSnapshotId != snapshotId) {
+      List<FileScanTask> plannedTasks = planTasks(current);
+      this.tasks = new KeyRangeIndex(plannedTasks, keyStruct.fields().get(0));
+      this.snapshotId = currentSnapshotId;
+
+      // Keep the cached files that are still read the same way in the new snapshot.
+      Set<String> cacheKeys = plannedTasks.stream().map(IcebergLookupTable::cacheKey).collect(Collectors.toSet());
+      loadedFiles.asMap().keySet().retainAll(cacheKeys);
+      LOG.info("Planned {} data file splits of snapshot {} of table {} for lookups",
+          plannedTasks.size(), snapshotId, table);
+    }
+
+    this.nextRefreshMillis = now + ttlMillis;
+  }
+
+  private List<FileScanTask> planTasks(Snapshot snapshot) {
+    if (snapshot == null) {
+      return ImmutableList.of();
+    }
+
+    TableScan scan = table.newScan()
+        .useSnapshot(snapshot.snapshotId())
+        .project(projectedSchema)
+        .includeColumnStats();
+    for (Expression filter : filters) {
+      scan = scan.filter(filter);
+    }
+
+    long maxSplitRows = Math.max(1L, maxCachedRows / MIN_CACHED_SPLITS);
+    List<FileScanTask> splitTasks = Lists.newArrayList();
+    try (CloseableIterable<FileScanTask> fileTasks = scan.planFiles()) {
+      for (FileScanTask task : fileTasks) {
+        DataFile file = task.file();
+        if (file.recordCount() > maxSplitRows) {
+          // Splits are aligned to the split offsets of the file, like row groups, so they may still be larger.
+          long splitSize = Math.max(MIN_SPLIT_SIZE,
+              (long) ((double) file.fileSizeInBytes() * maxSplitRows / file.recordCount()));
+          Iterables.addAll(splitTasks, task.split(splitSize));
+        } else {
+          splitTasks.add(task);
+        }
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to plan the data files of table " + table, e);
+    }
+
+    return splitTasks;
+  }
+
+  private Map<RowData, List<RowData>> load(FileScanTask task) {
+    Expression residual = task.residual();
+    Evaluator filter = residual == null || residual == Expressions.alwaysTrue() ? null :
+        new Evaluator(readSchema.asStruct(), residual, true);
+    RowDataWrapper wrapper = new RowDataWrapper(readRowType, readSchema.asStruct());
+
+    Map<RowData, List<RowData>> index = Maps.newHashMap();
+    try (RowDataIterator rows = new RowDataIterator(new BaseCombinedScanTask(task), table.io(), table.encryption(),
+        table.schema(), readSchema, nameMapping, true)) {
+      while (rows.hasNext()) {
+        RowData next = rows.next();
+        if (filter != null && !filter.eval(wrapper.wrap(next))) {
+          continue;
+        }
+
+        // The readers reuse the returned rows.
+        RowData row = project(readSerializer.copy(next));
+        GenericRowData key = new GenericRowData(keyGetters.length);
+        for (int i = 0; i < keyGetters.length; i += 1) {
+          key.setField(i, keyGetters[i].getFieldOrNull(row));
+        }
+
+        index.computeIfAbsent(key, k -> Lists.newArrayList()).add(row);
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to read data file " + task.file().path(), e);
+    }
+
+    return index;
+  }
+
+  private RowData project(RowData row) {
+    if (readSchema == projectedSchema) {
+      return row;
+    }
+
+    // The projected columns are the first columns of the read schema.
+    GenericRowData projected = new GenericRowData(projectedGetters.length);
+    for (int i = 0; i < projectedGetters.length; i += 1) {
+      projected.setField(i, projectedGetters[i].getFieldOrNull(row));
+    }
+
+    return projected;
+  }
+
+  private static long weight(Map<RowData, List<RowData>> index) {
+    return index.values().stream().mapToLong(List::size).sum();
+  }
+
+  private static String cacheKey(FileScanTask task) {
+    // A data file is read differently once new deletes apply to it.
+    StringBuilder key = new StringBuilder(task.file().path()).append('@').append(task.start());
+    for (ContentFile<?> delete : task.deletes()) {
+      key.append('\n').append(delete.path());
+    }
+
+    return key.toString();
+  }
+
+  /**
+   * Finds the tasks whose bounds of the first lookup key may contain a key value, without scanning all tasks.
+   * <p>
+   * Tasks are sorted by their lower bound, so the candidates for a value are at or before the last task whose lower
+   * bound is not greater than the value. Those are scanned backwards until the maximum upper bound of the remaining
+   * tasks is smaller than the value, which only visits the overlapping tasks of tables that are clustered by the key.
+   */
+  private static class KeyRangeIndex {
+    private final List<FileScanTask> unbounded = Lists.newArrayList();
+    private final Comparator<Object> comparator;
+    private final FileScanTask[] sortedTasks;
+    private final Object[] lowers;
+    private final Object[] uppers;
+    private final Object[] maxUppers;
+
+    @SuppressWarnings("unchecked")
+    KeyRangeIndex(List<FileScanTask> tasks, Types.NestedField keyField) {
+      if (keyField == null || !keyField.type().isPrimitiveType()) {
+        unbounded.addAll(tasks);
+        this.comparator = null;
+        this.sortedTasks = new FileScanTask[0];
+        this.lowers = new Object[0];
+        this.uppers = new Object[0];
+        this.maxUppers = new Object[0];
+        return;
+      }
+
+      Type.PrimitiveType type = keyField.type().asPrimitiveType();
+      this.comparator = (Comparator<Object>) Comparators.forType(type);
+
+      List<Object[]> bounded = Lists.newArrayList();
+      for (FileScanTask task : tasks) {
+        Object lower = bound(task.file().lowerBounds(), keyField.fieldId(), type);
+        Object upper = bound(task.file().upperBounds(), keyField.fieldId(), type);
+        if (lower != null && upper != null) {
+          bounded.add(new Object[] {lower, upper, task});
+        } else {
+          unbounded.add(task);
+        }
+      }
+
+      bounded.sort((left, right) -> comparator.compare(left[0], right[0]));
+
+      int size = bounded.size();
+      this.sortedTasks = new FileScanTask[size];
+      this.lowers = new Object[size];
+      this.uppers = new Object[size];
+      this.maxUppers = new Object[size];
+      for (int i = 0; i < size; i += 1) {
+        Object[] entry = bounded.get(i);
+        lowers[i] = entry[0];
+        uppers[i] = entry[1];
+        sortedTasks[i] = (FileScanTask) entry[2];
+        maxUppers[i] = i > 0 && comparator.compare(maxUppers[i - 1], uppers[i]) > 0 ? maxUppers[i - 1] : uppers[i];
+      }
+    }
+
+    private static Object bound(Map<Integer, ByteBuffer> bounds, int fieldId, Type.PrimitiveType type) {
+      ByteBuffer bound = bounds != null ? bounds.get(fieldId) : null;
+      return bound != null ? Conversions.fromByteBuffer(type, bound) : null;
+    }
+
+    List<FileScanTask> candidates(Object value) {
+      List<FileScanTask> candidates = Lists.newArrayList(unbounded);
+      if (sortedTasks.length == 0) {
+        return candidates;
+      }
+
+      // the position of the last task with a lower bound not greater than the value
+      int pos = Arrays.binarySearch(lowers, value, comparator);
+      if (pos >= 0) {
+        while (pos + 1 < lowers.length && comparator.compare(lowers[pos + 1], value) == 0) {
+          pos += 1;
+        }
+      } else {
+        pos = -pos - 2;
+      }
+
+      for (int i = pos; i >= 0 && comparator.compare(maxUppers[i], value) >= 0; i -= 1) {
+        if (comparator.compare(uppers[i], value) >= 0) {
+          candidates.add(sortedTasks[i]);
+        }
+      }
+
+      return candidates;
+    }
+  }
+}
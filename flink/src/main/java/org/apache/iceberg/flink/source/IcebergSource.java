@@ -0,0 +1,122 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iceberg.flink.source;
+
+import org.apache.flink.api.common.typeinfo.TypeInformation;
+import org.apache.flink.api.connector.source.Boundedness;
+import org.apache.flink.api.connector.source.Source;
+import org.apache.flink.api.connector.source.SourceReader;
+import org.apache.flink.api.connector.source.SourceReaderContext;
+import org.apache.flink.api.connector.source.SplitEnumerator;
+import org.apache.flink.api.connector.source.SplitEnumeratorContext;
+import org.apache.flink.api.java.typeutils.ResultTypeQueryable;
+import org.apache.flink.core.io.SimpleVersionedSerializer;
+import org.apache.flink.table.data.RowData;
+import org.apache.iceberg.Schema;
+import org.apache.iceberg.encryption.EncryptionManager;
+import org.apache.iceberg.flink.FlinkSchemaUtil;
+import org.apache.iceberg.flink.TableLoader;
+import org.apache.iceberg.flink.util.FlinkCompatibilityUtil;
+import org.apache.iceberg.io.FileIO;
+import org.apache.iceberg.relocated.com.google.common.annotations.VisibleForTesting;
+import org.apache.iceberg.relocated.com.google.common.base.Preconditions;
+
+/**
+ * A Flink {@link Source} for Iceberg tables built on the split enumerator and reader model.
+ * <p>
+ * Splits are planned by a single enumerator and pulled by readers when they have capacity, so that a backlog of
+ * splits is spread over the readers by how fast they read instead of round-robin. Use
+ * {@link FlinkSource.Builder#buildSource()} to create the source and
+ * {@code StreamExecutionEnvironment#fromSource} to add it to a job.
+ */
+public class IcebergSource implements Source<RowData, IcebergSourceSplit, IcebergEnumeratorState>,
+    ResultTypeQueryable<RowData> {
+
+  private static final long serialVersionUID = 1L;
+
+  private final TableLoader tableLoader;
+  private final Schema tableSchema;
+  private final FileIO io;
+  private final EncryptionManager encryption;
+  private final ScanContext context;
+
+  IcebergSource(TableLoader tableLoader, Schema tableSchema, FileIO io, EncryptionManager encryption,
+                ScanContext context) {
+    if (context.isStreaming()) {
+      Preconditions.checkArgument(context.snapshotId() == null,
+          "Cannot set snapshot-id option for streaming reader");
+      Preconditions.checkArgument(context.asOfTimestamp() == null,
+          "Cannot set as-of-timestamp option for streaming reader");
+      Preconditions.checkArgument(context.endSnapshotId() == null,
+          "Cannot set end-snapshot-id option for streaming reader");
+    }
+
+    Preconditions.checkArgument(context.maxPlanningSnapshotCount() > 0,
+        "Invalid max planning snapshot count: %s (must be > 0)", context.maxPlanningSnapshotCount());
+
+    this.tableLoader = tableLoader;
+    this.tableSchema = tableSchema;
+    this.io = io;
+    this.encryption = encryption;
+    this.context = context;
+  }
+
+  @VisibleForTesting
+  Schema projectedSchema() {
+    return context.project();
+  }
+
+  @Override
+  public Boundedness getBoundedness() {
+    return context.isStreaming() ? Boundedness.CONTINUOUS_UNBOUNDED : Boundedness.BOUNDED;
+  }
+
+  @Override
+  public SourceReader<RowData, IcebergSourceSplit> createReader(SourceReaderContext readerContext) {
+    return new IcebergSourceReader(readerContext, tableSchema, io, encryption, context);
+  }
+
+  @Override
+  public SplitEnumerator<IcebergSourceSplit, IcebergEnumeratorState> createEnumerator(
+      SplitEnumeratorContext<IcebergSourceSplit> enumContext) {
+    return new IcebergSplitEnumerator(enumContext, tableLoader, context, null);
+  }
+
+  @Override
+  public SplitEnumerator<IcebergSourceSplit, IcebergEnumeratorState> restoreEnumerator(
+      SplitEnumeratorContext<IcebergSourceSplit> enumContext, IcebergEnumeratorState state) {
+    return new IcebergSplitEnumerator(enumContext, tableLoader, context, state);
+  }
+
+  @Override
+  public SimpleVersionedSerializer<IcebergSourceSplit> getSplitSerializer() {
+    return IcebergSourceSplitSerializer.INSTANCE;
+  }
+
+  @Override
+  public SimpleVersionedSerializer<IcebergEnumeratorState> getEnumeratorCheckpointSerializer() {
+    return IcebergEnumeratorStateSerializer.INSTANCE;
+  }
+
+  @Override
+  public TypeInformation<RowData> getProducedType() {
+    return FlinkCompatibilityUtil.toTypeInfo(FlinkSchemaUtil.convert(context.project()));
+  }
+}
@@ -0,0 +1,210 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iceberg.flink.source;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import org.apache.flink.api.connector.source.ReaderOutput;
+import org.apache.flink.api.connector.source.SourceReader;
+import org.apache.flink.api.connector.source.SourceReaderContext;
+import org.apache.flink.core.io.InputStatus;
+import org.apache.flink.metrics.Counter;
+import org.apache.flink.metrics.Gauge;
+import org.apache.flink.metrics.MeterView;
+import org.apache.flink.metrics.MetricGroup;
+import org.apache.flink.table.data.RowData;
+import org.apache.iceberg.Schema;
+import org.apache.iceberg.encryption.EncryptionManager;
+import org.apache.iceberg.io.FileIO;
+import org.apache.iceberg.relocated.com.google.common.collect.Lists;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Reads the {@link IcebergSourceSplit splits} assigned by the {@link IcebergSplitEnumerator}.
+ * <p>
+ * The reader requests the next split as soon as it starts reading the last split it has, so that a new split is
+ * usually available when the current one is finished. Splits are read one at a time in the task thread.
+ */
+class IcebergSourceReader implements SourceReader<RowData, IcebergSourceSplit> {
+  private static final Logger LOG = LoggerFactory.getLogger(IcebergSourceReader.class);
+
+  private final SourceReaderContext context;
+  private final Schema tableSchema;
+  private final FileIO io;
+  private final EncryptionManager encryption;
+  private final ScanContext scanContext;
+  private final Deque<IcebergSourceSplit> splits = new ArrayDeque<>();
+
+  private final Counter recordsRead;
+  private final Counter splitsFinished;
+  private final Counter bytesFinished;
+
+  private CompletableFuture<Void> availability = new CompletableFuture<>();
+  private IcebergSourceSplit currentSplit = null;
+  private RowDataIterator currentIterator = null;
+  private long currentOffset = 0L;
+  private long totalRecordsRead = 0L;
+  private boolean splitRequested = false;
+  private boolean noMoreSplits = false;
+
+  IcebergSourceReader(SourceReaderContext context, Schema tableSchema, FileIO io, EncryptionManager encryption,
+                      ScanContext scanContext) {
+    this.context = context;
+    this.tableSchema = tableSchema;
+    this.io = io;
+    this.encryption = encryption;
+    this.scanContext = scanContext;
+
+    MetricGroup metrics = context.metricGroup().addGroup("IcebergSourceReader");
+    this.recordsRead = metrics.counter("recordsRead");
+    this.splitsFinished = metrics.counter("splitsFinished");
+    this.bytesFinished = metrics.counter("bytesFinished");
+    metrics.meter("recordsReadPerSecond", new MeterView(recordsRead));
+    metrics.meter("bytesFinishedPerSecond", new MeterView(bytesFinished));
+    metrics.gauge("pendingSplits", (Gauge<Integer>) splits::size);
+  }
+
+  @Override
+  public void start() {
+    requestSplit();
+  }
+
+  @Override
+  public InputStatus pollNext(ReaderOutput<RowData> output) throws IOException {
+    if (limitReached()) {
+      closeCurrentSplit();
+      return InputStatus.END_OF_INPUT;
+    }
+
+    if (currentIterator == null && !openNextSplit()) {
+      if (noMoreSplits) {
+        return InputStatus.END_OF_INPUT;
+      }
+
+      requestSplit();
+      if (availability.isDone()) {
+        this.availability = new CompletableFuture<>();
+      }
+
+      return InputStatus.NOTHING_AVAILABLE;
+    }
+
+    if (currentIterator.hasNext()) {
+      output.collect(currentIterator.next());
+      currentOffset += 1;
+      totalRecordsRead += 1;
+      recordsRead.inc();
+      return InputStatus.MORE_AVAILABLE;
+    }
+
+    splitsFinished.inc();
+    bytesFinished.inc(currentSplit.sizeInBytes());
+    closeCurrentSplit();
+
+    return InputStatus.MORE_AVAILABLE;
+  }
+
+  @Override
+  public List<IcebergSourceSplit> snapshotState(long checkpointId) {
+    List<IcebergSourceSplit> state = Lists.newArrayListWithCapacity(splits.size() + 1);
+    if (currentSplit != null) {
+      state.add(currentSplit.withRecordOffset(currentOffset));
+    }
+
+    state.addAll(splits);
+
+    return state;
+  }
+
+  @Override
+  public CompletableFuture<Void> isAvailable() {
+    return availability;
+  }
+
+  @Override
+  public void addSplits(List<IcebergSourceSplit> newSplits) {
+    LOG.debug("Adding splits {}", newSplits);
+    splits.addAll(newSplits);
+    this.splitRequested = false;
+    availability.complete(null);
+  }
+
+  @Override
+  public void notifyNoMoreSplits() {
+    this.noMoreSplits = true;
+    availability.complete(null);
+  }
+
+  @Override
+  public void close() throws IOException {
+    closeCurrentSplit();
+  }
+
+  private boolean limitReached() {
+    return scanContext.limit() > 0 && totalRecordsRead >= scanContext.limit();
+  }
+
+  private void requestSplit() {
+    if (!splitRequested && !noMoreSplits) {
+      this.splitRequested = true;
+      context.sendSplitRequest();
+    }
+  }
+
+  private boolean openNextSplit() {
+    IcebergSourceSplit split = splits.poll();
+    if (split == null) {
+      return false;
+    }
+
+    this.currentSplit = split;
+    this.currentIterator = new RowDataIterator(split.task(), io, encryption, tableSchema, scanContext.project(),
+        scanContext.nameMapping(), scanContext.caseSensitive(), scanContext.vectorizedRead(),
+        scanContext.vectorizedBatchSize());
+
+    // skip the records that were emitted before the last checkpoint
+    this.currentOffset = 0L;
+    while (currentOffset < split.recordOffset() && currentIterator.hasNext()) {
+      currentIterator.next();
+      currentOffset += 1;
+    }
+
+    if (splits.isEmpty()) {
+      // fetch the next split while this one is read
+      requestSplit();
+    }
+
+    return true;
+  }
+
+  private void closeCurrentSplit() throws IOException {
+    if (currentIterator != null) {
+      currentIterator.close();
+    }
+
+    this.currentIterator = null;
+    this.currentSplit = null;
+    this.currentOffset = 0L;
+  }
+}
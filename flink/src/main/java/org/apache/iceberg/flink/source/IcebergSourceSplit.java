@@ -0,0 +1,102 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iceberg.flink.source;
+
+import java.io.Serializable;
+import org.apache.flink.api.connector.source.SourceSplit;
+import org.apache.iceberg.CombinedScanTask;
+import org.apache.iceberg.FileScanTask;
+import org.apache.iceberg.relocated.com.google.common.base.MoreObjects;
+
+/**
+ * A split of an Iceberg table scan for {@link IcebergSource}.
+ * <p>
+ * The split tracks the number of records that were already emitted from its task, so that a reader can resume a
+ * partially read split after a failure.
+ */
+public class IcebergSourceSplit implements SourceSplit, Serializable {
+
+  private static final long serialVersionUID = 1L;
+  private static final String[] NO_HOSTS = new String[0];
+
+  private final String splitId;
+  private final CombinedScanTask task;
+  private final String[] hosts;
+  private final long recordOffset;
+
+  IcebergSourceSplit(String splitId, CombinedScanTask task, String[] hosts, long recordOffset) {
+    this.splitId = splitId;
+    this.task = task;
+    this.hosts = hosts != null ? hosts : NO_HOSTS;
+    this.recordOffset = recordOffset;
+  }
+
+  static IcebergSourceSplit of(String splitId, CombinedScanTask task, String[] hosts) {
+    return new IcebergSourceSplit(splitId, task, hosts, 0L);
+  }
+
+  @Override
+  public String splitId() {
+    return splitId;
+  }
+
+  CombinedScanTask task() {
+    return task;
+  }
+
+  /**
+   * Returns the hosts that store the data of this split, or an empty array if locality is unknown.
+   */
+  String[] hosts() {
+    return hosts;
+  }
+
+  /**
+   * Returns the number of records of this split that were already emitted.
+   */
+  long recordOffset() {
+    return recordOffset;
+  }
+
+  /**
+   * Returns the number of bytes of data files that are read by this split.
+   */
+  long sizeInBytes() {
+    long size = 0L;
+    for (FileScanTask fileTask : task.files()) {
+      size += fileTask.length();
+    }
+
+    return size;
+  }
+
+  IcebergSourceSplit withRecordOffset(long newRecordOffset) {
+    return new IcebergSourceSplit(splitId, task, hosts, newRecordOffset);
+  }
+
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper(this)
+        .add("splitId", splitId)
+        .add("recordOffset", recordOffset)
+        .add("task", task)
+        .toString();
+  }
+}
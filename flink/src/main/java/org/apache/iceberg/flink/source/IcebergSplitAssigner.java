@@ -0,0 +1,112 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iceberg.flink.source;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import org.apache.iceberg.relocated.com.google.common.collect.Lists;
+import org.apache.iceberg.relocated.com.google.common.collect.Maps;
+
+/**
+ * Keeps the splits that are waiting for a reader and chooses the split for a requesting reader.
+ * <p>
+ * A split with data on the requesting host is preferred. Otherwise, the largest pending split is assigned first, so
+ * that large splits do not start last and leave the other readers idle at the end of a scan.
+ */
+class IcebergSplitAssigner {
+  private static final Comparator<IcebergSourceSplit> LARGEST_FIRST =
+      Comparator.comparingLong(IcebergSourceSplit::sizeInBytes).reversed()
+          .thenComparing(IcebergSourceSplit::splitId);
+
+  // the pending splits by id; splits in the queues below that are not in this map were already assigned
+  private final Map<String, IcebergSourceSplit> pending = Maps.newLinkedHashMap();
+  private final PriorityQueue<IcebergSourceSplit> bySize = new PriorityQueue<>(LARGEST_FIRST);
+  private final Map<String, Deque<IcebergSourceSplit>> byHost = Maps.newHashMap();
+
+  private long pendingBytes = 0L;
+
+  void add(Collection<IcebergSourceSplit> splits) {
+    for (IcebergSourceSplit split : splits) {
+      if (pending.put(split.splitId(), split) == null) {
+        pendingBytes += split.sizeInBytes();
+      }
+
+      bySize.add(split);
+      for (String host : split.hosts()) {
+        byHost.computeIfAbsent(host, h -> new ArrayDeque<>()).add(split);
+      }
+    }
+  }
+
+  /**
+   * Returns the next split for a reader, or null if there are no pending splits.
+   *
+   * @param hostname the host of the requesting reader, or null if unknown
+   */
+  IcebergSourceSplit next(String hostname) {
+    if (hostname != null) {
+      Deque<IcebergSourceSplit> local = byHost.get(hostname);
+      IcebergSourceSplit split = local != null ? poll(local) : null;
+      if (local != null && local.isEmpty()) {
+        byHost.remove(hostname);
+      }
+
+      if (split != null) {
+        return split;
+      }
+    }
+
+    return poll(bySize);
+  }
+
+  int pendingCount() {
+    return pending.size();
+  }
+
+  long pendingBytes() {
+    return pendingBytes;
+  }
+
+  List<IcebergSourceSplit> pendingSplits() {
+    return Lists.newArrayList(pending.values());
+  }
+
+  private IcebergSourceSplit poll(Queue<IcebergSourceSplit> queue) {
+    IcebergSourceSplit split = queue.poll();
+    while (split != null) {
+      if (pending.get(split.splitId()) == split) {
+        pending.remove(split.splitId());
+        pendingBytes -= split.sizeInBytes();
+        return split;
+      }
+
+      // the split was already assigned from another queue or replaced by a split with the same id
+      split = queue.poll();
+    }
+
+    return null;
+  }
+}
@@ -0,0 +1,260 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iceberg.flink.source;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import org.apache.flink.api.connector.source.SourceEvent;
+import org.apache.flink.api.connector.source.SplitEnumerator;
+import org.apache.flink.api.connector.source.SplitEnumeratorContext;
+import org.apache.flink.api.connector.source.SplitsAssignment;
+import org.apache.flink.metrics.Gauge;
+import org.apache.flink.metrics.MetricGroup;
+import org.apache.iceberg.CombinedScanTask;
+import org.apache.iceberg.Snapshot;
+import org.apache.iceberg.Table;
+import org.apache.iceberg.flink.TableLoader;
+import org.apache.iceberg.hadoop.Util;
+import org.apache.iceberg.relocated.com.google.common.base.Preconditions;
+import org.apache.iceberg.relocated.com.google.common.collect.Lists;
+import org.apache.iceberg.relocated.com.google.common.collect.Maps;
+import org.apache.iceberg.util.SnapshotUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Plans the splits of an Iceberg table and assigns them to readers when they request a split.
+ * <p>
+ * In streaming mode, the enumerator periodically plans the snapshots committed after the last planned snapshot. At
+ * most {@link ScanContext#maxPlanningSnapshotCount()} snapshots are planned at a time so that a large backlog is
+ * planned in bounded chunks. Planning runs in a worker thread, and assignment happens in the coordinator thread.
+ */
+class IcebergSplitEnumerator implements SplitEnumerator<IcebergSourceSplit, IcebergEnumeratorState> {
+  private static final Logger LOG = LoggerFactory.getLogger(IcebergSplitEnumerator.class);
+
+  private final SplitEnumeratorContext<IcebergSourceSplit> context;
+  private final TableLoader tableLoader;
+  private final ScanContext scanContext;
+  private final IcebergSplitAssigner assigner = new IcebergSplitAssigner();
+
+  // readers that requested a split and their host names, in the order of their requests
+  private final Map<Integer, String> readersAwaitingSplit = Maps.newLinkedHashMap();
+
+  private Table table;
+
+  // only modified in the coordinator thread, but read by the planning thread
+  private volatile Long lastEnumeratedSnapshotId;
+  private boolean enumerationFinished;
+
+  IcebergSplitEnumerator(SplitEnumeratorContext<IcebergSourceSplit> context, TableLoader tableLoader,
+                         ScanContext scanContext, IcebergEnumeratorState state) {
+    this.context = context;
+    this.tableLoader = tableLoader;
+    this.scanContext = scanContext;
+
+    if (state != null) {
+      this.lastEnumeratedSnapshotId = state.lastEnumeratedSnapshotId();
+      this.enumerationFinished = state.enumerationFinished();
+      assigner.add(state.pendingSplits());
+    } else {
+      this.lastEnumeratedSnapshotId = scanContext.isStreaming() ? scanContext.startSnapshotId() : null;
+      this.enumerationFinished = false;
+    }
+  }
+
+  @Override
+  public void start() {
+    tableLoader.open();
+    this.table = tableLoader.loadTable();
+
+    if (scanContext.isStreaming() && lastEnumeratedSnapshotId != null) {
+      Preconditions.checkNotNull(table.currentSnapshot(), "Don't have any available snapshot in table.");
+      long currentSnapshotId = table.currentSnapshot().snapshotId();
+      Preconditions.checkState(SnapshotUtil.ancestorOf(table, currentSnapshotId, lastEnumeratedSnapshotId),
+          "The last enumerated snapshot %s is not an ancestor of the current snapshot.", lastEnumeratedSnapshotId);
+    }
+
+    registerMetrics(context.metricGroup());
+
+    if (scanContext.isStreaming()) {
+      long intervalMillis = scanContext.monitorInterval().toMillis();
+      context.callAsync(this::planSplits, this::handlePlannedSplits, 0L, intervalMillis);
+    } else if (!enumerationFinished) {
+      context.callAsync(this::planSplits, this::handlePlannedSplits);
+    }
+  }
+
+  @Override
+  public void handleSplitRequest(int subtaskId, String requesterHostname) {
+    readersAwaitingSplit.put(subtaskId, requesterHostname);
+    assignSplits();
+  }
+
+  @Override
+  public void addSplitsBack(List<IcebergSourceSplit> splits, int subtaskId) {
+    LOG.info("Adding {} splits back from failed reader {}", splits.size(), subtaskId);
+    assigner.add(splits);
+  }
+
+  @Override
+  public void addReader(int subtaskId) {
+    // readers request splits when they have capacity
+  }
+
+  @Override
+  public void handleSourceEvent(int subtaskId, SourceEvent sourceEvent) {
+    LOG.warn("Ignoring unknown source event from reader {}: {}", subtaskId, sourceEvent);
+  }
+
+  @Override
+  public IcebergEnumeratorState snapshotState() {
+    return new IcebergEnumeratorState(lastEnumeratedSnapshotId, enumerationFinished, assigner.pendingSplits());
+  }
+
+  @Override
+  public void close() throws IOException {
+    tableLoader.close();
+  }
+
+  private void registerMetrics(MetricGroup metrics) {
+    MetricGroup group = metrics.addGroup("IcebergSplitEnumerator");
+    group.gauge("pendingSplits", (Gauge<Integer>) assigner::pendingCount);
+    group.gauge("pendingBytes", (Gauge<Long>) assigner::pendingBytes);
+    group.gauge("awaitingReaders", (Gauge<Integer>) readersAwaitingSplit::size);
+  }
+
+  private void assignSplits() {
+    Iterator<Map.Entry<Integer, String>> awaiting = readersAwaitingSplit.entrySet().iterator();
+    while (awaiting.hasNext()) {
+      Map.Entry<Integer, String> reader = awaiting.next();
+      int subtaskId = reader.getKey();
+      if (!context.registeredReaders().containsKey(subtaskId)) {
+        // the reader failed after it requested a split
+        awaiting.remove();
+        continue;
+      }
+
+      IcebergSourceSplit split = assigner.next(reader.getValue());
+      if (split != null) {
+        LOG.debug("Assigning split {} to reader {}", split.splitId(), subtaskId);
+        context.assignSplits(new SplitsAssignment<>(
+            Collections.singletonMap(subtaskId, Collections.singletonList(split))));
+        awaiting.remove();
+      } else if (enumerationFinished) {
+        LOG.info("No more splits for reader {}", subtaskId);
+        context.signalNoMoreSplits(subtaskId);
+        awaiting.remove();
+      } else {
+        // wait for the next planning
+        break;
+      }
+    }
+  }
+
+  /**
+   * Plans splits in a worker thread; must not modify the state of the enumerator.
+   */
+  private PlanResult planSplits() {
+    Long fromSnapshotId = lastEnumeratedSnapshotId;
+
+    if (!scanContext.isStreaming()) {
+      List<IcebergSourceSplit> splits = toSplits("bounded", FlinkSplitGenerator.tasks(table, scanContext));
+      return new PlanResult(fromSnapshotId, fromSnapshotId, splits, true);
+    }
+
+    table.refresh();
+    Snapshot current = table.currentSnapshot();
+    if (current == null || Objects.equals(current.snapshotId(), fromSnapshotId)) {
+      return new PlanResult(fromSnapshotId, fromSnapshotId, Collections.emptyList(), false);
+    }
+
+    long toSnapshotId;
+    ScanContext planContext;
+    if (fromSnapshotId == null) {
+      toSnapshotId = current.snapshotId();
+      planContext = scanContext.copyWithSnapshotId(toSnapshotId);
+    } else {
+      // snapshot ids from the current snapshot back to, but excluding, the last planned snapshot
+      List<Long> snapshotIds = SnapshotUtil.snapshotIdsBetween(table, fromSnapshotId, current.snapshotId());
+      int maxSnapshots = scanContext.maxPlanningSnapshotCount();
+      toSnapshotId = snapshotIds.size() > maxSnapshots ?
+          snapshotIds.get(snapshotIds.size() - maxSnapshots) : current.snapshotId();
+      planContext = scanContext.copyWithAppendsBetween(fromSnapshotId, toSnapshotId);
+    }
+
+    List<IcebergSourceSplit> splits = toSplits(Long.toString(toSnapshotId),
+        FlinkSplitGenerator.tasks(table, planContext));
+    LOG.info("Planned {} splits for snapshots ({}, {}]", splits.size(), fromSnapshotId, toSnapshotId);
+
+    return new PlanResult(fromSnapshotId, toSnapshotId, splits, false);
+  }
+
+  private List<IcebergSourceSplit> toSplits(String prefix, List<CombinedScanTask> tasks) {
+    List<IcebergSourceSplit> splits = Lists.newArrayListWithCapacity(tasks.size());
+    for (int i = 0; i < tasks.size(); i += 1) {
+      CombinedScanTask task = tasks.get(i);
+      String[] hosts = scanContext.locality() ? Util.blockLocations(table.io(), task) : null;
+      splits.add(IcebergSourceSplit.of(prefix + "-" + i, task, hosts));
+    }
+
+    return splits;
+  }
+
+  private void handlePlannedSplits(PlanResult result, Throwable error) {
+    if (error != null) {
+      if (scanContext.isStreaming()) {
+        LOG.error("Failed to plan splits, will retry in {}", scanContext.monitorInterval(), error);
+        return;
+      } else {
+        throw new RuntimeException("Failed to plan splits for table " + table, error);
+      }
+    }
+
+    if (!Objects.equals(result.fromSnapshotId, lastEnumeratedSnapshotId)) {
+      // another planning finished first and this result overlaps with it
+      LOG.info("Discarding splits planned from stale snapshot {}", result.fromSnapshotId);
+      return;
+    }
+
+    assigner.add(result.splits);
+    this.lastEnumeratedSnapshotId = result.toSnapshotId;
+    this.enumerationFinished = result.finished;
+
+    assignSplits();
+  }
+
+  private static class PlanResult {
+    private final Long fromSnapshotId;
+    private final Long toSnapshotId;
+    private final List<IcebergSourceSplit> splits;
+    private final boolean finished;
+
+    private PlanResult(Long fromSnapshotId, Long toSnapshotId, List<IcebergSourceSplit> splits, boolean finished) {
+      this.fromSnapshotId = fromSnapshotId;
+      this.toSnapshotId = toSnapshotId;
+      this.splits = splits;
+      this.finished = finished;
+    }
+  }
+}
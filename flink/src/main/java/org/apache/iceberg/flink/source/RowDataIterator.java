@@ -19,8 +19,13 @@
 
 package org.apache.iceberg.flink.source;
 
+import java.util.Iterator;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import org.apache.flink.table.data.ColumnarRowData;
 import org.apache.flink.table.data.RowData;
+import org.apache.flink.table.data.vector.VectorizedColumnBatch;
 import org.apache.iceberg.CombinedScanTask;
 import org.apache.iceberg.FileScanTask;
 import org.apache.iceberg.MetadataColumns;
@@ -35,6 +40,8 @@ import org.apache.iceberg.flink.data.FlinkAvroReader;
 import org.apache.iceberg.flink.data.FlinkOrcReader;
 import org.apache.iceberg.flink.data.FlinkParquetReaders;
 import org.apache.iceberg.flink.data.RowDataUtil;
+import org.apache.iceberg.flink.data.vectorized.VectorizedFlinkOrcReaders;
+import org.apache.iceberg.flink.data.vectorized.VectorizedFlinkParquetReaders;
 import org.apache.iceberg.io.CloseableIterable;
 import org.apache.iceberg.io.CloseableIterator;
 import org.apache.iceberg.io.FileIO;
@@ -43,24 +50,44 @@ import org.apache.iceberg.mapping.NameMappingParser;
 import org.apache.iceberg.orc.ORC;
 import org.apache.iceberg.parquet.Parquet;
 import org.apache.iceberg.relocated.com.google.common.collect.ImmutableMap;
+import org.apache.iceberg.relocated.com.google.common.collect.ImmutableSet;
+import org.apache.iceberg.relocated.com.google.common.collect.Iterables;
 import org.apache.iceberg.relocated.com.google.common.collect.Sets;
+import org.apache.iceberg.types.Type;
 import org.apache.iceberg.types.TypeUtil;
+import org.apache.iceberg.types.Types;
 import org.apache.iceberg.util.PartitionUtil;
 
 class RowDataIterator extends DataIterator<RowData> {
 
+  // types that the vectorized readers can return as Flink's internal data structures
+  private static final Set<Type.TypeID> VECTORIZED_TYPES = ImmutableSet.of(
+      Type.TypeID.BOOLEAN, Type.TypeID.INTEGER, Type.TypeID.LONG, Type.TypeID.FLOAT, Type.TypeID.DOUBLE,
+      Type.TypeID.DATE, Type.TypeID.TIMESTAMP, Type.TypeID.STRING, Type.TypeID.FIXED, Type.TypeID.BINARY,
+      Type.TypeID.DECIMAL);
+
   private final Schema tableSchema;
   private final Schema projectedSchema;
   private final String nameMapping;
   private final boolean caseSensitive;
+  private final boolean vectorizedRead;
+  private final int batchSize;
 
   RowDataIterator(CombinedScanTask task, FileIO io, EncryptionManager encryption, Schema tableSchema,
                   Schema projectedSchema, String nameMapping, boolean caseSensitive) {
+    this(task, io, encryption, tableSchema, projectedSchema, nameMapping, caseSensitive, false, 0);
+  }
+
+  RowDataIterator(CombinedScanTask task, FileIO io, EncryptionManager encryption, Schema tableSchema,
+                  Schema projectedSchema, String nameMapping, boolean caseSensitive, boolean vectorizedRead,
+                  int batchSize) {
     super(task, io, encryption);
     this.tableSchema = tableSchema;
     this.projectedSchema = projectedSchema;
     this.nameMapping = nameMapping;
     this.caseSensitive = caseSensitive;
+    this.vectorizedRead = vectorizedRead;
+    this.batchSize = batchSize;
   }
 
   @Override
@@ -83,7 +110,11 @@ class RowDataIterator extends DataIterator<RowData> {
     } else {
       switch (task.file().format()) {
         case PARQUET:
-          iter = newParquetIterable(task, schema, idToConstant);
+          if (useBatchReads(schema)) {
+            iter = newVectorizedParquetIterable(task, schema, idToConstant);
+          } else {
+            iter = newParquetIterable(task, schema, idToConstant);
+          }
           break;
 
         case AVRO:
@@ -91,7 +122,11 @@ class RowDataIterator extends DataIterator<RowData> {
           break;
 
         case ORC:
-          iter = newOrcIterable(task, schema, idToConstant);
+          if (useBatchReads(schema)) {
+            iter = newVectorizedOrcIterable(task, schema, idToConstant);
+          } else {
+            iter = newOrcIterable(task, schema, idToConstant);
+          }
           break;
 
         default:
@@ -103,6 +138,26 @@ class RowDataIterator extends DataIterator<RowData> {
     return iter;
   }
 
+  /**
+   * Batch reads are only used for flat schemas, which includes the columns required to apply deletes.
+   */
+  private boolean useBatchReads(Schema schema) {
+    if (!vectorizedRead) {
+      return false;
+    }
+
+    for (Types.NestedField field : schema.columns()) {
+      boolean isMetadata = MetadataColumns.metadataFieldIds().contains(field.fieldId());
+      if (isMetadata && field.fieldId() != MetadataColumns.ROW_POSITION.fieldId()) {
+        return false;
+      } else if (!isMetadata && !VECTORIZED_TYPES.contains(field.type().typeId())) {
+        return false;
+      }
+    }
+
+    return true;
+  }
+
   private CloseableIterable<RowData> newAvroIterable(FileScanTask task, Schema schema, Map<Integer, ?> idToConstant) {
     Avro.ReadBuilder builder = Avro.read(getInputFile(task))
         .reuseContainers()
@@ -135,6 +190,25 @@ class RowDataIterator extends DataIterator<RowData> {
     return builder.build();
   }
 
+  private CloseableIterable<RowData> newVectorizedParquetIterable(FileScanTask task, Schema schema,
+                                                                  Map<Integer, ?> idToConstant) {
+    Parquet.ReadBuilder builder = Parquet.read(getInputFile(task))
+        .split(task.start(), task.length())
+        .project(schema)
+        .createBatchedReaderFunc(fileSchema ->
+            VectorizedFlinkParquetReaders.buildReader(schema, fileSchema, idToConstant))
+        .recordsPerBatch(batchSize)
+        .filter(task.residual())
+        .caseSensitive(caseSensitive)
+        .reuseContainers();
+
+    if (nameMapping != null) {
+      builder.withNameMapping(NameMappingParser.fromJson(nameMapping));
+    }
+
+    return rows(builder.build());
+  }
+
   private CloseableIterable<RowData> newOrcIterable(FileScanTask task, Schema schema, Map<Integer, ?> idToConstant) {
     Schema readSchemaWithoutConstantAndMetadataFields = TypeUtil.selectNot(schema,
         Sets.union(idToConstant.keySet(), MetadataColumns.metadataFieldIds()));
@@ -153,6 +227,67 @@ class RowDataIterator extends DataIterator<RowData> {
     return builder.build();
   }
 
+  private CloseableIterable<RowData> newVectorizedOrcIterable(FileScanTask task, Schema schema,
+                                                              Map<Integer, ?> idToConstant) {
+    Schema readSchemaWithoutConstantAndMetadataFields = TypeUtil.selectNot(schema,
+        Sets.union(idToConstant.keySet(), MetadataColumns.metadataFieldIds()));
+
+    ORC.ReadBuilder builder = ORC.read(getInputFile(task))
+        .project(readSchemaWithoutConstantAndMetadataFields)
+        .split(task.start(), task.length())
+        .createBatchedReaderFunc(readOrcSchema ->
+            VectorizedFlinkOrcReaders.buildReader(schema, readOrcSchema, idToConstant))
+        .recordsPerBatch(batchSize)
+        .filter(task.residual())
+        .caseSensitive(caseSensitive);
+
+    if (nameMapping != null) {
+      builder.withNameMapping(NameMappingParser.fromJson(nameMapping));
+    }
+
+    return rows(builder.build());
+  }
+
+  /**
+   * Returns the rows of each batch as a single {@link ColumnarRowData} that is moved from row to row, so rows are
+   * only valid until the next call to next, like rows of the row-based readers that reuse containers.
+   */
+  private static CloseableIterable<RowData> rows(CloseableIterable<VectorizedColumnBatch> batches) {
+    return CloseableIterable.combine(Iterables.concat(Iterables.transform(batches, ColumnarBatchRows::new)), batches);
+  }
+
+  private static class ColumnarBatchRows implements Iterable<RowData> {
+    private final VectorizedColumnBatch batch;
+
+    private ColumnarBatchRows(VectorizedColumnBatch batch) {
+      this.batch = batch;
+    }
+
+    @Override
+    public Iterator<RowData> iterator() {
+      ColumnarRowData row = new ColumnarRowData(batch);
+      return new Iterator<RowData>() {
+        private int rowId = 0;
+
+        @Override
+        public boolean hasNext() {
+          return rowId < batch.getNumRows();
+        }
+
+        @Override
+        public RowData next() {
+          if (!hasNext()) {
+            throw new NoSuchElementException();
+          }
+
+          row.setRowId(rowId);
+          rowId += 1;
+          return row;
+        }
+      };
+    }
+  }
+
   private class FlinkDeleteFilter extends DeleteFilter<RowData> {
     private final RowDataWrapper asStructLike;
 
@@ -28,6 +28,7 @@ import org.apache.flink.configuration.ConfigOptions;
 import org.apache.flink.configuration.Configuration;
 import org.apache.iceberg.Schema;
 import org.apache.iceberg.expressions.Expression;
+import org.apache.iceberg.flink.FlinkTableOptions;
 
 import static org.apache.iceberg.TableProperties.DEFAULT_NAME_MAPPING;
 
@@ -68,6 +69,19 @@ class ScanContext implements Serializable {
   private static final ConfigOption<Duration> MONITOR_INTERVAL =
       ConfigOptions.key("monitor-interval").durationType().defaultValue(Duration.ofSeconds(10));
 
+  private static final ConfigOption<Boolean> LOCALITY =
+      ConfigOptions.key("locality").booleanType().defaultValue(false);
+
+  // Bounds the splits planned at once when a streaming read starts far behind the current snapshot.
+  private static final ConfigOption<Integer> MAX_PLANNING_SNAPSHOT_COUNT =
+      ConfigOptions.key("max-planning-snapshot-count").intType().defaultValue(10);
+
+  private static final ConfigOption<Boolean> INCREMENTAL_MANIFEST_PLANNING =
+      ConfigOptions.key("incremental-manifest-planning").booleanType().defaultValue(false);
+
+  private static final ConfigOption<String> WATERMARK_COLUMN =
+      ConfigOptions.key("watermark-column").stringType().defaultValue(null);
+
   private final boolean caseSensitive;
   private final Long snapshotId;
   private final Long startSnapshotId;
@@ -78,6 +92,12 @@ class ScanContext implements Serializable {
   private final Long splitOpenFileCost;
   private final boolean isStreaming;
   private final Duration monitorInterval;
+  private final boolean locality;
+  private final int maxPlanningSnapshotCount;
+  private final boolean incrementalManifestPlanning;
+  private final String watermarkColumn;
+  private final boolean vectorizedRead;
+  private final int vectorizedBatchSize;
 
   private final String nameMapping;
   private final Schema schema;
@@ -86,8 +106,10 @@ class ScanContext implements Serializable {
 
   private ScanContext(boolean caseSensitive, Long snapshotId, Long startSnapshotId, Long endSnapshotId,
                       Long asOfTimestamp, Long splitSize, Integer splitLookback, Long splitOpenFileCost,
-                      boolean isStreaming, Duration monitorInterval, String nameMapping,
-                      Schema schema, List<Expression> filters, long limit) {
+                      boolean isStreaming, Duration monitorInterval, boolean locality, int maxPlanningSnapshotCount,
+                      boolean incrementalManifestPlanning, String watermarkColumn, boolean vectorizedRead,
+                      int vectorizedBatchSize, String nameMapping, Schema schema, List<Expression> filters,
+                      long limit) {
     this.caseSensitive = caseSensitive;
     this.snapshotId = snapshotId;
     this.startSnapshotId = startSnapshotId;
@@ -98,6 +120,12 @@ class ScanContext implements Serializable {
     this.splitOpenFileCost = splitOpenFileCost;
     this.isStreaming = isStreaming;
     this.monitorInterval = monitorInterval;
+    this.locality = locality;
+    this.maxPlanningSnapshotCount = maxPlanningSnapshotCount;
+    this.incrementalManifestPlanning = incrementalManifestPlanning;
+    this.watermarkColumn = watermarkColumn;
+    this.vectorizedRead = vectorizedRead;
+    this.vectorizedBatchSize = vectorizedBatchSize;
 
     this.nameMapping = nameMapping;
     this.schema = schema;
@@ -145,6 +173,30 @@ class ScanContext implements Serializable {
     return monitorInterval;
   }
 
+  boolean locality() {
+    return locality;
+  }
+
+  int maxPlanningSnapshotCount() {
+    return maxPlanningSnapshotCount;
+  }
+
+  boolean incrementalManifestPlanning() {
+    return incrementalManifestPlanning;
+  }
+
+  String watermarkColumn() {
+    return watermarkColumn;
+  }
+
+  boolean vectorizedRead() {
+    return vectorizedRead;
+  }
+
+  int vectorizedBatchSize() {
+    return vectorizedBatchSize;
+  }
+
   String nameMapping() {
     return nameMapping;
   }
@@ -173,6 +225,12 @@ class ScanContext implements Serializable {
         .splitOpenFileCost(splitOpenFileCost)
         .streaming(isStreaming)
         .monitorInterval(monitorInterval)
+        .locality(locality)
+        .maxPlanningSnapshotCount(maxPlanningSnapshotCount)
+        .incrementalManifestPlanning(incrementalManifestPlanning)
+        .watermarkColumn(watermarkColumn)
+        .vectorizedRead(vectorizedRead)
+        .vectorizedBatchSize(vectorizedBatchSize)
         .nameMapping(nameMapping)
         .project(schema)
         .filters(filters)
@@ -192,6 +250,12 @@ class ScanContext implements Serializable {
         .splitOpenFileCost(splitOpenFileCost)
         .streaming(isStreaming)
         .monitorInterval(monitorInterval)
+        .locality(locality)
+        .maxPlanningSnapshotCount(maxPlanningSnapshotCount)
+        .incrementalManifestPlanning(incrementalManifestPlanning)
+        .watermarkColumn(watermarkColumn)
+        .vectorizedRead(vectorizedRead)
+        .vectorizedBatchSize(vectorizedBatchSize)
         .nameMapping(nameMapping)
         .project(schema)
         .filters(filters)
@@ -214,6 +278,12 @@ class ScanContext implements Serializable {
     private Long splitOpenFileCost = SPLIT_FILE_OPEN_COST.defaultValue();
     private boolean isStreaming = STREAMING.defaultValue();
     private Duration monitorInterval = MONITOR_INTERVAL.defaultValue();
+    private boolean locality = LOCALITY.defaultValue();
+    private int maxPlanningSnapshotCount = MAX_PLANNING_SNAPSHOT_COUNT.defaultValue();
+    private boolean incrementalManifestPlanning = INCREMENTAL_MANIFEST_PLANNING.defaultValue();
+    private String watermarkColumn = WATERMARK_COLUMN.defaultValue();
+    private boolean vectorizedRead = FlinkTableOptions.TABLE_EXEC_ICEBERG_USE_VECTORIZED_READ.defaultValue();
+    private int vectorizedBatchSize = FlinkTableOptions.TABLE_EXEC_ICEBERG_VECTORIZED_READ_BATCH_SIZE.defaultValue();
     private String nameMapping;
     private Schema projectedSchema;
     private List<Expression> filters;
@@ -272,6 +342,36 @@ class ScanContext implements Serializable {
       return this;
     }
 
+    Builder locality(boolean newLocality) {
+      this.locality = newLocality;
+      return this;
+    }
+
+    Builder maxPlanningSnapshotCount(int newMaxPlanningSnapshotCount) {
+      this.maxPlanningSnapshotCount = newMaxPlanningSnapshotCount;
+      return this;
+    }
+
+    Builder incrementalManifestPlanning(boolean newIncrementalManifestPlanning) {
+      this.incrementalManifestPlanning = newIncrementalManifestPlanning;
+      return this;
+    }
+
+    Builder watermarkColumn(String newWatermarkColumn) {
+      this.watermarkColumn = newWatermarkColumn;
+      return this;
+    }
+
+    Builder vectorizedRead(boolean newVectorizedRead) {
+      this.vectorizedRead = newVectorizedRead;
+      return this;
+    }
+
+    Builder vectorizedBatchSize(int newVectorizedBatchSize) {
+      this.vectorizedBatchSize = newVectorizedBatchSize;
+      return this;
+    }
+
     Builder nameMapping(String newNameMapping) {
       this.nameMapping = newNameMapping;
       return this;
@@ -306,14 +406,19 @@ class ScanContext implements Serializable {
           .splitOpenFileCost(config.get(SPLIT_FILE_OPEN_COST))
           .streaming(config.get(STREAMING))
           .monitorInterval(config.get(MONITOR_INTERVAL))
+          .locality(config.get(LOCALITY))
+          .maxPlanningSnapshotCount(config.get(MAX_PLANNING_SNAPSHOT_COUNT))
+          .incrementalManifestPlanning(config.get(INCREMENTAL_MANIFEST_PLANNING))
+          .watermarkColumn(config.get(WATERMARK_COLUMN))
           .nameMapping(properties.get(DEFAULT_NAME_MAPPING));
     }
 
     public ScanContext build() {
       return new ScanContext(caseSensitive, snapshotId, startSnapshotId,
           endSnapshotId, asOfTimestamp, splitSize, splitLookback,
-          splitOpenFileCost, isStreaming, monitorInterval, nameMapping, projectedSchema,
-          filters, limit);
+          splitOpenFileCost, isStreaming, monitorInterval, locality, maxPlanningSnapshotCount,
+          incrementalManifestPlanning, watermarkColumn, vectorizedRead, vectorizedBatchSize, nameMapping,
+          projectedSchema, filters, limit);
     }
   }
 }
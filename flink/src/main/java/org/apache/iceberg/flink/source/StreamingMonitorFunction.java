@@ -21,17 +21,30 @@ package org.apache.iceberg.flink.source;
 
 import java.io.IOException;
 import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
 import org.apache.flink.api.common.state.ListState;
 import org.apache.flink.api.common.state.ListStateDescriptor;
 import org.apache.flink.api.common.typeutils.base.LongSerializer;
+import org.apache.flink.api.common.typeutils.base.StringSerializer;
+import org.apache.flink.configuration.Configuration;
+import org.apache.flink.metrics.Gauge;
+import org.apache.flink.metrics.MetricGroup;
 import org.apache.flink.runtime.state.FunctionInitializationContext;
 import org.apache.flink.runtime.state.FunctionSnapshotContext;
 import org.apache.flink.streaming.api.checkpoint.CheckpointedFunction;
 import org.apache.flink.streaming.api.functions.source.RichSourceFunction;
+import org.apache.iceberg.CombinedScanTask;
+import org.apache.iceberg.IncrementalAppendPlanner;
+import org.apache.iceberg.ManifestFile;
 import org.apache.iceberg.Snapshot;
 import org.apache.iceberg.Table;
+import org.apache.iceberg.expressions.Expression;
 import org.apache.iceberg.flink.TableLoader;
 import org.apache.iceberg.relocated.com.google.common.base.Preconditions;
+import org.apache.iceberg.relocated.com.google.common.collect.Lists;
+import org.apache.iceberg.relocated.com.google.common.collect.Sets;
 import org.apache.iceberg.util.SnapshotUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -48,6 +61,12 @@ import org.slf4j.LoggerFactory;
  *
  * <p>The splits to be read are forwarded to the downstream {@link StreamingReaderOperator}
  * which can have parallelism greater than one.
+ *
+ * <p>When incremental manifest planning is enabled, new snapshots are planned with an
+ * {@link IncrementalAppendPlanner}: only the manifests written by the new snapshots are opened, and the splits of
+ * each manifest are forwarded as soon as it is read. The checkpoint lock is only held while forwarding, and the
+ * manifests already forwarded for the snapshot being planned are checkpointed so that planning resumes where it
+ * stopped after a failure.
  */
 public class StreamingMonitorFunction extends RichSourceFunction<FlinkInputSplit> implements CheckpointedFunction {
 
@@ -64,9 +83,20 @@ public class StreamingMonitorFunction extends RichSourceFunction<FlinkInputSplit
   // mark this as volatile.
   private volatile long lastSnapshotId = INIT_LAST_SNAPSHOT_ID;
 
+  // The snapshot that incremental manifest planning is forwarding splits up to, and the manifests that have been
+  // forwarded for it. Both are only modified while holding the checkpoint lock.
+  private volatile long pendingSnapshotId = INIT_LAST_SNAPSHOT_ID;
+  private transient Set<String> forwardedManifests;
+
+  private volatile long snapshotLag = 0L;
+  private volatile long snapshotLagMillis = 0L;
+
   private transient SourceContext<FlinkInputSplit> sourceContext;
   private transient Table table;
+  private transient IncrementalAppendPlanner planner;
   private transient ListState<Long> lastSnapshotIdState;
+  private transient ListState<Long> pendingSnapshotIdState;
+  private transient ListState<String> forwardedManifestsState;
 
   public StreamingMonitorFunction(TableLoader tableLoader, ScanContext scanContext) {
     Preconditions.checkArgument(scanContext.snapshotId() == null,
@@ -84,6 +114,17 @@ public class StreamingMonitorFunction extends RichSourceFunction<FlinkInputSplit
     // Load iceberg table from table loader.
     tableLoader.open();
     table = tableLoader.loadTable();
+    planner = new IncrementalAppendPlanner(table).caseSensitive(scanContext.caseSensitive());
+    if (FlinkSplitGenerator.includeColumnStats(table, scanContext)) {
+      // The event time bounds and the cost-based weights of the splits are read from the column stats.
+      planner.includeColumnStats();
+    }
+
+    if (scanContext.filters() != null) {
+      for (Expression filter : scanContext.filters()) {
+        planner.filter(filter);
+      }
+    }
 
     // Initialize the flink state for last snapshot id.
     lastSnapshotIdState = context.getOperatorStateStore().getListState(
@@ -91,10 +132,29 @@ public class StreamingMonitorFunction extends RichSourceFunction<FlinkInputSplit
             "snapshot-id-state",
             LongSerializer.INSTANCE));
 
+    // Initialize the flink state for the snapshot and manifests of an unfinished incremental manifest planning.
+    pendingSnapshotIdState = context.getOperatorStateStore().getListState(
+        new ListStateDescriptor<>(
+            "pending-snapshot-id-state",
+            LongSerializer.INSTANCE));
+    forwardedManifestsState = context.getOperatorStateStore().getListState(
+        new ListStateDescriptor<>(
+            "forwarded-manifests-state",
+            StringSerializer.INSTANCE));
+    forwardedManifests = Sets.newHashSet();
+
     // Restore the last-snapshot-id from flink's state if possible.
     if (context.isRestored()) {
       LOG.info("Restoring state for the {}.", getClass().getSimpleName());
       lastSnapshotId = lastSnapshotIdState.get().iterator().next();
+
+      Iterator<Long> pendingSnapshotIds = pendingSnapshotIdState.get().iterator();
+      if (pendingSnapshotIds.hasNext()) {
+        pendingSnapshotId = pendingSnapshotIds.next();
+        forwardedManifestsState.get().forEach(forwardedManifests::add);
+        LOG.info("Resuming planning of snapshot {} with {} manifests already forwarded.",
+            pendingSnapshotId, forwardedManifests.size());
+      }
     } else if (scanContext.startSnapshotId() != null) {
       Preconditions.checkNotNull(table.currentSnapshot(), "Don't have any available snapshot in table.");
 
@@ -106,19 +166,39 @@ public class StreamingMonitorFunction extends RichSourceFunction<FlinkInputSplit
     }
   }
 
+  @Override
+  public void open(Configuration parameters) throws Exception {
+    super.open(parameters);
+
+    MetricGroup metrics = getRuntimeContext().getMetricGroup();
+    metrics.gauge("snapshotLag", (Gauge<Long>) () -> snapshotLag);
+    metrics.gauge("snapshotLagMillis", (Gauge<Long>) () -> snapshotLagMillis);
+  }
+
   @Override
   public void snapshotState(FunctionSnapshotContext context) throws Exception {
     lastSnapshotIdState.clear();
     lastSnapshotIdState.add(lastSnapshotId);
+
+    pendingSnapshotIdState.clear();
+    forwardedManifestsState.clear();
+    if (pendingSnapshotId != INIT_LAST_SNAPSHOT_ID) {
+      pendingSnapshotIdState.add(pendingSnapshotId);
+      forwardedManifestsState.addAll(Lists.newArrayList(forwardedManifests));
+    }
   }
 
   @Override
   public void run(SourceContext<FlinkInputSplit> ctx) throws Exception {
     this.sourceContext = ctx;
     while (isRunning) {
-      synchronized (sourceContext.getCheckpointLock()) {
-        if (isRunning) {
-          monitorAndForwardSplits();
+      if (scanContext.incrementalManifestPlanning() && lastSnapshotId != INIT_LAST_SNAPSHOT_ID) {
+        monitorAndForwardManifests();
+      } else {
+        synchronized (sourceContext.getCheckpointLock()) {
+          if (isRunning) {
+            monitorAndForwardSplits();
+          }
         }
       }
       Thread.sleep(scanContext.monitorInterval().toMillis());
@@ -130,6 +210,7 @@ public class StreamingMonitorFunction extends RichSourceFunction<FlinkInputSplit
     table.refresh();
 
     Snapshot snapshot = table.currentSnapshot();
+    updateLag(snapshot);
     if (snapshot != null && snapshot.snapshotId() != lastSnapshotId) {
       long snapshotId = snapshot.snapshotId();
 
@@ -146,6 +227,78 @@ public class StreamingMonitorFunction extends RichSourceFunction<FlinkInputSplit
       }
 
       lastSnapshotId = snapshotId;
+      updateLag(snapshot);
+    }
+  }
+
+  private void monitorAndForwardManifests() {
+    // Refresh the table outside of the checkpoint lock, only forwarding the splits needs to hold it.
+    table.refresh();
+
+    Snapshot snapshot = table.currentSnapshot();
+    updateLag(snapshot);
+
+    // Finish the snapshot that was being planned before a failure first, its forwarded manifests are known.
+    long toSnapshotId = pendingSnapshotId != INIT_LAST_SNAPSHOT_ID ? pendingSnapshotId :
+        (snapshot != null ? snapshot.snapshotId() : lastSnapshotId);
+    if (toSnapshotId == lastSnapshotId) {
+      return;
+    }
+
+    IncrementalAppendPlanner.Increment increment = planner.planAppendsBetween(lastSnapshotId, toSnapshotId);
+    synchronized (sourceContext.getCheckpointLock()) {
+      pendingSnapshotId = toSnapshotId;
+    }
+
+    int splitNumber = 0;
+    for (ManifestFile manifest : increment.manifests()) {
+      if (forwardedManifests.contains(manifest.path())) {
+        continue;
+      }
+
+      List<CombinedScanTask> tasks = FlinkSplitGenerator.tasks(table, scanContext, increment.planFiles(manifest));
+      synchronized (sourceContext.getCheckpointLock()) {
+        if (!isRunning) {
+          return;
+        }
+
+        for (CombinedScanTask task : tasks) {
+          sourceContext.collect(FlinkSplitGenerator.createInputSplit(table, splitNumber, task, scanContext));
+          splitNumber += 1;
+        }
+        forwardedManifests.add(manifest.path());
+      }
+    }
+
+    synchronized (sourceContext.getCheckpointLock()) {
+      lastSnapshotId = toSnapshotId;
+      pendingSnapshotId = INIT_LAST_SNAPSHOT_ID;
+      forwardedManifests.clear();
+    }
+
+    LOG.debug("Forwarded {} splits from {} manifests for {} snapshots ({}, {}].", splitNumber,
+        increment.manifests().size(), increment.snapshotCount(), increment.fromSnapshotId(), toSnapshotId);
+    updateLag(snapshot);
+  }
+
+  /**
+   * Updates how far the forwarded splits are behind the current snapshot, in snapshots and in commit time.
+   */
+  private void updateLag(Snapshot current) {
+    if (current == null || lastSnapshotId == INIT_LAST_SNAPSHOT_ID) {
+      return;
+    }
+
+    if (current.snapshotId() == lastSnapshotId) {
+      snapshotLag = 0L;
+      snapshotLagMillis = 0L;
+      return;
+    }
+
+    snapshotLag = SnapshotUtil.snapshotIdsBetween(table, lastSnapshotId, current.snapshotId()).size();
+    Snapshot last = table.snapshot(lastSnapshotId);
+    if (last != null) {
+      snapshotLagMillis = Math.max(0L, current.timestampMillis() - last.timestampMillis());
     }
   }
 
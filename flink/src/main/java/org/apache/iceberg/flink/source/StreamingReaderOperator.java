@@ -20,6 +20,8 @@
 package org.apache.iceberg.flink.source;
 
 import java.io.IOException;
+import java.util.Comparator;
+import java.util.PriorityQueue;
 import java.util.Queue;
 import org.apache.flink.api.common.state.ListState;
 import org.apache.flink.api.common.state.ListStateDescriptor;
@@ -53,6 +55,11 @@ import org.slf4j.LoggerFactory;
  * <p>As soon as a split descriptor is received, it is put in a queue, and use {@link MailboxExecutor}
  * read the actual data of the split. This architecture allows the separation of the reading thread from the one split
  * processing the checkpoint barriers, thus removing any potential back-pressure.
+ *
+ * <p>If the read has a watermark column, the queued splits are read in the order of the lowest event time of their
+ * data files instead of their arrival order, every row gets its event time as timestamp, and before reading a split
+ * the operator emits a watermark just below the split's lowest event time, which is the lowest event time of all
+ * pending splits. Rows of splits that arrive later with older event times may be late.
  */
 public class StreamingReaderOperator extends AbstractStreamOperator<RowData>
     implements OneInputStreamOperator<FlinkInputSplit, RowData> {
@@ -63,6 +70,7 @@ public class StreamingReaderOperator extends AbstractStreamOperator<RowData>
   // one split for future reading, so that a new checkpoint could be triggered without blocking long time for exhausting
   // all scheduled splits.
   private final MailboxExecutor executor;
+  private final EventTimeExtractor eventTime;
   private FlinkInputFormat format;
 
   private transient SourceFunction.SourceContext<RowData> sourceContext;
@@ -76,9 +84,13 @@ public class StreamingReaderOperator extends AbstractStreamOperator<RowData>
   // When there are no more files to read, this will be set to IDLE.
   private transient SplitState currentSplitState;
 
-  private StreamingReaderOperator(FlinkInputFormat format, ProcessingTimeService timeService,
-                                  MailboxExecutor mailboxExecutor) {
+  // The last emitted watermark, watermarks are only emitted when the read has a watermark column.
+  private transient long currentWatermark;
+
+  private StreamingReaderOperator(FlinkInputFormat format, EventTimeExtractor eventTime,
+                                  ProcessingTimeService timeService, MailboxExecutor mailboxExecutor) {
     this.format = Preconditions.checkNotNull(format, "The InputFormat should not be null.");
+    this.eventTime = eventTime;
     this.processingTimeService = timeService;
     this.executor = Preconditions.checkNotNull(mailboxExecutor, "The mailboxExecutor should not be null.");
   }
@@ -96,7 +108,13 @@ public class StreamingReaderOperator extends AbstractStreamOperator<RowData>
     currentSplitState = SplitState.IDLE;
 
     // Recover splits state from flink state backend if possible.
-    splits = Lists.newLinkedList();
+    if (eventTime != null) {
+      splits = new PriorityQueue<>(Comparator.comparingLong(FlinkInputSplit::minEventTime));
+    } else {
+      splits = Lists.newLinkedList();
+    }
+
+    currentWatermark = Long.MIN_VALUE;
     if (context.isRestored()) {
       int subtaskIdx = getRuntimeContext().getIndexOfThisSubtask();
       LOG.info("Restoring state for the {} (taskIdx: {}).", getClass().getSimpleName(), subtaskIdx);
@@ -147,12 +165,19 @@ public class StreamingReaderOperator extends AbstractStreamOperator<RowData>
       return;
     }
 
+    // The polled split has the lowest event time of all pending splits.
+    if (eventTime != null && split.minEventTime() != EventTimeExtractor.UNKNOWN_MIN &&
+        split.minEventTime() - 1 > currentWatermark) {
+      currentWatermark = split.minEventTime() - 1;
+      sourceContext.emitWatermark(new Watermark(currentWatermark));
+    }
+
     format.open(split);
     try {
       RowData nextElement = null;
       while (!format.reachedEnd()) {
         nextElement = format.nextRecord(nextElement);
-        sourceContext.collect(nextElement);
+        collect(nextElement);
       }
     } finally {
       currentSplitState = SplitState.IDLE;
@@ -163,6 +188,15 @@ public class StreamingReaderOperator extends AbstractStreamOperator<RowData>
     enqueueProcessSplits();
   }
 
+  private void collect(RowData row) {
+    Long timestamp = eventTime != null ? eventTime.extract(row) : null;
+    if (timestamp != null) {
+      sourceContext.collectWithTimestamp(row, timestamp);
+    } else {
+      sourceContext.collect(row);
+    }
+  }
+
   @Override
   public void processWatermark(Watermark mark) {
     // we do nothing because we emit our own watermarks if needed.
@@ -193,7 +227,12 @@ public class StreamingReaderOperator extends AbstractStreamOperator<RowData>
   }
 
   static OneInputStreamOperatorFactory<FlinkInputSplit, RowData> factory(FlinkInputFormat format) {
-    return new OperatorFactory(format);
+    return factory(format, null);
+  }
+
+  static OneInputStreamOperatorFactory<FlinkInputSplit, RowData> factory(FlinkInputFormat format,
+                                                                         EventTimeExtractor eventTime) {
+    return new OperatorFactory(format, eventTime);
   }
 
   private enum SplitState {
@@ -204,11 +243,13 @@ public class StreamingReaderOperator extends AbstractStreamOperator<RowData>
       implements YieldingOperatorFactory<RowData>, OneInputStreamOperatorFactory<FlinkInputSplit, RowData> {
 
     private final FlinkInputFormat format;
+    private final EventTimeExtractor eventTime;
 
     private transient MailboxExecutor mailboxExecutor;
 
-    private OperatorFactory(FlinkInputFormat format) {
+    private OperatorFactory(FlinkInputFormat format, EventTimeExtractor eventTime) {
       this.format = format;
+      this.eventTime = eventTime;
     }
 
     @Override
@@ -219,7 +260,8 @@ public class StreamingReaderOperator extends AbstractStreamOperator<RowData>
     @SuppressWarnings("unchecked")
     @Override
     public <O extends StreamOperator<RowData>> O createStreamOperator(StreamOperatorParameters<RowData> parameters) {
-      StreamingReaderOperator operator = new StreamingReaderOperator(format, processingTimeService, mailboxExecutor);
+      StreamingReaderOperator operator = new StreamingReaderOperator(format, eventTime, processingTimeService,
+          mailboxExecutor);
       operator.setup(parameters.getContainingTask(), parameters.getStreamConfig(), parameters.getOutput());
       return (O) operator;
     }
@@ -25,6 +25,7 @@ import java.io.IOException;
 import java.util.List;
 import java.util.stream.Collectors;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.iceberg.AssertHelpers;
 import org.apache.iceberg.ContentFile;
 import org.apache.iceberg.DataFile;
 import org.apache.iceberg.DataFiles;
@@ -32,6 +33,7 @@ import org.apache.iceberg.FileFormat;
 import org.apache.iceberg.FileScanTask;
 import org.apache.iceberg.Files;
 import org.apache.iceberg.Schema;
+import org.apache.iceberg.SortOrder;
 import org.apache.iceberg.Table;
 import org.apache.iceberg.actions.RewriteDataFilesActionResult;
 import org.apache.iceberg.catalog.Namespace;
@@ -124,6 +126,18 @@ public class TestRewriteDataFilesAction extends FlinkCatalogTestBase {
   }
 
 
+  @Test
+  public void testSortedRewritesNotSupported() {
+    AssertHelpers.assertThrows("Should reject sorted rewrites",
+        IllegalArgumentException.class, "sorted rewrites are not supported",
+        () -> Actions.forTable(icebergTableUnPartitioned).rewriteDataFiles().sort(
+            SortOrder.builderFor(icebergTableUnPartitioned.schema()).asc("id").build()));
+
+    AssertHelpers.assertThrows("Should reject z-order rewrites",
+        IllegalArgumentException.class, "sorted rewrites are not supported",
+        () -> Actions.forTable(icebergTableUnPartitioned).rewriteDataFiles().zOrder("id", "data"));
+  }
+
   @Test
   public void testRewriteDataFilesUnpartitionedTable() throws Exception {
     sql("INSERT INTO %s SELECT 1, 'hello'", TABLE_NAME_UNPARTITIONED);
@@ -0,0 +1,199 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iceberg.flink.data.vectorized;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import org.apache.flink.table.data.ColumnarRowData;
+import org.apache.flink.table.data.RowData;
+import org.apache.flink.table.data.StringData;
+import org.apache.flink.table.data.vector.VectorizedColumnBatch;
+import org.apache.flink.table.types.logical.LogicalType;
+import org.apache.flink.table.types.logical.RowType;
+import org.apache.iceberg.FileFormat;
+import org.apache.iceberg.Files;
+import org.apache.iceberg.Schema;
+import org.apache.iceberg.data.RandomGenericData;
+import org.apache.iceberg.data.Record;
+import org.apache.iceberg.data.orc.GenericOrcWriter;
+import org.apache.iceberg.data.parquet.GenericParquetWriter;
+import org.apache.iceberg.flink.FlinkSchemaUtil;
+import org.apache.iceberg.flink.TestHelpers;
+import org.apache.iceberg.io.CloseableIterable;
+import org.apache.iceberg.io.FileAppender;
+import org.apache.iceberg.orc.ORC;
+import org.apache.iceberg.parquet.Parquet;
+import org.apache.iceberg.relocated.com.google.common.collect.ImmutableMap;
+import org.apache.iceberg.relocated.com.google.common.collect.Lists;
+import org.apache.iceberg.types.TypeUtil;
+import org.apache.iceberg.types.Types;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import static org.apache.iceberg.types.Types.NestedField.optional;
+import static org.apache.iceberg.types.Types.NestedField.required;
+
+@RunWith(Parameterized.class)
+public class TestVectorizedFlinkReaders {
+  private static final int NUM_RECORDS = 1000;
+  private static final int BATCH_SIZE = 64;
+
+  private static final Schema SCHEMA = new Schema(
+      required(1, "id", Types.LongType.get()),
+      optional(2, "int", Types.IntegerType.get()),
+      optional(3, "bool", Types.BooleanType.get()),
+      optional(4, "float", Types.FloatType.get()),
+      optional(5, "double", Types.DoubleType.get()),
+      optional(6, "date", Types.DateType.get()),
+      optional(7, "ts", Types.TimestampType.withoutZone()),
+      optional(8, "tstz", Types.TimestampType.withZone()),
+      optional(9, "str", Types.StringType.get()),
+      optional(10, "bin", Types.BinaryType.get()),
+      optional(11, "fixed", Types.FixedType.ofLength(7)),
+      optional(12, "dec_9_2", Types.DecimalType.of(9, 2)),
+      optional(13, "dec_18_4", Types.DecimalType.of(18, 4)),
+      optional(14, "dec_38_10", Types.DecimalType.of(38, 10)));
+
+  @Parameterized.Parameters(name = "format = {0}")
+  public static Object[] parameters() {
+    return new Object[] { "parquet", "orc" };
+  }
+
+  @Rule
+  public TemporaryFolder temp = new TemporaryFolder();
+
+  private final FileFormat format;
+
+  public TestVectorizedFlinkReaders(String format) {
+    this.format = FileFormat.valueOf(format.toUpperCase());
+  }
+
+  @Test
+  public void testRandomData() throws IOException {
+    writeAndValidate(RandomGenericData.generate(SCHEMA, NUM_RECORDS, 19981));
+  }
+
+  @Test
+  public void testDictionaryEncodedData() throws IOException {
+    writeAndValidate(RandomGenericData.generateDictionaryEncodableRecords(SCHEMA, NUM_RECORDS, 21124));
+  }
+
+  @Test
+  public void testDictionaryFallbackData() throws IOException {
+    writeAndValidate(RandomGenericData.generateFallbackRecords(SCHEMA, NUM_RECORDS, 21124, NUM_RECORDS / 20));
+  }
+
+  @Test
+  public void testConstantColumns() throws IOException {
+    List<Record> records = RandomGenericData.generate(SCHEMA, NUM_RECORDS, 3434);
+    File testFile = write(records);
+
+    Schema projected = TypeUtil.join(SCHEMA.select("id"), new Schema(
+        optional(100, "part", Types.StringType.get()),
+        optional(101, "missing", Types.LongType.get())));
+    Map<Integer, ?> idToConstant = ImmutableMap.of(100, StringData.fromString("p"));
+
+    List<RowData> rows = read(testFile, projected, idToConstant);
+    Assert.assertEquals("Should read all rows", NUM_RECORDS, rows.size());
+    for (int i = 0; i < NUM_RECORDS; i += 1) {
+      RowData row = rows.get(i);
+      Assert.assertEquals("Should read the id", records.get(i).getField("id"), row.getLong(0));
+      Assert.assertEquals("Should return the constant", "p", row.getString(1).toString());
+      Assert.assertTrue("Should return null for a missing column", row.isNullAt(2));
+    }
+  }
+
+  private void writeAndValidate(Iterable<Record> records) throws IOException {
+    File testFile = write(records);
+    List<RowData> rows = read(testFile, SCHEMA, ImmutableMap.of());
+
+    Iterator<Record> expected = records.iterator();
+    LogicalType rowType = FlinkSchemaUtil.convert(SCHEMA);
+    for (RowData row : rows) {
+      Assert.assertTrue("Should not have extra rows", expected.hasNext());
+      TestHelpers.assertRowData(SCHEMA.asStruct(), rowType, expected.next(), row);
+    }
+    Assert.assertFalse("Should have expected number of rows", expected.hasNext());
+  }
+
+  private File write(Iterable<Record> records) throws IOException {
+    File testFile = temp.newFile();
+    Assert.assertTrue("Delete should succeed", testFile.delete());
+
+    FileAppender<Record> writer;
+    if (format == FileFormat.PARQUET) {
+      writer = Parquet.write(Files.localOutput(testFile))
+          .schema(SCHEMA)
+          .createWriterFunc(GenericParquetWriter::buildWriter)
+          .build();
+    } else {
+      writer = ORC.write(Files.localOutput(testFile))
+          .schema(SCHEMA)
+          .createWriterFunc(GenericOrcWriter::buildWriter)
+          .build();
+    }
+
+    try (FileAppender<Record> appender = writer) {
+      appender.addAll(records);
+    }
+
+    return testFile;
+  }
+
+  private List<RowData> read(File testFile, Schema schema, Map<Integer, ?> idToConstant) throws IOException {
+    CloseableIterable<VectorizedColumnBatch> batches;
+    if (format == FileFormat.PARQUET) {
+      batches = Parquet.read(Files.localInput(testFile))
+          .project(schema)
+          .createBatchedReaderFunc(type -> VectorizedFlinkParquetReaders.buildReader(schema, type, idToConstant))
+          .recordsPerBatch(BATCH_SIZE)
+          .build();
+    } else {
+      batches = ORC.read(Files.localInput(testFile))
+          .project(TypeUtil.selectNot(schema, idToConstant.keySet()))
+          .createBatchedReaderFunc(type -> VectorizedFlinkOrcReaders.buildReader(schema, type, idToConstant))
+          .recordsPerBatch(BATCH_SIZE)
+          .build();
+    }
+
+    // copy the rows because vectors may be reused by the next batch
+    RowType rowType = FlinkSchemaUtil.convert(schema);
+    List<RowData> rows = Lists.newArrayList();
+    try (CloseableIterable<VectorizedColumnBatch> closeable = batches) {
+      for (VectorizedColumnBatch batch : closeable) {
+        Assert.assertTrue("Should not exceed the batch size", batch.getNumRows() <= BATCH_SIZE);
+        ColumnarRowData row = new ColumnarRowData(batch);
+        for (int rowId = 0; rowId < batch.getNumRows(); rowId += 1) {
+          row.setRowId(rowId);
+          rows.add(TestHelpers.copyRowData(row, rowType));
+        }
+      }
+    }
+
+    return rows;
+  }
+}
@@ -37,7 +37,6 @@ import org.apache.flink.table.data.RowData;
 import org.apache.flink.table.data.util.DataFormatConverters;
 import org.apache.flink.test.util.MiniClusterWithClientResource;
 import org.apache.flink.types.Row;
-import org.apache.iceberg.AssertHelpers;
 import org.apache.iceberg.DistributionMode;
 import org.apache.iceberg.FileFormat;
 import org.apache.iceberg.Table;
@@ -216,17 +215,24 @@ public class TestFlinkIcebergSink {
   }
 
   @Test
-  public void testJobHashDistributionMode() {
+  public void testJobRangeDistributionMode() throws Exception {
     table.updateProperties()
         .set(TableProperties.WRITE_DISTRIBUTION_MODE, DistributionMode.HASH.modeName())
         .commit();
 
-    AssertHelpers.assertThrows("Does not support range distribution-mode now.",
-        IllegalArgumentException.class, "Flink does not support 'range' write distribution mode now.",
-        () -> {
-          testWriteRow(null, DistributionMode.RANGE);
-          return null;
-        });
+    testWriteRow(null, DistributionMode.RANGE);
+  }
+
+  @Test
+  public void testTableRangeDistributionModeWithSortOrder() throws Exception {
+    table.updateProperties()
+        .set(TableProperties.WRITE_DISTRIBUTION_MODE, DistributionMode.RANGE.modeName())
+        .commit();
+    table.replaceSortOrder()
+        .asc("id")
+        .commit();
+
+    testWriteRow(null, null);
   }
 
   @Test
@@ -32,6 +32,7 @@ import org.apache.flink.streaming.api.environment.StreamExecutionEnvironment;
 import org.apache.flink.test.util.MiniClusterWithClientResource;
 import org.apache.flink.types.Row;
 import org.apache.flink.types.RowKind;
+import org.apache.iceberg.AssertHelpers;
 import org.apache.iceberg.FileFormat;
 import org.apache.iceberg.PartitionSpec;
 import org.apache.iceberg.Snapshot;
@@ -322,6 +323,22 @@ public class TestFlinkIcebergSinkV2 extends TableTestBase {
         elementsPerCheckpoint, expectedRecords);
   }
 
+  @Test
+  public void testKeyedUpsertWithCompaction() {
+    DataStream<Row> dataStream = env.addSource(new BoundedTestSource<>(ImmutableList.<List<Row>>of()), ROW_TYPE_INFO);
+
+    AssertHelpers.assertThrows("Should not compact the data files referenced by the keyed state",
+        IllegalArgumentException.class, "Cannot compact small files when writing with keyed upsert",
+        () -> FlinkSink.forRow(dataStream, SimpleDataUtil.FLINK_SCHEMA)
+            .tableLoader(tableLoader)
+            .tableSchema(SimpleDataUtil.FLINK_SCHEMA)
+            .writeParallelism(parallelism)
+            .equalityFieldColumns(ImmutableList.of("id", "data"))
+            .keyedUpsert(true)
+            .compactSmallFiles(1024L)
+            .build());
+  }
+
   private StructLikeSet expectedRowSet(Record... records) {
     return SimpleDataUtil.expectedRowSet(table, records);
   }
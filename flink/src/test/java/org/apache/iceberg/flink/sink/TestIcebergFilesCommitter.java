@@ -764,6 +764,81 @@ public class TestIcebergFilesCommitter extends TableTestBase {
     }
   }
 
+  @Test
+  public void testAsyncCommit() throws Exception {
+    long timestamp = 0;
+
+    JobID jobId = new JobID();
+    try (OneInputStreamOperatorTestHarness<WriteResult, Void> harness = createStreamSink(jobId, true)) {
+      harness.setup();
+      harness.open();
+      IcebergFilesCommitter committer = (IcebergFilesCommitter) harness.getOneInputOperator();
+
+      List<RowData> rows = Lists.newArrayList();
+      for (int i = 1; i <= 3; i++) {
+        RowData rowData = SimpleDataUtil.createRowData(i, "hello" + i);
+        DataFile dataFile = writeDataFile("data-" + i, ImmutableList.of(rowData));
+        harness.processElement(of(dataFile), ++timestamp);
+        rows.add(rowData);
+
+        harness.snapshot(i, ++timestamp);
+        harness.notifyOfCompletedCheckpoint(i);
+      }
+
+      committer.waitForCommits();
+      assertFlinkManifests(0);
+      SimpleDataUtil.assertTableRows(table, ImmutableList.copyOf(rows));
+      assertMaxCommittedCheckpointId(jobId, 3);
+
+      // A late notification of an older checkpoint doesn't commit again.
+      harness.notifyOfCompletedCheckpoint(2);
+      committer.waitForCommits();
+      assertSnapshotSize(3);
+    }
+  }
+
+  @Test
+  public void testAsyncCommitRecovery() throws Exception {
+    long checkpointId = 0;
+    long timestamp = 0;
+    OperatorSubtaskState snapshot;
+
+    List<RowData> expectedRows = Lists.newArrayList();
+    JobID jobId = new JobID();
+    try (OneInputStreamOperatorTestHarness<WriteResult, Void> harness = createStreamSink(jobId, true)) {
+      harness.setup();
+      harness.open();
+      IcebergFilesCommitter committer = (IcebergFilesCommitter) harness.getOneInputOperator();
+
+      RowData row1 = SimpleDataUtil.createRowData(1, "hello");
+      expectedRows.add(row1);
+      harness.processElement(of(writeDataFile("data-1", ImmutableList.of(row1))), ++timestamp);
+      harness.snapshot(++checkpointId, ++timestamp);
+      harness.notifyOfCompletedCheckpoint(checkpointId);
+
+      // The snapshot of the next checkpoint may be taken before or after the commit of the previous one finished.
+      RowData row2 = SimpleDataUtil.createRowData(2, "world");
+      expectedRows.add(row2);
+      harness.processElement(of(writeDataFile("data-2", ImmutableList.of(row2))), ++timestamp);
+      snapshot = harness.snapshot(++checkpointId, ++timestamp);
+
+      committer.waitForCommits();
+      SimpleDataUtil.assertTableRows(table, ImmutableList.of(row1));
+      assertMaxCommittedCheckpointId(jobId, 1);
+    }
+
+    try (OneInputStreamOperatorTestHarness<WriteResult, Void> harness = createStreamSink(jobId, true)) {
+      harness.setup();
+      harness.initializeState(snapshot);
+      harness.open();
+
+      // The restored checkpoint is committed once, the already committed one is skipped.
+      SimpleDataUtil.assertTableRows(table, expectedRows);
+      assertSnapshotSize(2);
+      assertMaxCommittedCheckpointId(jobId, checkpointId);
+    }
+  }
+
   private DeleteFile writeEqDeleteFile(FileAppenderFactory<RowData> appenderFactory,
                                        String filename, List<RowData> deletes) throws IOException {
     return SimpleDataUtil.writeEqDeleteFile(table, FileFormat.PARQUET, tablePath, filename, appenderFactory, deletes);
@@ -817,7 +892,12 @@ public class TestIcebergFilesCommitter extends TableTestBase {
 
   private OneInputStreamOperatorTestHarness<WriteResult, Void> createStreamSink(JobID jobID)
       throws Exception {
-    TestOperatorFactory factory = TestOperatorFactory.of(tablePath);
+    return createStreamSink(jobID, false);
+  }
+
+  private OneInputStreamOperatorTestHarness<WriteResult, Void> createStreamSink(JobID jobID, boolean asyncCommit)
+      throws Exception {
+    TestOperatorFactory factory = TestOperatorFactory.of(tablePath, asyncCommit);
     return new OneInputStreamOperatorTestHarness<>(factory, createEnvironment(jobID));
   }
 
@@ -837,19 +917,21 @@ public class TestIcebergFilesCommitter extends TableTestBase {
   private static class TestOperatorFactory extends AbstractStreamOperatorFactory<Void>
       implements OneInputStreamOperatorFactory<WriteResult, Void> {
     private final String tablePath;
+    private final boolean asyncCommit;
 
-    private TestOperatorFactory(String tablePath) {
+    private TestOperatorFactory(String tablePath, boolean asyncCommit) {
       this.tablePath = tablePath;
+      this.asyncCommit = asyncCommit;
     }
 
-    private static TestOperatorFactory of(String tablePath) {
-      return new TestOperatorFactory(tablePath);
+    private static TestOperatorFactory of(String tablePath, boolean asyncCommit) {
+      return new TestOperatorFactory(tablePath, asyncCommit);
     }
 
     @Override
     @SuppressWarnings("unchecked")
     public <T extends StreamOperator<Void>> T createStreamOperator(StreamOperatorParameters<Void> param) {
-      IcebergFilesCommitter committer = new IcebergFilesCommitter(new TestTableLoader(tablePath), false);
+      IcebergFilesCommitter committer = new IcebergFilesCommitter(new TestTableLoader(tablePath), false, asyncCommit);
       committer.setup(param.getContainingTask(), param.getStreamConfig(), param.getOutput());
       return (T) committer;
     }
@@ -0,0 +1,241 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iceberg.flink.sink;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import org.apache.flink.runtime.checkpoint.OperatorSubtaskState;
+import org.apache.flink.streaming.util.OneInputStreamOperatorTestHarness;
+import org.apache.flink.table.data.RowData;
+import org.apache.iceberg.AppendFiles;
+import org.apache.iceberg.FileFormat;
+import org.apache.iceberg.FileScanTask;
+import org.apache.iceberg.Table;
+import org.apache.iceberg.TableProperties;
+import org.apache.iceberg.data.Record;
+import org.apache.iceberg.flink.SimpleDataUtil;
+import org.apache.iceberg.flink.TableLoader;
+import org.apache.iceberg.io.CloseableIterable;
+import org.apache.iceberg.io.WriteResult;
+import org.apache.iceberg.relocated.com.google.common.collect.ImmutableMap;
+import org.apache.iceberg.relocated.com.google.common.collect.Iterables;
+import org.apache.iceberg.relocated.com.google.common.collect.Lists;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+@RunWith(Parameterized.class)
+public class TestIcebergFilesCompactor {
+  private static final long SMALL_FILE_SIZE = 1024 * 1024L;
+
+  @Rule
+  public TemporaryFolder tempFolder = new TemporaryFolder();
+
+  private String tablePath;
+  private Table table;
+
+  private final FileFormat format;
+  private final boolean partitioned;
+
+  @Parameterized.Parameters(name = "format = {0}, partitioned = {1}")
+  public static Object[][] parameters() {
+    return new Object[][] {
+        {"avro", true},
+        {"avro", false},
+        {"orc", true},
+        {"orc", false},
+        {"parquet", true},
+        {"parquet", false}
+    };
+  }
+
+  public TestIcebergFilesCompactor(String format, boolean partitioned) {
+    this.format = FileFormat.valueOf(format.toUpperCase(Locale.ENGLISH));
+    this.partitioned = partitioned;
+  }
+
+  @Before
+  public void before() throws IOException {
+    File folder = tempFolder.newFolder();
+    tablePath = folder.getAbsolutePath();
+
+    // Construct the iceberg table.
+    Map<String, String> props = ImmutableMap.of(TableProperties.DEFAULT_FILE_FORMAT, format.name());
+    table = SimpleDataUtil.createTable(tablePath, props, partitioned);
+  }
+
+  @Test
+  public void testCompactCommittedSmallFiles() throws Exception {
+    try (OneInputStreamOperatorTestHarness<Void, Void> harness = createFilesCompactor(null)) {
+      List<Record> expected = Lists.newArrayList();
+      for (int checkpoint = 0; checkpoint < 3; checkpoint += 1) {
+        commit(write(
+            SimpleDataUtil.createRowData(checkpoint, "hello"),
+            SimpleDataUtil.createRowData(checkpoint + 10, "world")));
+        expected.add(SimpleDataUtil.createRecord(checkpoint, "hello"));
+        expected.add(SimpleDataUtil.createRecord(checkpoint + 10, "world"));
+      }
+
+      Assert.assertEquals("Should commit one file per partition and checkpoint", partitioned ? 6 : 3, dataFileCount());
+
+      compactor(harness).compact();
+      Assert.assertEquals("Should compact the files of each partition", partitioned ? 2 : 1, dataFileCount());
+      SimpleDataUtil.assertTableRecords(tablePath, expected);
+
+      // The compacted files are not compacted again.
+      long snapshotId = table.currentSnapshot().snapshotId();
+      compactor(harness).compact();
+      table.refresh();
+      Assert.assertEquals("Should not commit another compaction", snapshotId, table.currentSnapshot().snapshotId());
+    }
+  }
+
+  @Test
+  public void testSkipFilesCommittedBeforeStart() throws Exception {
+    commit(write(SimpleDataUtil.createRowData(1, "hello")));
+    commit(write(SimpleDataUtil.createRowData(2, "hello")));
+
+    try (OneInputStreamOperatorTestHarness<Void, Void> harness = createFilesCompactor(null)) {
+      commit(write(SimpleDataUtil.createRowData(3, "hello")));
+
+      compactor(harness).compact();
+      Assert.assertEquals("Should not compact the files committed before the job started", 3, dataFileCount());
+    }
+  }
+
+  @Test
+  public void testSkipLargeFiles() throws Exception {
+    try (OneInputStreamOperatorTestHarness<Void, Void> harness = createFilesCompactor(null, 1L)) {
+      commit(write(SimpleDataUtil.createRowData(1, "hello")));
+      commit(write(SimpleDataUtil.createRowData(2, "hello")));
+
+      compactor(harness).compact();
+      Assert.assertEquals("Should not compact files larger than the small file size", 2, dataFileCount());
+    }
+  }
+
+  @Test
+  public void testRestoreCollectedSmallFiles() throws Exception {
+    OperatorSubtaskState state;
+    try (OneInputStreamOperatorTestHarness<Void, Void> harness = createFilesCompactor(null)) {
+      commit(write(SimpleDataUtil.createRowData(1, "hello")));
+
+      // A single small file is not enough to compact.
+      compactor(harness).compact();
+      Assert.assertEquals("Should not compact a single file", 1, dataFileCount());
+
+      state = harness.snapshot(1, 1L);
+    }
+
+    try (OneInputStreamOperatorTestHarness<Void, Void> harness = createFilesCompactor(state)) {
+      commit(write(SimpleDataUtil.createRowData(2, "hello")));
+
+      compactor(harness).compact();
+      Assert.assertEquals("Should compact the file collected before the restore", 1, dataFileCount());
+      SimpleDataUtil.assertTableRecords(tablePath, Lists.newArrayList(
+          SimpleDataUtil.createRecord(1, "hello"),
+          SimpleDataUtil.createRecord(2, "hello")));
+    }
+  }
+
+  @Test
+  public void testCompactOnCheckpointAndEndInput() throws Exception {
+    try (OneInputStreamOperatorTestHarness<Void, Void> harness = createFilesCompactor(null)) {
+      commit(write(SimpleDataUtil.createRowData(1, "hello")));
+      commit(write(SimpleDataUtil.createRowData(2, "hello")));
+      harness.notifyOfCompletedCheckpoint(1);
+
+      commit(write(SimpleDataUtil.createRowData(3, "hello")));
+      commit(write(SimpleDataUtil.createRowData(4, "hello")));
+      compactor(harness).endInput();
+
+      Assert.assertEquals("Should compact the files of both checkpoints", 2, dataFileCount());
+      SimpleDataUtil.assertTableRecords(tablePath, Lists.newArrayList(
+          SimpleDataUtil.createRecord(1, "hello"),
+          SimpleDataUtil.createRecord(2, "hello"),
+          SimpleDataUtil.createRecord(3, "hello"),
+          SimpleDataUtil.createRecord(4, "hello")));
+    }
+  }
+
+  private WriteResult write(RowData... rows) throws Exception {
+    IcebergStreamWriter<RowData> streamWriter = FlinkSink.createStreamWriter(table, SimpleDataUtil.ROW_TYPE, null);
+    try (OneInputStreamOperatorTestHarness<RowData, WriteResult> harness = new OneInputStreamOperatorTestHarness<>(
+        streamWriter, 1, 1, 0)) {
+      harness.setup();
+      harness.open();
+
+      for (RowData row : rows) {
+        harness.processElement(row, 1);
+      }
+
+      harness.prepareSnapshotPreBarrier(1);
+      return WriteResult.builder().addAll(harness.extractOutputValues()).build();
+    }
+  }
+
+  private void commit(WriteResult result) {
+    table.refresh();
+    AppendFiles appendFiles = table.newAppend();
+    Arrays.stream(result.dataFiles()).forEach(appendFiles::appendFile);
+    appendFiles.commit();
+  }
+
+  private int dataFileCount() throws IOException {
+    table.refresh();
+    try (CloseableIterable<FileScanTask> tasks = table.newScan().planFiles()) {
+      return Iterables.size(tasks);
+    }
+  }
+
+  private static IcebergFilesCompactor compactor(OneInputStreamOperatorTestHarness<Void, Void> harness) {
+    return (IcebergFilesCompactor) harness.getOneInputOperator();
+  }
+
+  private OneInputStreamOperatorTestHarness<Void, Void> createFilesCompactor(OperatorSubtaskState state)
+      throws Exception {
+    return createFilesCompactor(state, SMALL_FILE_SIZE);
+  }
+
+  private OneInputStreamOperatorTestHarness<Void, Void> createFilesCompactor(OperatorSubtaskState state,
+                                                                             long smallFileSize) throws Exception {
+    IcebergFilesCompactor filesCompactor = new IcebergFilesCompactor(TableLoader.fromHadoopTable(tablePath),
+        smallFileSize, 2, 4);
+    OneInputStreamOperatorTestHarness<Void, Void> harness = new OneInputStreamOperatorTestHarness<>(
+        filesCompactor, 1, 1, 0);
+
+    harness.setup();
+    if (state != null) {
+      harness.initializeState(state);
+    }
+
+    harness.open();
+
+    return harness;
+  }
+}
@@ -0,0 +1,233 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iceberg.flink.sink;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import org.apache.flink.streaming.util.OneInputStreamOperatorTestHarness;
+import org.apache.flink.table.data.RowData;
+import org.apache.iceberg.AppendFiles;
+import org.apache.iceberg.DataFile;
+import org.apache.iceberg.DeleteFile;
+import org.apache.iceberg.FileFormat;
+import org.apache.iceberg.FileMetadata;
+import org.apache.iceberg.Table;
+import org.apache.iceberg.TableProperties;
+import org.apache.iceberg.data.Record;
+import org.apache.iceberg.flink.SimpleDataUtil;
+import org.apache.iceberg.io.WriteResult;
+import org.apache.iceberg.relocated.com.google.common.collect.ImmutableMap;
+import org.apache.iceberg.relocated.com.google.common.collect.Lists;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+@RunWith(Parameterized.class)
+public class TestIcebergFilesMerger {
+  private static final long SMALL_FILE_SIZE = 1024 * 1024L;
+
+  @Rule
+  public TemporaryFolder tempFolder = new TemporaryFolder();
+
+  private String tablePath;
+  private Table table;
+
+  private final FileFormat format;
+  private final boolean partitioned;
+
+  @Parameterized.Parameters(name = "format = {0}, partitioned = {1}")
+  public static Object[][] parameters() {
+    return new Object[][] {
+        {"avro", true},
+        {"avro", false},
+        {"orc", true},
+        {"orc", false},
+        {"parquet", true},
+        {"parquet", false}
+    };
+  }
+
+  public TestIcebergFilesMerger(String format, boolean partitioned) {
+    this.format = FileFormat.valueOf(format.toUpperCase(Locale.ENGLISH));
+    this.partitioned = partitioned;
+  }
+
+  @Before
+  public void before() throws IOException {
+    File folder = tempFolder.newFolder();
+    tablePath = folder.getAbsolutePath();
+
+    // Construct the iceberg table.
+    Map<String, String> props = ImmutableMap.of(TableProperties.DEFAULT_FILE_FORMAT, format.name());
+    table = SimpleDataUtil.createTable(tablePath, props, partitioned);
+  }
+
+  @Test
+  public void testMergeSmallFiles() throws Exception {
+    List<Record> expected = Lists.newArrayList();
+    List<WriteResult> writeResults = Lists.newArrayList();
+    for (int writer = 0; writer < 3; writer += 1) {
+      writeResults.add(write(writer,
+          SimpleDataUtil.createRowData(writer, "hello"),
+          SimpleDataUtil.createRowData(writer + 10, "world")));
+      expected.add(SimpleDataUtil.createRecord(writer, "hello"));
+      expected.add(SimpleDataUtil.createRecord(writer + 10, "world"));
+    }
+
+    List<DataFile> smallFiles = Lists.newArrayList();
+    writeResults.forEach(result -> smallFiles.addAll(Arrays.asList(result.dataFiles())));
+    Assert.assertEquals("Should write one file per partition and writer", partitioned ? 6 : 3, smallFiles.size());
+
+    try (OneInputStreamOperatorTestHarness<WriteResult, WriteResult> harness = createFilesMerger(SMALL_FILE_SIZE)) {
+      for (WriteResult result : writeResults) {
+        harness.processElement(result, 1);
+      }
+
+      harness.prepareSnapshotPreBarrier(1);
+      WriteResult result = WriteResult.builder().addAll(harness.extractOutputValues()).build();
+      Assert.assertEquals("Should merge the files of each partition", partitioned ? 2 : 1, result.dataFiles().length);
+
+      for (DataFile smallFile : smallFiles) {
+        Assert.assertFalse("Should delete the merged small files",
+            new File(smallFile.path().toString()).exists());
+      }
+
+      commit(result);
+      SimpleDataUtil.assertTableRecords(tablePath, expected);
+    }
+  }
+
+  @Test
+  public void testForwardLargeFiles() throws Exception {
+    WriteResult written = write(0,
+        SimpleDataUtil.createRowData(1, "hello"),
+        SimpleDataUtil.createRowData(2, "world"));
+
+    try (OneInputStreamOperatorTestHarness<WriteResult, WriteResult> harness = createFilesMerger(1L)) {
+      harness.processElement(written, 1);
+      harness.processElement(write(1, SimpleDataUtil.createRowData(3, "hello")), 1);
+
+      // Files that are not small are forwarded right away.
+      Assert.assertEquals("Should forward the large files", partitioned ? 3 : 2,
+          WriteResult.builder().addAll(harness.extractOutputValues()).build().dataFiles().length);
+
+      harness.prepareSnapshotPreBarrier(1);
+      WriteResult result = WriteResult.builder().addAll(harness.extractOutputValues()).build();
+      Assert.assertEquals("Should not emit anything else", partitioned ? 3 : 2, result.dataFiles().length);
+
+      commit(result);
+      SimpleDataUtil.assertTableRecords(tablePath, Lists.newArrayList(
+          SimpleDataUtil.createRecord(1, "hello"),
+          SimpleDataUtil.createRecord(2, "world"),
+          SimpleDataUtil.createRecord(3, "hello")));
+    }
+  }
+
+  @Test
+  public void testForwardResultsWithDeletes() throws Exception {
+    WriteResult written = write(0, SimpleDataUtil.createRowData(1, "hello"));
+    FileMetadata.Builder deleteBuilder = FileMetadata.deleteFileBuilder(table.spec())
+        .ofPositionDeletes()
+        .withPath(tablePath + "/data/pos-deletes." + format.name().toLowerCase(Locale.ENGLISH))
+        .withFormat(format)
+        .withFileSizeInBytes(10)
+        .withRecordCount(1);
+    if (partitioned) {
+      deleteBuilder.withPartitionPath("data=hello");
+    }
+
+    DeleteFile deleteFile = deleteBuilder.build();
+    WriteResult withDeletes = WriteResult.builder()
+        .add(written)
+        .addDeleteFiles(deleteFile)
+        .build();
+
+    try (OneInputStreamOperatorTestHarness<WriteResult, WriteResult> harness = createFilesMerger(SMALL_FILE_SIZE)) {
+      harness.processElement(withDeletes, 1);
+      harness.processElement(write(1, SimpleDataUtil.createRowData(2, "hello")), 1);
+      harness.prepareSnapshotPreBarrier(1);
+
+      WriteResult result = WriteResult.builder().addAll(harness.extractOutputValues()).build();
+      Assert.assertEquals("Should forward the delete files", 1, result.deleteFiles().length);
+      Assert.assertEquals("Should not merge files of results with deletes", 2, result.dataFiles().length);
+      Assert.assertTrue("Should keep the data file referenced by deletes",
+          new File(written.dataFiles()[0].path().toString()).exists());
+    }
+  }
+
+  @Test
+  public void testEndInput() throws Exception {
+    try (OneInputStreamOperatorTestHarness<WriteResult, WriteResult> harness = createFilesMerger(SMALL_FILE_SIZE)) {
+      harness.processElement(write(0, SimpleDataUtil.createRowData(1, "hello")), 1);
+      harness.processElement(write(1, SimpleDataUtil.createRowData(2, "hello")), 1);
+      ((IcebergFilesMerger) harness.getOneInputOperator()).endInput();
+
+      WriteResult result = WriteResult.builder().addAll(harness.extractOutputValues()).build();
+      Assert.assertEquals("Should merge the remaining files at the end of input", 1, result.dataFiles().length);
+
+      commit(result);
+      SimpleDataUtil.assertTableRecords(tablePath, Lists.newArrayList(
+          SimpleDataUtil.createRecord(1, "hello"),
+          SimpleDataUtil.createRecord(2, "hello")));
+    }
+  }
+
+  private WriteResult write(int subtaskId, RowData... rows) throws Exception {
+    IcebergStreamWriter<RowData> streamWriter = FlinkSink.createStreamWriter(table, SimpleDataUtil.ROW_TYPE, null);
+    try (OneInputStreamOperatorTestHarness<RowData, WriteResult> harness = new OneInputStreamOperatorTestHarness<>(
+        streamWriter, 3, 3, subtaskId)) {
+      harness.setup();
+      harness.open();
+
+      for (RowData row : rows) {
+        harness.processElement(row, 1);
+      }
+
+      harness.prepareSnapshotPreBarrier(1);
+      return WriteResult.builder().addAll(harness.extractOutputValues()).build();
+    }
+  }
+
+  private void commit(WriteResult result) {
+    AppendFiles appendFiles = table.newAppend();
+    Arrays.stream(result.dataFiles()).forEach(appendFiles::appendFile);
+    appendFiles.commit();
+  }
+
+  private OneInputStreamOperatorTestHarness<WriteResult, WriteResult> createFilesMerger(long smallFileSize)
+      throws Exception {
+    IcebergFilesMerger filesMerger = FlinkSink.createFilesMerger(table, smallFileSize, 2);
+    OneInputStreamOperatorTestHarness<WriteResult, WriteResult> harness = new OneInputStreamOperatorTestHarness<>(
+        filesMerger, 1, 1, 0);
+
+    harness.setup();
+    harness.open();
+
+    return harness;
+  }
+}
@@ -0,0 +1,222 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iceberg.flink.sink;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import org.apache.flink.api.common.typeinfo.BasicTypeInfo;
+import org.apache.flink.runtime.checkpoint.OperatorSubtaskState;
+import org.apache.flink.streaming.util.KeyedOneInputStreamOperatorTestHarness;
+import org.apache.flink.table.data.RowData;
+import org.apache.flink.table.types.logical.RowType;
+import org.apache.iceberg.DataFile;
+import org.apache.iceberg.DeleteFile;
+import org.apache.iceberg.FileContent;
+import org.apache.iceberg.FileFormat;
+import org.apache.iceberg.PartitionSpec;
+import org.apache.iceberg.RowDelta;
+import org.apache.iceberg.TableTestBase;
+import org.apache.iceberg.data.Record;
+import org.apache.iceberg.flink.FlinkSchemaUtil;
+import org.apache.iceberg.flink.SimpleDataUtil;
+import org.apache.iceberg.io.WriteResult;
+import org.apache.iceberg.relocated.com.google.common.collect.ImmutableList;
+import org.apache.iceberg.relocated.com.google.common.collect.Lists;
+import org.apache.iceberg.util.StructLikeSet;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import static org.apache.iceberg.flink.SimpleDataUtil.createDelete;
+import static org.apache.iceberg.flink.SimpleDataUtil.createInsert;
+import static org.apache.iceberg.flink.SimpleDataUtil.createRecord;
+import static org.apache.iceberg.flink.SimpleDataUtil.createUpdateAfter;
+import static org.apache.iceberg.flink.SimpleDataUtil.createUpdateBefore;
+
+@RunWith(Parameterized.class)
+public class TestIcebergUpsertWriter extends TableTestBase {
+
+  private final FileFormat format;
+  private final boolean partitioned;
+
+  @Parameterized.Parameters(name = "FileFormat = {0}, partitioned = {1}")
+  public static Object[][] parameters() {
+    return new Object[][] {
+        {"avro", false},
+        {"avro", true},
+        {"parquet", false},
+        {"parquet", true}
+    };
+  }
+
+  public TestIcebergUpsertWriter(String fileFormat, boolean partitioned) {
+    super(FORMAT_V2);
+    this.format = FileFormat.valueOf(fileFormat.toUpperCase(Locale.ENGLISH));
+    this.partitioned = partitioned;
+  }
+
+  @Before
+  public void setupTable() throws IOException {
+    this.tableDir = temp.newFolder();
+    Assert.assertTrue(tableDir.delete()); // created by table create
+
+    this.metadataDir = new File(tableDir, "metadata");
+
+    if (partitioned) {
+      this.table = create(SCHEMA, PartitionSpec.builderFor(SCHEMA).bucket("id", 2).build());
+    } else {
+      this.table = create(SCHEMA, PartitionSpec.unpartitioned());
+    }
+
+    table.updateProperties()
+        .defaultFormat(format)
+        .commit();
+  }
+
+  @Test
+  public void testPositionDeletesAcrossCheckpoints() throws Exception {
+    OperatorSubtaskState snapshot;
+    List<DataFile> committedDataFiles = Lists.newArrayList();
+
+    try (KeyedOneInputStreamOperatorTestHarness<String, RowData, WriteResult> harness = createHarness()) {
+      harness.setup();
+      harness.open();
+
+      harness.processElement(createInsert(1, "aaa"), 1);
+      harness.processElement(createInsert(2, "bbb"), 1);
+      harness.processElement(createInsert(3, "ccc"), 1);
+      harness.processElement(createUpdateBefore(2, "bbb"), 1); // 1 pos-delete in the current data file.
+      harness.processElement(createUpdateAfter(2, "ddd"), 1);
+
+      snapshot = harness.snapshot(1, 1);
+      WriteResult result = singleResult(harness.extractOutputValues());
+      Assert.assertEquals("Should delete the replaced row by position",
+          1, deletes(result, FileContent.POSITION_DELETES));
+      Assert.assertEquals("Should not write equality deletes", 0, deletes(result, FileContent.EQUALITY_DELETES));
+
+      committedDataFiles.addAll(Arrays.asList(result.dataFiles()));
+      commitTransaction(result);
+    }
+
+    Assert.assertEquals("Should have expected records.", expectedRowSet(
+        createRecord(1, "aaa"),
+        createRecord(2, "ddd"),
+        createRecord(3, "ccc")
+    ), actualRowSet("*"));
+
+    try (KeyedOneInputStreamOperatorTestHarness<String, RowData, WriteResult> harness = createHarness()) {
+      harness.setup();
+      harness.initializeState(snapshot);
+      harness.open();
+
+      harness.processElement(createUpdateBefore(1, "aaa"), 2); // 1 pos-delete in a committed data file.
+      harness.processElement(createUpdateAfter(1, "eee"), 2);
+      harness.processElement(createDelete(3, "ccc"), 2); // 1 pos-delete in a committed data file.
+      harness.processElement(createDelete(4, "fff"), 2); // 1 eq-delete because the key was never written.
+      harness.processElement(createInsert(5, "ggg"), 2);
+
+      snapshot = harness.snapshot(2, 2);
+      WriteResult result = singleResult(harness.extractOutputValues());
+      Assert.assertEquals("Should delete the rows of committed files by position",
+          2, deletes(result, FileContent.POSITION_DELETES));
+      Assert.assertEquals("Should only write an equality delete for the unknown key",
+          1, deletes(result, FileContent.EQUALITY_DELETES));
+      for (CharSequence path : result.referencedDataFiles()) {
+        Assert.assertTrue("Should reference committed data files",
+            committedDataFiles.stream().anyMatch(file -> file.path().toString().equals(path.toString())));
+      }
+
+      commitTransaction(result);
+    }
+
+    Assert.assertEquals("Should have expected records.", expectedRowSet(
+        createRecord(1, "eee"),
+        createRecord(2, "ddd"),
+        createRecord(5, "ggg")
+    ), actualRowSet("*"));
+
+    // The data files of the first checkpoint are still known after restoring twice.
+    try (KeyedOneInputStreamOperatorTestHarness<String, RowData, WriteResult> harness = createHarness()) {
+      harness.setup();
+      harness.initializeState(snapshot);
+      harness.open();
+
+      harness.processElement(createDelete(2, "ddd"), 3); // 1 pos-delete in the data file of the first checkpoint.
+      harness.processElement(createDelete(5, "ggg"), 3); // 1 pos-delete in the data file of the second checkpoint.
+
+      harness.prepareSnapshotPreBarrier(3);
+      WriteResult result = singleResult(harness.extractOutputValues());
+      Assert.assertEquals("Should delete the rows of both checkpoints by position",
+          2, deletes(result, FileContent.POSITION_DELETES));
+      Assert.assertEquals("Should not write equality deletes", 0, deletes(result, FileContent.EQUALITY_DELETES));
+
+      commitTransaction(result);
+    }
+
+    Assert.assertEquals("Should have expected records.", expectedRowSet(
+        createRecord(1, "eee")
+    ), actualRowSet("*"));
+  }
+
+  private KeyedOneInputStreamOperatorTestHarness<String, RowData, WriteResult> createHarness() throws Exception {
+    List<Integer> equalityFieldIds = ImmutableList.of(table.schema().findField("id").fieldId());
+    RowType flinkRowType = FlinkSchemaUtil.convert(table.schema());
+    IcebergUpsertWriter upsertWriter = FlinkSink.createUpsertWriter(table, flinkRowType, equalityFieldIds);
+    EqualityFieldKeySelector keySelector = new EqualityFieldKeySelector(table.schema(), flinkRowType,
+        equalityFieldIds);
+
+    return new KeyedOneInputStreamOperatorTestHarness<>(upsertWriter, keySelector, BasicTypeInfo.STRING_TYPE_INFO,
+        1, 1, 0);
+  }
+
+  private static WriteResult singleResult(List<WriteResult> results) {
+    Assert.assertEquals("Should emit one write result", 1, results.size());
+    return results.get(0);
+  }
+
+  private static long deletes(WriteResult result, FileContent content) {
+    return Arrays.stream(result.deleteFiles())
+        .filter(file -> file.content() == content)
+        .mapToLong(DeleteFile::recordCount)
+        .sum();
+  }
+
+  private void commitTransaction(WriteResult result) {
+    RowDelta rowDelta = table.newRowDelta();
+    Arrays.stream(result.dataFiles()).forEach(rowDelta::addRows);
+    Arrays.stream(result.deleteFiles()).forEach(rowDelta::addDeletes);
+    rowDelta.validateDeletedFiles()
+        .validateDataFilesExist(Lists.newArrayList(result.referencedDataFiles()))
+        .commit();
+  }
+
+  private StructLikeSet expectedRowSet(Record... records) {
+    return SimpleDataUtil.expectedRowSet(table, records);
+  }
+
+  private StructLikeSet actualRowSet(String... columns) throws IOException {
+    return SimpleDataUtil.actualRowSet(table, columns);
+  }
+}
@@ -0,0 +1,131 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iceberg.flink.sink;
+
+import org.apache.flink.table.data.RowData;
+import org.apache.iceberg.PartitionSpec;
+import org.apache.iceberg.SortOrder;
+import org.apache.iceberg.flink.SimpleDataUtil;
+import org.junit.Assert;
+import org.junit.Test;
+
+import static org.apache.iceberg.flink.SimpleDataUtil.ROW_TYPE;
+import static org.apache.iceberg.flink.SimpleDataUtil.SCHEMA;
+
+public class TestRangePartitioner {
+  private static final int NUM_SUBTASKS = 4;
+  private static final PartitionSpec SPEC = PartitionSpec.builderFor(SCHEMA).identity("data").build();
+
+  @Test
+  public void testBalancedRangesBySortOrder() {
+    SortOrder sortOrder = SortOrder.builderFor(SCHEMA).asc("id").build();
+    RangePartitioner partitioner = new RangePartitioner(SCHEMA, PartitionSpec.unpartitioned(), sortOrder, ROW_TYPE,
+        100, Long.MAX_VALUE);
+
+    // Warm up with a shuffled sample of the key space.
+    for (int i = 0; i < 100 * NUM_SUBTASKS; i += 1) {
+      partitioner.partition(row((i * 7919) % 10000, "a"), NUM_SUBTASKS);
+    }
+
+    Assert.assertEquals("Should compute the range boundaries", NUM_SUBTASKS - 1, partitioner.boundaryCount());
+
+    int[] counts = new int[NUM_SUBTASKS];
+    int lastSubtask = 0;
+    for (int id = 0; id < 10000; id += 1) {
+      int subtask = partitioner.partition(row(id, "a"), NUM_SUBTASKS);
+      Assert.assertTrue("Should route increasing keys to increasing ranges", subtask >= lastSubtask);
+      lastSubtask = subtask;
+      counts[subtask] += 1;
+    }
+
+    for (int count : counts) {
+      Assert.assertTrue("Should balance the rows across the subtasks: " + count, count > 1500 && count < 3500);
+    }
+  }
+
+  @Test
+  public void testDescendingSortOrder() {
+    SortOrder sortOrder = SortOrder.builderFor(SCHEMA).desc("id").build();
+    RangePartitioner partitioner = new RangePartitioner(SCHEMA, PartitionSpec.unpartitioned(), sortOrder, ROW_TYPE,
+        100, Long.MAX_VALUE);
+
+    for (int i = 0; i < 100 * NUM_SUBTASKS; i += 1) {
+      partitioner.partition(row(i, "a"), NUM_SUBTASKS);
+    }
+
+    Assert.assertEquals("Should route the largest key to the first range",
+        0, partitioner.partition(row(1000, "a"), NUM_SUBTASKS));
+    Assert.assertEquals("Should route the smallest key to the last range",
+        NUM_SUBTASKS - 1, partitioner.partition(row(-1, "a"), NUM_SUBTASKS));
+  }
+
+  @Test
+  public void testSpreadSkewedPartition() {
+    RangePartitioner partitioner = new RangePartitioner(SCHEMA, SPEC, SortOrder.unsorted(), ROW_TYPE,
+        100, Long.MAX_VALUE);
+
+    // 90% of the rows are in a single hot partition.
+    for (int i = 0; i < 100 * NUM_SUBTASKS; i += 1) {
+      partitioner.partition(row(i, i % 10 == 0 ? "cold-" + i : "hot"), NUM_SUBTASKS);
+    }
+
+    int[] counts = new int[NUM_SUBTASKS];
+    for (int i = 0; i < 1000; i += 1) {
+      counts[partitioner.partition(row(i, "hot"), NUM_SUBTASKS)] += 1;
+    }
+
+    int hotSubtasks = 0;
+    for (int count : counts) {
+      if (count > 0) {
+        hotSubtasks += 1;
+      }
+    }
+
+    Assert.assertTrue("Should spread the hot partition over several subtasks", hotSubtasks >= NUM_SUBTASKS - 1);
+  }
+
+  @Test
+  public void testRebalance() {
+    SortOrder sortOrder = SortOrder.builderFor(SCHEMA).asc("id").build();
+    RangePartitioner partitioner = new RangePartitioner(SCHEMA, PartitionSpec.unpartitioned(), sortOrder, ROW_TYPE,
+        10, 1000);
+
+    for (int i = 0; i < 1000; i += 1) {
+      partitioner.partition(row(i, "a"), NUM_SUBTASKS);
+    }
+
+    Assert.assertEquals("Should route a new larger key to the last range",
+        NUM_SUBTASKS - 1, partitioner.partition(row(5000, "a"), NUM_SUBTASKS));
+
+    // The key distribution moves to larger keys, the ranges follow it after the next rebalance.
+    for (int i = 0; i < 2000; i += 1) {
+      partitioner.partition(row(10000 + i, "a"), NUM_SUBTASKS);
+    }
+
+    Assert.assertEquals("Should route an old key to the first range after rebalancing",
+        0, partitioner.partition(row(5000, "a"), NUM_SUBTASKS));
+    Assert.assertTrue("Should balance the new keys after rebalancing",
+        partitioner.partition(row(11999, "a"), NUM_SUBTASKS) > 0);
+  }
+
+  private static RowData row(int id, String data) {
+    return SimpleDataUtil.createRowData(id, data);
+  }
+}
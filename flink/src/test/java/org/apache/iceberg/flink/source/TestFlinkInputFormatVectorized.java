@@ -0,0 +1,48 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iceberg.flink.source;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import org.apache.flink.configuration.Configuration;
+import org.apache.flink.types.Row;
+import org.apache.iceberg.flink.FlinkTableOptions;
+
+/**
+ * Test {@link FlinkInputFormat} with vectorized reads enabled, which falls back to row-based reads for Avro files
+ * and for nested schemas.
+ */
+public class TestFlinkInputFormatVectorized extends TestFlinkInputFormat {
+
+  public TestFlinkInputFormatVectorized(String fileFormat) {
+    super(fileFormat);
+  }
+
+  @Override
+  protected List<Row> run(
+      FlinkSource.Builder formatBuilder, Map<String, String> sqlOptions, String sqlFilter, String... sqlSelectedFields)
+      throws IOException {
+    Configuration config = new Configuration();
+    config.set(FlinkTableOptions.TABLE_EXEC_ICEBERG_USE_VECTORIZED_READ, true);
+    config.set(FlinkTableOptions.TABLE_EXEC_ICEBERG_VECTORIZED_READ_BATCH_SIZE, 3);
+    return super.run(formatBuilder.flinkConf(config), sqlOptions, sqlFilter, sqlSelectedFields);
+  }
+}
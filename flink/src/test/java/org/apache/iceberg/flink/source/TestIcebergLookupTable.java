@@ -0,0 +1,224 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iceberg.flink.source;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.apache.flink.table.data.GenericRowData;
+import org.apache.flink.table.data.RowData;
+import org.apache.flink.table.data.StringData;
+import org.apache.iceberg.AssertHelpers;
+import org.apache.iceberg.DataFile;
+import org.apache.iceberg.FileFormat;
+import org.apache.iceberg.PartitionSpec;
+import org.apache.iceberg.Schema;
+import org.apache.iceberg.TableTestBase;
+import org.apache.iceberg.data.GenericAppenderHelper;
+import org.apache.iceberg.data.GenericRecord;
+import org.apache.iceberg.data.Record;
+import org.apache.iceberg.expressions.Expressions;
+import org.apache.iceberg.relocated.com.google.common.collect.ImmutableList;
+import org.apache.iceberg.relocated.com.google.common.collect.Lists;
+import org.apache.iceberg.types.Types;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+@RunWith(Parameterized.class)
+public class TestIcebergLookupTable extends TableTestBase {
+
+  private static final Schema SCHEMA = new Schema(
+      Types.NestedField.required(1, "id", Types.IntegerType.get()),
+      Types.NestedField.required(2, "data", Types.StringType.get())
+  );
+  private static final FileFormat DEFAULT_FORMAT = FileFormat.PARQUET;
+  private static final long MAX_CACHED_ROWS = 1000L;
+
+  @Parameterized.Parameters(name = "FormatVersion={0}")
+  public static Iterable<Object[]> parameters() {
+    return ImmutableList.of(
+        new Object[] {1},
+        new Object[] {2}
+    );
+  }
+
+  public TestIcebergLookupTable(int formatVersion) {
+    super(formatVersion);
+  }
+
+  @Before
+  @Override
+  public void setupTable() throws IOException {
+    this.tableDir = temp.newFolder();
+    this.metadataDir = new File(tableDir, "metadata");
+    Assert.assertTrue(tableDir.delete());
+
+    // Construct the iceberg table.
+    table = create(SCHEMA, PartitionSpec.unpartitioned());
+  }
+
+  @Test
+  public void testLookupPrunesFilesByMetrics() throws IOException {
+    writeRecords(record(1, "a"), record(2, "b"), record(3, "c"));
+    writeRecords(record(4, "a"), record(5, "b"), record(5, "c"));
+
+    IcebergLookupTable lookupTable = createLookupTable(Duration.ofHours(1), "id");
+    Assert.assertEquals("Should find the row of the key", ImmutableList.of("2:b"),
+        toStrings(lookupTable.lookup(GenericRowData.of(2))));
+    Assert.assertEquals("Should only load the file that may contain the key", 1, lookupTable.cachedFiles());
+
+    Assert.assertEquals("Should not find a missing key", ImmutableList.of(),
+        toStrings(lookupTable.lookup(GenericRowData.of(10))));
+    Assert.assertEquals("Should not load files for a key outside of all bounds", 1, lookupTable.cachedFiles());
+
+    Assert.assertEquals("Should find all rows of the key", ImmutableList.of("5:b", "5:c"),
+        toStrings(lookupTable.lookup(GenericRowData.of(5))));
+    Assert.assertEquals("Should load the second file", 2, lookupTable.cachedFiles());
+
+    Assert.assertEquals("Should find the row of a cached file", ImmutableList.of("3:c"),
+        toStrings(lookupTable.lookup(GenericRowData.of(3))));
+    Assert.assertEquals("Should not load files again", 2, lookupTable.cachedFiles());
+  }
+
+  @Test
+  public void testLookupMultipleKeys() throws IOException {
+    writeRecords(record(1, "a"), record(1, "b"), record(2, "a"));
+
+    IcebergLookupTable lookupTable = createLookupTable(Duration.ofHours(1), "data", "id");
+    Assert.assertEquals("Should match all lookup keys", ImmutableList.of("1:b"),
+        toStrings(lookupTable.lookup(GenericRowData.of(StringData.fromString("b"), 1))));
+    Assert.assertEquals("Should not match a partial key", ImmutableList.of(),
+        toStrings(lookupTable.lookup(GenericRowData.of(StringData.fromString("b"), 2))));
+    Assert.assertEquals("Should not match null keys", ImmutableList.of(),
+        toStrings(lookupTable.lookup(GenericRowData.of(null, 1))));
+  }
+
+  @Test
+  public void testRefreshOnNewSnapshot() throws IOException {
+    DataFile first = writeRecords(record(1, "a"), record(2, "b"));
+
+    IcebergLookupTable lookupTable = createLookupTable(Duration.ZERO, "id");
+    Assert.assertEquals(ImmutableList.of("1:a"), toStrings(lookupTable.lookup(GenericRowData.of(1))));
+    Assert.assertEquals(ImmutableList.of(), toStrings(lookupTable.lookup(GenericRowData.of(3))));
+
+    writeRecords(record(3, "c"));
+    Assert.assertEquals("Should find the key of the new snapshot", ImmutableList.of("3:c"),
+        toStrings(lookupTable.lookup(GenericRowData.of(3))));
+    Assert.assertEquals("Should keep the unchanged file cached", 2, lookupTable.cachedFiles());
+
+    table.newDelete().deleteFile(first).commit();
+    Assert.assertEquals("Should not find the key of a deleted file", ImmutableList.of(),
+        toStrings(lookupTable.lookup(GenericRowData.of(1))));
+    Assert.assertEquals("Should drop the deleted file from the cache", 1, lookupTable.cachedFiles());
+  }
+
+  @Test
+  public void testCacheTtl() throws IOException {
+    writeRecords(record(1, "a"));
+
+    IcebergLookupTable lookupTable = createLookupTable(Duration.ofHours(1), "id");
+    Assert.assertEquals(ImmutableList.of("1:a"), toStrings(lookupTable.lookup(GenericRowData.of(1))));
+
+    writeRecords(record(2, "b"));
+    Assert.assertEquals("Should not refresh the table before the TTL passed", ImmutableList.of(),
+        toStrings(lookupTable.lookup(GenericRowData.of(2))));
+  }
+
+  @Test
+  public void testLookupOverlappingFiles() throws IOException {
+    writeRecords(record(1, "a"), record(3, "a"));
+    writeRecords(record(2, "b"), record(8, "b"));
+    writeRecords(record(3, "c"), record(4, "c"));
+    writeRecords(record(10, "d"), record(12, "d"));
+
+    IcebergLookupTable lookupTable = createLookupTable(Duration.ofHours(1), "id");
+    Assert.assertEquals("Should find the key in all overlapping files", ImmutableList.of("3:a", "3:c"),
+        toStrings(lookupTable.lookup(GenericRowData.of(3))));
+    Assert.assertEquals("Should load the files whose range contains the key", 3, lookupTable.cachedFiles());
+
+    Assert.assertEquals("Should find the key of a file after a gap", ImmutableList.of("12:d"),
+        toStrings(lookupTable.lookup(GenericRowData.of(12))));
+    Assert.assertEquals("Should not find a key between the ranges", ImmutableList.of(),
+        toStrings(lookupTable.lookup(GenericRowData.of(9))));
+    Assert.assertEquals("Should only load the file of the key after the gap", 4, lookupTable.cachedFiles());
+  }
+
+  @Test
+  public void testLookupAppliesFilters() throws IOException {
+    writeRecords(record(1, "a"), record(1, "b"), record(2, "a"));
+
+    Schema projected = SCHEMA.select("id");
+    IcebergLookupTable lookupTable = new IcebergLookupTable(table, projected,
+        ImmutableList.of(Expressions.equal("data", "a")), new String[] {"id"}, MAX_CACHED_ROWS, Duration.ofHours(1));
+    List<RowData> rows = lookupTable.lookup(GenericRowData.of(1));
+    Assert.assertEquals("Should only return the rows that match the filter", 1, rows.size());
+    Assert.assertEquals("Should only return the projected columns", 1, rows.get(0).getArity());
+  }
+
+  @Test
+  public void testLookupFileLargerThanCache() throws IOException {
+    writeRecords(record(1, "a"), record(2, "b"), record(3, "c"));
+
+    IcebergLookupTable lookupTable = new IcebergLookupTable(table, table.schema(), ImmutableList.of(),
+        new String[] {"id"}, 2L, Duration.ofHours(1));
+    Assert.assertEquals("Should find the key of a file that doesn't fit in the cache", ImmutableList.of("2:b"),
+        toStrings(lookupTable.lookup(GenericRowData.of(2))));
+    Assert.assertEquals("Should find the key again", ImmutableList.of("3:c"),
+        toStrings(lookupTable.lookup(GenericRowData.of(3))));
+    Assert.assertEquals("Should not cache a file with more rows than the cache", 0, lookupTable.cachedFiles());
+  }
+
+  @Test
+  public void testMissingLookupKey() {
+    AssertHelpers.assertThrows("Should reject lookup keys that are not projected",
+        IllegalArgumentException.class, "Cannot find lookup key 'unknown'",
+        () -> createLookupTable(Duration.ZERO, "unknown"));
+  }
+
+  private IcebergLookupTable createLookupTable(Duration ttl, String... keys) {
+    return new IcebergLookupTable(table, table.schema(), ImmutableList.of(), keys, MAX_CACHED_ROWS, ttl);
+  }
+
+  private DataFile writeRecords(Record... records) throws IOException {
+    GenericAppenderHelper appender = new GenericAppenderHelper(table, DEFAULT_FORMAT, temp);
+    DataFile dataFile = appender.writeFile(null, Lists.newArrayList(records));
+    appender.appendToTable(dataFile);
+    return dataFile;
+  }
+
+  private static Record record(int id, String data) {
+    Record record = GenericRecord.create(SCHEMA);
+    record.setField("id", id);
+    record.setField("data", data);
+    return record;
+  }
+
+  private static List<String> toStrings(List<RowData> rows) {
+    return rows.stream()
+        .map(row -> row.getInt(0) + ":" + row.getString(1))
+        .sorted()
+        .collect(Collectors.toList());
+  }
+}
@@ -0,0 +1,79 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iceberg.flink.source;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import org.apache.flink.api.common.eventtime.WatermarkStrategy;
+import org.apache.flink.streaming.api.datastream.DataStream;
+import org.apache.flink.streaming.api.datastream.DataStreamUtils;
+import org.apache.flink.streaming.api.environment.StreamExecutionEnvironment;
+import org.apache.flink.table.data.RowData;
+import org.apache.flink.table.data.conversion.DataStructureConverter;
+import org.apache.flink.table.data.conversion.DataStructureConverters;
+import org.apache.flink.table.types.logical.RowType;
+import org.apache.flink.table.types.utils.TypeConversions;
+import org.apache.flink.types.Row;
+import org.apache.iceberg.flink.FlinkSchemaUtil;
+import org.apache.iceberg.flink.MiniClusterResource;
+import org.apache.iceberg.flink.TableLoader;
+import org.apache.iceberg.relocated.com.google.common.collect.Lists;
+
+/**
+ * Test {@link IcebergSource} in bounded mode.
+ */
+public class TestIcebergSourceBounded extends TestFlinkScan {
+
+  public TestIcebergSourceBounded(String fileFormat) {
+    super(fileFormat);
+  }
+
+  private TableLoader loader() {
+    return TableLoader.fromHadoopTable(warehouse + "/default/t");
+  }
+
+  @Override
+  protected List<Row> run(
+      FlinkSource.Builder formatBuilder, Map<String, String> sqlOptions, String sqlFilter, String... sqlSelectedFields)
+      throws IOException {
+    IcebergSource source = formatBuilder.tableLoader(loader()).buildSource();
+
+    StreamExecutionEnvironment env = StreamExecutionEnvironment
+        .getExecutionEnvironment(MiniClusterResource.DISABLE_CLASSLOADER_CHECK_CONFIG);
+    env.setParallelism(2);
+
+    DataStream<RowData> stream = env.fromSource(
+        source, WatermarkStrategy.noWatermarks(), "IcebergSource", source.getProducedType());
+
+    RowType rowType = FlinkSchemaUtil.convert(source.projectedSchema());
+    DataStructureConverter<Object, Object> converter = DataStructureConverters.getConverter(
+        TypeConversions.fromLogicalToDataType(rowType));
+
+    List<Row> results = Lists.newArrayList();
+    Iterator<RowData> rows = DataStreamUtils.collect(stream);
+    while (rows.hasNext()) {
+      results.add((Row) converter.toExternal(rows.next()));
+    }
+
+    return results;
+  }
+}
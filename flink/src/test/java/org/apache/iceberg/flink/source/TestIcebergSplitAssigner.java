@@ -0,0 +1,82 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iceberg.flink.source;
+
+import java.util.List;
+import org.apache.iceberg.BaseCombinedScanTask;
+import org.apache.iceberg.MockFileScanTask;
+import org.apache.iceberg.relocated.com.google.common.collect.ImmutableList;
+import org.apache.iceberg.relocated.com.google.common.collect.Lists;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestIcebergSplitAssigner {
+
+  private static IcebergSourceSplit split(String id, long length, String... hosts) {
+    return IcebergSourceSplit.of(id, new BaseCombinedScanTask(new MockFileScanTask(length)), hosts);
+  }
+
+  @Test
+  public void testLargestSplitFirst() {
+    IcebergSplitAssigner assigner = new IcebergSplitAssigner();
+    assigner.add(ImmutableList.of(split("a", 10), split("b", 30), split("c", 20)));
+
+    Assert.assertEquals(3, assigner.pendingCount());
+    Assert.assertEquals(60L, assigner.pendingBytes());
+
+    List<String> assigned = Lists.newArrayList();
+    IcebergSourceSplit split;
+    while ((split = assigner.next(null)) != null) {
+      assigned.add(split.splitId());
+    }
+
+    Assert.assertEquals("Should assign the largest splits first", ImmutableList.of("b", "c", "a"), assigned);
+    Assert.assertEquals(0, assigner.pendingCount());
+    Assert.assertEquals(0L, assigner.pendingBytes());
+  }
+
+  @Test
+  public void testLocalSplitFirst() {
+    IcebergSplitAssigner assigner = new IcebergSplitAssigner();
+    assigner.add(ImmutableList.of(split("a", 10, "host-1"), split("b", 30, "host-2"), split("c", 20, "host-1")));
+
+    Assert.assertEquals("Should prefer a split on the requesting host", "a", assigner.next("host-1").splitId());
+    Assert.assertEquals("Should prefer a split on the requesting host", "c", assigner.next("host-1").splitId());
+    Assert.assertEquals("Should fall back to the largest split", "b", assigner.next("host-1").splitId());
+    Assert.assertNull("Should not assign a split twice", assigner.next("host-2"));
+  }
+
+  @Test
+  public void testSplitsAddedBack() {
+    IcebergSplitAssigner assigner = new IcebergSplitAssigner();
+    IcebergSourceSplit first = split("a", 10);
+    assigner.add(ImmutableList.of(first));
+    Assert.assertSame(first, assigner.next(null));
+
+    IcebergSourceSplit partiallyRead = first.withRecordOffset(5L);
+    assigner.add(ImmutableList.of(partiallyRead));
+
+    Assert.assertEquals(ImmutableList.of(partiallyRead), assigner.pendingSplits());
+    IcebergSourceSplit reassigned = assigner.next(null);
+    Assert.assertSame("Should assign the split that was added back", partiallyRead, reassigned);
+    Assert.assertEquals(5L, reassigned.recordOffset());
+    Assert.assertNull(assigner.next(null));
+  }
+}
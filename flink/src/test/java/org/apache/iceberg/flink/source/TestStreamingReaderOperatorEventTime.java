@@ -0,0 +1,248 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iceberg.flink.source;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import org.apache.flink.streaming.api.TimeCharacteristic;
+import org.apache.flink.streaming.api.operators.OneInputStreamOperatorFactory;
+import org.apache.flink.streaming.api.watermark.Watermark;
+import org.apache.flink.streaming.runtime.streamrecord.StreamRecord;
+import org.apache.flink.streaming.runtime.tasks.StreamTaskActionExecutor;
+import org.apache.flink.streaming.runtime.tasks.mailbox.MailboxDefaultAction;
+import org.apache.flink.streaming.runtime.tasks.mailbox.SteppingMailboxProcessor;
+import org.apache.flink.streaming.util.OneInputStreamOperatorTestHarness;
+import org.apache.flink.table.data.RowData;
+import org.apache.iceberg.AssertHelpers;
+import org.apache.iceberg.FileFormat;
+import org.apache.iceberg.PartitionSpec;
+import org.apache.iceberg.Schema;
+import org.apache.iceberg.TableTestBase;
+import org.apache.iceberg.data.GenericAppenderHelper;
+import org.apache.iceberg.data.GenericRecord;
+import org.apache.iceberg.data.Record;
+import org.apache.iceberg.flink.TestTableLoader;
+import org.apache.iceberg.relocated.com.google.common.collect.ImmutableList;
+import org.apache.iceberg.relocated.com.google.common.collect.Lists;
+import org.apache.iceberg.types.Types;
+import org.apache.iceberg.util.SnapshotUtil;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+@RunWith(Parameterized.class)
+public class TestStreamingReaderOperatorEventTime extends TableTestBase {
+
+  private static final Schema SCHEMA = new Schema(
+      Types.NestedField.required(1, "id", Types.IntegerType.get()),
+      Types.NestedField.optional(2, "ts", Types.LongType.get())
+  );
+  private static final FileFormat DEFAULT_FORMAT = FileFormat.PARQUET;
+
+  @Parameterized.Parameters(name = "FormatVersion={0}")
+  public static Iterable<Object[]> parameters() {
+    return ImmutableList.of(
+        new Object[] {1},
+        new Object[] {2}
+    );
+  }
+
+  public TestStreamingReaderOperatorEventTime(int formatVersion) {
+    super(formatVersion);
+  }
+
+  @Before
+  @Override
+  public void setupTable() throws IOException {
+    this.tableDir = temp.newFolder();
+    this.metadataDir = new File(tableDir, "metadata");
+    Assert.assertTrue(tableDir.delete());
+
+    // Construct the iceberg table.
+    table = create(SCHEMA, PartitionSpec.unpartitioned());
+  }
+
+  @Test
+  public void testSplitEventTimeBounds() throws IOException {
+    writeRecords(300, 320);
+    writeRecords(100, 150);
+
+    List<FlinkInputSplit> splits = generateSplits("ts");
+    Assert.assertEquals("Should have 2 splits", 2, splits.size());
+    Assert.assertEquals(300, splits.get(0).minEventTime());
+    Assert.assertEquals(319, splits.get(0).maxEventTime());
+    Assert.assertEquals(100, splits.get(1).minEventTime());
+    Assert.assertEquals(149, splits.get(1).maxEventTime());
+
+    FlinkInputSplit withoutWatermark = generateSplits(null).get(0);
+    Assert.assertEquals(EventTimeExtractor.UNKNOWN_MIN, withoutWatermark.minEventTime());
+    Assert.assertEquals(EventTimeExtractor.UNKNOWN_MAX, withoutWatermark.maxEventTime());
+  }
+
+  @Test
+  public void testReadSplitsInEventTimeOrder() throws Exception {
+    writeRecords(300, 310);
+    writeRecords(100, 110);
+    writeRecords(200, 210);
+
+    List<FlinkInputSplit> splits = generateSplits("ts");
+    Assert.assertEquals("Should have 3 splits", 3, splits.size());
+
+    try (OneInputStreamOperatorTestHarness<FlinkInputSplit, RowData> harness = createReader("ts")) {
+      harness.setup();
+      harness.open();
+
+      SteppingMailboxProcessor processor = createLocalMailbox(harness);
+      for (FlinkInputSplit split : splits) {
+        harness.processElement(split, -1);
+      }
+
+      for (int i = 0; i < 3; i += 1) {
+        Assert.assertTrue("Should process one split", processor.runMailboxStep());
+      }
+
+      List<Long> watermarks = Lists.newArrayList();
+      List<Long> timestamps = Lists.newArrayList();
+      for (Object element : harness.getOutput()) {
+        if (element instanceof Watermark) {
+          watermarks.add(((Watermark) element).getTimestamp());
+        } else {
+          StreamRecord<?> record = (StreamRecord<?>) element;
+          Assert.assertTrue("Should assign the event time as timestamp", record.hasTimestamp());
+          Assert.assertEquals("Should use the event time column", ((RowData) record.getValue()).getLong(1),
+              record.getTimestamp());
+          timestamps.add(record.getTimestamp());
+        }
+      }
+
+      Assert.assertEquals("Should emit a watermark below each split", ImmutableList.of(99L, 199L, 299L), watermarks);
+      List<Long> sorted = Lists.newArrayList(timestamps);
+      Collections.sort(sorted);
+      Assert.assertEquals("Should read the splits in event time order", sorted, timestamps);
+    }
+  }
+
+  @Test
+  public void testWatermarkDoesNotRegress() throws Exception {
+    writeRecords(200, 210);
+    writeRecords(100, 110);
+
+    List<FlinkInputSplit> splits = generateSplits("ts");
+
+    try (OneInputStreamOperatorTestHarness<FlinkInputSplit, RowData> harness = createReader("ts")) {
+      harness.setup();
+      harness.open();
+
+      SteppingMailboxProcessor processor = createLocalMailbox(harness);
+      harness.processElement(splits.get(0), -1);
+      Assert.assertTrue("Should process one split", processor.runMailboxStep());
+
+      // The late split is still read, but doesn't move the watermark back.
+      harness.processElement(splits.get(1), -1);
+      Assert.assertTrue("Should process one split", processor.runMailboxStep());
+
+      List<Long> watermarks = Lists.newArrayList();
+      for (Object element : harness.getOutput()) {
+        if (element instanceof Watermark) {
+          watermarks.add(((Watermark) element).getTimestamp());
+        }
+      }
+
+      Assert.assertEquals("Should not emit a lower watermark", ImmutableList.of(199L), watermarks);
+      Assert.assertEquals("Should read all rows", 20, harness.extractOutputValues().size());
+    }
+  }
+
+  @Test
+  public void testInvalidWatermarkColumn() {
+    AssertHelpers.assertThrows("Should reject a watermark column of another type",
+        IllegalArgumentException.class, "must be a timestamp or a long",
+        () -> EventTimeExtractor.create(SCHEMA, "id"));
+    AssertHelpers.assertThrows("Should reject a missing watermark column",
+        IllegalArgumentException.class, "Cannot find watermark column",
+        () -> EventTimeExtractor.create(SCHEMA, "unknown"));
+  }
+
+  private void writeRecords(long fromEventTime, long toEventTime) throws IOException {
+    List<Record> records = Lists.newArrayList();
+    for (long ts = fromEventTime; ts < toEventTime; ts += 1) {
+      Record record = GenericRecord.create(SCHEMA);
+      record.setField("id", (int) ts);
+      record.setField("ts", ts);
+      records.add(record);
+    }
+
+    GenericAppenderHelper appender = new GenericAppenderHelper(table, DEFAULT_FORMAT, temp);
+    appender.appendToTable(records);
+  }
+
+  private List<FlinkInputSplit> generateSplits(String watermarkColumn) {
+    List<FlinkInputSplit> inputSplits = Lists.newArrayList();
+
+    // Plan each snapshot separately, so that each split has the data file of one snapshot.
+    List<Long> snapshotIds = SnapshotUtil.currentAncestors(table);
+    for (int i = snapshotIds.size() - 1; i >= 0; i--) {
+      ScanContext scanContext;
+      if (i == snapshotIds.size() - 1) {
+        scanContext = ScanContext.builder()
+            .useSnapshotId(snapshotIds.get(i))
+            .watermarkColumn(watermarkColumn)
+            .build();
+      } else {
+        scanContext = ScanContext.builder()
+            .startSnapshotId(snapshotIds.get(i + 1))
+            .endSnapshotId(snapshotIds.get(i))
+            .watermarkColumn(watermarkColumn)
+            .build();
+      }
+
+      Collections.addAll(inputSplits, FlinkSplitGenerator.createInputSplits(table, scanContext));
+    }
+
+    return inputSplits;
+  }
+
+  private OneInputStreamOperatorTestHarness<FlinkInputSplit, RowData> createReader(String watermarkColumn)
+      throws Exception {
+    FlinkInputFormat inputFormat = FlinkSource.forRowData()
+        .tableLoader(TestTableLoader.of(tableDir.getAbsolutePath()))
+        .buildFormat();
+
+    OneInputStreamOperatorFactory<FlinkInputSplit, RowData> factory = StreamingReaderOperator.factory(inputFormat,
+        EventTimeExtractor.create(SCHEMA, watermarkColumn));
+    OneInputStreamOperatorTestHarness<FlinkInputSplit, RowData> harness = new OneInputStreamOperatorTestHarness<>(
+        factory, 1, 1, 0);
+    harness.getStreamConfig().setTimeCharacteristic(TimeCharacteristic.EventTime);
+
+    return harness;
+  }
+
+  private SteppingMailboxProcessor createLocalMailbox(
+      OneInputStreamOperatorTestHarness<FlinkInputSplit, RowData> harness) {
+    return new SteppingMailboxProcessor(
+        MailboxDefaultAction.Controller::suspendDefaultAction,
+        harness.getTaskMailbox(),
+        StreamTaskActionExecutor.IMMEDIATE);
+  }
+}
@@ -19,7 +19,13 @@
 
 package org.apache.iceberg.parquet;
 
+import org.apache.iceberg.relocated.com.google.common.base.Preconditions;
+import org.apache.parquet.CorruptDeltaByteArrays;
 import org.apache.parquet.column.ColumnDescriptor;
+import org.apache.parquet.column.Encoding;
+import org.apache.parquet.column.page.DataPage;
+import org.apache.parquet.column.page.DataPageV1;
+import org.apache.parquet.column.page.DataPageV2;
 import org.apache.parquet.io.api.Binary;
 
 public abstract class ColumnIterator<T> extends BaseColumnIterator implements TripleIterator<T> {
@@ -150,6 +156,55 @@ public abstract class ColumnIterator<T> extends BaseColumnIterator implements Tr
     return pageIterator.nextNull();
   }
 
+  /**
+   * Skips the next triples in this column, including nulls.
+   * <p>
+   * This must only be used for columns that are not repeated, where each triple is a row. Pages that contain only
+   * skipped triples are not decoded.
+   *
+   * @param numTriples the number of triples to skip
+   */
+  public void skip(long numTriples) {
+    long remaining = numTriples;
+    while (remaining > 0) {
+      if (pageIterator.hasNext()) {
+        int toSkip = (int) Math.min(remaining, advanceNextPageCount - triplesRead);
+        pageIterator.skip(toSkip);
+        this.triplesRead += toSkip;
+        remaining -= toSkip;
+      } else {
+        DataPage page = pageSource.readPage();
+        Preconditions.checkState(page != null, "Cannot skip past the end of column: %s", desc);
+        int pageValueCount = page.getValueCount();
+        if (pageValueCount <= remaining && !requiresSequentialReads(page)) {
+          this.advanceNextPageCount += pageValueCount;
+          this.triplesRead += pageValueCount;
+          remaining -= pageValueCount;
+        } else {
+          pageIterator.setPage(page);
+          this.advanceNextPageCount += pageIterator.currentPageCount();
+        }
+      }
+    }
+  }
+
+  private boolean requiresSequentialReads(DataPage page) {
+    Encoding encoding = page.accept(new DataPage.Visitor<Encoding>() {
+      @Override
+      public Encoding visit(DataPageV1 dataPageV1) {
+        return dataPageV1.getValueEncoding();
+      }
+
+      @Override
+      public Encoding visit(DataPageV2 dataPageV2) {
+        return dataPageV2.getDataEncoding();
+      }
+    });
+
+    // some values are encoded relative to the previous page and cannot be read after skipping a page
+    return CorruptDeltaByteArrays.requiresSequentialReads(pageIterator.writerVersion, encoding);
+  }
+
   @Override
   protected BasePageIterator pageIterator() {
     return pageIterator;
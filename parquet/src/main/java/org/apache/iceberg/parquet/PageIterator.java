@@ -183,6 +183,25 @@ abstract class PageIterator<T> extends BasePageIterator implements TripleIterato
     return null;
   }
 
+  /**
+   * Skips the next triples in the current page, including nulls.
+   *
+   * @param numTriples the number of triples to skip; must not be more than the triples left in the page
+   */
+  void skip(int numTriples) {
+    for (int i = 0; i < numTriples; i += 1) {
+      if (currentDL == desc.getMaxDefinitionLevel()) {
+        try {
+          values.skip();
+        } catch (RuntimeException e) {
+          throw handleRuntimeException(e);
+        }
+      }
+
+      advance();
+    }
+  }
+
   private void advance() {
     if (triplesRead < triplesCount) {
       this.currentDL = definitionLevels.nextInt();
@@ -56,13 +56,17 @@ import org.apache.iceberg.mapping.NameMapping;
 import org.apache.iceberg.parquet.ParquetValueWriters.PositionDeleteStructWriter;
 import org.apache.iceberg.parquet.ParquetValueWriters.StructWriter;
 import org.apache.iceberg.relocated.com.google.common.base.Preconditions;
+import org.apache.iceberg.relocated.com.google.common.collect.Lists;
 import org.apache.iceberg.relocated.com.google.common.collect.Maps;
 import org.apache.iceberg.relocated.com.google.common.collect.Sets;
+import org.apache.iceberg.types.Types;
 import org.apache.iceberg.util.ArrayUtil;
+import org.apache.iceberg.util.PropertyUtil;
 import org.apache.parquet.HadoopReadOptions;
 import org.apache.parquet.ParquetReadOptions;
 import org.apache.parquet.avro.AvroReadSupport;
 import org.apache.parquet.avro.AvroWriteSupport;
+import org.apache.parquet.column.ColumnDescriptor;
 import org.apache.parquet.column.ParquetProperties;
 import org.apache.parquet.column.ParquetProperties.WriterVersion;
 import org.apache.parquet.hadoop.ParquetFileReader;
@@ -73,7 +77,11 @@ import org.apache.parquet.hadoop.api.ReadSupport;
 import org.apache.parquet.hadoop.api.WriteSupport;
 import org.apache.parquet.hadoop.metadata.CompressionCodecName;
 import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.Type;
 
+import static org.apache.iceberg.TableProperties.PARQUET_BLOOM_FILTER_COLUMN_ENABLED_PREFIX;
+import static org.apache.iceberg.TableProperties.PARQUET_BLOOM_FILTER_MAX_BYTES;
+import static org.apache.iceberg.TableProperties.PARQUET_BLOOM_FILTER_MAX_BYTES_DEFAULT;
 import static org.apache.iceberg.TableProperties.PARQUET_COMPRESSION;
 import static org.apache.iceberg.TableProperties.PARQUET_COMPRESSION_DEFAULT;
 import static org.apache.iceberg.TableProperties.PARQUET_COMPRESSION_LEVEL;
@@ -204,6 +212,8 @@ public class Parquet {
           PARQUET_DICT_SIZE_BYTES, PARQUET_DICT_SIZE_BYTES_DEFAULT));
       String compressionLevel = config.getOrDefault(
           PARQUET_COMPRESSION_LEVEL, PARQUET_COMPRESSION_LEVEL_DEFAULT);
+      int bloomFilterMaxBytes = PropertyUtil.propertyAsInt(config,
+          PARQUET_BLOOM_FILTER_MAX_BYTES, PARQUET_BLOOM_FILTER_MAX_BYTES_DEFAULT);
 
       if (compressionLevel != null) {
         switch (codec()) {
@@ -225,6 +235,7 @@ public class Parquet {
 
       set("parquet.avro.write-old-list-structure", "false");
       MessageType type = ParquetSchemaUtil.convert(schema, name);
+      List<String> bloomFilterColumns = bloomFilterColumnPaths(type);
 
       if (createWriterFunc != null) {
         Preconditions.checkArgument(writeSupport == null,
@@ -240,17 +251,23 @@ public class Parquet {
           conf.set(entry.getKey(), entry.getValue());
         }
 
-        ParquetProperties parquetProperties = ParquetProperties.builder()
+        ParquetProperties.Builder propsBuilder = ParquetProperties.builder()
             .withWriterVersion(writerVersion)
             .withPageSize(pageSize)
             .withDictionaryPageSize(dictionaryPageSize)
-            .build();
+            .withMaxBloomFilterBytes(bloomFilterMaxBytes);
+
+        for (String columnPath : bloomFilterColumns) {
+          propsBuilder.withBloomFilterEnabled(columnPath, true);
+        }
+
+        ParquetProperties parquetProperties = propsBuilder.build();
 
         return new org.apache.iceberg.parquet.ParquetWriter<>(
             conf, file, schema, rowGroupSize, metadata, createWriterFunc, codec(),
             parquetProperties, metricsConfig, writeMode);
       } else {
-        return new ParquetWriteAdapter<>(new ParquetWriteBuilder<D>(ParquetIO.file(file))
+        ParquetWriteBuilder<D> parquetWriteBuilder = new ParquetWriteBuilder<D>(ParquetIO.file(file))
             .withWriterVersion(writerVersion)
             .setType(type)
             .setConfig(config)
@@ -260,11 +277,45 @@ public class Parquet {
             .withWriteMode(writeMode)
             .withRowGroupSize(rowGroupSize)
             .withPageSize(pageSize)
-            .withDictionaryPageSize(dictionaryPageSize)
-            .build(),
-            metricsConfig);
+            .withDictionaryPageSize(dictionaryPageSize);
+
+        for (String columnPath : bloomFilterColumns) {
+          parquetWriteBuilder.withBloomFilterEnabled(columnPath, true);
+        }
+
+        return new ParquetWriteAdapter<>(parquetWriteBuilder.build(), metricsConfig);
       }
     }
+
+    /**
+     * Returns the Parquet column paths of the columns that have bloom filters enabled by table properties.
+     * <p>
+     * Columns that are not in the write schema, like table columns in position delete files, are ignored.
+     */
+    private List<String> bloomFilterColumnPaths(MessageType type) {
+      Map<Integer, String> columnPathsById = Maps.newHashMap();
+      for (ColumnDescriptor desc : type.getColumns()) {
+        Type.ID id = type.getType(desc.getPath()).getId();
+        if (id != null) {
+          columnPathsById.put(id.intValue(), String.join(".", desc.getPath()));
+        }
+      }
+
+      List<String> columnPaths = Lists.newArrayList();
+      for (Map.Entry<String, String> entry : config.entrySet()) {
+        String key = entry.getKey();
+        if (key.startsWith(PARQUET_BLOOM_FILTER_COLUMN_ENABLED_PREFIX) && Boolean.parseBoolean(entry.getValue())) {
+          String columnName = key.substring(PARQUET_BLOOM_FILTER_COLUMN_ENABLED_PREFIX.length());
+          Types.NestedField field = schema.findField(columnName);
+          String columnPath = field != null ? columnPathsById.get(field.fieldId()) : null;
+          if (columnPath != null) {
+            columnPaths.add(columnPath);
+          }
+        }
+      }
+
+      return columnPaths;
+    }
   }
 
   public static DeleteWriteBuilder writeDeletes(OutputFile file) {
@@ -0,0 +1,326 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iceberg.parquet;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import org.apache.iceberg.Schema;
+import org.apache.iceberg.expressions.Binder;
+import org.apache.iceberg.expressions.BoundReference;
+import org.apache.iceberg.expressions.Expression;
+import org.apache.iceberg.expressions.ExpressionVisitors;
+import org.apache.iceberg.expressions.ExpressionVisitors.BoundExpressionVisitor;
+import org.apache.iceberg.expressions.Expressions;
+import org.apache.iceberg.expressions.Literal;
+import org.apache.iceberg.relocated.com.google.common.base.Preconditions;
+import org.apache.iceberg.relocated.com.google.common.collect.Maps;
+import org.apache.iceberg.types.Type;
+import org.apache.iceberg.types.Types.DecimalType;
+import org.apache.iceberg.types.Types.StructType;
+import org.apache.iceberg.util.DecimalUtil;
+import org.apache.iceberg.util.UUIDUtil;
+import org.apache.parquet.column.values.bloomfilter.BloomFilter;
+import org.apache.parquet.hadoop.BloomFilterReader;
+import org.apache.parquet.hadoop.metadata.BlockMetaData;
+import org.apache.parquet.hadoop.metadata.ColumnChunkMetaData;
+import org.apache.parquet.io.api.Binary;
+import org.apache.parquet.schema.DecimalMetadata;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.OriginalType;
+import org.apache.parquet.schema.PrimitiveType;
+
+public class ParquetBloomRowGroupFilter {
+  private final Expression expr;
+
+  public ParquetBloomRowGroupFilter(Schema schema, Expression unbound) {
+    this(schema, unbound, true);
+  }
+
+  public ParquetBloomRowGroupFilter(Schema schema, Expression unbound, boolean caseSensitive) {
+    StructType struct = schema.asStruct();
+    this.expr = Binder.bind(struct, Expressions.rewriteNot(unbound), caseSensitive);
+  }
+
+  /**
+   * Test whether the bloom filters for a row group may contain records that match the expression.
+   * <p>
+   * Bloom filters can only eliminate row groups for equality and in predicates; all other predicates and columns
+   * without a bloom filter might match.
+   *
+   * @param fileSchema schema for the Parquet file
+   * @param rowGroup metadata for the row group
+   * @param bloomReader a bloom filter reader for the row group
+   * @return false if the file cannot contain rows that match the expression, true otherwise.
+   */
+  public boolean shouldRead(MessageType fileSchema, BlockMetaData rowGroup, BloomFilterReader bloomReader) {
+    return new BloomEvalVisitor().eval(fileSchema, rowGroup, bloomReader);
+  }
+
+  private static final boolean ROWS_MIGHT_MATCH = true;
+  private static final boolean ROWS_CANNOT_MATCH = false;
+
+  private class BloomEvalVisitor extends BoundExpressionVisitor<Boolean> {
+    private BloomFilterReader bloomReader = null;
+    private Map<Integer, ColumnChunkMetaData> columns = null;
+    private Map<Integer, PrimitiveType> parquetTypes = null;
+    private Map<Integer, BloomFilter> bloomCache = null;
+
+    private boolean eval(MessageType fileSchema, BlockMetaData rowGroup, BloomFilterReader bloomFilterReader) {
+      this.bloomReader = bloomFilterReader;
+      this.columns = Maps.newHashMap();
+      this.parquetTypes = Maps.newHashMap();
+      this.bloomCache = Maps.newHashMap();
+
+      for (ColumnChunkMetaData meta : rowGroup.getColumns()) {
+        PrimitiveType colType = fileSchema.getType(meta.getPath().toArray()).asPrimitiveType();
+        if (colType.getId() != null) {
+          int id = colType.getId().intValue();
+          columns.put(id, meta);
+          parquetTypes.put(id, colType);
+        }
+      }
+
+      return ExpressionVisitors.visitEvaluator(expr, this);
+    }
+
+    @Override
+    public Boolean alwaysTrue() {
+      return ROWS_MIGHT_MATCH; // all rows match
+    }
+
+    @Override
+    public Boolean alwaysFalse() {
+      return ROWS_CANNOT_MATCH; // all rows fail
+    }
+
+    @Override
+    public Boolean not(Boolean result) {
+      return !result;
+    }
+
+    @Override
+    public Boolean and(Boolean leftResult, Boolean rightResult) {
+      return leftResult && rightResult;
+    }
+
+    @Override
+    public Boolean or(Boolean leftResult, Boolean rightResult) {
+      return leftResult || rightResult;
+    }
+
+    @Override
+    public <T> Boolean isNull(BoundReference<T> ref) {
+      // bloom filters only contain non-nulls and cannot eliminate based on isNull or notNull
+      return ROWS_MIGHT_MATCH;
+    }
+
+    @Override
+    public <T> Boolean notNull(BoundReference<T> ref) {
+      // bloom filters only contain non-nulls and cannot eliminate based on isNull or notNull
+      return ROWS_MIGHT_MATCH;
+    }
+
+    @Override
+    public <T> Boolean isNaN(BoundReference<T> ref) {
+      return ROWS_MIGHT_MATCH;
+    }
+
+    @Override
+    public <T> Boolean notNaN(BoundReference<T> ref) {
+      return ROWS_MIGHT_MATCH;
+    }
+
+    @Override
+    public <T> Boolean lt(BoundReference<T> ref, Literal<T> lit) {
+      // bloom filters can only answer whether a value may be present
+      return ROWS_MIGHT_MATCH;
+    }
+
+    @Override
+    public <T> Boolean ltEq(BoundReference<T> ref, Literal<T> lit) {
+      return ROWS_MIGHT_MATCH;
+    }
+
+    @Override
+    public <T> Boolean gt(BoundReference<T> ref, Literal<T> lit) {
+      return ROWS_MIGHT_MATCH;
+    }
+
+    @Override
+    public <T> Boolean gtEq(BoundReference<T> ref, Literal<T> lit) {
+      return ROWS_MIGHT_MATCH;
+    }
+
+    @Override
+    public <T> Boolean eq(BoundReference<T> ref, Literal<T> lit) {
+      int id = ref.fieldId();
+
+      BloomFilter bloom = bloom(id);
+      if (bloom == null) {
+        return ROWS_MIGHT_MATCH;
+      }
+
+      return mightContain(bloom, parquetTypes.get(id), ref.type(), lit.value());
+    }
+
+    @Override
+    public <T> Boolean notEq(BoundReference<T> ref, Literal<T> lit) {
+      return ROWS_MIGHT_MATCH;
+    }
+
+    @Override
+    public <T> Boolean in(BoundReference<T> ref, Set<T> literalSet) {
+      int id = ref.fieldId();
+
+      BloomFilter bloom = bloom(id);
+      if (bloom == null) {
+        return ROWS_MIGHT_MATCH;
+      }
+
+      PrimitiveType parquetType = parquetTypes.get(id);
+      for (T value : literalSet) {
+        if (mightContain(bloom, parquetType, ref.type(), value)) {
+          return ROWS_MIGHT_MATCH;
+        }
+      }
+
+      return ROWS_CANNOT_MATCH;
+    }
+
+    @Override
+    public <T> Boolean notIn(BoundReference<T> ref, Set<T> literalSet) {
+      return ROWS_MIGHT_MATCH;
+    }
+
+    @Override
+    public <T> Boolean startsWith(BoundReference<T> ref, Literal<T> lit) {
+      return ROWS_MIGHT_MATCH;
+    }
+
+    private BloomFilter bloom(int id) {
+      Preconditions.checkNotNull(bloomReader, "Bloom filter reader is required");
+
+      if (bloomCache.containsKey(id)) {
+        return bloomCache.get(id);
+      }
+
+      ColumnChunkMetaData meta = columns.get(id);
+      // the column may be missing from the file or the chunk may not have a bloom filter
+      BloomFilter bloom = meta != null ? bloomReader.readBloomFilter(meta) : null;
+      bloomCache.put(id, bloom);
+
+      return bloom;
+    }
+  }
+
+  private static boolean mightContain(BloomFilter bloom, PrimitiveType parquetType, Type type, Object value) {
+    Object parquetValue = toParquetValue(parquetType, type, value);
+    if (parquetValue == null) {
+      // the value cannot be converted to the hashed form that was written
+      return ROWS_MIGHT_MATCH;
+    }
+
+    return bloom.findHash(bloom.hash(parquetValue)) ? ROWS_MIGHT_MATCH : ROWS_CANNOT_MATCH;
+  }
+
+  /**
+   * Converts an Iceberg value to the Parquet value that is hashed when writing a column of the given Parquet type.
+   *
+   * @return the Parquet value, or null if it is not known how the value would be written
+   */
+  private static Object toParquetValue(PrimitiveType parquetType, Type type, Object value) {
+    PrimitiveType.PrimitiveTypeName physicalType = parquetType.getPrimitiveTypeName();
+    OriginalType originalType = parquetType.getOriginalType();
+    switch (type.typeId()) {
+      case INTEGER:
+      case DATE:
+        return physicalType == PrimitiveType.PrimitiveTypeName.INT32 ? value : null;
+      case LONG:
+        if (physicalType == PrimitiveType.PrimitiveTypeName.INT32) {
+          // the column was promoted from int to long
+          long longValue = (Long) value;
+          return longValue == (int) longValue ? (int) longValue : null;
+        }
+
+        return physicalType == PrimitiveType.PrimitiveTypeName.INT64 ? value : null;
+      case TIME:
+      case TIMESTAMP:
+        // only micros are written by Iceberg; other units would require converting the value
+        boolean isMicros = originalType == OriginalType.TIME_MICROS || originalType == OriginalType.TIMESTAMP_MICROS;
+        return physicalType == PrimitiveType.PrimitiveTypeName.INT64 && isMicros ? value : null;
+      case FLOAT:
+        return physicalType == PrimitiveType.PrimitiveTypeName.FLOAT ? value : null;
+      case DOUBLE:
+        return physicalType == PrimitiveType.PrimitiveTypeName.DOUBLE ? value : null;
+      case STRING:
+        return physicalType == PrimitiveType.PrimitiveTypeName.BINARY ?
+            Binary.fromConstantByteArray(value.toString().getBytes(StandardCharsets.UTF_8)) : null;
+      case UUID:
+        return physicalType == PrimitiveType.PrimitiveTypeName.FIXED_LEN_BYTE_ARRAY ?
+            Binary.fromConstantByteArray(UUIDUtil.convert((UUID) value)) : null;
+      case FIXED:
+        ByteBuffer fixed = (ByteBuffer) value;
+        boolean sameLength = parquetType.getTypeLength() == fixed.remaining();
+        return physicalType == PrimitiveType.PrimitiveTypeName.FIXED_LEN_BYTE_ARRAY && sameLength ?
+            Binary.fromConstantByteBuffer(fixed) : null;
+      case BINARY:
+        return physicalType == PrimitiveType.PrimitiveTypeName.BINARY ?
+            Binary.fromConstantByteBuffer((ByteBuffer) value) : null;
+      case DECIMAL:
+        return toParquetDecimal(parquetType, (DecimalType) type, (BigDecimal) value);
+      default:
+        // booleans are not written to bloom filters and nested types cannot be compared
+        return null;
+    }
+  }
+
+  private static Object toParquetDecimal(PrimitiveType parquetType, DecimalType type, BigDecimal value) {
+    DecimalMetadata decimal = parquetType.getDecimalMetadata();
+    if (decimal == null || decimal.getScale() != type.scale() || value.scale() != type.scale()) {
+      // the unscaled value that was written depends on the scale of the column
+      return null;
+    }
+
+    switch (parquetType.getPrimitiveTypeName()) {
+      case INT32:
+        return value.unscaledValue().bitLength() < Integer.SIZE ? value.unscaledValue().intValue() : null;
+      case INT64:
+        return value.unscaledValue().bitLength() < Long.SIZE ? value.unscaledValue().longValue() : null;
+      case FIXED_LEN_BYTE_ARRAY:
+        // literals are bound by scale only, so the value may be too large to convert to the column type
+        boolean fits = value.precision() <= type.precision() &&
+            value.unscaledValue().bitLength() / 8 + 1 <= parquetType.getTypeLength();
+        if (!fits) {
+          return null;
+        }
+
+        byte[] bytes = new byte[parquetType.getTypeLength()];
+        return Binary.fromConstantByteArray(
+            DecimalUtil.toReusedFixLengthBytes(type.precision(), type.scale(), value, bytes));
+      default:
+        // variable-length decimals may be written with any number of sign bytes
+        return null;
+    }
+  }
+}
@@ -0,0 +1,441 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iceberg.parquet;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.IntPredicate;
+import org.apache.iceberg.Schema;
+import org.apache.iceberg.exceptions.RuntimeIOException;
+import org.apache.iceberg.expressions.Binder;
+import org.apache.iceberg.expressions.BoundReference;
+import org.apache.iceberg.expressions.Expression;
+import org.apache.iceberg.expressions.ExpressionVisitors;
+import org.apache.iceberg.expressions.ExpressionVisitors.BoundExpressionVisitor;
+import org.apache.iceberg.expressions.Expressions;
+import org.apache.iceberg.expressions.Literal;
+import org.apache.iceberg.relocated.com.google.common.collect.Maps;
+import org.apache.iceberg.types.Comparators;
+import org.apache.iceberg.types.Type;
+import org.apache.iceberg.types.Types.StructType;
+import org.apache.iceberg.util.BinaryUtil;
+import org.apache.parquet.hadoop.ParquetFileReader;
+import org.apache.parquet.hadoop.metadata.BlockMetaData;
+import org.apache.parquet.hadoop.metadata.ColumnChunkMetaData;
+import org.apache.parquet.internal.column.columnindex.ColumnIndex;
+import org.apache.parquet.internal.column.columnindex.OffsetIndex;
+import org.apache.parquet.io.api.Binary;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.PrimitiveType;
+
+/**
+ * Evaluates an expression against the column and offset indexes of a row group to find the rows that may match.
+ * <p>
+ * Parquet 1.11 and later write min/max and null count statistics for each page of a column chunk. This filter uses
+ * them to produce the {@link RowRanges} of a row group that can contain matching rows. Columns that have no page
+ * index, and predicates that cannot be evaluated using bounds, match all rows.
+ */
+class ParquetColumnIndexFilter {
+  private static final int IN_PREDICATE_LIMIT = 200;
+
+  private final Schema schema;
+  private final Expression expr;
+
+  ParquetColumnIndexFilter(Schema schema, Expression unbound, boolean caseSensitive) {
+    this.schema = schema;
+    StructType struct = schema.asStruct();
+    this.expr = Binder.bind(struct, Expressions.rewriteNot(unbound), caseSensitive);
+  }
+
+  /**
+   * Calculates the rows of a row group that may contain records that match the expression.
+   *
+   * @param fileSchema schema for the Parquet file
+   * @param reader a reader for the Parquet file, used to read page indexes
+   * @param rowGroup metadata for a row group
+   * @return ranges of rows in the row group that may match; rows outside of the ranges cannot match
+   */
+  RowRanges calculateRowRanges(MessageType fileSchema, ParquetFileReader reader, BlockMetaData rowGroup) {
+    return new ColumnIndexEvalVisitor().eval(fileSchema, reader, rowGroup);
+  }
+
+  private class ColumnIndexEvalVisitor extends BoundExpressionVisitor<RowRanges> {
+    private ParquetFileReader reader = null;
+    private long rowCount = 0L;
+    private RowRanges allRows = null;
+    private Map<Integer, ColumnChunkMetaData> columns = null;
+    private Map<Integer, PrimitiveType> types = null;
+    private Map<Integer, PageIndex> pageIndexes = null;
+
+    private RowRanges eval(MessageType fileSchema, ParquetFileReader fileReader, BlockMetaData rowGroup) {
+      this.rowCount = rowGroup.getRowCount();
+      if (rowCount <= 0) {
+        return RowRanges.empty();
+      }
+
+      this.reader = fileReader;
+      this.allRows = RowRanges.all(rowCount);
+      this.columns = Maps.newHashMap();
+      this.types = Maps.newHashMap();
+      this.pageIndexes = Maps.newHashMap();
+      for (ColumnChunkMetaData col : rowGroup.getColumns()) {
+        PrimitiveType colType = fileSchema.getType(col.getPath().toArray()).asPrimitiveType();
+        if (colType.getId() != null) {
+          int id = colType.getId().intValue();
+          columns.put(id, col);
+          types.put(id, colType);
+        }
+      }
+
+      return ExpressionVisitors.visitEvaluator(expr, this);
+    }
+
+    @Override
+    public RowRanges alwaysTrue() {
+      return allRows;
+    }
+
+    @Override
+    public RowRanges alwaysFalse() {
+      return RowRanges.empty();
+    }
+
+    @Override
+    public RowRanges not(RowRanges result) {
+      // not is rewritten by rewriteNot, and row ranges cannot be inverted because they are inexact
+      return allRows;
+    }
+
+    @Override
+    public RowRanges and(RowRanges leftResult, RowRanges rightResult) {
+      return leftResult.intersect(rightResult);
+    }
+
+    @Override
+    public RowRanges or(RowRanges leftResult, RowRanges rightResult) {
+      return leftResult.union(rightResult);
+    }
+
+    @Override
+    public <T> RowRanges isNull(BoundReference<T> ref) {
+      int id = ref.fieldId();
+      if (!columns.containsKey(id)) {
+        // the column is not present and is all nulls
+        return allRows;
+      }
+
+      PageIndex index = pageIndex(id);
+      if (index == null || !index.hasNullCounts()) {
+        return allRows;
+      }
+
+      return index.select(page -> index.isNullPage(page) || index.nullCount(page) > 0);
+    }
+
+    @Override
+    public <T> RowRanges notNull(BoundReference<T> ref) {
+      int id = ref.fieldId();
+
+      // leave all nested column type filters to be evaluated post scan, see ParquetMetricsRowGroupFilter
+      if (schema.findType(id) instanceof Type.NestedType) {
+        return allRows;
+      }
+
+      if (!columns.containsKey(id)) {
+        // the column is not present and is all nulls
+        return RowRanges.empty();
+      }
+
+      PageIndex index = pageIndex(id);
+      if (index == null) {
+        return allRows;
+      }
+
+      return index.select(page -> !index.isNullPage(page));
+    }
+
+    @Override
+    public <T> RowRanges isNaN(BoundReference<T> ref) {
+      int id = ref.fieldId();
+      if (!columns.containsKey(id)) {
+        // the column is not present and is all nulls
+        return RowRanges.empty();
+      }
+
+      PageIndex index = pageIndex(id);
+      if (index == null) {
+        return allRows;
+      }
+
+      return index.select(page -> !index.isNullPage(page));
+    }
+
+    @Override
+    public <T> RowRanges notNaN(BoundReference<T> ref) {
+      return allRows;
+    }
+
+    @Override
+    public <T> RowRanges lt(BoundReference<T> ref, Literal<T> lit) {
+      return selectNonNull(ref, (index, page) -> {
+        T lower = index.min(page);
+        return lit.comparator().compare(lower, lit.value()) < 0;
+      });
+    }
+
+    @Override
+    public <T> RowRanges ltEq(BoundReference<T> ref, Literal<T> lit) {
+      return selectNonNull(ref, (index, page) -> {
+        T lower = index.min(page);
+        return lit.comparator().compare(lower, lit.value()) <= 0;
+      });
+    }
+
+    @Override
+    public <T> RowRanges gt(BoundReference<T> ref, Literal<T> lit) {
+      return selectNonNull(ref, (index, page) -> {
+        T upper = index.max(page);
+        return lit.comparator().compare(upper, lit.value()) > 0;
+      });
+    }
+
+    @Override
+    public <T> RowRanges gtEq(BoundReference<T> ref, Literal<T> lit) {
+      return selectNonNull(ref, (index, page) -> {
+        T upper = index.max(page);
+        return lit.comparator().compare(upper, lit.value()) >= 0;
+      });
+    }
+
+    @Override
+    public <T> RowRanges eq(BoundReference<T> ref, Literal<T> lit) {
+      if (schema.findType(ref.fieldId()) instanceof Type.NestedType) {
+        return allRows;
+      }
+
+      return selectNonNull(ref, (index, page) -> {
+        T lower = index.min(page);
+        if (lit.comparator().compare(lower, lit.value()) > 0) {
+          return false;
+        }
+
+        T upper = index.max(page);
+        return lit.comparator().compare(upper, lit.value()) >= 0;
+      });
+    }
+
+    @Override
+    public <T> RowRanges notEq(BoundReference<T> ref, Literal<T> lit) {
+      // because the bounds are not necessarily a min or max value, this cannot be answered using them
+      return allRows;
+    }
+
+    @Override
+    public <T> RowRanges in(BoundReference<T> ref, Set<T> literalSet) {
+      if (schema.findType(ref.fieldId()) instanceof Type.NestedType) {
+        return allRows;
+      }
+
+      if (literalSet.size() > IN_PREDICATE_LIMIT) {
+        // skip evaluating the predicate if the number of values is too big
+        return allRows;
+      }
+
+      return selectNonNull(ref, (index, page) -> {
+        T lower = index.min(page);
+        T upper = index.max(page);
+        for (T value : literalSet) {
+          if (ref.comparator().compare(lower, value) <= 0 && ref.comparator().compare(upper, value) >= 0) {
+            return true;
+          }
+        }
+
+        return false;
+      });
+    }
+
+    @Override
+    public <T> RowRanges notIn(BoundReference<T> ref, Set<T> literalSet) {
+      // because the bounds are not necessarily a min or max value, this cannot be answered using them
+      return allRows;
+    }
+
+    @Override
+    public <T> RowRanges startsWith(BoundReference<T> ref, Literal<T> lit) {
+      ByteBuffer prefixAsBytes = lit.toByteBuffer();
+      Comparator<ByteBuffer> comparator = Comparators.unsignedBytes();
+
+      return selectNonNull(ref, (index, page) -> {
+        ByteBuffer lower = index.minBuffer(page);
+        // truncate lower bound so that its length in bytes is not greater than the length of prefix
+        int lowerLength = Math.min(prefixAsBytes.remaining(), lower.remaining());
+        if (comparator.compare(BinaryUtil.truncateBinary(lower, lowerLength), prefixAsBytes) > 0) {
+          return false;
+        }
+
+        ByteBuffer upper = index.maxBuffer(page);
+        // truncate upper bound so that its length in bytes is not greater than the length of prefix
+        int upperLength = Math.min(prefixAsBytes.remaining(), upper.remaining());
+        return comparator.compare(BinaryUtil.truncateBinary(upper, upperLength), prefixAsBytes) >= 0;
+      });
+    }
+
+    private <T> RowRanges selectNonNull(BoundReference<T> ref, PagePredicate mightMatch) {
+      int id = ref.fieldId();
+      if (!columns.containsKey(id)) {
+        // the column is not present and is all nulls
+        return RowRanges.empty();
+      }
+
+      PageIndex index = pageIndex(id);
+      if (index == null || !index.hasBounds()) {
+        return allRows;
+      }
+
+      // pages that contain only nulls cannot match a comparison
+      return index.select(page -> !index.isNullPage(page) && mightMatch.test(index, page));
+    }
+
+    private PageIndex pageIndex(int id) {
+      if (!pageIndexes.containsKey(id)) {
+        pageIndexes.put(id, readPageIndex(id));
+      }
+
+      return pageIndexes.get(id);
+    }
+
+    private PageIndex readPageIndex(int id) {
+      ColumnChunkMetaData column = columns.get(id);
+      try {
+        ColumnIndex columnIndex = reader.readColumnIndex(column);
+        OffsetIndex offsetIndex = reader.readOffsetIndex(column);
+        if (columnIndex == null || offsetIndex == null) {
+          return null;
+        }
+
+        return new PageIndex(types.get(id), columnIndex, offsetIndex, rowCount);
+      } catch (IOException e) {
+        throw new RuntimeIOException(e, "Failed to read page index for column: %s", column.getPath());
+      }
+    }
+  }
+
+  private interface PagePredicate {
+    boolean test(PageIndex index, int page);
+  }
+
+  private static class PageIndex {
+    private final PrimitiveType type;
+    private final Function<Object, Object> conversion;
+    private final OffsetIndex offsetIndex;
+    private final List<Boolean> nullPages;
+    private final List<Long> nullCounts;
+    private final List<ByteBuffer> minValues;
+    private final List<ByteBuffer> maxValues;
+    private final long rowCount;
+
+    private PageIndex(PrimitiveType type, ColumnIndex columnIndex, OffsetIndex offsetIndex, long rowCount) {
+      this.type = type;
+      this.conversion = ParquetConversions.converterFromParquet(type);
+      this.offsetIndex = offsetIndex;
+      this.nullPages = columnIndex.getNullPages();
+      this.nullCounts = columnIndex.getNullCounts();
+      this.minValues = columnIndex.getMinValues();
+      this.maxValues = columnIndex.getMaxValues();
+      this.rowCount = rowCount;
+    }
+
+    private boolean hasNullCounts() {
+      return nullCounts != null && !nullCounts.isEmpty();
+    }
+
+    private boolean hasBounds() {
+      return type.getPrimitiveTypeName() != PrimitiveType.PrimitiveTypeName.INT96 &&
+          minValues != null && maxValues != null;
+    }
+
+    private boolean isNullPage(int page) {
+      return nullPages.get(page);
+    }
+
+    private long nullCount(int page) {
+      return nullCounts.get(page);
+    }
+
+    private ByteBuffer minBuffer(int page) {
+      return minValues.get(page).duplicate();
+    }
+
+    private ByteBuffer maxBuffer(int page) {
+      return maxValues.get(page).duplicate();
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T min(int page) {
+      return (T) conversion.apply(decode(minBuffer(page)));
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T max(int page) {
+      return (T) conversion.apply(decode(maxBuffer(page)));
+    }
+
+    private Object decode(ByteBuffer buffer) {
+      ByteBuffer value = buffer.order(ByteOrder.LITTLE_ENDIAN);
+      switch (type.getPrimitiveTypeName()) {
+        case BOOLEAN:
+          return value.get(value.position()) != 0;
+        case INT32:
+          return value.getInt(value.position());
+        case INT64:
+          return value.getLong(value.position());
+        case FLOAT:
+          return value.getFloat(value.position());
+        case DOUBLE:
+          return value.getDouble(value.position());
+        case BINARY:
+        case FIXED_LEN_BYTE_ARRAY:
+          return Binary.fromConstantByteBuffer(value);
+        default:
+          throw new UnsupportedOperationException("Unsupported page index type: " + type);
+      }
+    }
+
+    private RowRanges select(IntPredicate mightMatch) {
+      RowRanges.Builder builder = RowRanges.builder();
+      int pageCount = offsetIndex.getPageCount();
+      for (int page = 0; page < pageCount; page += 1) {
+        if (mightMatch.test(page)) {
+          long firstRow = offsetIndex.getFirstRowIndex(page);
+          long lastRow = page + 1 < pageCount ? offsetIndex.getFirstRowIndex(page + 1) - 1 : rowCount - 1;
+          builder.add(firstRow, lastRow);
+        }
+      }
+
+      return builder.build();
+    }
+  }
+}
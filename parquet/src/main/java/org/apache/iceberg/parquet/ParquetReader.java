@@ -86,12 +86,18 @@ public class ParquetReader<T> extends CloseableGroup implements CloseableIterabl
     private final long totalValues;
     private final boolean reuseContainers;
     private final long[] rowGroupsStartRowPos;
+    private final RowRanges[] rowRanges;
 
     private int nextRowGroup = 0;
     private long nextRowGroupStart = 0;
     private long valuesRead = 0;
     private T last = null;
 
+    // state for skipping rows in the current row group, used only when row ranges are set
+    private RowRanges currentRanges = null;
+    private int currentRange = 0;
+    private long currentRow = 0;
+
     FileIterator(ReadConf<T> conf) {
       this.reader = conf.reader();
       this.shouldSkip = conf.shouldSkip();
@@ -99,6 +105,7 @@ public class ParquetReader<T> extends CloseableGroup implements CloseableIterabl
       this.totalValues = conf.totalValues();
       this.reuseContainers = conf.reuseContainers();
       this.rowGroupsStartRowPos = conf.startRowPositions();
+      this.rowRanges = conf.rowRanges();
     }
 
     @Override
@@ -112,6 +119,10 @@ public class ParquetReader<T> extends CloseableGroup implements CloseableIterabl
         advance();
       }
 
+      if (currentRanges != null) {
+        skipToNextRange();
+      }
+
       if (reuseContainers) {
         this.last = model.read(last);
       } else {
@@ -136,12 +147,35 @@ public class ParquetReader<T> extends CloseableGroup implements CloseableIterabl
       }
 
       long rowPosition = rowGroupsStartRowPos[nextRowGroup];
-      nextRowGroupStart += pages.getRowCount();
+      if (rowRanges != null) {
+        this.currentRanges = rowRanges[nextRowGroup];
+        this.currentRange = 0;
+        this.currentRow = 0;
+        nextRowGroupStart += currentRanges.rowCount();
+      } else {
+        nextRowGroupStart += pages.getRowCount();
+      }
+
       nextRowGroup += 1;
 
       model.setPageSource(pages, rowPosition);
     }
 
+    private void skipToNextRange() {
+      if (currentRow > currentRanges.end(currentRange)) {
+        currentRange += 1;
+      }
+
+      long rangeStart = currentRanges.start(currentRange);
+      if (currentRow < rangeStart) {
+        // skip rows in pages that cannot match; readers that track the row position account for skipped rows
+        model.skipRows(rangeStart - currentRow);
+        this.currentRow = rangeStart;
+      }
+
+      this.currentRow += 1;
+    }
+
     @Override
     public void close() throws IOException {
       reader.close();
@@ -30,4 +30,19 @@ public interface ParquetValueReader<T> {
   List<TripleIterator<?>> columns();
 
   void setPageSource(PageReadStore pageStore, long rowPosition);
+
+  /**
+   * Skips the next rows of the current page source without returning them.
+   * <p>
+   * This is only called when all columns in the projection are not repeated, so that each row has exactly one value
+   * in every column. The default implementation reads and discards rows; readers that can skip values without
+   * materializing them should override it.
+   *
+   * @param numRows the number of rows to skip
+   */
+  default void skipRows(long numRows) {
+    for (long i = 0; i < numRows; i += 1) {
+      read(null);
+    }
+  }
 }
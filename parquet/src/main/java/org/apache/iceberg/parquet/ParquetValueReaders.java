@@ -112,6 +112,10 @@ public class ParquetValueReaders {
     @Override
     public void setPageSource(PageReadStore pageStore, long rowPosition) {
     }
+
+    @Override
+    public void skipRows(long numRows) {
+    }
   }
 
   static class ConstantReader<C> implements ParquetValueReader<C> {
@@ -139,6 +143,10 @@ public class ParquetValueReaders {
     @Override
     public void setPageSource(PageReadStore pageStore, long rowPosition) {
     }
+
+    @Override
+    public void skipRows(long numRows) {
+    }
   }
 
   static class PositionReader implements ParquetValueReader<Long> {
@@ -166,6 +174,11 @@ public class ParquetValueReaders {
       this.rowGroupStart = rowPosition;
       this.rowOffset = -1;
     }
+
+    @Override
+    public void skipRows(long numRows) {
+      this.rowOffset += numRows;
+    }
   }
 
   public abstract static class PrimitiveReader<T> implements ParquetValueReader<T> {
@@ -185,6 +198,11 @@ public class ParquetValueReaders {
       column.setPageSource(pageStore.getPageReader(desc));
     }
 
+    @Override
+    public void skipRows(long numRows) {
+      column.skip(numRows);
+    }
+
     @Override
     public TripleIterator<?> column() {
       return column;
@@ -374,6 +392,12 @@ public class ParquetValueReaders {
       return column;
     }
 
+    @Override
+    public void skipRows(long numRows) {
+      // rows are not repeated so null values are skipped along with non-null values
+      reader.skipRows(numRows);
+    }
+
     @Override
     public T read(T reuse) {
       if (column.currentDefinitionLevel() > definitionLevel) {
@@ -691,6 +715,13 @@ public class ParquetValueReaders {
       return column;
     }
 
+    @Override
+    public void skipRows(long numRows) {
+      for (int i = 0; i < readers.length; i += 1) {
+        readers[i].skipRows(numRows);
+      }
+    }
+
     @Override
     public final T read(T reuse) {
       I intermediate = newStructData(reuse);
@@ -56,6 +56,7 @@ class ReadConf<T> {
   private final VectorizedReader<T> vectorizedModel;
   private final List<BlockMetaData> rowGroups;
   private final boolean[] shouldSkip;
+  private final RowRanges[] rowRanges;
   private final long totalValues;
   private final boolean reuseContainers;
   private final Integer batchSize;
@@ -95,21 +96,43 @@ class ReadConf<T> {
 
     ParquetMetricsRowGroupFilter statsFilter = null;
     ParquetDictionaryRowGroupFilter dictFilter = null;
+    ParquetBloomRowGroupFilter bloomFilter = null;
+    ParquetColumnIndexFilter pageFilter = null;
     if (filter != null) {
       statsFilter = new ParquetMetricsRowGroupFilter(expectedSchema, filter, caseSensitive);
       dictFilter = new ParquetDictionaryRowGroupFilter(expectedSchema, filter, caseSensitive);
+      bloomFilter = new ParquetBloomRowGroupFilter(expectedSchema, filter, caseSensitive);
+      pageFilter = new ParquetColumnIndexFilter(expectedSchema, filter, caseSensitive);
     }
 
+    // rows within a row group can only be skipped by row readers when every projected column has one value per row
+    boolean canSkipRows = readerFunc != null && projection.getColumns().stream()
+        .allMatch(column -> column.getMaxRepetitionLevel() == 0);
+    this.rowRanges = canSkipRows && filter != null ? new RowRanges[rowGroups.size()] : null;
+
     long computedTotalValues = 0L;
     for (int i = 0; i < shouldSkip.length; i += 1) {
       BlockMetaData rowGroup = rowGroups.get(i);
       startRowPositions[i] = offsetToStartPos == null ? 0 : offsetToStartPos.get(rowGroup.getStartingPos());
       boolean shouldRead = filter == null || (
           statsFilter.shouldRead(typeWithIds, rowGroup) &&
-              dictFilter.shouldRead(typeWithIds, rowGroup, reader.getDictionaryReader(rowGroup)));
+              dictFilter.shouldRead(typeWithIds, rowGroup, reader.getDictionaryReader(rowGroup)) &&
+              bloomFilter.shouldRead(typeWithIds, rowGroup, reader.getBloomFilterDataReader(rowGroup)));
+
+      RowRanges ranges = null;
+      if (shouldRead && pageFilter != null) {
+        ranges = pageFilter.calculateRowRanges(typeWithIds, reader, rowGroup);
+        shouldRead = !ranges.isEmpty();
+      }
+
       this.shouldSkip[i] = !shouldRead;
       if (shouldRead) {
-        computedTotalValues += rowGroup.getRowCount();
+        if (rowRanges != null) {
+          rowRanges[i] = ranges;
+          computedTotalValues += ranges.rowCount();
+        } else {
+          computedTotalValues += rowGroup.getRowCount();
+        }
       }
     }
 
@@ -136,6 +159,7 @@ class ReadConf<T> {
     this.model = toCopy.model;
     this.rowGroups = toCopy.rowGroups;
     this.shouldSkip = toCopy.shouldSkip;
+    this.rowRanges = toCopy.rowRanges;
     this.totalValues = toCopy.totalValues;
     this.reuseContainers = toCopy.reuseContainers;
     this.batchSize = toCopy.batchSize;
@@ -167,6 +191,15 @@ class ReadConf<T> {
     return shouldSkip;
   }
 
+  /**
+   * Returns the rows to read for each row group, or null if all rows of the row groups that are not skipped are read.
+   * <p>
+   * Row ranges are only produced for row-based readers with a filter when all projected columns are not repeated.
+   */
+  RowRanges[] rowRanges() {
+    return rowRanges;
+  }
+
   private Map<Long, Long> generateOffsetToStartPos(Schema schema) {
     if (schema.findField(MetadataColumns.ROW_POSITION.fieldId()) == null) {
       return null;
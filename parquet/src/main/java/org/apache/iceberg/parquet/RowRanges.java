@@ -0,0 +1,176 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iceberg.parquet;
+
+import java.util.Arrays;
+import org.apache.iceberg.relocated.com.google.common.base.Preconditions;
+
+/**
+ * Sorted, non-overlapping ranges of row indexes within a row group.
+ * <p>
+ * Ranges are inclusive on both ends and adjacent ranges are always merged.
+ */
+class RowRanges {
+  private static final RowRanges EMPTY = new RowRanges(new long[0], new long[0]);
+
+  private final long[] starts;
+  private final long[] ends;
+
+  private RowRanges(long[] starts, long[] ends) {
+    this.starts = starts;
+    this.ends = ends;
+  }
+
+  static RowRanges empty() {
+    return EMPTY;
+  }
+
+  static RowRanges all(long rowCount) {
+    if (rowCount <= 0) {
+      return EMPTY;
+    }
+
+    return new RowRanges(new long[] { 0 }, new long[] { rowCount - 1 });
+  }
+
+  static Builder builder() {
+    return new Builder();
+  }
+
+  int size() {
+    return starts.length;
+  }
+
+  boolean isEmpty() {
+    return starts.length == 0;
+  }
+
+  long start(int index) {
+    return starts[index];
+  }
+
+  long end(int index) {
+    return ends[index];
+  }
+
+  long rowCount() {
+    long count = 0L;
+    for (int i = 0; i < starts.length; i += 1) {
+      count += ends[i] - starts[i] + 1;
+    }
+
+    return count;
+  }
+
+  RowRanges union(RowRanges other) {
+    Builder builder = builder();
+    int left = 0;
+    int right = 0;
+    while (left < starts.length || right < other.starts.length) {
+      if (right >= other.starts.length || (left < starts.length && starts[left] <= other.starts[right])) {
+        builder.add(starts[left], ends[left]);
+        left += 1;
+      } else {
+        builder.add(other.starts[right], other.ends[right]);
+        right += 1;
+      }
+    }
+
+    return builder.build();
+  }
+
+  RowRanges intersect(RowRanges other) {
+    Builder builder = builder();
+    int left = 0;
+    int right = 0;
+    while (left < starts.length && right < other.starts.length) {
+      long start = Math.max(starts[left], other.starts[right]);
+      long end = Math.min(ends[left], other.ends[right]);
+      if (start <= end) {
+        builder.add(start, end);
+      }
+
+      if (ends[left] < other.ends[right]) {
+        left += 1;
+      } else {
+        right += 1;
+      }
+    }
+
+    return builder.build();
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder sb = new StringBuilder("[");
+    for (int i = 0; i < starts.length; i += 1) {
+      if (i > 0) {
+        sb.append(", ");
+      }
+
+      sb.append(starts[i]).append("-").append(ends[i]);
+    }
+
+    return sb.append("]").toString();
+  }
+
+  /**
+   * Builds ranges from row ranges that are added in order of their start.
+   */
+  static class Builder {
+    private long[] starts = new long[8];
+    private long[] ends = new long[8];
+    private int size = 0;
+
+    private Builder() {
+    }
+
+    Builder add(long start, long end) {
+      Preconditions.checkArgument(start <= end, "Invalid row range: %s-%s", start, end);
+      Preconditions.checkArgument(size == 0 || start >= starts[size - 1],
+          "Row ranges must be added in order: %s after %s", start, size > 0 ? starts[size - 1] : null);
+
+      if (size > 0 && start <= ends[size - 1] + 1) {
+        // overlaps or is adjacent to the last range
+        ends[size - 1] = Math.max(ends[size - 1], end);
+        return this;
+      }
+
+      if (size == starts.length) {
+        this.starts = Arrays.copyOf(starts, size * 2);
+        this.ends = Arrays.copyOf(ends, size * 2);
+      }
+
+      starts[size] = start;
+      ends[size] = end;
+      size += 1;
+
+      return this;
+    }
+
+    RowRanges build() {
+      if (size == 0) {
+        return EMPTY;
+      }
+
+      return new RowRanges(Arrays.copyOf(starts, size), Arrays.copyOf(ends, size));
+    }
+  }
+}
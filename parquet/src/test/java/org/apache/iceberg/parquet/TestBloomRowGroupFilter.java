@@ -0,0 +1,340 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iceberg.parquet;
+
+import java.io.File;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+import org.apache.iceberg.Files;
+import org.apache.iceberg.Schema;
+import org.apache.iceberg.TableProperties;
+import org.apache.iceberg.TestHelpers;
+import org.apache.iceberg.data.GenericRecord;
+import org.apache.iceberg.data.Record;
+import org.apache.iceberg.data.parquet.GenericParquetReaders;
+import org.apache.iceberg.data.parquet.GenericParquetWriter;
+import org.apache.iceberg.exceptions.ValidationException;
+import org.apache.iceberg.expressions.Expression;
+import org.apache.iceberg.io.CloseableIterable;
+import org.apache.iceberg.io.FileAppender;
+import org.apache.iceberg.relocated.com.google.common.collect.Lists;
+import org.apache.iceberg.types.Types;
+import org.apache.iceberg.util.UUIDUtil;
+import org.apache.parquet.hadoop.BloomFilterReader;
+import org.apache.parquet.hadoop.ParquetFileReader;
+import org.apache.parquet.hadoop.metadata.BlockMetaData;
+import org.apache.parquet.schema.MessageType;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.apache.iceberg.expressions.Expressions.and;
+import static org.apache.iceberg.expressions.Expressions.equal;
+import static org.apache.iceberg.expressions.Expressions.greaterThan;
+import static org.apache.iceberg.expressions.Expressions.in;
+import static org.apache.iceberg.expressions.Expressions.isNull;
+import static org.apache.iceberg.expressions.Expressions.lessThan;
+import static org.apache.iceberg.expressions.Expressions.not;
+import static org.apache.iceberg.expressions.Expressions.notEqual;
+import static org.apache.iceberg.expressions.Expressions.notIn;
+import static org.apache.iceberg.expressions.Expressions.notNull;
+import static org.apache.iceberg.expressions.Expressions.or;
+import static org.apache.iceberg.types.Types.NestedField.optional;
+import static org.apache.iceberg.types.Types.NestedField.required;
+
+public class TestBloomRowGroupFilter {
+
+  private static final Types.StructType STRUCT_TYPE = Types.StructType.of(
+      required(15, "int_field", Types.IntegerType.get()));
+
+  private static final Schema SCHEMA = new Schema(
+      required(1, "id", Types.IntegerType.get()),
+      optional(2, "long", Types.LongType.get()),
+      optional(3, "double", Types.DoubleType.get()),
+      optional(4, "float", Types.FloatType.get()),
+      optional(5, "string", Types.StringType.get()),
+      optional(6, "uuid", Types.UUIDType.get()),
+      optional(7, "fixed", Types.FixedType.ofLength(4)),
+      optional(8, "binary", Types.BinaryType.get()),
+      optional(9, "int_decimal", Types.DecimalType.of(8, 2)),
+      optional(10, "long_decimal", Types.DecimalType.of(14, 2)),
+      optional(11, "fixed_decimal", Types.DecimalType.of(31, 2)),
+      optional(12, "no_bloom", Types.StringType.get()),
+      optional(13, "all_nulls", Types.LongType.get()),
+      optional(14, "struct_not_null", STRUCT_TYPE));
+
+  private static final Schema SCHEMA_WITH_MISSING = new Schema(
+      required(1, "id", Types.IntegerType.get()),
+      optional(16, "not_in_file", Types.LongType.get()));
+
+  private static final String[] BLOOM_COLUMNS = new String[] {
+      "id", "long", "double", "float", "string", "uuid", "fixed", "binary", "int_decimal", "long_decimal",
+      "fixed_decimal", "all_nulls", "struct_not_null.int_field"
+  };
+
+  // only even values are written so that missing values are within the min/max range of each column
+  private static final int NUM_VALUES = 50;
+  private static final UUID[] UUIDS = new UUID[NUM_VALUES * 2];
+
+  static {
+    for (int i = 0; i < UUIDS.length; i += 1) {
+      UUIDS[i] = UUID.randomUUID();
+    }
+  }
+
+  @Rule
+  public TemporaryFolder temp = new TemporaryFolder();
+
+  private File parquetFile = null;
+  private MessageType parquetSchema = null;
+  private BlockMetaData rowGroupMetadata = null;
+  private ParquetFileReader reader = null;
+  private BloomFilterReader bloomStore = null;
+
+  @Before
+  public void createInputFile() throws IOException {
+    this.parquetFile = temp.newFile();
+    Assert.assertTrue(parquetFile.delete());
+
+    List<Record> records = Lists.newArrayList();
+    for (int i = 0; i < NUM_VALUES * 2; i += 2) {
+      Record record = GenericRecord.create(SCHEMA);
+      record.setField("id", i);
+      record.setField("long", (long) i);
+      record.setField("double", (double) i);
+      record.setField("float", (float) i);
+      record.setField("string", "str-" + i);
+      record.setField("uuid", UUIDUtil.convert(UUIDS[i]));
+      record.setField("fixed", fixed(i).array());
+      record.setField("binary", ByteBuffer.wrap(("bin-" + i).getBytes(StandardCharsets.UTF_8)));
+      record.setField("int_decimal", new BigDecimal(i).setScale(2));
+      record.setField("long_decimal", new BigDecimal(i).setScale(2));
+      record.setField("fixed_decimal", new BigDecimal(i).setScale(2));
+      record.setField("no_bloom", "str-" + i);
+      record.setField("all_nulls", null);
+
+      Record struct = GenericRecord.create(STRUCT_TYPE);
+      struct.setField("int_field", i);
+      record.setField("struct_not_null", struct);
+
+      records.add(record);
+    }
+
+    Parquet.WriteBuilder builder = Parquet.write(Files.localOutput(parquetFile))
+        .schema(SCHEMA)
+        .createWriterFunc(GenericParquetWriter::buildWriter);
+    for (String column : BLOOM_COLUMNS) {
+      builder.set(TableProperties.PARQUET_BLOOM_FILTER_COLUMN_ENABLED_PREFIX + column, "true");
+    }
+
+    try (FileAppender<Record> appender = builder.build()) {
+      appender.addAll(records);
+    }
+
+    this.reader = ParquetFileReader.open(ParquetIO.file(Files.localInput(parquetFile)));
+    Assert.assertEquals("Should create only one row group", 1, reader.getRowGroups().size());
+    this.rowGroupMetadata = reader.getRowGroups().get(0);
+    this.parquetSchema = reader.getFileMetaData().getSchema();
+    this.bloomStore = reader.getBloomFilterDataReader(rowGroupMetadata);
+  }
+
+  @After
+  public void closeReader() throws IOException {
+    reader.close();
+  }
+
+  @Test
+  public void testAssumptions() {
+    // this case validates that other cases don't need to test expressions with null literals.
+    TestHelpers.assertThrows("Should reject null literal in equal expression",
+        NullPointerException.class,
+        "Cannot create expression literal from null",
+        () -> equal("col", null));
+    TestHelpers.assertThrows("Should reject null literal in notEqual expression",
+        NullPointerException.class,
+        "Cannot create expression literal from null",
+        () -> notEqual("col", null));
+  }
+
+  @Test
+  public void testBloomFiltersWritten() {
+    for (String column : BLOOM_COLUMNS) {
+      int id = SCHEMA.findField(column).fieldId();
+      Assert.assertNotNull("Should write a bloom filter for " + column,
+          bloomStore.readBloomFilter(rowGroupMetadata.getColumns().stream()
+              .filter(meta -> parquetSchema.getType(meta.getPath().toArray()).getId().intValue() == id)
+              .findFirst()
+              .get()));
+    }
+  }
+
+  @Test
+  public void testPresentValues() {
+    for (int i = 0; i < NUM_VALUES * 2; i += 2) {
+      Expression[] exprs = new Expression[] {
+          equal("id", i), equal("long", (long) i), equal("double", (double) i), equal("float", (float) i),
+          equal("string", "str-" + i), equal("uuid", UUIDS[i]), equal("fixed", fixed(i)),
+          equal("binary", ByteBuffer.wrap(("bin-" + i).getBytes(StandardCharsets.UTF_8))),
+          equal("int_decimal", new BigDecimal(i).setScale(2)), equal("long_decimal", new BigDecimal(i).setScale(2)),
+          equal("fixed_decimal", new BigDecimal(i).setScale(2)), equal("struct_not_null.int_field", i)
+      };
+
+      for (Expression expr : exprs) {
+        Assert.assertTrue("Should read: value is present for " + expr, shouldRead(expr));
+      }
+    }
+  }
+
+  @Test
+  public void testMissingValues() {
+    for (int i = 1; i < NUM_VALUES * 2; i += 2) {
+      Expression[] exprs = new Expression[] {
+          equal("id", i), equal("long", (long) i), equal("double", (double) i), equal("float", (float) i),
+          equal("string", "str-" + i), equal("uuid", UUIDS[i]), equal("fixed", fixed(i)),
+          equal("binary", ByteBuffer.wrap(("bin-" + i).getBytes(StandardCharsets.UTF_8))),
+          equal("int_decimal", new BigDecimal(i).setScale(2)), equal("long_decimal", new BigDecimal(i).setScale(2)),
+          equal("fixed_decimal", new BigDecimal(i).setScale(2)), equal("struct_not_null.int_field", i)
+      };
+
+      for (Expression expr : exprs) {
+        Assert.assertFalse("Should skip: value is not present for " + expr, shouldRead(expr));
+      }
+    }
+  }
+
+  @Test
+  public void testAllNulls() {
+    Assert.assertFalse("Should skip: bloom filter of an all-null column is empty", shouldRead(equal("all_nulls", 1L)));
+    Assert.assertTrue("Should read: bloom filters cannot eliminate isNull", shouldRead(isNull("all_nulls")));
+    Assert.assertTrue("Should read: bloom filters cannot eliminate notNull", shouldRead(notNull("all_nulls")));
+  }
+
+  @Test
+  public void testColumnWithoutBloomFilter() {
+    Assert.assertTrue("Should read: column has no bloom filter", shouldRead(equal("no_bloom", "str-1")));
+  }
+
+  @Test
+  public void testUnsupportedPredicates() {
+    Expression[] exprs = new Expression[] {
+        lessThan("id", 1), greaterThan("id", 1000), notEqual("id", 1), notIn("id", 1, 3), not(equal("id", 1))
+    };
+
+    for (Expression expr : exprs) {
+      Assert.assertTrue("Should read: bloom filters cannot eliminate " + expr, shouldRead(expr));
+    }
+  }
+
+  @Test
+  public void testIn() {
+    Assert.assertFalse("Should skip: no values are present", shouldRead(in("id", 1, 3, 5)));
+    Assert.assertTrue("Should read: one value is present", shouldRead(in("id", 1, 4, 5)));
+    Assert.assertFalse("Should skip: no values are present", shouldRead(in("string", "str-1", "str-3")));
+    Assert.assertTrue("Should read: one value is present", shouldRead(in("string", "str-1", "str-2")));
+  }
+
+  @Test
+  public void testAnd() {
+    Assert.assertFalse("Should skip: one side cannot match",
+        shouldRead(and(equal("id", 2), equal("long", 3L))));
+    Assert.assertTrue("Should read: both sides might match",
+        shouldRead(and(equal("id", 2), equal("long", 2L))));
+  }
+
+  @Test
+  public void testOr() {
+    Assert.assertFalse("Should skip: neither side can match",
+        shouldRead(or(equal("id", 1), equal("long", 3L))));
+    Assert.assertTrue("Should read: one side might match",
+        shouldRead(or(equal("id", 1), equal("long", 2L))));
+  }
+
+  @Test
+  public void testMissingColumn() {
+    TestHelpers.assertThrows("Should complain about missing column in expression",
+        ValidationException.class, "Cannot find field 'missing'",
+        () -> new ParquetBloomRowGroupFilter(SCHEMA, equal("missing", 5))
+            .shouldRead(parquetSchema, rowGroupMetadata, bloomStore));
+  }
+
+  @Test
+  public void testColumnNotInFile() {
+    boolean shouldRead = new ParquetBloomRowGroupFilter(SCHEMA_WITH_MISSING, equal("not_in_file", 1L))
+        .shouldRead(parquetSchema, rowGroupMetadata, bloomStore);
+    Assert.assertTrue("Should read: bloom filter cannot be found for a column that is not in the file", shouldRead);
+  }
+
+  @Test
+  public void testMismatchedColumnTypes() {
+    // the expected types do not match how the columns were written, so the values cannot be hashed like the file
+    Schema mismatched = new Schema(
+        required(1, "id", Types.IntegerType.get()),
+        optional(7, "fixed", Types.BinaryType.get()),
+        optional(8, "binary", Types.FixedType.ofLength(4)),
+        optional(9, "int_decimal", Types.DecimalType.of(8, 3)));
+
+    Expression[] exprs = new Expression[] {
+        equal("fixed", fixed(3)), equal("binary", fixed(3)), equal("int_decimal", new BigDecimal("0.003"))
+    };
+
+    for (Expression expr : exprs) {
+      Assert.assertTrue("Should read: column type does not match for " + expr,
+          new ParquetBloomRowGroupFilter(mismatched, expr).shouldRead(parquetSchema, rowGroupMetadata, bloomStore));
+    }
+  }
+
+  @Test
+  public void testDecimalLargerThanColumn() {
+    // the literal has a precision of 33, which cannot be written to the decimal(31, 2) column
+    Expression expr = equal("fixed_decimal", new BigDecimal("1234567890123456789012345678901.23"));
+    Assert.assertTrue("Should read: value does not fit the column", shouldRead(expr));
+  }
+
+  @Test
+  public void testReadSkipsRowGroup() throws IOException {
+    Assert.assertEquals("Should read the matching row group", NUM_VALUES, read(equal("string", "str-2")).size());
+    Assert.assertEquals("Should skip the row group", 0, read(equal("string", "str-3")).size());
+  }
+
+  private boolean shouldRead(Expression expr) {
+    return new ParquetBloomRowGroupFilter(SCHEMA, expr).shouldRead(parquetSchema, rowGroupMetadata, bloomStore);
+  }
+
+  private List<Record> read(Expression filter) throws IOException {
+    try (CloseableIterable<Record> records = Parquet.read(Files.localInput(parquetFile))
+        .project(SCHEMA)
+        .createReaderFunc(fileSchema -> GenericParquetReaders.buildReader(SCHEMA, fileSchema))
+        .filter(filter)
+        .build()) {
+      return Lists.newArrayList(records);
+    }
+  }
+
+  private static ByteBuffer fixed(int value) {
+    return ByteBuffer.allocate(4).putInt(0, value);
+  }
+}
@@ -0,0 +1,195 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iceberg.parquet;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import org.apache.iceberg.Files;
+import org.apache.iceberg.MetadataColumns;
+import org.apache.iceberg.Schema;
+import org.apache.iceberg.TableProperties;
+import org.apache.iceberg.data.GenericRecord;
+import org.apache.iceberg.data.Record;
+import org.apache.iceberg.data.parquet.GenericParquetReaders;
+import org.apache.iceberg.data.parquet.GenericParquetWriter;
+import org.apache.iceberg.expressions.Expression;
+import org.apache.iceberg.io.CloseableIterable;
+import org.apache.iceberg.io.FileAppender;
+import org.apache.iceberg.relocated.com.google.common.collect.Lists;
+import org.apache.iceberg.types.Types;
+import org.apache.parquet.hadoop.ParquetFileReader;
+import org.apache.parquet.hadoop.metadata.BlockMetaData;
+import org.apache.parquet.schema.MessageType;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.apache.iceberg.expressions.Expressions.and;
+import static org.apache.iceberg.expressions.Expressions.equal;
+import static org.apache.iceberg.expressions.Expressions.greaterThanOrEqual;
+import static org.apache.iceberg.expressions.Expressions.in;
+import static org.apache.iceberg.expressions.Expressions.isNull;
+import static org.apache.iceberg.expressions.Expressions.lessThan;
+import static org.apache.iceberg.expressions.Expressions.notNull;
+import static org.apache.iceberg.expressions.Expressions.or;
+import static org.apache.iceberg.expressions.Expressions.startsWith;
+import static org.apache.iceberg.types.Types.NestedField.optional;
+import static org.apache.iceberg.types.Types.NestedField.required;
+
+public class TestColumnIndexFilter {
+  private static final Schema SCHEMA = new Schema(
+      required(1, "id", Types.LongType.get()),
+      optional(2, "data", Types.StringType.get()),
+      optional(3, "sparse", Types.IntegerType.get()));
+
+  private static final Schema PROJECTION_WITH_POS = new Schema(
+      required(1, "id", Types.LongType.get()),
+      optional(2, "data", Types.StringType.get()),
+      optional(3, "sparse", Types.IntegerType.get()),
+      MetadataColumns.ROW_POSITION);
+
+  private static final int NUM_RECORDS = 20000;
+
+  @Rule
+  public TemporaryFolder temp = new TemporaryFolder();
+
+  private File parquetFile = null;
+
+  @Before
+  public void writeFile() throws IOException {
+    this.parquetFile = temp.newFile();
+    Assert.assertTrue(parquetFile.delete());
+
+    List<Record> records = Lists.newArrayListWithExpectedSize(NUM_RECORDS);
+    for (long i = 0; i < NUM_RECORDS; i += 1) {
+      Record record = GenericRecord.create(SCHEMA);
+      record.setField("id", i);
+      record.setField("data", String.format("data-%05d", i));
+      // only the last rows have non-null values so that most pages of the column are all null
+      record.setField("sparse", i >= NUM_RECORDS - 100 ? (int) i : null);
+      records.add(record);
+    }
+
+    // use small pages to produce many pages per row group
+    try (FileAppender<Record> writer = Parquet.write(Files.localOutput(parquetFile))
+        .schema(SCHEMA)
+        .createWriterFunc(GenericParquetWriter::buildWriter)
+        .set(TableProperties.PARQUET_PAGE_SIZE_BYTES, "1024")
+        .build()) {
+      writer.addAll(records);
+    }
+  }
+
+  @Test
+  public void testPagesAreFiltered() throws IOException {
+    RowRanges ranges = rowRanges(equal("id", 5000L));
+    Assert.assertEquals("Should select one page", 1, ranges.size());
+    Assert.assertTrue("Selected page should contain the row", ranges.start(0) <= 5000 && ranges.end(0) >= 5000);
+    Assert.assertTrue("Should skip most rows", ranges.rowCount() < NUM_RECORDS / 10);
+  }
+
+  @Test
+  public void testNoMatchingPages() throws IOException {
+    Assert.assertTrue("Should not select pages", rowRanges(lessThan("id", 0L)).isEmpty());
+    Assert.assertTrue("Should not select pages", rowRanges(startsWith("data", "other")).isEmpty());
+  }
+
+  @Test
+  public void testNullCounts() throws IOException {
+    RowRanges notNullRanges = rowRanges(notNull("sparse"));
+    Assert.assertTrue("Should skip all-null pages", notNullRanges.rowCount() < NUM_RECORDS / 10);
+    Assert.assertEquals("Should end at the last row", NUM_RECORDS - 1, notNullRanges.end(notNullRanges.size() - 1));
+
+    RowRanges isNullRanges = rowRanges(isNull("id"));
+    Assert.assertTrue("Should skip pages without nulls", isNullRanges.isEmpty());
+  }
+
+  @Test
+  public void testAndOr() throws IOException {
+    Assert.assertTrue("Should intersect ranges",
+        rowRanges(and(equal("id", 100L), equal("id", 15000L))).isEmpty());
+
+    RowRanges union = rowRanges(or(equal("id", 100L), equal("id", 15000L)));
+    Assert.assertEquals("Should union ranges", 2, union.size());
+
+    RowRanges inRanges = rowRanges(in("id", 100L, 15000L));
+    Assert.assertEquals("Should select the same pages as or", union.toString(), inRanges.toString());
+  }
+
+  @Test
+  public void testReadSkipsRowsAndKeepsPositions() throws IOException {
+    List<Record> rows = read(greaterThanOrEqual("id", 12345L));
+    Assert.assertTrue("Should skip rows in pages that do not match", rows.size() < NUM_RECORDS);
+    Assert.assertTrue("Should read all matching rows", rows.size() >= NUM_RECORDS - 12345);
+
+    for (Record row : rows) {
+      long id = (Long) row.getField("id");
+      Assert.assertEquals("Position should match the written row", id, (long) (Long) row.getField("_pos"));
+      Assert.assertEquals("Data should match the written row", String.format("data-%05d", id), row.getField("data"));
+    }
+
+    long matching = rows.stream().filter(row -> (Long) row.getField("id") >= 12345L).count();
+    Assert.assertEquals("Should return all matching rows", NUM_RECORDS - 12345, matching);
+  }
+
+  @Test
+  public void testReadSkipsRowsAcrossRanges() throws IOException {
+    List<Record> rows = read(or(equal("id", 7L), or(equal("id", 9000L), equal("id", 19999L))));
+    Assert.assertTrue("Should skip most rows", rows.size() < NUM_RECORDS / 10);
+
+    for (Record row : rows) {
+      long id = (Long) row.getField("id");
+      Assert.assertEquals("Position should match the written row", id, (long) (Long) row.getField("_pos"));
+      Integer sparse = (Integer) row.getField("sparse");
+      Assert.assertEquals("Optional values should match the written row",
+          id >= NUM_RECORDS - 100 ? Integer.valueOf((int) id) : null, sparse);
+    }
+
+    Assert.assertEquals("Should return all matching rows", 3,
+        rows.stream().filter(row -> {
+          long id = (Long) row.getField("id");
+          return id == 7L || id == 9000L || id == 19999L;
+        }).count());
+  }
+
+  private RowRanges rowRanges(Expression filter) throws IOException {
+    try (ParquetFileReader reader = ParquetFileReader.open(ParquetIO.file(Files.localInput(parquetFile)))) {
+      MessageType fileSchema = reader.getFileMetaData().getSchema();
+      List<BlockMetaData> rowGroups = reader.getRowGroups();
+      Assert.assertEquals("Should write a single row group", 1, rowGroups.size());
+
+      return new ParquetColumnIndexFilter(SCHEMA, filter, true)
+          .calculateRowRanges(fileSchema, reader, rowGroups.get(0));
+    }
+  }
+
+  private List<Record> read(Expression filter) throws IOException {
+    try (CloseableIterable<Record> reader = Parquet.read(Files.localInput(parquetFile))
+        .project(PROJECTION_WITH_POS)
+        .createReaderFunc(fileSchema -> GenericParquetReaders.buildReader(PROJECTION_WITH_POS, fileSchema))
+        .filter(filter)
+        .build()) {
+      return Lists.newArrayList(reader);
+    }
+  }
+}
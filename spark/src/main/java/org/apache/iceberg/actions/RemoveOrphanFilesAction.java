@@ -21,6 +21,7 @@ package org.apache.iceberg.actions;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.Serializable;
 import java.util.Iterator;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
@@ -36,7 +37,11 @@ import org.apache.iceberg.TableOperations;
 import org.apache.iceberg.exceptions.RuntimeIOException;
 import org.apache.iceberg.exceptions.ValidationException;
 import org.apache.iceberg.hadoop.HiddenPathFilter;
+import org.apache.iceberg.io.FileIO;
+import org.apache.iceberg.relocated.com.google.common.base.Preconditions;
+import org.apache.iceberg.relocated.com.google.common.collect.ImmutableList;
 import org.apache.iceberg.relocated.com.google.common.collect.Lists;
+import org.apache.iceberg.spark.SparkUtil;
 import org.apache.iceberg.util.PropertyUtil;
 import org.apache.iceberg.util.Tasks;
 import org.apache.spark.api.java.JavaRDD;
@@ -51,9 +56,11 @@ import org.apache.spark.sql.SparkSession;
 import org.apache.spark.sql.expressions.UserDefinedFunction;
 import org.apache.spark.sql.functions;
 import org.apache.spark.sql.types.DataTypes;
+import org.apache.spark.storage.StorageLevel;
 import org.apache.spark.util.SerializableConfiguration;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import scala.Tuple2;
 
 import static org.apache.iceberg.TableProperties.GC_ENABLED;
 import static org.apache.iceberg.TableProperties.GC_ENABLED_DEFAULT;
@@ -69,12 +76,19 @@ import static org.apache.iceberg.TableProperties.GC_ENABLED_DEFAULT;
  * For example, someone might point this action to the data folder to clean up only orphan data files.
  * In addition, there is a way to configure an alternative delete method via {@link #deleteWith(Consumer)}.
  * <p>
+ * For locations with many files, {@link #distributed(boolean)} lists directories and deletes orphan files on
+ * executors instead of the driver. In that mode, the returned list is limited to a sample of the orphan files.
+ * <p>
  * <em>Note:</em> It is dangerous to call this action with a short retention interval as it might corrupt
  * the state of the table if another operation is writing at the same time.
  */
 public class RemoveOrphanFilesAction extends BaseSparkAction<List<String>> {
 
   private static final Logger LOG = LoggerFactory.getLogger(RemoveOrphanFilesAction.class);
+  // number of directory levels listed by each task in a round of distributed listing
+  private static final int LISTING_DEPTH_PER_ROUND = 3;
+  // number of orphan files returned by distributed deletes
+  private static final int MAX_RETURNED_ORPHAN_FILES = 1000;
   private static final UserDefinedFunction filename = functions.udf((String path) -> {
     int lastIndex = path.lastIndexOf(File.separator);
     if (lastIndex == -1) {
@@ -93,12 +107,8 @@ public class RemoveOrphanFilesAction extends BaseSparkAction<List<String>> {
 
   private String location = null;
   private long olderThanTimestamp = System.currentTimeMillis() - TimeUnit.DAYS.toMillis(3);
-  private Consumer<String> deleteFunc = new Consumer<String>() {
-    @Override
-    public void accept(String file) {
-      table.io().deleteFile(file);
-    }
-  };
+  private boolean distributed = false;
+  private Consumer<String> deleteFunc = null;
 
   RemoveOrphanFilesAction(SparkSession spark, Table table) {
     this.spark = spark;
@@ -152,28 +162,108 @@ public class RemoveOrphanFilesAction extends BaseSparkAction<List<String>> {
     return this;
   }
 
+  /**
+   * Lists the location and deletes orphan files on executors instead of the driver.
+   * <p>
+   * In distributed mode, the driver only collects directories. Executors list directories a few levels at a time
+   * and delete orphan files using the table's {@link FileIO}, so a custom delete function cannot be used. The orphan
+   * files are not collected on the driver: the action returns at most 1000 of them and logs how many were found.
+   *
+   * @param isDistributed whether to list and delete files on executors
+   * @return this for method chaining
+   */
+  public RemoveOrphanFilesAction distributed(boolean isDistributed) {
+    this.distributed = isDistributed;
+    return this;
+  }
+
   @Override
   public List<String> execute() {
-    Dataset<Row> validDataFileDF = buildValidDataFileDF(spark);
-    Dataset<Row> validMetadataFileDF = buildValidMetadataFileDF(spark, table, ops);
-    Dataset<Row> validFileDF = validDataFileDF.union(validMetadataFileDF);
-    Dataset<Row> actualFileDF = buildActualFileDF();
-
-    Column nameEqual = filename.apply(actualFileDF.col("file_path"))
-        .equalTo(filename.apply(validFileDF.col("file_path")));
-    Column actualContains = actualFileDF.col("file_path").contains(validFileDF.col("file_path"));
-    Column joinCond = nameEqual.and(actualContains);
-    List<String> orphanFiles = actualFileDF.join(validFileDF, joinCond, "leftanti")
-        .as(Encoders.STRING())
-        .collectAsList();
-
-    Tasks.foreach(orphanFiles)
-        .noRetry()
-        .suppressFailureWhenFinished()
-        .onFailure((file, exc) -> LOG.warn("Failed to delete file: {}", file, exc))
-        .run(deleteFunc::accept);
-
-    return orphanFiles;
+    Preconditions.checkArgument(!distributed || deleteFunc == null,
+        "Cannot use a custom delete function when deleting orphan files on executors");
+
+    List<JavaRDD<?>> persistedRDDs = Lists.newArrayList();
+    try {
+      Dataset<Row> validDataFileDF = buildValidDataFileDF(spark);
+      Dataset<Row> validMetadataFileDF = buildValidMetadataFileDF(spark, table, ops);
+      Dataset<Row> validFileDF = validDataFileDF.union(validMetadataFileDF);
+      Dataset<Row> actualFileDF = distributed ? buildActualFileDFOnExecutors(persistedRDDs) : buildActualFileDF();
+
+      Column nameEqual = filename.apply(actualFileDF.col("file_path"))
+          .equalTo(filename.apply(validFileDF.col("file_path")));
+      Column actualContains = actualFileDF.col("file_path").contains(validFileDF.col("file_path"));
+      Column joinCond = nameEqual.and(actualContains);
+      Dataset<String> orphanFileDS = actualFileDF.join(validFileDF, joinCond, "leftanti")
+          .as(Encoders.STRING());
+
+      if (distributed) {
+        return deleteOnExecutors(orphanFileDS);
+      }
+
+      List<String> orphanFiles = orphanFileDS.collectAsList();
+
+      Consumer<String> deleteFileFunc = deleteFunc != null ? deleteFunc : table.io()::deleteFile;
+      Tasks.foreach(orphanFiles)
+          .noRetry()
+          .suppressFailureWhenFinished()
+          .onFailure((file, exc) -> LOG.warn("Failed to delete file: {}", file, exc))
+          .run(deleteFileFunc::accept);
+
+      return orphanFiles;
+
+    } finally {
+      persistedRDDs.forEach(rdd -> rdd.unpersist(false));
+    }
+  }
+
+  private List<String> deleteOnExecutors(Dataset<String> orphanFileDS) {
+    // files are deleted and summarized in a single job, so the orphan files are only computed once
+    Broadcast<FileIO> io = sparkContext.broadcast(SparkUtil.serializableFileIO(table));
+    List<DeleteSummary> summaries = orphanFileDS.javaRDD()
+        .mapPartitions(new DeleteFiles(io, MAX_RETURNED_ORPHAN_FILES))
+        .collect();
+
+    long orphanFiles = 0L;
+    long failedDeletes = 0L;
+    List<String> returnedFiles = Lists.newArrayList();
+    for (DeleteSummary summary : summaries) {
+      orphanFiles += summary.files;
+      failedDeletes += summary.failures;
+      for (String file : summary.sample) {
+        if (returnedFiles.size() < MAX_RETURNED_ORPHAN_FILES) {
+          returnedFiles.add(file);
+        }
+      }
+    }
+
+    LOG.info("Removed {} orphan files in {} ({} failed), returning {} of them",
+        orphanFiles, location, failedDeletes, returnedFiles.size());
+
+    return returnedFiles;
+  }
+
+  /**
+   * Lists the location breadth-first on executors. In each round, every task lists a few levels of its directories
+   * and returns the files it found and the directories that remain to be listed. Only the remaining directories are
+   * collected on the driver, to distribute them for the next round.
+   */
+  private Dataset<Row> buildActualFileDFOnExecutors(List<JavaRDD<?>> persistedRDDs) {
+    Broadcast<SerializableConfiguration> conf = sparkContext.broadcast(hadoopConf);
+
+    JavaRDD<String> matchingFileRDD = sparkContext.emptyRDD();
+    List<String> dirs = ImmutableList.of(location);
+    while (!dirs.isEmpty()) {
+      int parallelism = Math.min(dirs.size(), partitionDiscoveryParallelism);
+      JavaRDD<Tuple2<String, Boolean>> listing = sparkContext.parallelize(dirs, parallelism)
+          .mapPartitions(listDirs(conf, olderThanTimestamp, LISTING_DEPTH_PER_ROUND))
+          .persist(StorageLevel.MEMORY_AND_DISK());
+      persistedRDDs.add(listing);
+
+      dirs = listing.filter(entry -> !entry._2()).map(Tuple2::_1).collect();
+      matchingFileRDD = matchingFileRDD.union(listing.filter(Tuple2::_2).map(Tuple2::_1));
+    }
+
+    return spark.createDataset(matchingFileRDD.rdd(), Encoders.STRING()).toDF("file_path");
   }
 
   private Dataset<Row> buildActualFileDF() {
@@ -239,6 +329,32 @@ public class RemoveOrphanFilesAction extends BaseSparkAction<List<String>> {
     }
   }
 
+  /**
+   * Returns a function that lists directories up to a max depth, producing (location, isFile) pairs for the files
+   * that match and for the directories that were not listed.
+   */
+  private static FlatMapFunction<Iterator<String>, Tuple2<String, Boolean>> listDirs(
+      Broadcast<SerializableConfiguration> conf,
+      long olderThanTimestamp,
+      int maxDepth) {
+
+    return (FlatMapFunction<Iterator<String>, Tuple2<String, Boolean>>) dirs -> {
+      List<String> subDirs = Lists.newArrayList();
+      List<String> files = Lists.newArrayList();
+
+      Predicate<FileStatus> predicate = file -> file.getModificationTime() < olderThanTimestamp;
+
+      dirs.forEachRemaining(dir -> {
+        listDirRecursively(dir, predicate, conf.value().value(), maxDepth, Integer.MAX_VALUE, subDirs, files);
+      });
+
+      List<Tuple2<String, Boolean>> entries = Lists.newArrayListWithExpectedSize(subDirs.size() + files.size());
+      subDirs.forEach(subDir -> entries.add(new Tuple2<>(subDir, false)));
+      files.forEach(file -> entries.add(new Tuple2<>(file, true)));
+      return entries.iterator();
+    };
+  }
+
   private static FlatMapFunction<Iterator<String>, String> listDirsRecursively(
       Broadcast<SerializableConfiguration> conf,
       long olderThanTimestamp) {
@@ -263,4 +379,46 @@ public class RemoveOrphanFilesAction extends BaseSparkAction<List<String>> {
       return files.iterator();
     };
   }
+
+  private static class DeleteFiles implements FlatMapFunction<Iterator<String>, DeleteSummary> {
+    private final Broadcast<FileIO> io;
+    private final int maxSampleSize;
+
+    DeleteFiles(Broadcast<FileIO> io, int maxSampleSize) {
+      this.io = io;
+      this.maxSampleSize = maxSampleSize;
+    }
+
+    @Override
+    public Iterator<DeleteSummary> call(Iterator<String> files) {
+      FileIO fileIO = io.value();
+      DeleteSummary summary = new DeleteSummary();
+      Tasks.foreach(files)
+          .noRetry()
+          .suppressFailureWhenFinished()
+          .onFailure((file, exc) -> {
+            LOG.warn("Failed to delete file: {}", file, exc);
+            summary.failures += 1;
+          })
+          .run(file -> {
+            summary.files += 1;
+            if (summary.sample.size() < maxSampleSize) {
+              summary.sample.add(file);
+            }
+
+            fileIO.deleteFile(file);
+          });
+
+      return ImmutableList.of(summary).iterator();
+    }
+  }
+
+  /**
+   * The number of orphan files and failed deletes of a partition, with a sample of its orphan files.
+   */
+  private static class DeleteSummary implements Serializable {
+    private final List<String> sample = Lists.newArrayList();
+    private long files = 0L;
+    private long failures = 0L;
+  }
 }
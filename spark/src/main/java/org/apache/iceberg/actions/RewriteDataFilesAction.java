@@ -22,19 +22,26 @@ package org.apache.iceberg.actions;
 import java.util.List;
 import org.apache.iceberg.CombinedScanTask;
 import org.apache.iceberg.DataFile;
+import org.apache.iceberg.FileScanTask;
 import org.apache.iceberg.Table;
 import org.apache.iceberg.encryption.EncryptionManager;
 import org.apache.iceberg.io.FileIO;
+import org.apache.iceberg.relocated.com.google.common.collect.Lists;
 import org.apache.iceberg.spark.SparkUtil;
 import org.apache.iceberg.spark.source.RowDataRewriter;
+import org.apache.iceberg.util.SortKeyEncoder;
+import org.apache.spark.api.java.JavaPairRDD;
 import org.apache.spark.api.java.JavaRDD;
 import org.apache.spark.api.java.JavaSparkContext;
 import org.apache.spark.broadcast.Broadcast;
 import org.apache.spark.sql.SparkSession;
+import scala.Tuple2;
 
 public class RewriteDataFilesAction
     extends BaseRewriteDataFilesAction<RewriteDataFilesAction> {
 
+  private static final long MAX_RANGES_PER_GROUP = 10000L;
+
   private final JavaSparkContext sparkContext;
   private FileIO fileIO;
 
@@ -65,4 +72,40 @@ public class RewriteDataFilesAction
         new RowDataRewriter(table(), table().spec(), caseSensitive(), io, encryption);
     return rowDataRewriter.rewriteDataForTasks(taskRDD);
   }
+
+  @Override
+  protected boolean supportsSortedRewrites() {
+    return true;
+  }
+
+  @Override
+  protected List<DataFile> rewriteSortedDataForTasks(List<List<CombinedScanTask>> taskGroups,
+                                                     SortKeyEncoder sortKey, long targetFileSize) {
+    List<Tuple2<Integer, CombinedScanTask>> groupedTasks = Lists.newArrayList();
+    int[] rangesPerGroup = new int[taskGroups.size()];
+    double estimatedRows = 0.0;
+    for (int group = 0; group < taskGroups.size(); group += 1) {
+      long groupBytes = 0L;
+      for (CombinedScanTask task : taskGroups.get(group)) {
+        groupedTasks.add(new Tuple2<>(group, task));
+        for (FileScanTask fileTask : task.files()) {
+          DataFile file = fileTask.file();
+          groupBytes += fileTask.length();
+          estimatedRows += (double) file.recordCount() * fileTask.length() / Math.max(1L, file.fileSizeInBytes());
+        }
+      }
+
+      // each group is split into ranges of the sort key that are written by separate tasks
+      long ranges = (groupBytes + targetFileSize - 1) / targetFileSize;
+      rangesPerGroup[group] = (int) Math.max(1L, Math.min(ranges, MAX_RANGES_PER_GROUP));
+    }
+
+    JavaPairRDD<Integer, CombinedScanTask> taskRDD = sparkContext.parallelizePairs(groupedTasks, groupedTasks.size());
+    Broadcast<FileIO> io = sparkContext.broadcast(fileIO());
+    Broadcast<EncryptionManager> encryption = sparkContext.broadcast(encryptionManager());
+    RowDataRewriter rowDataRewriter =
+        new RowDataRewriter(table(), table().spec(), caseSensitive(), io, encryption);
+    return rowDataRewriter.rewriteSortedDataForTasks(
+        taskRDD, rangesPerGroup, (long) estimatedRows, sortKey, targetFileSize);
+  }
 }
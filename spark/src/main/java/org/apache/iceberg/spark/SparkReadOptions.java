@@ -47,4 +47,16 @@ public class SparkReadOptions {
 
   // Overrides the table's read.parquet.vectorization.batch-size
   public static final String VECTORIZATION_BATCH_SIZE = "batch-size";
+
+  // Plans one task per partition tuple so that Spark can use the table's partitioning instead of a shuffle
+  public static final String PRESERVE_DATA_GROUPING = "preserve-data-grouping";
+
+  // Overrides the table's read.spark.distributed-planning.manifest-threshold
+  public static final String DISTRIBUTED_PLANNING_MANIFEST_THRESHOLD = "distributed-planning-manifest-threshold";
+
+  // Limits the number of data files read by a micro-batch of a streaming read
+  public static final String STREAMING_MAX_FILES_PER_TRIGGER = "max-files-per-trigger";
+
+  // Limits the total size in bytes of the data files read by a micro-batch of a streaming read
+  public static final String STREAMING_MAX_BYTES_PER_TRIGGER = "max-bytes-per-trigger";
 }
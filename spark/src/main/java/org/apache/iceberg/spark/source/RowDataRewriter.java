@@ -19,11 +19,15 @@
 
 package org.apache.iceberg.spark.source;
 
+import java.io.IOException;
 import java.io.Serializable;
 import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.stream.Collectors;
 import org.apache.iceberg.CombinedScanTask;
 import org.apache.iceberg.DataFile;
@@ -33,27 +37,36 @@ import org.apache.iceberg.Schema;
 import org.apache.iceberg.Table;
 import org.apache.iceberg.TableProperties;
 import org.apache.iceberg.encryption.EncryptionManager;
+import org.apache.iceberg.exceptions.RuntimeIOException;
 import org.apache.iceberg.io.FileIO;
 import org.apache.iceberg.io.LocationProvider;
 import org.apache.iceberg.io.OutputFileFactory;
 import org.apache.iceberg.io.TaskWriter;
 import org.apache.iceberg.io.UnpartitionedWriter;
+import org.apache.iceberg.relocated.com.google.common.collect.ImmutableList;
 import org.apache.iceberg.relocated.com.google.common.collect.Lists;
 import org.apache.iceberg.spark.SparkSchemaUtil;
 import org.apache.iceberg.util.PropertyUtil;
+import org.apache.iceberg.util.SortKeyEncoder;
+import org.apache.spark.Partitioner;
 import org.apache.spark.TaskContext;
+import org.apache.spark.api.java.JavaPairRDD;
 import org.apache.spark.api.java.JavaRDD;
 import org.apache.spark.broadcast.Broadcast;
 import org.apache.spark.sql.catalyst.InternalRow;
 import org.apache.spark.sql.types.StructType;
+import org.apache.spark.util.TaskCompletionListener;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import scala.Tuple2;
 
 import static org.apache.iceberg.TableProperties.DEFAULT_NAME_MAPPING;
 
 public class RowDataRewriter implements Serializable {
 
   private static final Logger LOG = LoggerFactory.getLogger(RowDataRewriter.class);
+  private static final int SAMPLE_KEYS_PER_RANGE = 20;
+  private static final int MAX_SAMPLE_KEYS = 1_000_000;
 
   private final Schema schema;
   private final PartitionSpec spec;
@@ -90,34 +103,161 @@ public class RowDataRewriter implements Serializable {
         .collect(Collectors.toList());
   }
 
+  /**
+   * Rewrites groups of tasks, sorting the rows of each group by the given sort key.
+   * <p>
+   * Each group is split into {@code rangesPerGroup[group]} ranges of the sort key that are written by separate
+   * Spark tasks, so that a large group is not sorted and written by a single task. Range bounds are chosen from a
+   * sample of the keys, which reads the input rows one extra time.
+   *
+   * @param taskRDD pairs of group ordinal and a task to rewrite in that group
+   * @param rangesPerGroup the number of sort key ranges to write for each group
+   * @param estimatedRows the estimated number of rows across all groups, used to size the key sample
+   * @param sortKey an encoder for the sort key
+   * @param targetFileSize the target size of output files
+   * @return the rewritten data files
+   */
+  public List<DataFile> rewriteSortedDataForTasks(JavaPairRDD<Integer, CombinedScanTask> taskRDD,
+                                                  int[] rangesPerGroup, long estimatedRows,
+                                                  SortKeyEncoder sortKey, long targetFileSize) {
+    JavaPairRDD<GroupedKey, InternalRow> keyedRows = taskRDD
+        .flatMapToPair(groupAndTask -> readKeyedRows(groupAndTask._1(), groupAndTask._2(), sortKey));
+
+    GroupRangePartitioner partitioner = new GroupRangePartitioner(
+        sampleRangeBounds(keyedRows, rangesPerGroup, estimatedRows));
+
+    JavaRDD<List<DataFile>> dataFilesRDD = keyedRows
+        .repartitionAndSortWithinPartitions(partitioner, new GroupedKeyComparator())
+        .values()
+        .mapPartitions(rows -> ImmutableList.of(writeSortedRows(rows, targetFileSize)).iterator());
+
+    return dataFilesRDD.collect().stream()
+        .flatMap(Collection::stream)
+        .collect(Collectors.toList());
+  }
+
+  private static byte[][][] sampleRangeBounds(JavaPairRDD<GroupedKey, InternalRow> keyedRows,
+                                              int[] rangesPerGroup, long estimatedRows) {
+    byte[][][] bounds = new byte[rangesPerGroup.length][][];
+    int totalRanges = 0;
+    for (int group = 0; group < rangesPerGroup.length; group += 1) {
+      bounds[group] = new byte[0][];
+      totalRanges += rangesPerGroup[group];
+    }
+
+    if (totalRanges == rangesPerGroup.length) {
+      // every group is written by a single task and no bounds are needed
+      return bounds;
+    }
+
+    // sample enough keys to place bounds for every range, like Spark's RangePartitioner
+    double sampleSize = Math.min((double) SAMPLE_KEYS_PER_RANGE * totalRanges, MAX_SAMPLE_KEYS);
+    double fraction = Math.min(1.0, sampleSize / Math.max(1L, estimatedRows));
+    List<GroupedKey> samples = Lists.newArrayList(keyedRows.keys().sample(false, fraction).collect());
+    samples.sort(new GroupedKeyComparator());
+
+    Map<Integer, List<byte[]>> samplesByGroup = samples.stream().collect(Collectors.groupingBy(
+        sample -> sample.group, Collectors.mapping(sample -> sample.key, Collectors.toList())));
+    samplesByGroup.forEach((group, keys) -> {
+      int ranges = rangesPerGroup[group];
+      List<byte[]> groupBounds = Lists.newArrayList();
+      for (int range = 1; range < ranges; range += 1) {
+        byte[] bound = keys.get((int) ((long) range * keys.size() / ranges));
+        // skip duplicate bounds so that ranges are never empty because of repeated keys
+        if (groupBounds.isEmpty() || compareKeys(groupBounds.get(groupBounds.size() - 1), bound) < 0) {
+          groupBounds.add(bound);
+        }
+      }
+
+      bounds[group] = groupBounds.toArray(new byte[0][]);
+    });
+
+    return bounds;
+  }
+
+  private static int compareKeys(byte[] left, byte[] right) {
+    int length = Math.min(left.length, right.length);
+    for (int i = 0; i < length; i += 1) {
+      int cmp = Integer.compare(left[i] & 0xFF, right[i] & 0xFF);
+      if (cmp != 0) {
+        return cmp;
+      }
+    }
+
+    return Integer.compare(left.length, right.length);
+  }
+
+  private Iterator<Tuple2<GroupedKey, InternalRow>> readKeyedRows(int group, CombinedScanTask task,
+                                                                   SortKeyEncoder sortKey) {
+    RowDataReader dataReader = new RowDataReader(
+        task, schema, schema, nameMapping, io.value(), encryptionManager.value(), caseSensitive);
+    TaskContext.get().addTaskCompletionListener((TaskCompletionListener) context -> {
+      try {
+        dataReader.close();
+      } catch (IOException e) {
+        throw new RuntimeIOException(e, "Failed to close reader");
+      }
+    });
+
+    InternalRowWrapper wrapper = new InternalRowWrapper(SparkSchemaUtil.convert(schema));
+    return new Iterator<Tuple2<GroupedKey, InternalRow>>() {
+      private Boolean hasNext = null;
+
+      @Override
+      public boolean hasNext() {
+        if (hasNext == null) {
+          try {
+            this.hasNext = dataReader.next();
+          } catch (IOException e) {
+            throw new RuntimeIOException(e, "Failed to read rows for task: %s", task);
+          }
+        }
+
+        return hasNext;
+      }
+
+      @Override
+      public Tuple2<GroupedKey, InternalRow> next() {
+        if (!hasNext()) {
+          throw new NoSuchElementException();
+        }
+
+        this.hasNext = null;
+        // the reader reuses rows, but rows are buffered by the shuffle
+        InternalRow row = dataReader.get().copy();
+        return new Tuple2<>(new GroupedKey(group, sortKey.encode(wrapper.wrap(row))), row);
+      }
+    };
+  }
+
+  private List<DataFile> writeSortedRows(Iterator<InternalRow> rows, long targetFileSize) throws Exception {
+    TaskContext context = TaskContext.get();
+    // rows are sorted by key instead of clustered by partition, so partitioned writes need a fanout writer
+    TaskWriter<InternalRow> writer = newWriter(context, targetFileSize, true);
+
+    try {
+      while (rows.hasNext()) {
+        writer.write(rows.next());
+      }
+
+      writer.close();
+      return Lists.newArrayList(writer.dataFiles());
+
+    } catch (Throwable originalThrowable) {
+      throw abort(context, originalThrowable, null, writer);
+    }
+  }
+
   private List<DataFile> rewriteDataForTask(CombinedScanTask task) throws Exception {
     TaskContext context = TaskContext.get();
-    int partitionId = context.partitionId();
-    long taskId = context.taskAttemptId();
 
     RowDataReader dataReader = new RowDataReader(
         task, schema, schema, nameMapping, io.value(), encryptionManager.value(), caseSensitive);
 
-    StructType structType = SparkSchemaUtil.convert(schema);
-    SparkAppenderFactory appenderFactory = new SparkAppenderFactory(properties, schema, structType, spec);
-    OutputFileFactory fileFactory = new OutputFileFactory(
-        spec, format, locations, io.value(), encryptionManager.value(), partitionId, taskId);
-
-    TaskWriter<InternalRow> writer;
-    if (spec.isUnpartitioned()) {
-      writer = new UnpartitionedWriter<>(spec, format, appenderFactory, fileFactory, io.value(),
-          Long.MAX_VALUE);
-    } else if (PropertyUtil.propertyAsBoolean(properties,
+    boolean fanoutEnabled = PropertyUtil.propertyAsBoolean(properties,
         TableProperties.SPARK_WRITE_PARTITIONED_FANOUT_ENABLED,
-        TableProperties.SPARK_WRITE_PARTITIONED_FANOUT_ENABLED_DEFAULT)) {
-      writer = new SparkPartitionedFanoutWriter(
-          spec, format, appenderFactory, fileFactory, io.value(), Long.MAX_VALUE, schema,
-          structType);
-    } else {
-      writer = new SparkPartitionedWriter(
-          spec, format, appenderFactory, fileFactory, io.value(), Long.MAX_VALUE, schema,
-          structType);
-    }
+        TableProperties.SPARK_WRITE_PARTITIONED_FANOUT_ENABLED_DEFAULT);
+    TaskWriter<InternalRow> writer = newWriter(context, Long.MAX_VALUE, fanoutEnabled);
 
     try {
       while (dataReader.next()) {
@@ -132,31 +272,124 @@ public class RowDataRewriter implements Serializable {
       return Lists.newArrayList(writer.dataFiles());
 
     } catch (Throwable originalThrowable) {
-      try {
-        LOG.error("Aborting task", originalThrowable);
-        context.markTaskFailed(originalThrowable);
+      throw abort(context, originalThrowable, dataReader, writer);
+    }
+  }
 
-        LOG.error("Aborting commit for partition {} (task {}, attempt {}, stage {}.{})",
-            partitionId, taskId, context.attemptNumber(), context.stageId(), context.stageAttemptNumber());
-        if (dataReader != null) {
-          dataReader.close();
-        }
-        writer.abort();
-        LOG.error("Aborted commit for partition {} (task {}, attempt {}, stage {}.{})",
-            partitionId, taskId, context.taskAttemptId(), context.stageId(), context.stageAttemptNumber());
-
-      } catch (Throwable inner) {
-        if (originalThrowable != inner) {
-          originalThrowable.addSuppressed(inner);
-          LOG.warn("Suppressing exception in catch: {}", inner.getMessage(), inner);
-        }
+  private TaskWriter<InternalRow> newWriter(TaskContext context, long targetFileSize, boolean fanoutEnabled) {
+    StructType structType = SparkSchemaUtil.convert(schema);
+    SparkAppenderFactory appenderFactory = new SparkAppenderFactory(properties, schema, structType, spec);
+    OutputFileFactory fileFactory = new OutputFileFactory(
+        spec, format, locations, io.value(), encryptionManager.value(), context.partitionId(),
+        context.taskAttemptId());
+
+    if (spec.isUnpartitioned()) {
+      return new UnpartitionedWriter<>(spec, format, appenderFactory, fileFactory, io.value(), targetFileSize);
+    } else if (fanoutEnabled) {
+      return new SparkPartitionedFanoutWriter(
+          spec, format, appenderFactory, fileFactory, io.value(), targetFileSize, schema,
+          structType);
+    } else {
+      return new SparkPartitionedWriter(
+          spec, format, appenderFactory, fileFactory, io.value(), targetFileSize, schema,
+          structType);
+    }
+  }
+
+  private static Exception abort(TaskContext context, Throwable originalThrowable, RowDataReader dataReader,
+                                 TaskWriter<InternalRow> writer) {
+    int partitionId = context.partitionId();
+    long taskId = context.taskAttemptId();
+
+    try {
+      LOG.error("Aborting task", originalThrowable);
+      context.markTaskFailed(originalThrowable);
+
+      LOG.error("Aborting commit for partition {} (task {}, attempt {}, stage {}.{})",
+          partitionId, taskId, context.attemptNumber(), context.stageId(), context.stageAttemptNumber());
+      if (dataReader != null) {
+        dataReader.close();
+      }
+      writer.abort();
+      LOG.error("Aborted commit for partition {} (task {}, attempt {}, stage {}.{})",
+          partitionId, taskId, context.taskAttemptId(), context.stageId(), context.stageAttemptNumber());
+
+    } catch (Throwable inner) {
+      if (originalThrowable != inner) {
+        originalThrowable.addSuppressed(inner);
+        LOG.warn("Suppressing exception in catch: {}", inner.getMessage(), inner);
+      }
+    }
+
+    if (originalThrowable instanceof Exception) {
+      return (Exception) originalThrowable;
+    } else {
+      return new RuntimeException(originalThrowable);
+    }
+  }
+
+  private static class GroupedKey implements Serializable {
+    private final int group;
+    private final byte[] key;
+
+    private GroupedKey(int group, byte[] key) {
+      this.group = group;
+      this.key = key;
+    }
+  }
+
+  private static class GroupedKeyComparator implements Comparator<GroupedKey>, Serializable {
+    @Override
+    public int compare(GroupedKey left, GroupedKey right) {
+      int cmp = Integer.compare(left.group, right.group);
+      if (cmp != 0) {
+        return cmp;
       }
 
-      if (originalThrowable instanceof Exception) {
-        throw originalThrowable;
-      } else {
-        throw new RuntimeException(originalThrowable);
+      return compareKeys(left.key, right.key);
+    }
+  }
+
+  /**
+   * Assigns each key to a range of its group; a key belongs to the first range whose upper bound is at least the key.
+   */
+  private static class GroupRangePartitioner extends Partitioner {
+    private final int[] offsets;
+    private final byte[][][] bounds;
+    private final int numPartitions;
+
+    private GroupRangePartitioner(byte[][][] bounds) {
+      this.offsets = new int[bounds.length];
+      this.bounds = bounds;
+      int offset = 0;
+      for (int group = 0; group < bounds.length; group += 1) {
+        offsets[group] = offset;
+        offset += bounds[group].length + 1;
       }
+      this.numPartitions = Math.max(1, offset);
+    }
+
+    @Override
+    public int numPartitions() {
+      return numPartitions;
+    }
+
+    @Override
+    public int getPartition(Object key) {
+      GroupedKey groupedKey = (GroupedKey) key;
+      byte[][] groupBounds = bounds[groupedKey.group];
+      int low = 0;
+      int high = groupBounds.length;
+      while (low < high) {
+        int mid = (low + high) >>> 1;
+        if (compareKeys(groupBounds[mid], groupedKey.key) < 0) {
+          low = mid + 1;
+        } else {
+          high = mid;
+        }
+      }
+
+      return offsets[groupedKey.group] + low;
     }
   }
 }
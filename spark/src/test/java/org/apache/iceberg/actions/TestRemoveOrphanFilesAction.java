@@ -471,6 +471,64 @@ public abstract class TestRemoveOrphanFilesAction extends SparkTestBase {
     Assert.assertEquals("Rows must match", records, actualRecords);
   }
 
+  @Test
+  public void testDistributedRemoveOrphanFiles() throws IOException, InterruptedException {
+    Table table = TABLES.create(SCHEMA, SPEC, Maps.newHashMap(), tableLocation);
+
+    List<ThreeColumnRecord> records = Lists.newArrayList();
+    for (int i = 0; i < 20; i++) {
+      records.add(new ThreeColumnRecord(i, String.valueOf(i % 3), String.valueOf(i)));
+    }
+
+    Dataset<Row> df = spark.createDataFrame(records, ThreeColumnRecord.class);
+
+    df.select("c1", "c2", "c3")
+        .write()
+        .format("iceberg")
+        .mode("append")
+        .save(tableLocation);
+
+    // orphan files at several depths, so that listing takes more than one round
+    df.coalesce(1).write().mode("append").parquet(tableLocation + "/data");
+    df.coalesce(1).write().mode("append").parquet(tableLocation + "/data/c2_trunc=0/c3=0");
+    df.coalesce(1).write().mode("append").parquet(tableLocation + "/data/invalid/a/b/c/d/e");
+
+    // sleep for 1 second to unsure files will be old enough
+    Thread.sleep(1000);
+
+    Actions actions = Actions.forTable(table);
+
+    AssertHelpers.assertThrows("Should reject a custom delete function",
+        IllegalArgumentException.class, "Cannot use a custom delete function",
+        () -> actions.removeOrphanFiles()
+            .distributed(true)
+            .deleteWith(file -> { })
+            .execute());
+
+    List<String> result = actions.removeOrphanFiles()
+        .olderThan(System.currentTimeMillis())
+        .distributed(true)
+        .execute();
+
+    Assert.assertEquals("Should delete 3 files", 3, result.size());
+    Assert.assertTrue("Should find the nested orphan file",
+        result.stream().anyMatch(file -> file.contains("/data/invalid/a/b/c/d/e/")));
+
+    Path dataPath = new Path(tableLocation + "/data");
+    FileSystem fs = dataPath.getFileSystem(spark.sessionState().newHadoopConf());
+
+    for (String fileLocation : result) {
+      Assert.assertFalse("Orphan files must be deleted", fs.exists(new Path(fileLocation)));
+    }
+
+    Dataset<Row> resultDF = spark.read().format("iceberg").load(tableLocation);
+    List<ThreeColumnRecord> actualRecords = resultDF
+        .as(Encoders.bean(ThreeColumnRecord.class))
+        .orderBy("c1")
+        .collectAsList();
+    Assert.assertEquals("Rows must match", records, actualRecords);
+  }
+
   private List<String> snapshotFiles(long snapshotId) {
     return spark.read().format("iceberg")
         .option("snapshot-id", snapshotId)
@@ -24,21 +24,29 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
 import java.util.stream.IntStream;
 import org.apache.hadoop.conf.Configuration;
+import org.apache.iceberg.CombinedScanTask;
 import org.apache.iceberg.DataFile;
 import org.apache.iceberg.FileScanTask;
 import org.apache.iceberg.PartitionSpec;
 import org.apache.iceberg.Schema;
+import org.apache.iceberg.SortOrder;
 import org.apache.iceberg.Table;
 import org.apache.iceberg.TableProperties;
+import org.apache.iceberg.exceptions.ValidationException;
+import org.apache.iceberg.expressions.Expression;
 import org.apache.iceberg.expressions.Expressions;
 import org.apache.iceberg.hadoop.HadoopTables;
 import org.apache.iceberg.io.CloseableIterable;
+import org.apache.iceberg.relocated.com.google.common.collect.ImmutableList;
+import org.apache.iceberg.relocated.com.google.common.collect.Iterables;
 import org.apache.iceberg.relocated.com.google.common.collect.Lists;
 import org.apache.iceberg.relocated.com.google.common.collect.Maps;
 import org.apache.iceberg.spark.SparkTestBase;
 import org.apache.iceberg.spark.source.ThreeColumnRecord;
+import org.apache.iceberg.types.Conversions;
 import org.apache.iceberg.types.Types;
 import org.apache.spark.sql.AnalysisException;
 import org.apache.spark.sql.Dataset;
@@ -200,6 +208,115 @@ public abstract class TestRewriteDataFilesAction extends SparkTestBase {
     Assert.assertEquals("Rows must match", expectedRecords, actualRecords);
   }
 
+  @Test
+  public void testRewriteDataFilesWithPartialProgress() {
+    PartitionSpec spec = PartitionSpec.builderFor(SCHEMA)
+        .identity("c1")
+        .truncate("c2", 2)
+        .build();
+    Map<String, String> options = Maps.newHashMap();
+    Table table = TABLES.create(SCHEMA, spec, options, tableLocation);
+
+    List<ThreeColumnRecord> records = Lists.newArrayList(
+        new ThreeColumnRecord(1, "AAAAAAAAAA", "AAAA"),
+        new ThreeColumnRecord(1, "BBBBBBBBBB", "BBBB"),
+        new ThreeColumnRecord(2, "AAAAAAAAAA", "CCCC"),
+        new ThreeColumnRecord(2, "BBBBBBBBBB", "DDDD")
+    );
+    writeRecords(records);
+    writeRecords(records);
+
+    table.refresh();
+    int snapshotCount = Iterables.size(table.snapshots());
+
+    RewriteDataFilesActionResult result = Actions.forTable(table).rewriteDataFiles()
+        .maxConcurrentFileGroupRewrites(2)
+        .partialProgress(true)
+        .partialProgressMaxCommits(2)
+        .execute();
+    Assert.assertEquals("Action should rewrite 8 data files", 8, result.deletedDataFiles().size());
+    Assert.assertEquals("Action should add 4 data file", 4, result.addedDataFiles().size());
+    Assert.assertEquals("Action should rewrite a file group per partition", 4, result.fileGroupResults().size());
+    for (FileGroupRewriteResult groupResult : result.fileGroupResults()) {
+      Assert.assertEquals("Group should cover one partition", 1, groupResult.partitions().size());
+      Assert.assertEquals("Group should rewrite 2 data files", 2, groupResult.rewrittenFilesCount());
+      Assert.assertEquals("Group should add 1 data file", 1, groupResult.addedFilesCount());
+      Assert.assertEquals("Bytes saved should match file sizes",
+          groupResult.rewrittenBytes() - groupResult.addedBytes(), groupResult.bytesSaved());
+    }
+
+    table.refresh();
+    Assert.assertEquals("Action should commit twice", snapshotCount + 2, Iterables.size(table.snapshots()));
+
+    List<ThreeColumnRecord> expectedRecords = Lists.newArrayList();
+    expectedRecords.addAll(records);
+    expectedRecords.addAll(records);
+    expectedRecords.sort(Comparator.comparing(ThreeColumnRecord::getC1)
+        .thenComparing(ThreeColumnRecord::getC2)
+        .thenComparing(ThreeColumnRecord::getC3));
+
+    Dataset<Row> resultDF = spark.read().format("iceberg").load(tableLocation);
+    List<ThreeColumnRecord> actualRecords = resultDF.sort("c1", "c2", "c3")
+        .as(Encoders.bean(ThreeColumnRecord.class))
+        .collectAsList();
+
+    Assert.assertEquals("Rows must match", expectedRecords, actualRecords);
+  }
+
+  @Test
+  public void testRewriteDataFilesWithPartialProgressCommitConflict() {
+    PartitionSpec spec = PartitionSpec.builderFor(SCHEMA)
+        .identity("c1")
+        .build();
+    Table table = TABLES.create(SCHEMA, spec, Maps.newHashMap(), tableLocation);
+
+    List<ThreeColumnRecord> records = Lists.newArrayList(
+        new ThreeColumnRecord(1, "AAAAAAAAAA", "AAAA"),
+        new ThreeColumnRecord(2, "BBBBBBBBBB", "BBBB")
+    );
+    writeRecords(records);
+    writeRecords(records);
+
+    table.refresh();
+    DataFile conflictingFile = Iterables.getFirst(CloseableIterable.transform(
+        table.newScan().filter(Expressions.equal("c1", 1)).planFiles(), FileScanTask::file), null);
+    Assert.assertNotNull("Should find a data file for c1=1", conflictingFile);
+
+    // delete a file of the c1=1 group while that group is rewritten, so that only its commit conflicts
+    RewriteDataFilesAction action = new RewriteDataFilesAction(spark, table) {
+      @Override
+      protected List<DataFile> rewriteDataForTasks(List<CombinedScanTask> combinedScanTasks) {
+        boolean rewritesConflictingFile = combinedScanTasks.stream()
+            .flatMap(task -> task.files().stream())
+            .anyMatch(task -> task.file().path().equals(conflictingFile.path()));
+        if (rewritesConflictingFile) {
+          table.newDelete().deleteFile(conflictingFile).commit();
+        }
+
+        return super.rewriteDataForTasks(combinedScanTasks);
+      }
+    };
+
+    RewriteDataFilesActionResult result = action
+        .partialProgress(true)
+        .partialProgressMaxCommits(2)
+        .execute();
+
+    Assert.assertEquals("Action should commit one file group", 1, result.fileGroupResults().size());
+    Assert.assertEquals("Committed group should be c1=2",
+        ImmutableList.of("c1=2"), result.fileGroupResults().get(0).partitions());
+    Assert.assertEquals("Action should report one failed file group", 1, result.failedFileGroupsCount());
+    Assert.assertEquals("Action should report the commit failure", 1, result.fileGroupFailures().size());
+    Assert.assertTrue("Commit failure should be a validation failure",
+        result.fileGroupFailures().get(0) instanceof ValidationException);
+
+    table.refresh();
+    Assert.assertEquals("Conflicting partition should keep its remaining file", 1,
+        countFiles(table, Expressions.equal("c1", 1)));
+    Assert.assertEquals("Committed partition should be compacted", 1,
+        countFiles(table, Expressions.equal("c1", 2)));
+  }
+
   @Test
   public void testRewriteDataFilesWithFilter() {
     PartitionSpec spec = PartitionSpec.builderFor(SCHEMA)
@@ -365,6 +482,152 @@ public abstract class TestRewriteDataFilesAction extends SparkTestBase {
     assertEquals("Rows should be unchanged", originalRecords, rewrittenRecords);
   }
 
+  @Test
+  public void testRewriteDataFilesWithSortOrder() {
+    Table table = TABLES.create(SCHEMA, PartitionSpec.unpartitioned(), Maps.newHashMap(), tableLocation);
+
+    Random random = new Random(1234);
+    for (int batch = 0; batch < 5; batch += 1) {
+      List<ThreeColumnRecord> records = Lists.newArrayList();
+      for (int i = 0; i < 1000; i += 1) {
+        records.add(new ThreeColumnRecord(random.nextInt(100000), "data-" + batch, null));
+      }
+
+      writeRecords(records);
+    }
+
+    spark.read().format("iceberg").load(tableLocation).createOrReplaceTempView("unsorted");
+    List<Object[]> expectedRecords = sql("SELECT * FROM unsorted ORDER BY c1, c2");
+
+    // a target size below the input size splits the sorted rows into several ranges
+    RewriteDataFilesActionResult result = Actions.forTable(table)
+        .rewriteDataFiles()
+        .sort(SortOrder.builderFor(SCHEMA).asc("c1").build())
+        .targetSizeInBytes(totalFileSize(table) / 4)
+        .execute();
+
+    Assert.assertEquals("Action should rewrite 5 data files", 5, result.deletedDataFiles().size());
+    Assert.assertTrue("Action should add more than 1 data file", result.addedDataFiles().size() > 1);
+
+    table.refresh();
+    assertFilesDoNotOverlap(table);
+
+    spark.read().format("iceberg").load(tableLocation).createOrReplaceTempView("sorted");
+    assertEquals("Rows should be unchanged", expectedRecords, sql("SELECT * FROM sorted ORDER BY c1, c2"));
+  }
+
+  @Test
+  public void testRewriteDataFilesWithZOrder() {
+    Table table = TABLES.create(SCHEMA, PartitionSpec.unpartitioned(), Maps.newHashMap(), tableLocation);
+
+    // 16 values of each column that differ in the low bits of the first byte, so z-order can interleave them
+    Random random = new Random(5678);
+    List<ThreeColumnRecord> expectedRecords = Lists.newArrayList();
+    for (int batch = 0; batch < 5; batch += 1) {
+      List<ThreeColumnRecord> records = Lists.newArrayList();
+      for (int i = 0; i < 1000; i += 1) {
+        String c2 = repeat((char) ('@' + random.nextInt(16)));
+        String c3 = repeat((char) ('@' + random.nextInt(16)));
+        records.add(new ThreeColumnRecord(batch * 1000 + i, c2, c3));
+      }
+
+      writeRecords(records);
+      expectedRecords.addAll(records);
+    }
+
+    RewriteDataFilesActionResult result = Actions.forTable(table)
+        .rewriteDataFiles()
+        .zOrder("c2", "c3")
+        .targetSizeInBytes(totalFileSize(table) / 4)
+        .execute();
+
+    int addedFiles = result.addedDataFiles().size();
+    Assert.assertTrue("Action should add more than 1 data file", addedFiles > 1);
+
+    table.refresh();
+    Assert.assertTrue("Should skip files for a filter on the first z-order column",
+        countFiles(table, Expressions.equal("c2", "@@@@")) < addedFiles);
+    Assert.assertTrue("Should skip files for a filter on the second z-order column",
+        countFiles(table, Expressions.equal("c3", "@@@@")) < addedFiles);
+
+    Dataset<Row> resultDF = spark.read().format("iceberg").load(tableLocation);
+    List<ThreeColumnRecord> actualRecords = resultDF.sort("c1")
+        .as(Encoders.bean(ThreeColumnRecord.class))
+        .collectAsList();
+    Assert.assertEquals("Rows must match", expectedRecords, actualRecords);
+  }
+
+  @Test
+  public void testRewriteDataFilesWithSortOrderSingleFilePartition() {
+    PartitionSpec spec = PartitionSpec.builderFor(SCHEMA)
+        .identity("c2")
+        .build();
+    Table table = TABLES.create(SCHEMA, spec, Maps.newHashMap(), tableLocation);
+
+    Random random = new Random(4321);
+    List<ThreeColumnRecord> records = Lists.newArrayList();
+    for (int i = 0; i < 5000; i += 1) {
+      records.add(new ThreeColumnRecord(random.nextInt(100000), "AAAA", null));
+    }
+    writeDF(spark.createDataFrame(records, ThreeColumnRecord.class).repartition(1));
+
+    table.refresh();
+    Assert.assertEquals("Should have 1 data file before rewrite", 1, countFiles(table, Expressions.alwaysTrue()));
+
+    spark.read().format("iceberg").load(tableLocation).createOrReplaceTempView("unsorted");
+    List<Object[]> expectedRecords = sql("SELECT * FROM unsorted ORDER BY c1");
+
+    RewriteDataFilesActionResult result = Actions.forTable(table)
+        .rewriteDataFiles()
+        .sort(SortOrder.builderFor(SCHEMA).asc("c1").build())
+        .targetSizeInBytes(totalFileSize(table) / 4)
+        .execute();
+
+    Assert.assertEquals("Action should rewrite the single data file", 1, result.deletedDataFiles().size());
+    Assert.assertTrue("Action should add more than 1 data file", result.addedDataFiles().size() > 1);
+
+    table.refresh();
+    assertFilesDoNotOverlap(table);
+
+    spark.read().format("iceberg").load(tableLocation).createOrReplaceTempView("sorted");
+    assertEquals("Rows should be unchanged", expectedRecords, sql("SELECT * FROM sorted ORDER BY c1"));
+  }
+
+  private static void assertFilesDoNotOverlap(Table table) {
+    List<DataFile> sortedFiles = Lists.newArrayList(CloseableIterable.transform(
+        table.newScan().planFiles(), FileScanTask::file));
+    sortedFiles.sort(Comparator.comparing(file -> lowerBound(file, 1)));
+    for (int i = 1; i < sortedFiles.size(); i += 1) {
+      Assert.assertTrue("Sorted files should not overlap",
+          upperBound(sortedFiles.get(i - 1), 1) <= lowerBound(sortedFiles.get(i), 1));
+    }
+  }
+
+  private static long totalFileSize(Table table) {
+    long totalSize = 0L;
+    for (FileScanTask task : table.newScan().planFiles()) {
+      totalSize += task.file().fileSizeInBytes();
+    }
+
+    return totalSize;
+  }
+
+  private static String repeat(char value) {
+    return new String(new char[] { value, value, value, value });
+  }
+
+  private static int countFiles(Table table, Expression filter) {
+    return Lists.newArrayList(table.newScan().filter(filter).planFiles()).size();
+  }
+
+  private static int lowerBound(DataFile file, int fieldId) {
+    return Conversions.fromByteBuffer(Types.IntegerType.get(), file.lowerBounds().get(fieldId));
+  }
+
+  private static int upperBound(DataFile file, int fieldId) {
+    return Conversions.fromByteBuffer(Types.IntegerType.get(), file.upperBounds().get(fieldId));
+  }
+
   private void writeRecords(List<ThreeColumnRecord> records) {
     Dataset<Row> df = spark.createDataFrame(records, ThreeColumnRecord.class);
     writeDF(df);
@@ -0,0 +1,77 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iceberg.spark.source.parquet;
+
+import org.apache.spark.sql.Dataset;
+import org.apache.spark.sql.Row;
+
+import static org.apache.iceberg.TableProperties.PARQUET_BLOOM_FILTER_COLUMN_ENABLED_PREFIX;
+import static org.apache.spark.sql.functions.current_date;
+import static org.apache.spark.sql.functions.date_add;
+import static org.apache.spark.sql.functions.expr;
+import static org.apache.spark.sql.functions.rand;
+
+/**
+ * A benchmark that evaluates row group skipping with Parquet bloom filters in the Spark data source for Iceberg.
+ *
+ * This class uses a dataset with a flat schema, where the values of the column used in the filter predicate are
+ * unique and shuffled so that the min/max ranges of all files and row groups overlap. A point lookup can only skip
+ * data using bloom filters.
+ *
+ * To run this benchmark:
+ * <code>
+ *   ./gradlew :iceberg-spark2:jmh
+ *       -PjmhIncludeRegex=IcebergSourceFlatParquetDataBloomFilterBenchmark
+ *       -PjmhOutputPath=benchmark/iceberg-source-flat-parquet-data-bloom-filter-benchmark-result.txt
+ * </code>
+ */
+public class IcebergSourceFlatParquetDataBloomFilterBenchmark extends IcebergSourceFlatParquetDataFilterBenchmark {
+
+  private static final int NUM_FILES = 20;
+  private static final int NUM_ROWS = 500000;
+  private static final String FILTER_COND = "longCol == " + (12345L * NUM_FILES + 7);
+
+  @Override
+  protected String filterCondition() {
+    return FILTER_COND;
+  }
+
+  @Override
+  protected void appendData() {
+    table().updateProperties()
+        .set(PARQUET_BLOOM_FILTER_COLUMN_ENABLED_PREFIX + "longCol", "true")
+        .commit();
+
+    for (int fileNum = 0; fileNum < NUM_FILES; fileNum++) {
+      Dataset<Row> df = spark().range(NUM_ROWS)
+          .withColumn("longCol", expr(String.format("id * %d + %d", NUM_FILES, fileNum)))
+          .drop("id")
+          .withColumn("intCol", expr("CAST(longCol AS INT)"))
+          .withColumn("floatCol", expr("CAST(longCol AS FLOAT)"))
+          .withColumn("doubleCol", expr("CAST(longCol AS DOUBLE)"))
+          .withColumn("decimalCol", expr("CAST(longCol AS DECIMAL(20, 5))"))
+          .withColumn("dateCol", date_add(current_date(), fileNum))
+          .withColumn("timestampCol", expr("TO_TIMESTAMP(dateCol)"))
+          .withColumn("stringCol", expr("CAST(dateCol AS STRING)"))
+          .orderBy(rand());
+      appendAsFile(df);
+    }
+  }
+}
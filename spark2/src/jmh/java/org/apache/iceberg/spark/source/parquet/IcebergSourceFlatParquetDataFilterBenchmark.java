@@ -76,7 +76,7 @@ public class IcebergSourceFlatParquetDataFilterBenchmark extends IcebergSourceFl
     tableProperties.put(SPLIT_OPEN_FILE_COST, Integer.toString(128 * 1024 * 1024));
     withTableProperties(tableProperties, () -> {
       String tableLocation = table().location();
-      Dataset<Row> df = spark().read().format("iceberg").load(tableLocation).filter(FILTER_COND);
+      Dataset<Row> df = spark().read().format("iceberg").load(tableLocation).filter(filterCondition());
       materialize(df);
     });
   }
@@ -88,7 +88,7 @@ public class IcebergSourceFlatParquetDataFilterBenchmark extends IcebergSourceFl
     conf.put(SQLConf.PARQUET_VECTORIZED_READER_ENABLED().key(), "true");
     conf.put(SQLConf.FILES_OPEN_COST_IN_BYTES().key(), Integer.toString(128 * 1024 * 1024));
     withSQLConf(conf, () -> {
-      Dataset<Row> df = spark().read().parquet(dataLocation()).filter(FILTER_COND);
+      Dataset<Row> df = spark().read().parquet(dataLocation()).filter(filterCondition());
       materialize(df);
     });
   }
@@ -100,12 +100,16 @@ public class IcebergSourceFlatParquetDataFilterBenchmark extends IcebergSourceFl
     conf.put(SQLConf.PARQUET_VECTORIZED_READER_ENABLED().key(), "false");
     conf.put(SQLConf.FILES_OPEN_COST_IN_BYTES().key(), Integer.toString(128 * 1024 * 1024));
     withSQLConf(conf, () -> {
-      Dataset<Row> df = spark().read().parquet(dataLocation()).filter(FILTER_COND);
+      Dataset<Row> df = spark().read().parquet(dataLocation()).filter(filterCondition());
       materialize(df);
     });
   }
 
-  private void appendData() {
+  protected String filterCondition() {
+    return FILTER_COND;
+  }
+
+  protected void appendData() {
     for (int fileNum = 1; fileNum < NUM_FILES; fileNum++) {
       Dataset<Row> df = spark().range(NUM_ROWS)
           .withColumnRenamed("id", "longCol")
@@ -0,0 +1,140 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iceberg.spark.source.parquet;
+
+import java.io.IOException;
+import org.apache.iceberg.NullOrder;
+import org.apache.iceberg.SortDirection;
+import org.apache.iceberg.SortOrder;
+import org.apache.iceberg.actions.Actions;
+import org.apache.iceberg.actions.RewriteDataFilesAction;
+import org.apache.iceberg.spark.source.IcebergSourceFlatDataBenchmark;
+import org.apache.spark.sql.Dataset;
+import org.apache.spark.sql.Row;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+
+import static org.apache.spark.sql.functions.current_date;
+import static org.apache.spark.sql.functions.date_add;
+import static org.apache.spark.sql.functions.expr;
+
+/**
+ * A benchmark that evaluates how well each data file rewrite strategy clusters records for file skipping.
+ *
+ * This class writes randomly distributed values, rewrites the table with the configured strategy, and then reads
+ * it with a selective predicate on intCol, on longCol, and on both. Files are not rewritten for "none" and only
+ * combined for "bin-pack", so those runs show the cost of reading without clustering.
+ *
+ * To run this benchmark:
+ * <code>
+ *   ./gradlew :iceberg-spark2:jmh
+ *       -PjmhIncludeRegex=IcebergSourceRewriteStrategyBenchmark
+ *       -PjmhOutputPath=benchmark/iceberg-source-rewrite-strategy-benchmark-result.txt
+ * </code>
+ */
+public class IcebergSourceRewriteStrategyBenchmark extends IcebergSourceFlatDataBenchmark {
+
+  private static final int NUM_FILES = 50;
+  private static final int NUM_ROWS = 100000;
+  private static final int MAX_VALUE = 1000000;
+  private static final long TARGET_FILE_SIZE = 4 * 1024 * 1024L;
+
+  @Param({"none", "bin-pack", "sort", "z-order"})
+  private String strategy;
+
+  @Setup
+  public void setupBenchmark() {
+    setupSpark();
+    appendData();
+    rewriteData();
+  }
+
+  @TearDown
+  public void tearDownBenchmark() throws IOException {
+    tearDownSpark();
+    cleanupFiles();
+  }
+
+  @Benchmark
+  @Threads(1)
+  public void readWithIntFilter() {
+    materialize(load().filter("intCol < 1000"));
+  }
+
+  @Benchmark
+  @Threads(1)
+  public void readWithLongFilter() {
+    materialize(load().filter("longCol < 1000"));
+  }
+
+  @Benchmark
+  @Threads(1)
+  public void readWithIntAndLongFilter() {
+    materialize(load().filter("intCol < 50000 AND longCol < 50000"));
+  }
+
+  private Dataset<Row> load() {
+    return spark().read().format("iceberg").load(table().location());
+  }
+
+  private void appendData() {
+    for (int fileNum = 0; fileNum < NUM_FILES; fileNum++) {
+      Dataset<Row> df = spark().range(NUM_ROWS)
+          .withColumn("longCol", expr("CAST(rand() * " + MAX_VALUE + " AS LONG)"))
+          .withColumn("intCol", expr("CAST(rand() * " + MAX_VALUE + " AS INT)"))
+          .withColumn("floatCol", expr("CAST(id AS FLOAT)"))
+          .withColumn("doubleCol", expr("CAST(id AS DOUBLE)"))
+          .withColumn("decimalCol", expr("CAST(id AS DECIMAL(20, 5))"))
+          .withColumn("dateCol", date_add(current_date(), fileNum))
+          .withColumn("timestampCol", expr("TO_TIMESTAMP(dateCol)"))
+          .withColumn("stringCol", expr("CAST(dateCol AS STRING)"))
+          .drop("id");
+      appendAsFile(df);
+    }
+  }
+
+  private void rewriteData() {
+    RewriteDataFilesAction action = Actions.forTable(spark(), table()).rewriteDataFiles();
+    action.targetSizeInBytes(TARGET_FILE_SIZE);
+
+    switch (strategy) {
+      case "none":
+        return;
+      case "bin-pack":
+        break;
+      case "sort":
+        action.sort(SortOrder.builderFor(table().schema())
+            .sortBy("intCol", SortDirection.ASC, NullOrder.NULLS_FIRST)
+            .build());
+        break;
+      case "z-order":
+        action.zOrder("intCol", "longCol");
+        break;
+      default:
+        throw new IllegalArgumentException("Unknown rewrite strategy: " + strategy);
+    }
+
+    action.execute();
+    table().refresh();
+  }
+}
@@ -26,10 +26,12 @@ import org.apache.spark.sql.catalyst.analysis.ResolveProcedures
 import org.apache.spark.sql.catalyst.analysis.RowLevelOperationsPredicateCheck
 import org.apache.spark.sql.catalyst.optimizer.OptimizeConditionsInRowLevelOperations
 import org.apache.spark.sql.catalyst.optimizer.PullupCorrelatedPredicatesInRowLevelOperations
+import org.apache.spark.sql.catalyst.optimizer.RewriteAggregatesFromMetadata
 import org.apache.spark.sql.catalyst.optimizer.RewriteDelete
 import org.apache.spark.sql.catalyst.optimizer.RewriteMergeInto
 import org.apache.spark.sql.catalyst.optimizer.RewriteUpdate
 import org.apache.spark.sql.catalyst.parser.extensions.IcebergSparkSqlExtensionsParser
+import org.apache.spark.sql.execution.datasources.v2.DynamicRuntimeFilterStrategy
 import org.apache.spark.sql.execution.datasources.v2.ExtendedDataSourceV2Strategy
 
 class IcebergSparkSessionExtensions extends (SparkSessionExtensions => Unit) {
@@ -50,8 +52,10 @@ class IcebergSparkSessionExtensions extends (SparkSessionExtensions => Unit) {
     extensions.injectOptimizerRule { spark => RewriteDelete(spark) }
     extensions.injectOptimizerRule { spark => RewriteUpdate(spark) }
     extensions.injectOptimizerRule { spark => RewriteMergeInto(spark) }
+    extensions.injectOptimizerRule { spark => RewriteAggregatesFromMetadata(spark) }
 
     // planner extensions
     extensions.injectPlannerStrategy { spark => ExtendedDataSourceV2Strategy(spark) }
+    extensions.injectPlannerStrategy { spark => DynamicRuntimeFilterStrategy(spark) }
   }
 }
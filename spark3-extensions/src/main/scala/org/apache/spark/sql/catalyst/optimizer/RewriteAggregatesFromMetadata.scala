@@ -0,0 +1,180 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.spark.sql.catalyst.optimizer
+
+import org.apache.iceberg.MetadataAggregator
+import org.apache.spark.sql.SparkSession
+import org.apache.spark.sql.catalyst.InternalRow
+import org.apache.spark.sql.catalyst.expressions.Alias
+import org.apache.spark.sql.catalyst.expressions.AttributeReference
+import org.apache.spark.sql.catalyst.expressions.Expression
+import org.apache.spark.sql.catalyst.expressions.Literal
+import org.apache.spark.sql.catalyst.expressions.NamedExpression
+import org.apache.spark.sql.catalyst.expressions.PredicateHelper
+import org.apache.spark.sql.catalyst.expressions.aggregate.AggregateExpression
+import org.apache.spark.sql.catalyst.expressions.aggregate.Count
+import org.apache.spark.sql.catalyst.expressions.aggregate.Max
+import org.apache.spark.sql.catalyst.expressions.aggregate.Min
+import org.apache.spark.sql.catalyst.plans.logical.Aggregate
+import org.apache.spark.sql.catalyst.plans.logical.Filter
+import org.apache.spark.sql.catalyst.plans.logical.LocalRelation
+import org.apache.spark.sql.catalyst.plans.logical.LogicalPlan
+import org.apache.spark.sql.catalyst.plans.logical.Project
+import org.apache.spark.sql.catalyst.rules.Rule
+import org.apache.spark.sql.catalyst.trees.TreeNodeTag
+import org.apache.spark.sql.catalyst.utils.PlanUtils.isIcebergRelation
+import org.apache.spark.sql.execution.datasources.DataSourceStrategy
+import org.apache.spark.sql.execution.datasources.v2.DataSourceV2Implicits
+import org.apache.spark.sql.execution.datasources.v2.DataSourceV2Relation
+import org.apache.spark.sql.execution.datasources.v2.ExtendedDataSourceV2Implicits
+import org.apache.spark.sql.execution.datasources.v2.PushDownUtils
+import org.apache.spark.sql.types.BooleanType
+import org.apache.spark.sql.types.DataType
+import org.apache.spark.sql.types.DateType
+import org.apache.spark.sql.types.Decimal
+import org.apache.spark.sql.types.DecimalType
+import org.apache.spark.sql.types.IntegerType
+import org.apache.spark.sql.types.LongType
+import org.apache.spark.sql.types.TimestampType
+import scala.collection.JavaConverters._
+
+/**
+ * Replaces global COUNT, MIN, and MAX aggregates over an Iceberg table with a local relation when they can be
+ * answered from the metadata of every file that the query would read.
+ *
+ * Aggregates are only rewritten when all filters can be pushed to Iceberg, and when every file either has a residual
+ * that is always true or has metrics that prove all of its rows match. Otherwise the table is scanned as usual.
+ */
+case class RewriteAggregatesFromMetadata(spark: SparkSession) extends Rule[LogicalPlan] with PredicateHelper {
+
+  import DataSourceV2Implicits._
+  import ExtendedDataSourceV2Implicits._
+  import RewriteAggregatesFromMetadata._
+
+  override def apply(plan: LogicalPlan): LogicalPlan = {
+    if (!isEnabled) {
+      return plan
+    }
+
+    plan transform {
+      case agg @ Aggregate(Nil, aggExprs, child) if agg.getTagValue(CHECKED_TAG).isEmpty =>
+        // the optimizer runs rules until the plan stops changing, only plan files for an aggregate once
+        agg.setTagValue(CHECKED_TAG, true)
+        unwrapScan(child)
+          .filter { case (relation, _) => isIcebergRelation(relation) }
+          .flatMap { case (relation, filters) => answerFromMetadata(agg, aggExprs, relation, filters) }
+          .getOrElse(agg)
+    }
+  }
+
+  private def isEnabled: Boolean = {
+    spark.conf.get(ENABLED_CONF, "true").toBoolean
+  }
+
+  private def unwrapScan(plan: LogicalPlan): Option[(DataSourceV2Relation, Seq[Expression])] = plan match {
+    case relation: DataSourceV2Relation =>
+      Some((relation, Nil))
+    case Project(projectList, child) if projectList.forall(_.isInstanceOf[AttributeReference]) =>
+      unwrapScan(child)
+    case Filter(cond, child) =>
+      unwrapScan(child).map { case (relation, filters) => (relation, filters ++ splitConjunctivePredicates(cond)) }
+    case _ =>
+      None
+  }
+
+  private def answerFromMetadata(
+      agg: Aggregate,
+      aggExprs: Seq[NamedExpression],
+      relation: DataSourceV2Relation,
+      filters: Seq[Expression]): Option[LogicalPlan] = {
+
+    val aggregates = aggExprs.map(toIcebergAggregate(_, relation))
+    if (aggregates.exists(_.isEmpty)) {
+      return None
+    }
+
+    val scanBuilder = relation.table.asReadable.newScanBuilder(relation.options).asIceberg
+    if (filters.nonEmpty) {
+      val normalizedFilters = DataSourceStrategy.normalizeExprs(filters, relation.output)
+      PushDownUtils.pushFilters(scanBuilder, normalizedFilters)
+      // every predicate must be evaluated by Iceberg for the answered files to match the query
+      if (scanBuilder.pushedFilters().length != filters.size) {
+        return None
+      }
+    }
+
+    val result = scanBuilder.pushAggregates(aggregates.flatten.asJava)
+    if (result == null || !result.isComplete) {
+      return None
+    }
+
+    logInfo(s"Answered ${aggExprs.mkString(", ")} from the metadata of ${result.answeredFiles()} files")
+    val values = aggExprs.indices.map(index => toSparkValue(result.value(index), aggExprs(index).dataType))
+    Some(LocalRelation(agg.output, Seq(InternalRow.fromSeq(values))))
+  }
+
+  private def toIcebergAggregate(
+      expr: NamedExpression,
+      relation: DataSourceV2Relation): Option[MetadataAggregator.Aggregate] = {
+
+    def columnName(attr: AttributeReference): Option[String] = {
+      relation.output.find(_.exprId == attr.exprId).map(_.name)
+    }
+
+    expr match {
+      case Alias(AggregateExpression(func, _, false, None, _), _) =>
+        func match {
+          case Count(Seq(Literal(value, _))) if value != null =>
+            Some(MetadataAggregator.Aggregate.countStar())
+          case Count(Seq(attr: AttributeReference)) =>
+            columnName(attr).map(MetadataAggregator.Aggregate.count)
+          case Min(attr: AttributeReference) if supportsBounds(attr.dataType) =>
+            columnName(attr).map(MetadataAggregator.Aggregate.min)
+          case Max(attr: AttributeReference) if supportsBounds(attr.dataType) =>
+            columnName(attr).map(MetadataAggregator.Aggregate.max)
+          case _ =>
+            None
+        }
+      case _ =>
+        None
+    }
+  }
+
+  // types with exact bounds in file metrics, see MetadataAggregator
+  private def supportsBounds(dataType: DataType): Boolean = dataType match {
+    case BooleanType | IntegerType | LongType | DateType | TimestampType => true
+    case _: DecimalType => true
+    case _ => false
+  }
+
+  private def toSparkValue(value: Any, dataType: DataType): Any = (value, dataType) match {
+    case (null, _) =>
+      null
+    case (decimal: java.math.BigDecimal, decimalType: DecimalType) =>
+      Decimal(decimal, decimalType.precision, decimalType.scale)
+    case _ =>
+      value
+  }
+}
+
+object RewriteAggregatesFromMetadata {
+  final val ENABLED_CONF = "spark.sql.iceberg.aggregate-push-down.enabled"
+  private final val CHECKED_TAG = TreeNodeTag[Boolean]("iceberg.metadataAggregateChecked")
+}
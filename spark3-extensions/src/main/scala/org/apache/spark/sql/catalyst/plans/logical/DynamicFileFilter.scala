@@ -24,6 +24,7 @@ import org.apache.spark.sql.catalyst.expressions.AttributeSet
 import org.apache.spark.sql.catalyst.util.truncatedString
 import org.apache.spark.sql.catalyst.utils.SetAccumulator
 import org.apache.spark.sql.connector.iceberg.read.SupportsFileFilter
+import org.apache.spark.sql.connector.iceberg.read.SupportsRuntimeFiltering
 
 // TODO: fix stats (ignore the fact it is a binary node and report only scanRelation stats)
 case class DynamicFileFilter(
@@ -60,3 +61,29 @@ case class DynamicFileFilterWithCardinalityCheck(
     s"DynamicFileFilterWithCardinalityCheck${truncatedString(output, "[", ", ", "]", maxFields)}"
   }
 }
+
+/**
+ * Filters a scan at runtime using the min and max of join keys that are computed by filterPlan.
+ *
+ * filterPlan must return a single row with the min and max for each of filterAttrs, in order.
+ */
+case class DynamicRuntimeFilter(
+    scanPlan: LogicalPlan,
+    filterPlan: LogicalPlan,
+    filterAttrs: Seq[Attribute],
+    filterable: SupportsRuntimeFiltering) extends BinaryNode {
+
+  @transient
+  override lazy val references: AttributeSet = AttributeSet(filterPlan.output)
+
+  override def left: LogicalPlan = scanPlan
+  override def right: LogicalPlan = filterPlan
+  override def output: Seq[Attribute] = scanPlan.output
+
+  // join planning should only consider the size of the filtered scan
+  override def stats: Statistics = scanPlan.stats
+
+  override def simpleString(maxFields: Int): String = {
+    s"DynamicRuntimeFilter${truncatedString(filterAttrs, "[", ", ", "]", maxFields)}"
+  }
+}
@@ -21,6 +21,7 @@ package org.apache.spark.sql.execution.datasources.v2
 
 import org.apache.spark.SparkException
 import org.apache.spark.rdd.RDD
+import org.apache.spark.sql.catalyst.CatalystTypeConverters
 import org.apache.spark.sql.catalyst.InternalRow
 import org.apache.spark.sql.catalyst.expressions.Attribute
 import org.apache.spark.sql.catalyst.expressions.AttributeSet
@@ -29,8 +30,10 @@ import org.apache.spark.sql.catalyst.plans.physical
 import org.apache.spark.sql.catalyst.util.truncatedString
 import org.apache.spark.sql.catalyst.utils.SetAccumulator
 import org.apache.spark.sql.connector.iceberg.read.SupportsFileFilter
+import org.apache.spark.sql.connector.iceberg.read.SupportsRuntimeFiltering
 import org.apache.spark.sql.execution.BinaryExecNode
 import org.apache.spark.sql.execution.SparkPlan
+import org.apache.spark.sql.sources
 import org.apache.spark.sql.vectorized.ColumnarBatch
 import scala.collection.JavaConverters._
 
@@ -89,3 +92,41 @@ case class DynamicFileFilterWithCardinalityCheckExec(
     filterable.filterFiles(matchedFileLocations)
   }
 }
+
+case class DynamicRuntimeFilterExec(
+    scanExec: SparkPlan,
+    filterExec: SparkPlan,
+    filterAttrs: Seq[Attribute],
+    @transient filterable: SupportsRuntimeFiltering)
+  extends DynamicFileFilterExecBase(scanExec, filterExec) {
+
+  override protected def doPrepare(): Unit = {
+    // the filter plan is a global aggregate, so it always returns a single row
+    val bounds = filterExec.executeCollect().head
+    val filters = filterAttrs.zipWithIndex.flatMap { case (attr, index) =>
+      val lower = bounds.get(2 * index, attr.dataType)
+      val upper = bounds.get(2 * index + 1, attr.dataType)
+      if (lower == null || upper == null) {
+        // there are no non-null keys to join with, so no rows of this scan can match
+        Seq(sources.AlwaysFalse)
+      } else if (lower == upper) {
+        Seq(sources.EqualTo(attr.name, toScala(lower, attr)))
+      } else {
+        Seq(
+          sources.GreaterThanOrEqual(attr.name, toScala(lower, attr)),
+          sources.LessThanOrEqual(attr.name, toScala(upper, attr)))
+      }
+    }
+
+    logInfo(s"Applying runtime filters: ${filters.mkString(", ")}")
+    filterable.filter(filters.toArray)
+  }
+
+  private def toScala(value: Any, attr: Attribute): Any = {
+    CatalystTypeConverters.convertToScala(value, attr.dataType)
+  }
+
+  override def simpleString(maxFields: Int): String = {
+    s"DynamicRuntimeFilterExec${truncatedString(filterAttrs, "[", ", ", "]", maxFields)}"
+  }
+}
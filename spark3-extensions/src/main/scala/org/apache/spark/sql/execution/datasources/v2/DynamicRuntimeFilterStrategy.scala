@@ -0,0 +1,169 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.spark.sql.execution.datasources.v2
+
+import org.apache.spark.sql.SparkSession
+import org.apache.spark.sql.Strategy
+import org.apache.spark.sql.catalyst.expressions.Alias
+import org.apache.spark.sql.catalyst.expressions.AttributeReference
+import org.apache.spark.sql.catalyst.expressions.Expression
+import org.apache.spark.sql.catalyst.expressions.IsNotNull
+import org.apache.spark.sql.catalyst.expressions.PredicateHelper
+import org.apache.spark.sql.catalyst.expressions.aggregate.Max
+import org.apache.spark.sql.catalyst.expressions.aggregate.Min
+import org.apache.spark.sql.catalyst.planning.ExtractEquiJoinKeys
+import org.apache.spark.sql.catalyst.planning.PhysicalOperation
+import org.apache.spark.sql.catalyst.plans.Inner
+import org.apache.spark.sql.catalyst.plans.JoinType
+import org.apache.spark.sql.catalyst.plans.LeftOuter
+import org.apache.spark.sql.catalyst.plans.LeftSemi
+import org.apache.spark.sql.catalyst.plans.RightOuter
+import org.apache.spark.sql.catalyst.plans.logical.Aggregate
+import org.apache.spark.sql.catalyst.plans.logical.DynamicRuntimeFilter
+import org.apache.spark.sql.catalyst.plans.logical.Filter
+import org.apache.spark.sql.catalyst.plans.logical.Join
+import org.apache.spark.sql.catalyst.plans.logical.LogicalPlan
+import org.apache.spark.sql.connector.iceberg.read.SupportsRuntimeFiltering
+import org.apache.spark.sql.execution.SparkPlan
+import org.apache.spark.sql.types.ByteType
+import org.apache.spark.sql.types.DataType
+import org.apache.spark.sql.types.DateType
+import org.apache.spark.sql.types.DecimalType
+import org.apache.spark.sql.types.IntegerType
+import org.apache.spark.sql.types.LongType
+import org.apache.spark.sql.types.ShortType
+import org.apache.spark.sql.types.StringType
+import org.apache.spark.sql.types.TimestampType
+
+/**
+ * Adds a runtime filter to the Iceberg scan of an equi-join when the other side of the join has a selective filter.
+ *
+ * Before the scan is planned, the min and max of each join key are computed from the other side of the join and
+ * pushed to the scan, which uses them to skip files with partition values and column bounds outside of that range.
+ * The other side of the join is evaluated once more to compute the range, so it must be deterministic.
+ */
+case class DynamicRuntimeFilterStrategy(spark: SparkSession) extends Strategy with PredicateHelper {
+
+  import DynamicRuntimeFilterStrategy._
+
+  override def apply(plan: LogicalPlan): Seq[SparkPlan] = plan match {
+    case join: Join if isEnabled && !isFiltered(join) =>
+      join match {
+        case ExtractEquiJoinKeys(joinType, leftKeys, rightKeys, _, left, right, _) =>
+          val filteredLeft = if (canFilterLeft(joinType)) {
+            runtimeFilter(left, leftKeys, right, rightKeys).map(newLeft => join.copy(left = newLeft))
+          } else {
+            None
+          }
+
+          lazy val filteredRight = if (canFilterRight(joinType)) {
+            runtimeFilter(right, rightKeys, left, leftKeys).map(newRight => join.copy(right = newRight))
+          } else {
+            None
+          }
+
+          filteredLeft.orElse(filteredRight).map(planLater).toList
+
+        case _ =>
+          Nil
+      }
+
+    case _ =>
+      Nil
+  }
+
+  private def isEnabled: Boolean = {
+    spark.conf.get(ENABLED_CONF, "true").toBoolean
+  }
+
+  private def isFiltered(join: Join): Boolean = {
+    join.children.exists(_.isInstanceOf[DynamicRuntimeFilter])
+  }
+
+  // rows of the filtered side are only needed if they match the other side
+  private def canFilterLeft(joinType: JoinType): Boolean = joinType match {
+    case Inner | LeftSemi | RightOuter => true
+    case _ => false
+  }
+
+  private def canFilterRight(joinType: JoinType): Boolean = joinType match {
+    case Inner | LeftOuter => true
+    case _ => false
+  }
+
+  private def runtimeFilter(
+      scanPlan: LogicalPlan,
+      scanKeys: Seq[Expression],
+      otherPlan: LogicalPlan,
+      otherKeys: Seq[Expression]): Option[LogicalPlan] = scanPlan match {
+
+    case PhysicalOperation(_, _, DataSourceV2ScanRelation(_, filterable: SupportsRuntimeFiltering, output))
+        if hasSelectivePredicate(otherPlan) && isDeterministic(otherPlan) &&
+            otherPlan.stats.sizeInBytes < scanPlan.stats.sizeInBytes =>
+
+      val keys = scanKeys.zip(otherKeys).collect {
+        case (attr: AttributeReference, otherKey) if isScanColumn(attr, output) && supportsRange(attr.dataType) =>
+          (attr, otherKey)
+      }
+
+      if (keys.nonEmpty) {
+        val bounds = keys.flatMap { case (_, otherKey) =>
+          Seq(
+            Alias(Min(otherKey).toAggregateExpression(), "min")(),
+            Alias(Max(otherKey).toAggregateExpression(), "max")())
+        }
+        val filterPlan = Aggregate(Nil, bounds, otherPlan)
+        Some(DynamicRuntimeFilter(scanPlan, filterPlan, keys.map(_._1), filterable))
+      } else {
+        None
+      }
+
+    case _ =>
+      None
+  }
+
+  private def isScanColumn(attr: AttributeReference, output: Seq[AttributeReference]): Boolean = {
+    output.exists(_.exprId == attr.exprId)
+  }
+
+  // not null filters are inferred from join keys and do not make the other side selective
+  private def hasSelectivePredicate(plan: LogicalPlan): Boolean = {
+    plan.find {
+      case Filter(cond, _) => splitConjunctivePredicates(cond).exists(!_.isInstanceOf[IsNotNull])
+      case _ => false
+    }.isDefined
+  }
+
+  // the other side is evaluated twice, so both runs must produce the same rows or matching rows could be skipped
+  private def isDeterministic(plan: LogicalPlan): Boolean = {
+    plan.find(node => !node.expressions.forall(_.deterministic)).isEmpty
+  }
+
+  // floating point keys are not supported because NaN cannot be used as a bound
+  private def supportsRange(dataType: DataType): Boolean = dataType match {
+    case ByteType | ShortType | IntegerType | LongType | DateType | TimestampType | StringType => true
+    case _: DecimalType => true
+    case _ => false
+  }
+}
+
+object DynamicRuntimeFilterStrategy {
+  final val ENABLED_CONF = "spark.sql.iceberg.runtime-filtering.enabled"
+}
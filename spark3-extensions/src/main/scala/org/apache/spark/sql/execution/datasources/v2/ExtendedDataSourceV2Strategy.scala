@@ -36,6 +36,7 @@ import org.apache.spark.sql.catalyst.plans.logical.Call
 import org.apache.spark.sql.catalyst.plans.logical.DropPartitionField
 import org.apache.spark.sql.catalyst.plans.logical.DynamicFileFilter
 import org.apache.spark.sql.catalyst.plans.logical.DynamicFileFilterWithCardinalityCheck
+import org.apache.spark.sql.catalyst.plans.logical.DynamicRuntimeFilter
 import org.apache.spark.sql.catalyst.plans.logical.LogicalPlan
 import org.apache.spark.sql.catalyst.plans.logical.MergeInto
 import org.apache.spark.sql.catalyst.plans.logical.ReplaceData
@@ -66,6 +67,14 @@ case class ExtendedDataSourceV2Strategy(spark: SparkSession) extends Strategy {
         IcebergCatalogAndIdentifier(catalog, ident), distributionMode, ordering) =>
       SetWriteDistributionAndOrderingExec(catalog, ident, distributionMode, ordering) :: Nil
 
+    case DynamicRuntimeFilter(
+        PhysicalOperation(project, filters, DataSourceV2ScanRelation(_, scan, output)),
+        filterPlan, filterAttrs, filterable) =>
+      // input partitions must not be cached before runtime filters are applied, see ExtendedBatchScanExec
+      val batchExec = ExtendedBatchScanExec(output, scan)
+      val scanExec = withProjectAndFilter(project, filters, batchExec, !batchExec.supportsColumnar)
+      DynamicRuntimeFilterExec(scanExec, planLater(filterPlan), filterAttrs, filterable) :: Nil
+
     case DynamicFileFilter(scanPlan, fileFilterPlan, filterable) =>
       DynamicFileFilterExec(planLater(scanPlan), planLater(fileFilterPlan), filterable) :: Nil
 
@@ -0,0 +1,111 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iceberg.spark.extensions;
+
+import java.util.List;
+import java.util.Map;
+import org.apache.iceberg.relocated.com.google.common.collect.ImmutableList;
+import org.apache.iceberg.relocated.com.google.common.collect.ImmutableMap;
+import org.apache.spark.sql.catalyst.optimizer.RewriteAggregatesFromMetadata;
+import org.apache.spark.sql.catalyst.plans.logical.LocalRelation;
+import org.apache.spark.sql.catalyst.plans.logical.LogicalPlan;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import scala.collection.JavaConverters;
+
+public class TestAggregatePushDown extends SparkExtensionsTestBase {
+
+  public TestAggregatePushDown(String catalogName, String implementation, Map<String, String> config) {
+    super(catalogName, implementation, config);
+  }
+
+  @Before
+  public void createTable() {
+    sql("CREATE TABLE %s (id bigint NOT NULL, data string, dep string) USING iceberg PARTITIONED BY (dep)", tableName);
+    sql("INSERT INTO TABLE %s VALUES (1, 'a', 'hr'), (2, null, 'hr')", tableName);
+    sql("INSERT INTO TABLE %s VALUES (3, 'c', 'hardware'), (4, 'd', 'hardware')", tableName);
+    sql("INSERT INTO TABLE %s VALUES (5, 'e', 'software')", tableName);
+  }
+
+  @After
+  public void removeTable() {
+    sql("DROP TABLE IF EXISTS %s", tableName);
+  }
+
+  @Test
+  public void testGlobalAggregates() {
+    String query = String.format("SELECT count(*), count(data), min(id), max(id) FROM %s", tableName);
+
+    Assert.assertTrue("Should answer from metadata", isAnsweredFromMetadata(query));
+    assertEquals("Should have expected aggregates",
+        ImmutableList.of(row(5L, 4L, 1L, 5L)),
+        sql(query));
+  }
+
+  @Test
+  public void testAggregatesWithPartitionFilter() {
+    String query = String.format("SELECT count(*), min(id), max(id) FROM %s WHERE dep = 'hardware'", tableName);
+
+    Assert.assertTrue("Should answer from metadata", isAnsweredFromMetadata(query));
+    assertEquals("Should have expected aggregates",
+        ImmutableList.of(row(2L, 3L, 4L)),
+        sql(query));
+  }
+
+  @Test
+  public void testAggregatesWithRowFilter() {
+    String query = String.format("SELECT count(*), max(id) FROM %s WHERE id > 1", tableName);
+
+    Assert.assertFalse("Should scan files that are not proven to match", isAnsweredFromMetadata(query));
+    assertEquals("Should have expected aggregates",
+        ImmutableList.of(row(4L, 5L)),
+        sql(query));
+  }
+
+  @Test
+  public void testUnsupportedAggregates() {
+    String query = String.format("SELECT count(*), max(data) FROM %s", tableName);
+
+    Assert.assertFalse("Should not answer string bounds from metadata", isAnsweredFromMetadata(query));
+    assertEquals("Should have expected aggregates",
+        ImmutableList.of(row(5L, "e")),
+        sql(query));
+  }
+
+  @Test
+  public void testDisabledPushDown() {
+    String query = String.format("SELECT count(*), min(id) FROM %s", tableName);
+
+    withSQLConf(ImmutableMap.of(RewriteAggregatesFromMetadata.ENABLED_CONF(), "false"), () -> {
+      Assert.assertFalse("Should scan when push down is disabled", isAnsweredFromMetadata(query));
+      assertEquals("Should have expected aggregates",
+          ImmutableList.of(row(5L, 1L)),
+          sql(query));
+    });
+  }
+
+  private boolean isAnsweredFromMetadata(String query) {
+    LogicalPlan plan = spark.sql(query).queryExecution().optimizedPlan();
+    List<LogicalPlan> leaves = JavaConverters.seqAsJavaList(plan.collectLeaves());
+    return leaves.stream().allMatch(leaf -> leaf instanceof LocalRelation);
+  }
+}
@@ -0,0 +1,154 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iceberg.spark.extensions;
+
+import java.util.Map;
+import org.apache.iceberg.TableProperties;
+import org.apache.iceberg.relocated.com.google.common.collect.ImmutableList;
+import org.apache.iceberg.relocated.com.google.common.collect.ImmutableMap;
+import org.apache.spark.sql.Dataset;
+import org.apache.spark.sql.Row;
+import org.apache.spark.sql.execution.SparkPlan;
+import org.apache.spark.sql.execution.datasources.v2.DynamicRuntimeFilterExec;
+import org.apache.spark.sql.execution.datasources.v2.DynamicRuntimeFilterStrategy;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import scala.Option;
+
+public class TestRuntimeFiltering extends SparkExtensionsTestBase {
+
+  public TestRuntimeFiltering(String catalogName, String implementation, Map<String, String> config) {
+    super(catalogName, implementation, config);
+  }
+
+  @Before
+  public void createTables() {
+    sql("CREATE TABLE %s (id bigint NOT NULL, dep string) USING iceberg PARTITIONED BY (dep)", tableName);
+    // plan each file in a separate task so that tasks can be used to count the files that are read
+    sql("ALTER TABLE %s SET TBLPROPERTIES ('%s' '1')", tableName, TableProperties.SPLIT_SIZE);
+    sql("INSERT INTO TABLE %s VALUES (1, 'hr'), (2, 'hr'), (3, 'hr'), (4, 'hr')", tableName);
+    sql("INSERT INTO TABLE %s VALUES (5, 'hardware'), (6, 'hardware'), (7, 'hardware')", tableName);
+    sql("INSERT INTO TABLE %s VALUES (8, 'software'), (9, 'software'), (10, 'software')", tableName);
+
+    sql("CREATE TABLE %s (dep string, manager string) USING iceberg", tableName("dim"));
+    sql("INSERT INTO TABLE %s VALUES ('hr', 'alice'), ('hardware', 'bob'), ('software', 'carol')", tableName("dim"));
+  }
+
+  @After
+  public void removeTables() {
+    sql("DROP TABLE IF EXISTS %s", tableName);
+    sql("DROP TABLE IF EXISTS %s", tableName("dim"));
+  }
+
+  @Test
+  public void testRuntimeFilterSkipsFiles() {
+    String query = String.format(
+        "SELECT t.id FROM %s t JOIN %s d ON t.dep = d.dep WHERE d.manager = 'bob' ORDER BY t.id",
+        tableName, tableName("dim"));
+
+    assertEquals("Should have expected rows",
+        ImmutableList.of(row(5L), row(6L), row(7L)),
+        sql(query));
+
+    DynamicRuntimeFilterExec filterExec = findRuntimeFilter(query);
+    Assert.assertNotNull("Should add a runtime filter", filterExec);
+    Assert.assertEquals("Should only read files of the matching partition",
+        1, filterExec.filterable().toBatch().planInputPartitions().length);
+  }
+
+  @Test
+  public void testRuntimeFilterWithNoMatchingKeys() {
+    String query = String.format(
+        "SELECT t.id FROM %s t JOIN %s d ON t.dep = d.dep WHERE d.manager = 'dave'",
+        tableName, tableName("dim"));
+
+    assertEquals("Should have no rows", ImmutableList.of(), sql(query));
+
+    DynamicRuntimeFilterExec filterExec = findRuntimeFilter(query);
+    Assert.assertNotNull("Should add a runtime filter", filterExec);
+    Assert.assertEquals("Should not read any files",
+        0, filterExec.filterable().toBatch().planInputPartitions().length);
+  }
+
+  @Test
+  public void testNoRuntimeFilterWithoutSelectivePredicate() {
+    String query = String.format(
+        "SELECT count(*) FROM %s t JOIN %s d ON t.dep = d.dep",
+        tableName, tableName("dim"));
+
+    assertEquals("Should have expected rows", ImmutableList.of(row(10L)), sql(query));
+    Assert.assertNull("Should not add a runtime filter", findRuntimeFilter(query));
+  }
+
+  @Test
+  public void testNoRuntimeFilterWithNondeterministicPredicate() {
+    String query = String.format(
+        "SELECT t.id FROM %s t JOIN %s d ON t.dep = d.dep WHERE d.manager = 'bob' AND rand() < 2 ORDER BY t.id",
+        tableName, tableName("dim"));
+
+    assertEquals("Should have expected rows",
+        ImmutableList.of(row(5L), row(6L), row(7L)),
+        sql(query));
+    Assert.assertNull("Should not add a runtime filter", findRuntimeFilter(query));
+  }
+
+  @Test
+  public void testRuntimeFilterKeepsReportedPartitioning() {
+    String query = String.format(
+        "SELECT t.id FROM %s t JOIN %s d ON t.dep = d.dep WHERE d.manager = 'bob' ORDER BY t.id",
+        tableName, tableName("dim"));
+
+    withSQLConf(ImmutableMap.of("spark.sql.iceberg.planning.preserve-data-grouping", "true"), () -> {
+      assertEquals("Should have expected rows",
+          ImmutableList.of(row(5L), row(6L), row(7L)),
+          sql(query));
+
+      DynamicRuntimeFilterExec filterExec = findRuntimeFilter(query);
+      Assert.assertNotNull("Should add a runtime filter", filterExec);
+      Assert.assertEquals("Should read as many partitions as the scan reported",
+          filterExec.outputPartitioning().numPartitions(),
+          filterExec.filterable().toBatch().planInputPartitions().length);
+    });
+  }
+
+  @Test
+  public void testDisabledRuntimeFiltering() {
+    String query = String.format(
+        "SELECT t.id FROM %s t JOIN %s d ON t.dep = d.dep WHERE d.manager = 'bob' ORDER BY t.id",
+        tableName, tableName("dim"));
+
+    withSQLConf(ImmutableMap.of(DynamicRuntimeFilterStrategy.ENABLED_CONF(), "false"), () -> {
+      assertEquals("Should have expected rows",
+          ImmutableList.of(row(5L), row(6L), row(7L)),
+          sql(query));
+      Assert.assertNull("Should not add a runtime filter", findRuntimeFilter(query));
+    });
+  }
+
+  private DynamicRuntimeFilterExec findRuntimeFilter(String query) {
+    Dataset<Row> df = spark.sql(query);
+    df.collectAsList();
+    Option<SparkPlan> filterExec = df.queryExecution().executedPlan()
+        .find(plan -> plan instanceof DynamicRuntimeFilterExec);
+    return filterExec.isDefined() ? (DynamicRuntimeFilterExec) filterExec.get() : null;
+  }
+}
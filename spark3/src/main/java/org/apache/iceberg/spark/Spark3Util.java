@@ -491,6 +491,21 @@ public class Spark3Util {
             TableProperties.PARQUET_BATCH_SIZE, TableProperties.PARQUET_BATCH_SIZE_DEFAULT));
   }
 
+  public static boolean isDataGroupingPreserved(CaseInsensitiveStringMap readOptions) {
+    String preserveGroupingSessionConf = SparkSession.active().conf()
+        .get("spark.sql.iceberg.planning.preserve-data-grouping", "false");
+    return readOptions.getBoolean(SparkReadOptions.PRESERVE_DATA_GROUPING,
+        Boolean.parseBoolean(preserveGroupingSessionConf));
+  }
+
+  public static int distributedPlanningManifestThreshold(Map<String, String> properties,
+                                                         CaseInsensitiveStringMap readOptions) {
+    return readOptions.getInt(SparkReadOptions.DISTRIBUTED_PLANNING_MANIFEST_THRESHOLD,
+        PropertyUtil.propertyAsInt(properties,
+            TableProperties.SPARK_DISTRIBUTED_PLANNING_MANIFEST_THRESHOLD,
+            TableProperties.SPARK_DISTRIBUTED_PLANNING_MANIFEST_THRESHOLD_DEFAULT));
+  }
+
   public static Long propertyAsLong(CaseInsensitiveStringMap options, String property, Long defaultValue) {
     if (defaultValue != null) {
       return options.getLong(property, defaultValue);
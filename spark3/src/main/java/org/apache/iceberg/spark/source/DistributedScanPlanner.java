@@ -0,0 +1,122 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iceberg.spark.source;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import org.apache.iceberg.DataTableScan;
+import org.apache.iceberg.DeleteFile;
+import org.apache.iceberg.FileScanTask;
+import org.apache.iceberg.ManifestFile;
+import org.apache.iceberg.PartitionSpec;
+import org.apache.iceberg.Snapshot;
+import org.apache.iceberg.exceptions.RuntimeIOException;
+import org.apache.iceberg.expressions.Expression;
+import org.apache.iceberg.io.CloseableIterable;
+import org.apache.iceberg.io.FileIO;
+import org.apache.iceberg.relocated.com.google.common.collect.ImmutableList;
+import org.apache.iceberg.relocated.com.google.common.collect.ImmutableMap;
+import org.apache.iceberg.relocated.com.google.common.collect.Lists;
+import org.apache.iceberg.util.Pair;
+import org.apache.spark.api.java.JavaSparkContext;
+import org.apache.spark.api.java.function.FlatMapFunction;
+import org.apache.spark.broadcast.Broadcast;
+import org.apache.spark.sql.SparkSession;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Plans the files of a snapshot by reading its data manifests on executors.
+ * <p>
+ * The driver reads the manifest list and the delete manifests, and broadcasts the matching delete files. Data
+ * manifests are distributed to executors that evaluate the scan filter and return the matching
+ * {@link FileScanTask file scan tasks}, which are split and combined on the driver.
+ */
+class DistributedScanPlanner {
+  private static final Logger LOG = LoggerFactory.getLogger(DistributedScanPlanner.class);
+
+  private DistributedScanPlanner() {
+  }
+
+  static List<FileScanTask> planFiles(Broadcast<FileIO> io, Map<Integer, PartitionSpec> specsById, Snapshot snapshot,
+                                      Expression rowFilter, boolean caseSensitive, boolean colStats) {
+    JavaSparkContext sparkContext = JavaSparkContext.fromSparkContext(SparkSession.active().sparkContext());
+
+    List<ManifestFile> dataManifests = snapshot.dataManifests();
+    int parallelism = Math.min(dataManifests.size(), sparkContext.defaultParallelism());
+
+    // delete manifests are read once instead of in every task, all tasks need all delete files
+    List<Pair<Long, DeleteFile>> deleteFiles = DataTableScan.planDeleteFiles(
+        io.value(), specsById, snapshot.deleteManifests(), rowFilter, caseSensitive);
+
+    LOG.info("Planning snapshot {} on executors: reading {} data manifests in {} tasks with {} delete files",
+        snapshot.snapshotId(), dataManifests.size(), parallelism, deleteFiles.size());
+
+    Broadcast<List<Pair<Long, DeleteFile>>> deleteFilesBroadcast =
+        sparkContext.broadcast(deleteFiles);
+    PlanDataManifests planFunc = new PlanDataManifests(
+        io, ImmutableMap.copyOf(specsById), deleteFilesBroadcast, rowFilter, caseSensitive, colStats);
+
+    try {
+      return sparkContext.parallelize(dataManifests, parallelism)
+          .mapPartitions(planFunc)
+          .collect();
+    } finally {
+      deleteFilesBroadcast.destroy();
+    }
+  }
+
+  private static class PlanDataManifests implements FlatMapFunction<Iterator<ManifestFile>, FileScanTask> {
+    private final Broadcast<FileIO> io;
+    private final Map<Integer, PartitionSpec> specsById;
+    private final Broadcast<List<Pair<Long, DeleteFile>>> deleteFiles;
+    private final Expression rowFilter;
+    private final boolean caseSensitive;
+    private final boolean colStats;
+
+    PlanDataManifests(Broadcast<FileIO> io, Map<Integer, PartitionSpec> specsById,
+                      Broadcast<List<Pair<Long, DeleteFile>>> deleteFiles, Expression rowFilter,
+                      boolean caseSensitive, boolean colStats) {
+      this.io = io;
+      this.specsById = specsById;
+      this.deleteFiles = deleteFiles;
+      this.rowFilter = rowFilter;
+      this.caseSensitive = caseSensitive;
+      this.colStats = colStats;
+    }
+
+    @Override
+    public Iterator<FileScanTask> call(Iterator<ManifestFile> manifests) {
+      List<ManifestFile> dataManifests = Lists.newArrayList(manifests);
+      if (dataManifests.isEmpty()) {
+        return ImmutableList.<FileScanTask>of().iterator();
+      }
+
+      try (CloseableIterable<FileScanTask> tasks = DataTableScan.planDataManifests(
+          io.value(), specsById, dataManifests, deleteFiles.value(), rowFilter, caseSensitive, colStats)) {
+        return Lists.newArrayList(tasks).iterator();
+      } catch (IOException e) {
+        throw new RuntimeIOException(e, "Failed to close manifest group for %s manifests", dataManifests.size());
+      }
+    }
+  }
+}
@@ -0,0 +1,62 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iceberg.spark.source;
+
+import java.util.Arrays;
+import java.util.Set;
+import org.apache.spark.sql.connector.read.partitioning.ClusteredDistribution;
+import org.apache.spark.sql.connector.read.partitioning.Distribution;
+import org.apache.spark.sql.connector.read.partitioning.Partitioning;
+
+/**
+ * The output partitioning of a scan that plans the files of each partition tuple into a single task.
+ * <p>
+ * Every partition transform is a function of its source column, so rows that have the same values in all source
+ * columns of the partition spec are always read by the same task. The scan therefore satisfies a clustered
+ * distribution whenever its columns include all of those source columns.
+ */
+class GroupedPartitioning implements Partitioning {
+  private final int numPartitions;
+  private final Set<String> groupingColumns;
+
+  /**
+   * @param numPartitions the number of tasks of the scan
+   * @param groupingColumns the source columns of the partition spec, or an empty set if tasks are not grouped
+   */
+  GroupedPartitioning(int numPartitions, Set<String> groupingColumns) {
+    this.numPartitions = numPartitions;
+    this.groupingColumns = groupingColumns;
+  }
+
+  @Override
+  public int numPartitions() {
+    return numPartitions;
+  }
+
+  @Override
+  public boolean satisfy(Distribution distribution) {
+    if (groupingColumns.isEmpty() || !(distribution instanceof ClusteredDistribution)) {
+      return false;
+    }
+
+    String[] clusteredColumns = ((ClusteredDistribution) distribution).clusteredColumns;
+    return Arrays.asList(clusteredColumns).containsAll(groupingColumns);
+  }
+}
@@ -0,0 +1,87 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iceberg.spark.source;
+
+import java.util.Map;
+import java.util.Set;
+import org.apache.iceberg.DataFile;
+import org.apache.iceberg.FileScanTask;
+import org.apache.iceberg.Schema;
+import org.apache.iceberg.relocated.com.google.common.collect.Sets;
+import org.apache.iceberg.types.TypeUtil;
+
+/**
+ * Aggregates the size and row count of the files read by a scan.
+ * <p>
+ * The size only includes the columns that are projected when files report column sizes, so that a scan of a few
+ * columns of a wide table is not estimated at the size of the whole files. Files split into several tasks are only
+ * counted once for row counts.
+ */
+class ScanStatsAggregator {
+  private final Set<Integer> projectedIds;
+  private final Set<String> seenFiles = Sets.newHashSet();
+  private long sizeInBytes = 0L;
+  private long numRows = 0L;
+
+  ScanStatsAggregator(Schema projection) {
+    this.projectedIds = TypeUtil.getProjectedIds(projection);
+  }
+
+  void update(FileScanTask task) {
+    sizeInBytes += projectedLength(task);
+
+    DataFile file = task.file();
+    if (seenFiles.add(file.path().toString())) {
+      numRows += file.recordCount();
+    }
+  }
+
+  long sizeInBytes() {
+    return sizeInBytes;
+  }
+
+  long numRows() {
+    return numRows;
+  }
+
+  private long projectedLength(FileScanTask task) {
+    Map<Integer, Long> columnSizes = task.file().columnSizes();
+    if (columnSizes == null || columnSizes.isEmpty()) {
+      return task.length();
+    }
+
+    long projectedSize = 0L;
+    boolean hasProjectedSize = false;
+    for (Map.Entry<Integer, Long> entry : columnSizes.entrySet()) {
+      if (projectedIds.contains(entry.getKey()) && entry.getValue() != null) {
+        projectedSize += entry.getValue();
+        hasProjectedSize = true;
+      }
+    }
+
+    long fileSize = task.file().fileSizeInBytes();
+    if (!hasProjectedSize || fileSize <= 0) {
+      return task.length();
+    }
+
+    // a split only reads its share of the projected columns
+    return (long) ((double) projectedSize * task.length() / fileSize);
+  }
+}
@@ -22,23 +22,49 @@ package org.apache.iceberg.spark.source;
 import java.io.IOException;
 import java.util.List;
 import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.apache.iceberg.BaseCombinedScanTask;
+import org.apache.iceberg.BaseTable;
 import org.apache.iceberg.CombinedScanTask;
+import org.apache.iceberg.DataTableScan;
+import org.apache.iceberg.FileScanTask;
+import org.apache.iceberg.PartitionField;
 import org.apache.iceberg.Schema;
+import org.apache.iceberg.Snapshot;
 import org.apache.iceberg.Table;
 import org.apache.iceberg.TableProperties;
 import org.apache.iceberg.TableScan;
 import org.apache.iceberg.encryption.EncryptionManager;
+import org.apache.iceberg.events.Listeners;
+import org.apache.iceberg.events.ScanEvent;
 import org.apache.iceberg.exceptions.RuntimeIOException;
+import org.apache.iceberg.exceptions.ValidationException;
+import org.apache.iceberg.expressions.Binder;
 import org.apache.iceberg.expressions.Expression;
 import org.apache.iceberg.io.CloseableIterable;
 import org.apache.iceberg.io.FileIO;
+import org.apache.iceberg.relocated.com.google.common.collect.ImmutableList;
+import org.apache.iceberg.relocated.com.google.common.collect.ImmutableSet;
 import org.apache.iceberg.relocated.com.google.common.collect.Lists;
+import org.apache.iceberg.relocated.com.google.common.collect.Sets;
 import org.apache.iceberg.spark.Spark3Util;
+import org.apache.iceberg.spark.SparkFilters;
 import org.apache.iceberg.spark.SparkReadOptions;
+import org.apache.iceberg.transforms.Transforms;
+import org.apache.iceberg.util.BinPacking;
+import org.apache.iceberg.util.PropertyUtil;
+import org.apache.iceberg.util.StructLikeMap;
+import org.apache.iceberg.util.TableScanUtil;
 import org.apache.spark.broadcast.Broadcast;
+import org.apache.spark.sql.connector.iceberg.read.SupportsRuntimeFiltering;
+import org.apache.spark.sql.connector.read.SupportsReportPartitioning;
+import org.apache.spark.sql.connector.read.partitioning.Partitioning;
+import org.apache.spark.sql.sources.Filter;
 import org.apache.spark.sql.util.CaseInsensitiveStringMap;
 
-class SparkBatchQueryScan extends SparkBatchScan {
+class SparkBatchQueryScan extends SparkBatchScan implements SupportsReportPartitioning, SupportsRuntimeFiltering {
 
   private final Long snapshotId;
   private final Long startSnapshotId;
@@ -47,8 +73,13 @@ class SparkBatchQueryScan extends SparkBatchScan {
   private final Long splitSize;
   private final Integer splitLookback;
   private final Long splitOpenFileCost;
+  private final Set<String> groupingColumns;
+  private final int distributedPlanningThreshold;
 
+  private List<Expression> runtimeFilterExpressions = ImmutableList.of();
   private List<CombinedScanTask> tasks = null; // lazy cache of tasks
+  private boolean tasksHaveColumnSizes = false;
+  private boolean partitioningReported = false;
 
   SparkBatchQueryScan(Table table, Broadcast<FileIO> io, Broadcast<EncryptionManager> encryption,
                       boolean caseSensitive, Schema expectedSchema, List<Expression> filters,
@@ -80,56 +111,263 @@ class SparkBatchQueryScan extends SparkBatchScan {
     this.splitSize = Spark3Util.propertyAsLong(options, SparkReadOptions.SPLIT_SIZE, null);
     this.splitLookback = Spark3Util.propertyAsInt(options, SparkReadOptions.LOOKBACK, null);
     this.splitOpenFileCost = Spark3Util.propertyAsLong(options, SparkReadOptions.FILE_OPEN_COST, null);
+
+    this.groupingColumns = Spark3Util.isDataGroupingPreserved(options) ? groupingColumns(table) : ImmutableSet.of();
+    this.distributedPlanningThreshold = Spark3Util.distributedPlanningManifestThreshold(table.properties(), options);
+  }
+
+  /**
+   * Returns the source columns of the table's partition spec, or an empty set if files cannot be grouped by
+   * partition because the table is unpartitioned or its files may have been written with different specs.
+   */
+  private static Set<String> groupingColumns(Table table) {
+    if (table.specs().size() != 1) {
+      return ImmutableSet.of();
+    }
+
+    ImmutableSet.Builder<String> columns = ImmutableSet.builder();
+    for (PartitionField field : table.spec().fields()) {
+      if (!Transforms.alwaysNull().equals(field.transform())) {
+        columns.add(table.schema().findColumnName(field.sourceId()));
+      }
+    }
+
+    return columns.build();
   }
 
   @Override
   protected List<CombinedScanTask> tasks() {
     if (tasks == null) {
-      TableScan scan = table()
-          .newScan()
-          .caseSensitive(caseSensitive())
-          .project(expectedSchema());
+      TableScan scan = newScan();
 
-      if (snapshotId != null) {
-        scan = scan.useSnapshot(snapshotId);
-      }
+      if (planOnExecutors(scan)) {
+        this.tasks = planTasksOnExecutors(scan);
+        this.tasksHaveColumnSizes = costBasedPlanning();
 
-      if (asOfTimestamp != null) {
-        scan = scan.asOfTime(asOfTimestamp);
-      }
+      } else if (!groupingColumns.isEmpty()) {
+        try (CloseableIterable<FileScanTask> filesIterable = scan.planFiles()) {
+          this.tasks = planGroupedTasks(filesIterable);
+          this.tasksHaveColumnSizes = false;
+        } catch (IOException e) {
+          throw new RuntimeIOException(e, "Failed to close table scan: %s", scan);
+        }
 
-      if (startSnapshotId != null) {
-        if (endSnapshotId != null) {
-          scan = scan.appendsBetween(startSnapshotId, endSnapshotId);
-        } else {
-          scan = scan.appendsAfter(startSnapshotId);
+      } else {
+        try (CloseableIterable<CombinedScanTask> tasksIterable = scan.planTasks()) {
+          this.tasks = Lists.newArrayList(tasksIterable);
+        }  catch (IOException e) {
+          throw new RuntimeIOException(e, "Failed to close table scan: %s", scan);
         }
+        this.tasksHaveColumnSizes = costBasedPlanning();
       }
+    }
 
-      if (splitSize != null) {
-        scan = scan.option(TableProperties.SPLIT_SIZE, splitSize.toString());
-      }
+    return tasks;
+  }
 
-      if (splitLookback != null) {
-        scan = scan.option(TableProperties.SPLIT_LOOKBACK, splitLookback.toString());
-      }
+  @Override
+  protected boolean tasksHaveColumnSizes() {
+    tasks();
+    return tasksHaveColumnSizes;
+  }
 
-      if (splitOpenFileCost != null) {
-        scan = scan.option(TableProperties.SPLIT_OPEN_FILE_COST, splitOpenFileCost.toString());
+  private TableScan newScan() {
+    TableScan scan = table()
+        .newScan()
+        .caseSensitive(caseSensitive())
+        .project(expectedSchema());
+
+    if (snapshotId != null) {
+      scan = scan.useSnapshot(snapshotId);
+    }
+
+    if (asOfTimestamp != null) {
+      scan = scan.asOfTime(asOfTimestamp);
+    }
+
+    if (startSnapshotId != null) {
+      if (endSnapshotId != null) {
+        scan = scan.appendsBetween(startSnapshotId, endSnapshotId);
+      } else {
+        scan = scan.appendsAfter(startSnapshotId);
       }
+    }
+
+    if (splitSize != null) {
+      scan = scan.option(TableProperties.SPLIT_SIZE, splitSize.toString());
+    }
+
+    if (splitLookback != null) {
+      scan = scan.option(TableProperties.SPLIT_LOOKBACK, splitLookback.toString());
+    }
+
+    if (splitOpenFileCost != null) {
+      scan = scan.option(TableProperties.SPLIT_OPEN_FILE_COST, splitOpenFileCost.toString());
+    }
+
+    for (Expression filter : filterExpressions()) {
+      scan = scan.filter(filter);
+    }
+
+    for (Expression filter : runtimeFilterExpressions) {
+      scan = scan.filter(filter);
+    }
+
+    return scan;
+  }
+
+  /**
+   * Removes files that do not match the runtime filters from already planned tasks, keeping the number of tasks.
+   */
+  private List<CombinedScanTask> retainMatchingFiles(List<CombinedScanTask> plannedTasks) {
+    TableScan scan = newScan();
+    Set<String> matchingFiles = Sets.newHashSet();
+    try (CloseableIterable<FileScanTask> filesIterable = scan.planFiles()) {
+      filesIterable.forEach(file -> matchingFiles.add(file.file().path().toString()));
+    } catch (IOException e) {
+      throw new RuntimeIOException(e, "Failed to close table scan: %s", scan);
+    }
+
+    List<CombinedScanTask> filteredTasks = Lists.newArrayListWithExpectedSize(plannedTasks.size());
+    for (CombinedScanTask task : plannedTasks) {
+      List<FileScanTask> matchingTasks = task.files().stream()
+          .filter(file -> matchingFiles.contains(file.file().path().toString()))
+          .collect(Collectors.toList());
+      filteredTasks.add(new BaseCombinedScanTask(matchingTasks));
+    }
+
+    return filteredTasks;
+  }
+
+  /**
+   * Plans tasks that never split the files of a partition tuple across tasks. Files are not split, and small
+   * partitions are combined into the same task.
+   */
+  private List<CombinedScanTask> planGroupedTasks(CloseableIterable<FileScanTask> files) {
+    long targetSize = targetSplitSize();
+    int lookback = splitLookback();
+    long openFileCost = splitOpenFileCost();
+
+    StructLikeMap<List<FileScanTask>> filesByPartition = StructLikeMap.create(table().spec().partitionType());
+    for (FileScanTask file : files) {
+      filesByPartition.computeIfAbsent(file.file().partition(), partition -> Lists.newArrayList()).add(file);
+    }
+
+    BinPacking.ListPacker<List<FileScanTask>> packer = new BinPacking.ListPacker<>(targetSize, lookback, true);
+    List<List<List<FileScanTask>>> bins = packer.pack(filesByPartition.values(),
+        group -> group.stream().mapToLong(file -> Math.max(file.length(), openFileCost)).sum());
+
+    List<CombinedScanTask> groupedTasks = Lists.newArrayListWithExpectedSize(bins.size());
+    for (List<List<FileScanTask>> bin : bins) {
+      List<FileScanTask> binFiles = Lists.newArrayList();
+      bin.forEach(binFiles::addAll);
+      groupedTasks.add(new BaseCombinedScanTask(binFiles));
+    }
+
+    return groupedTasks;
+  }
+
+  /**
+   * Returns whether to read data manifests on executors, which is only done for snapshot scans of data tables with at
+   * least {@link TableProperties#SPARK_DISTRIBUTED_PLANNING_MANIFEST_THRESHOLD} data manifests.
+   * <p>
+   * Metadata tables plan their own tasks from the manifests and are always planned on the driver.
+   */
+  private boolean planOnExecutors(TableScan scan) {
+    if (startSnapshotId != null || !(table() instanceof BaseTable) || !(scan instanceof DataTableScan)) {
+      return false;
+    }
+
+    Snapshot snapshot = scan.snapshot();
+    return snapshot != null && snapshot.dataManifests().size() >= distributedPlanningThreshold;
+  }
+
+  /**
+   * Plans files on executors and then splits and combines them on the driver, like {@link TableScan#planTasks()}.
+   */
+  private List<CombinedScanTask> planTasksOnExecutors(TableScan scan) {
+    boolean costBased = costBasedPlanning();
+    boolean partitionAligned = PropertyUtil.propertyAsBoolean(table().properties(),
+        TableProperties.SPLIT_PARTITION_ALIGNED, TableProperties.SPLIT_PARTITION_ALIGNED_DEFAULT);
+
+    Snapshot snapshot = scan.snapshot();
+    Listeners.notifyAll(new ScanEvent(table().name(), snapshot.snapshotId(), scan.filter(), expectedSchema()));
 
-      for (Expression filter : filterExpressions()) {
-        scan = scan.filter(filter);
+    List<FileScanTask> files = DistributedScanPlanner.planFiles(io(), table().specs(), snapshot,
+        scan.filter(), caseSensitive(), costBased);
+    CloseableIterable<FileScanTask> filesIterable = CloseableIterable.withNoopClose(files);
+
+    if (!groupingColumns.isEmpty()) {
+      return planGroupedTasks(filesIterable);
+    }
+
+    long targetSize = targetSplitSize();
+    int lookback = splitLookback();
+    long openFileCost = splitOpenFileCost();
+    Function<FileScanTask, Long> weightFunc = costBased ?
+        TableScanUtil.costWeight(expectedSchema(), openFileCost) :
+        file -> Math.max(file.length(), openFileCost);
+
+    CloseableIterable<FileScanTask> splitFiles = TableScanUtil.splitFiles(filesIterable, targetSize);
+    try (CloseableIterable<CombinedScanTask> tasksIterable =
+             TableScanUtil.planTasks(splitFiles, targetSize, lookback, weightFunc, partitionAligned)) {
+      return Lists.newArrayList(tasksIterable);
+    } catch (IOException e) {
+      throw new RuntimeIOException(e, "Failed to close table scan: %s", scan);
+    }
+  }
+
+  private boolean costBasedPlanning() {
+    return PropertyUtil.propertyAsBoolean(table().properties(),
+        TableProperties.SPLIT_COST_BASED_PLANNING_ENABLED, TableProperties.SPLIT_COST_BASED_PLANNING_ENABLED_DEFAULT);
+  }
+
+  private long targetSplitSize() {
+    return splitSize != null ? splitSize : PropertyUtil.propertyAsLong(table().properties(),
+        TableProperties.SPLIT_SIZE, TableProperties.SPLIT_SIZE_DEFAULT);
+  }
+
+  private int splitLookback() {
+    return splitLookback != null ? splitLookback : PropertyUtil.propertyAsInt(table().properties(),
+        TableProperties.SPLIT_LOOKBACK, TableProperties.SPLIT_LOOKBACK_DEFAULT);
+  }
+
+  private long splitOpenFileCost() {
+    return splitOpenFileCost != null ? splitOpenFileCost : PropertyUtil.propertyAsLong(
+        table().properties(), TableProperties.SPLIT_OPEN_FILE_COST, TableProperties.SPLIT_OPEN_FILE_COST_DEFAULT);
+  }
+
+  @Override
+  public void filter(Filter[] filters) {
+    List<Expression> expressions = Lists.newArrayListWithExpectedSize(filters.length);
+    for (Filter filter : filters) {
+      Expression expr = SparkFilters.convert(filter);
+      if (expr != null) {
+        try {
+          Binder.bind(table().schema().asStruct(), expr, caseSensitive());
+          expressions.add(expr);
+        } catch (ValidationException e) {
+          // binding to the table schema failed, so this expression cannot be used to skip files
+        }
       }
+    }
 
-      try (CloseableIterable<CombinedScanTask> tasksIterable = scan.planTasks()) {
-        this.tasks = Lists.newArrayList(tasksIterable);
-      }  catch (IOException e) {
-        throw new RuntimeIOException(e, "Failed to close table scan: %s", scan);
+    if (!expressions.isEmpty()) {
+      this.runtimeFilterExpressions = expressions;
+      if (partitioningReported && !groupingColumns.isEmpty()) {
+        // Spark may rely on the reported number of grouped partitions, so only skip files within the planned tasks
+        this.tasks = retainMatchingFiles(tasks());
+      } else {
+        // invalidate cached tasks to trigger split planning again
+        this.tasks = null;
       }
     }
+  }
 
-    return tasks;
+  @Override
+  public Partitioning outputPartitioning() {
+    this.partitioningReported = true;
+    return new GroupedPartitioning(tasks().size(), groupingColumns);
   }
 
   @Override
@@ -149,20 +387,21 @@ class SparkBatchQueryScan extends SparkBatchScan {
         Objects.equals(snapshotId, that.snapshotId) &&
         Objects.equals(startSnapshotId, that.startSnapshotId) &&
         Objects.equals(endSnapshotId, that.endSnapshotId) &&
-        Objects.equals(asOfTimestamp, that.asOfTimestamp);
+        Objects.equals(asOfTimestamp, that.asOfTimestamp) &&
+        groupingColumns.equals(that.groupingColumns);
   }
 
   @Override
   public int hashCode() {
     return Objects.hash(
         table().name(), readSchema(), filterExpressions().toString(), snapshotId, startSnapshotId, endSnapshotId,
-        asOfTimestamp);
+        asOfTimestamp, groupingColumns);
   }
 
   @Override
   public String toString() {
     return String.format(
-        "IcebergScan(table=%s, type=%s, filters=%s, caseSensitive=%s)",
-        table(), expectedSchema().asStruct(), filterExpressions(), caseSensitive());
+        "IcebergScan(table=%s, type=%s, filters=%s, runtimeFilters=%s, caseSensitive=%s)",
+        table(), expectedSchema().asStruct(), filterExpressions(), runtimeFilterExpressions, caseSensitive());
   }
 }
@@ -50,6 +50,7 @@ import org.apache.spark.sql.connector.read.PartitionReaderFactory;
 import org.apache.spark.sql.connector.read.Scan;
 import org.apache.spark.sql.connector.read.Statistics;
 import org.apache.spark.sql.connector.read.SupportsReportStatistics;
+import org.apache.spark.sql.connector.read.streaming.MicroBatchStream;
 import org.apache.spark.sql.types.StructType;
 import org.apache.spark.sql.util.CaseInsensitiveStringMap;
 import org.apache.spark.sql.vectorized.ColumnarBatch;
@@ -68,6 +69,7 @@ abstract class SparkBatchScan implements Scan, Batch, SupportsReportStatistics {
   private final Broadcast<EncryptionManager> encryptionManager;
   private final boolean batchReadsEnabled;
   private final int batchSize;
+  private final CaseInsensitiveStringMap options;
 
   // lazy variables
   private StructType readSchema = null;
@@ -84,6 +86,7 @@ abstract class SparkBatchScan implements Scan, Batch, SupportsReportStatistics {
     this.localityPreferred = Spark3Util.isLocalityEnabled(io.value(), table.location(), options);
     this.batchReadsEnabled = Spark3Util.isVectorizationEnabled(table.properties(), options);
     this.batchSize = Spark3Util.batchSize(table.properties(), options);
+    this.options = options;
   }
 
   protected Table table() {
@@ -102,13 +105,32 @@ abstract class SparkBatchScan implements Scan, Batch, SupportsReportStatistics {
     return filterExpressions;
   }
 
+  protected Broadcast<FileIO> io() {
+    return io;
+  }
+
   protected abstract List<CombinedScanTask> tasks();
 
+  /**
+   * Returns whether the files of {@link #tasks()} were planned with column sizes, which are only read for cost-based
+   * planning.
+   */
+  protected boolean tasksHaveColumnSizes() {
+    return false;
+  }
+
   @Override
   public Batch toBatch() {
     return this;
   }
 
+  @Override
+  public MicroBatchStream toMicroBatchStream(String checkpointLocation) {
+    return new SparkMicroBatchStream(
+        table, io, encryptionManager, caseSensitive, localityPreferred, expectedSchema, filterExpressions, options,
+        checkpointLocation);
+  }
+
   @Override
   public StructType readSchema() {
     if (readSchema == null) {
@@ -180,17 +202,31 @@ abstract class SparkBatchScan implements Scan, Batch, SupportsReportStatistics {
           totalRecords);
     }
 
-    long sizeInBytes = 0L;
-    long numRows = 0L;
+    List<CombinedScanTask> scanTasks = tasks();
+    if (!tasksHaveColumnSizes()) {
+      long sizeInBytes = 0L;
+      long numRows = 0L;
+
+      for (CombinedScanTask task : scanTasks) {
+        for (FileScanTask file : task.files()) {
+          sizeInBytes += file.length();
+          numRows += file.file().recordCount();
+        }
+      }
+
+      return new Stats(sizeInBytes, numRows);
+    }
 
-    for (CombinedScanTask task : tasks()) {
+    // the size only counts the projected columns of the files
+    Schema projectedSchema = expectedSchema != null ? expectedSchema : table.schema();
+    ScanStatsAggregator aggregator = new ScanStatsAggregator(projectedSchema);
+    for (CombinedScanTask task : scanTasks) {
       for (FileScanTask file : task.files()) {
-        sizeInBytes += file.length();
-        numRows += file.file().recordCount();
+        aggregator.update(file);
       }
     }
 
-    return new Stats(sizeInBytes, numRows);
+    return new Stats(aggregator.sizeInBytes(), aggregator.numRows());
   }
 
   @Override
@@ -199,10 +235,10 @@ abstract class SparkBatchScan implements Scan, Batch, SupportsReportStatistics {
     return String.format("%s [filters=%s]", table, filters);
   }
 
-  private static class ReaderFactory implements PartitionReaderFactory {
+  static class ReaderFactory implements PartitionReaderFactory {
     private final int batchSize;
 
-    private ReaderFactory(int batchSize) {
+    ReaderFactory(int batchSize) {
       this.batchSize = batchSize;
     }
 
@@ -244,7 +280,7 @@ abstract class SparkBatchScan implements Scan, Batch, SupportsReportStatistics {
     }
   }
 
-  private static class ReadTask implements InputPartition, Serializable {
+  static class ReadTask implements InputPartition, Serializable {
     private final CombinedScanTask task;
     private final String tableSchemaString;
     private final String expectedSchemaString;
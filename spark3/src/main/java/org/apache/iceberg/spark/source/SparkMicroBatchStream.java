@@ -0,0 +1,365 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iceberg.spark.source;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.function.Consumer;
+import org.apache.iceberg.CombinedScanTask;
+import org.apache.iceberg.DataOperations;
+import org.apache.iceberg.FileScanTask;
+import org.apache.iceberg.IncrementalAppendPlanner;
+import org.apache.iceberg.ManifestFile;
+import org.apache.iceberg.Schema;
+import org.apache.iceberg.SchemaParser;
+import org.apache.iceberg.Snapshot;
+import org.apache.iceberg.Table;
+import org.apache.iceberg.TableProperties;
+import org.apache.iceberg.encryption.EncryptionManager;
+import org.apache.iceberg.exceptions.RuntimeIOException;
+import org.apache.iceberg.expressions.Expression;
+import org.apache.iceberg.io.CloseableIterable;
+import org.apache.iceberg.io.FileIO;
+import org.apache.iceberg.io.InputFile;
+import org.apache.iceberg.io.OutputFile;
+import org.apache.iceberg.relocated.com.google.common.base.Preconditions;
+import org.apache.iceberg.relocated.com.google.common.collect.Lists;
+import org.apache.iceberg.relocated.com.google.common.io.CharStreams;
+import org.apache.iceberg.spark.Spark3Util;
+import org.apache.iceberg.spark.SparkReadOptions;
+import org.apache.iceberg.util.PropertyUtil;
+import org.apache.iceberg.util.SnapshotUtil;
+import org.apache.iceberg.util.TableScanUtil;
+import org.apache.spark.broadcast.Broadcast;
+import org.apache.spark.sql.connector.read.InputPartition;
+import org.apache.spark.sql.connector.read.PartitionReaderFactory;
+import org.apache.spark.sql.connector.read.streaming.MicroBatchStream;
+import org.apache.spark.sql.connector.read.streaming.Offset;
+import org.apache.spark.sql.connector.read.streaming.ReadAllAvailable;
+import org.apache.spark.sql.connector.read.streaming.ReadLimit;
+import org.apache.spark.sql.connector.read.streaming.ReadMaxFiles;
+import org.apache.spark.sql.connector.read.streaming.SupportsAdmissionControl;
+import org.apache.spark.sql.util.CaseInsensitiveStringMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A micro-batch stream of the data files appended to a table.
+ * <p>
+ * The stream starts by reading all live files of the oldest ancestor of the current snapshot and then reads the
+ * files appended by each of its descendants, in commit order. Offsets are a position in the files planned from the
+ * manifests of a snapshot, so a micro-batch only reads the manifests selected by an {@link IncrementalAppendPlanner}
+ * for the snapshots in its range and a batch can end in the middle of a manifest when it is rate limited by
+ * {@link SparkReadOptions#STREAMING_MAX_FILES_PER_TRIGGER} or {@link SparkReadOptions#STREAMING_MAX_BYTES_PER_TRIGGER}.
+ */
+class SparkMicroBatchStream implements MicroBatchStream, SupportsAdmissionControl {
+  private static final Logger LOG = LoggerFactory.getLogger(SparkMicroBatchStream.class);
+  private static final String INITIAL_OFFSET_FILE = "offsets/0";
+
+  private final Table table;
+  private final Broadcast<FileIO> io;
+  private final Broadcast<EncryptionManager> encryptionManager;
+  private final boolean caseSensitive;
+  private final boolean localityPreferred;
+  private final String expectedSchemaString;
+  private final List<Expression> filterExpressions;
+  private final long splitSize;
+  private final int splitLookback;
+  private final long splitOpenFileCost;
+  private final Integer maxFilesPerTrigger;
+  private final Long maxBytesPerTrigger;
+  private final StreamingOffset initialOffset;
+
+  SparkMicroBatchStream(Table table, Broadcast<FileIO> io, Broadcast<EncryptionManager> encryptionManager,
+                        boolean caseSensitive, boolean localityPreferred, Schema expectedSchema,
+                        List<Expression> filterExpressions, CaseInsensitiveStringMap options,
+                        String checkpointLocation) {
+    this.table = table;
+    this.io = io;
+    this.encryptionManager = encryptionManager;
+    this.caseSensitive = caseSensitive;
+    this.localityPreferred = localityPreferred;
+    this.expectedSchemaString = SchemaParser.toJson(expectedSchema);
+    this.filterExpressions = filterExpressions;
+
+    this.splitSize = Spark3Util.propertyAsLong(options, SparkReadOptions.SPLIT_SIZE,
+        PropertyUtil.propertyAsLong(table.properties(),
+            TableProperties.SPLIT_SIZE, TableProperties.SPLIT_SIZE_DEFAULT));
+    this.splitLookback = Spark3Util.propertyAsInt(options, SparkReadOptions.LOOKBACK,
+        PropertyUtil.propertyAsInt(table.properties(),
+            TableProperties.SPLIT_LOOKBACK, TableProperties.SPLIT_LOOKBACK_DEFAULT));
+    this.splitOpenFileCost = Spark3Util.propertyAsLong(options, SparkReadOptions.FILE_OPEN_COST,
+        PropertyUtil.propertyAsLong(table.properties(),
+            TableProperties.SPLIT_OPEN_FILE_COST, TableProperties.SPLIT_OPEN_FILE_COST_DEFAULT));
+
+    this.maxFilesPerTrigger = Spark3Util.propertyAsInt(options, SparkReadOptions.STREAMING_MAX_FILES_PER_TRIGGER, null);
+    Preconditions.checkArgument(maxFilesPerTrigger == null || maxFilesPerTrigger > 0,
+        "Invalid %s: %s (must be positive)", SparkReadOptions.STREAMING_MAX_FILES_PER_TRIGGER, maxFilesPerTrigger);
+    this.maxBytesPerTrigger = Spark3Util.propertyAsLong(
+        options, SparkReadOptions.STREAMING_MAX_BYTES_PER_TRIGGER, null);
+    Preconditions.checkArgument(maxBytesPerTrigger == null || maxBytesPerTrigger > 0,
+        "Invalid %s: %s (must be positive)", SparkReadOptions.STREAMING_MAX_BYTES_PER_TRIGGER, maxBytesPerTrigger);
+
+    this.initialOffset = initialOffset(checkpointLocation);
+  }
+
+  @Override
+  public Offset initialOffset() {
+    return initialOffset;
+  }
+
+  @Override
+  public Offset deserializeOffset(String json) {
+    return StreamingOffset.fromJson(json);
+  }
+
+  @Override
+  public ReadLimit getDefaultReadLimit() {
+    if (maxFilesPerTrigger != null) {
+      return ReadLimit.maxFiles(maxFilesPerTrigger);
+    } else if (maxBytesPerTrigger != null) {
+      // the byte limit is applied by this stream, use a file limit so that it is not mistaken for Trigger.Once
+      return ReadLimit.maxFiles(Integer.MAX_VALUE);
+    }
+
+    return ReadLimit.allAvailable();
+  }
+
+  @Override
+  public Offset latestOffset() {
+    throw new UnsupportedOperationException(
+        "latestOffset() is not supported, use latestOffset(Offset, ReadLimit) instead");
+  }
+
+  @Override
+  public Offset latestOffset(Offset startOffset, ReadLimit limit) {
+    table.refresh();
+
+    long maxFiles = Long.MAX_VALUE;
+    long maxBytes = Long.MAX_VALUE;
+    if (limit instanceof ReadMaxFiles) {
+      maxFiles = ((ReadMaxFiles) limit).maxFiles();
+    }
+
+    if (!(limit instanceof ReadAllAvailable) && maxBytesPerTrigger != null) {
+      maxBytes = maxBytesPerTrigger;
+    }
+
+    StreamingOffset start = startOffset != null ? (StreamingOffset) startOffset : initialOffset;
+    return walk(start, null, maxFiles, maxBytes, task -> { });
+  }
+
+  @Override
+  public InputPartition[] planInputPartitions(Offset start, Offset end) {
+    List<FileScanTask> files = Lists.newArrayList();
+    walk((StreamingOffset) start, (StreamingOffset) end, Long.MAX_VALUE, Long.MAX_VALUE, files::add);
+    LOG.info("Planned {} files for micro-batch ({}, {}] of table {}", files.size(), start, end, table);
+
+    CloseableIterable<FileScanTask> splitFiles = TableScanUtil.splitFiles(
+        CloseableIterable.withNoopClose(files), splitSize);
+    List<CombinedScanTask> combinedTasks;
+    try (CloseableIterable<CombinedScanTask> tasks = TableScanUtil.planTasks(
+        splitFiles, splitSize, splitLookback, splitOpenFileCost)) {
+      combinedTasks = Lists.newArrayList(tasks);
+    } catch (IOException e) {
+      throw new RuntimeIOException(e, "Failed to close task iterable for micro-batch of table %s", table);
+    }
+
+    String tableSchemaString = SchemaParser.toJson(table.schema());
+    String nameMappingString = table.properties().get(TableProperties.DEFAULT_NAME_MAPPING);
+
+    InputPartition[] readTasks = new InputPartition[combinedTasks.size()];
+    for (int i = 0; i < combinedTasks.size(); i++) {
+      readTasks[i] = new SparkBatchScan.ReadTask(
+          combinedTasks.get(i), tableSchemaString, expectedSchemaString, nameMappingString, io, encryptionManager,
+          caseSensitive, localityPreferred);
+    }
+
+    return readTasks;
+  }
+
+  @Override
+  public PartitionReaderFactory createReaderFactory() {
+    return new SparkBatchScan.ReaderFactory(0);
+  }
+
+  @Override
+  public void commit(Offset end) {
+  }
+
+  @Override
+  public void stop() {
+  }
+
+  /**
+   * Walks the files of the stream from an offset and passes them to a consumer.
+   * <p>
+   * The walk stops at the end offset, after the files that fit in the limits, or when the current snapshot has been
+   * consumed. At least one file is always consumed so that a stream cannot stall on a file larger than the byte limit.
+   *
+   * @param start the offset of the first file to consume
+   * @param end an offset to stop at, or null to stop at the current snapshot
+   * @param maxFiles the maximum number of files to consume
+   * @param maxBytes the maximum total size of the files to consume
+   * @param consumer a consumer for each file
+   * @return the offset of the next file that was not consumed
+   */
+  private StreamingOffset walk(StreamingOffset start, StreamingOffset end, long maxFiles, long maxBytes,
+                               Consumer<FileScanTask> consumer) {
+    StreamingOffset current = start;
+    if (StreamingOffset.START_OFFSET.equals(current)) {
+      if (table.currentSnapshot() == null || current.equals(end)) {
+        return current;
+      }
+
+      current = new StreamingOffset(oldestAncestorId(), 0, 0L, true);
+    }
+
+    long files = 0L;
+    long bytes = 0L;
+    while (true) {
+      if (current.equals(end)) {
+        return current;
+      }
+
+      long snapshotId = current.snapshotId();
+      Snapshot snapshot = table.snapshot(snapshotId);
+      Preconditions.checkState(snapshot != null,
+          "Cannot load snapshot %s of the stream, it may have been expired", snapshotId);
+
+      IncrementalAppendPlanner planner = newPlanner();
+      IncrementalAppendPlanner.Increment increment = null;
+      List<ManifestFile> manifests;
+      if (current.shouldScanAllFiles()) {
+        manifests = Lists.newArrayList();
+        for (ManifestFile manifest : snapshot.dataManifests()) {
+          if (manifest.hasAddedFiles() || manifest.hasExistingFiles()) {
+            manifests.add(manifest);
+          }
+        }
+
+      } else if (DataOperations.APPEND.equals(snapshot.operation()) ||
+          DataOperations.OVERWRITE.equals(snapshot.operation())) {
+        // the planner rejects overwrites and skips other operations without reading any manifest list
+        Long parentId = snapshot.parentId();
+        Preconditions.checkState(parentId != null && table.snapshot(parentId) != null,
+            "Cannot read the files appended by snapshot %s, its parent has been expired", snapshotId);
+        increment = planner.planAppendsBetween(parentId, snapshotId);
+        manifests = increment.manifests();
+
+      } else {
+        manifests = Lists.newArrayList();
+      }
+
+      for (int index = current.manifestIndex(); index < manifests.size(); index += 1) {
+        ManifestFile manifest = manifests.get(index);
+        long skip = index == current.manifestIndex() ? current.position() : 0L;
+        long position = 0L;
+        try (CloseableIterable<FileScanTask> tasks = increment != null ?
+            increment.planFiles(manifest) : planner.planLiveFiles(manifest)) {
+          for (FileScanTask task : tasks) {
+            if (position < skip) {
+              position += 1;
+              continue;
+            }
+
+            StreamingOffset next = new StreamingOffset(snapshotId, index, position, current.shouldScanAllFiles());
+            if (next.equals(end) || (files > 0 && (files >= maxFiles || bytes + task.length() > maxBytes))) {
+              return next;
+            }
+
+            consumer.accept(task);
+            files += 1;
+            bytes += task.length();
+            position += 1;
+          }
+
+        } catch (IOException e) {
+          throw new RuntimeIOException(e, "Failed to close files of manifest %s", manifest.path());
+        }
+      }
+
+      StreamingOffset consumed = new StreamingOffset(snapshotId, manifests.size(), 0L, current.shouldScanAllFiles());
+      long currentSnapshotId = table.currentSnapshot().snapshotId();
+      if (consumed.equals(end) || snapshotId == currentSnapshotId) {
+        return consumed;
+      }
+
+      Preconditions.checkState(SnapshotUtil.ancestorOf(table, currentSnapshotId, snapshotId),
+          "Cannot continue the stream, snapshot %s is no longer an ancestor of the current snapshot", snapshotId);
+      // snapshot ids are listed newest first, the last one is the child of the consumed snapshot
+      List<Long> snapshotIds = SnapshotUtil.snapshotIdsBetween(table, snapshotId, currentSnapshotId);
+      current = new StreamingOffset(snapshotIds.get(snapshotIds.size() - 1), 0, 0L, false);
+    }
+  }
+
+  private IncrementalAppendPlanner newPlanner() {
+    IncrementalAppendPlanner planner = new IncrementalAppendPlanner(table).caseSensitive(caseSensitive);
+    for (Expression filter : filterExpressions) {
+      planner.filter(filter);
+    }
+
+    return planner;
+  }
+
+  private long oldestAncestorId() {
+    List<Long> ancestorIds = SnapshotUtil.currentAncestors(table);
+    return ancestorIds.get(ancestorIds.size() - 1);
+  }
+
+  /**
+   * Returns the offset the stream started from, which is stored in the checkpoint location so that a restarted
+   * query does not start over from a different snapshot if the table was expired in between.
+   */
+  private StreamingOffset initialOffset(String checkpointLocation) {
+    FileIO fileIO = table.io();
+    String location = checkpointLocation.endsWith("/") ?
+        checkpointLocation + INITIAL_OFFSET_FILE : checkpointLocation + "/" + INITIAL_OFFSET_FILE;
+
+    InputFile inputFile = fileIO.newInputFile(location);
+    if (inputFile.exists()) {
+      try (InputStream in = inputFile.newStream()) {
+        return StreamingOffset.fromJson(CharStreams.toString(new InputStreamReader(in, StandardCharsets.UTF_8)));
+      } catch (IOException e) {
+        throw new RuntimeIOException(e, "Failed to read initial offset from %s", location);
+      }
+    }
+
+    table.refresh();
+    StreamingOffset offset = table.currentSnapshot() != null ?
+        new StreamingOffset(oldestAncestorId(), 0, 0L, true) : StreamingOffset.START_OFFSET;
+
+    OutputFile outputFile = fileIO.newOutputFile(location);
+    try (OutputStream out = outputFile.create();
+         BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8))) {
+      writer.write(offset.json());
+    } catch (IOException e) {
+      throw new RuntimeIOException(e, "Failed to write initial offset to %s", location);
+    }
+
+    return offset;
+  }
+}
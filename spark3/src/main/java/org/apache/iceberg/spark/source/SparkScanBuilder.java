@@ -23,9 +23,12 @@ import java.util.Collections;
 import java.util.List;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import org.apache.iceberg.BaseTable;
+import org.apache.iceberg.MetadataAggregator;
 import org.apache.iceberg.MetadataColumns;
 import org.apache.iceberg.Schema;
 import org.apache.iceberg.Table;
+import org.apache.iceberg.TableScan;
 import org.apache.iceberg.encryption.EncryptionManager;
 import org.apache.iceberg.exceptions.ValidationException;
 import org.apache.iceberg.expressions.Binder;
@@ -33,7 +36,9 @@ import org.apache.iceberg.expressions.Expression;
 import org.apache.iceberg.expressions.Expressions;
 import org.apache.iceberg.io.FileIO;
 import org.apache.iceberg.relocated.com.google.common.collect.Lists;
+import org.apache.iceberg.spark.Spark3Util;
 import org.apache.iceberg.spark.SparkFilters;
+import org.apache.iceberg.spark.SparkReadOptions;
 import org.apache.iceberg.spark.SparkSchemaUtil;
 import org.apache.iceberg.spark.SparkUtil;
 import org.apache.iceberg.types.TypeUtil;
@@ -160,6 +165,39 @@ public class SparkScanBuilder implements ScanBuilder, SupportsPushDownFilters, S
     return this;
   }
 
+  /**
+   * Answers aggregates of the rows matching the pushed filters from file metadata, without scanning files.
+   *
+   * @param aggregates the aggregates to answer
+   * @return a result that may leave some files to scan, or null if the scan is not over a table's data files
+   */
+  public MetadataAggregator.Result pushAggregates(List<MetadataAggregator.Aggregate> aggregates) {
+    // metadata tables do not plan data files and incremental scans are not supported
+    if (!(table instanceof BaseTable) || options.containsKey("start-snapshot-id")) {
+      return null;
+    }
+
+    TableScan scan = table.newScan().caseSensitive(caseSensitive);
+
+    Long snapshotId = Spark3Util.propertyAsLong(options, SparkReadOptions.SNAPSHOT_ID, null);
+    if (snapshotId != null) {
+      scan = scan.useSnapshot(snapshotId);
+    }
+
+    Long asOfTimestamp = Spark3Util.propertyAsLong(options, SparkReadOptions.AS_OF_TIMESTAMP, null);
+    if (asOfTimestamp != null) {
+      scan = scan.asOfTime(asOfTimestamp);
+    }
+
+    if (filterExpressions != null) {
+      for (Expression filter : filterExpressions) {
+        scan = scan.filter(filter);
+      }
+    }
+
+    return new MetadataAggregator(scan, aggregates).aggregate();
+  }
+
   private Schema schemaWithMetadataColumns() {
     // metadata columns
     List<Types.NestedField> fields = metaColumns.stream()
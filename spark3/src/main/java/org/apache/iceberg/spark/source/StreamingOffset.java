@@ -0,0 +1,148 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iceberg.spark.source;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Objects;
+import org.apache.iceberg.exceptions.RuntimeIOException;
+import org.apache.iceberg.relocated.com.google.common.base.Preconditions;
+import org.apache.iceberg.util.JsonUtil;
+import org.apache.spark.sql.connector.read.streaming.Offset;
+
+/**
+ * An offset in the stream of data files appended to a table.
+ * <p>
+ * An offset points at the next file to read: the position of a file among the files planned from one of the
+ * manifests selected for a snapshot. When scanAllFiles is set, the manifests are all data manifests of the snapshot
+ * and all of their live files are read; otherwise only the files appended by the snapshot are read.
+ */
+class StreamingOffset extends Offset {
+  static final StreamingOffset START_OFFSET = new StreamingOffset(-1L, 0, 0L, false);
+
+  private static final int CURR_VERSION = 1;
+  private static final String VERSION = "version";
+  private static final String SNAPSHOT_ID = "snapshot_id";
+  private static final String MANIFEST_INDEX = "manifest_index";
+  private static final String POSITION = "position";
+  private static final String SCAN_ALL_FILES = "scan_all_files";
+
+  private final long snapshotId;
+  private final int manifestIndex;
+  private final long position;
+  private final boolean scanAllFiles;
+
+  /**
+   * @param snapshotId the id of the snapshot to read files from
+   * @param manifestIndex the index of the manifest in the manifests selected for the snapshot
+   * @param position the position of the next file among the files planned from the manifest
+   * @param scanAllFiles whether to read all live files of the snapshot instead of the files it appended
+   */
+  StreamingOffset(long snapshotId, int manifestIndex, long position, boolean scanAllFiles) {
+    this.snapshotId = snapshotId;
+    this.manifestIndex = manifestIndex;
+    this.position = position;
+    this.scanAllFiles = scanAllFiles;
+  }
+
+  static StreamingOffset fromJson(String json) {
+    Preconditions.checkNotNull(json, "Cannot parse StreamingOffset JSON: null");
+
+    try {
+      JsonNode node = JsonUtil.mapper().readValue(json, JsonNode.class);
+      int version = JsonUtil.getInt(VERSION, node);
+      Preconditions.checkArgument(version == CURR_VERSION,
+          "Cannot parse offset JSON: offset version %s is not supported", version);
+
+      return new StreamingOffset(
+          JsonUtil.getLong(SNAPSHOT_ID, node),
+          JsonUtil.getInt(MANIFEST_INDEX, node),
+          JsonUtil.getLong(POSITION, node),
+          JsonUtil.getBool(SCAN_ALL_FILES, node));
+    } catch (IOException e) {
+      throw new IllegalArgumentException(String.format("Failed to parse StreamingOffset from JSON string %s", json), e);
+    }
+  }
+
+  @Override
+  public String json() {
+    StringWriter writer = new StringWriter();
+    try {
+      JsonGenerator generator = JsonUtil.factory().createGenerator(writer);
+      generator.writeStartObject();
+      generator.writeNumberField(VERSION, CURR_VERSION);
+      generator.writeNumberField(SNAPSHOT_ID, snapshotId);
+      generator.writeNumberField(MANIFEST_INDEX, manifestIndex);
+      generator.writeNumberField(POSITION, position);
+      generator.writeBooleanField(SCAN_ALL_FILES, scanAllFiles);
+      generator.writeEndObject();
+      generator.flush();
+
+    } catch (IOException e) {
+      throw new RuntimeIOException(e, "Failed to write StreamingOffset to json");
+    }
+
+    return writer.toString();
+  }
+
+  long snapshotId() {
+    return snapshotId;
+  }
+
+  int manifestIndex() {
+    return manifestIndex;
+  }
+
+  long position() {
+    return position;
+  }
+
+  boolean shouldScanAllFiles() {
+    return scanAllFiles;
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (this == obj) {
+      return true;
+    } else if (!(obj instanceof StreamingOffset)) {
+      return false;
+    }
+
+    StreamingOffset offset = (StreamingOffset) obj;
+    return offset.snapshotId == snapshotId &&
+        offset.manifestIndex == manifestIndex &&
+        offset.position == position &&
+        offset.scanAllFiles == scanAllFiles;
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(snapshotId, manifestIndex, position, scanAllFiles);
+  }
+
+  @Override
+  public String toString() {
+    return String.format("Streaming Offset[%d: manifest=%d position=%d scan_all_files=%b]",
+        snapshotId, manifestIndex, position, scanAllFiles);
+  }
+}
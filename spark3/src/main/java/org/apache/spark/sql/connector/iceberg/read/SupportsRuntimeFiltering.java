@@ -0,0 +1,36 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.spark.sql.connector.iceberg.read;
+
+import org.apache.spark.sql.connector.read.Scan;
+import org.apache.spark.sql.sources.Filter;
+
+/**
+ * A mix-in interface for Scan. Data sources can implement this interface if they can skip files
+ * using filters that are only known at runtime, like the range of join keys of the other side of a join.
+ */
+public interface SupportsRuntimeFiltering extends Scan {
+  /**
+   * Filters this scan using runtime filters. Filters that cannot be applied are ignored.
+   *
+   * @param filters runtime filters
+   */
+  void filter(Filter[] filters);
+}
@@ -0,0 +1,139 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iceberg.spark.source;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.iceberg.PartitionSpec;
+import org.apache.iceberg.Schema;
+import org.apache.iceberg.hadoop.HadoopTables;
+import org.apache.iceberg.relocated.com.google.common.collect.Lists;
+import org.apache.iceberg.spark.SparkReadOptions;
+import org.apache.iceberg.transforms.Transform;
+import org.apache.iceberg.transforms.Transforms;
+import org.apache.iceberg.types.Types;
+import org.apache.spark.sql.Dataset;
+import org.apache.spark.sql.Row;
+import org.apache.spark.sql.SparkSession;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.apache.iceberg.types.Types.NestedField.optional;
+
+public class TestDataGroupingPartitioning {
+  private static final Configuration CONF = new Configuration();
+  private static final Schema SCHEMA = new Schema(
+      optional(1, "id", Types.IntegerType.get()),
+      optional(2, "data", Types.StringType.get())
+  );
+  private static final int NUM_BUCKETS = 4;
+  private static SparkSession spark = null;
+
+  @Rule
+  public TemporaryFolder temp = new TemporaryFolder();
+
+  private String location = null;
+
+  @BeforeClass
+  public static void startSpark() {
+    TestDataGroupingPartitioning.spark = SparkSession.builder()
+        .master("local[2]")
+        .config("spark.sql.shuffle.partitions", 4)
+        .config("spark.sql.adaptive.enabled", "false")
+        .getOrCreate();
+  }
+
+  @AfterClass
+  public static void stopSpark() {
+    SparkSession currentSpark = TestDataGroupingPartitioning.spark;
+    TestDataGroupingPartitioning.spark = null;
+    currentSpark.stop();
+  }
+
+  @Before
+  public void createTable() throws IOException {
+    this.location = new File(temp.newFolder(), "test-table").toString();
+    PartitionSpec spec = PartitionSpec.builderFor(SCHEMA).bucket("id", NUM_BUCKETS).build();
+    new HadoopTables(CONF).create(SCHEMA, spec, location);
+
+    // write each bucket in several commits so that partitions have more than one file
+    Transform<Integer, Integer> bucket = Transforms.bucket(Types.IntegerType.get(), NUM_BUCKETS);
+    for (int batch = 0; batch < 3; batch += 1) {
+      for (int bucketId = 0; bucketId < NUM_BUCKETS; bucketId += 1) {
+        List<SimpleRecord> records = Lists.newArrayList();
+        for (int id = 0; id < 20; id += 1) {
+          if (bucket.apply(id) == bucketId) {
+            records.add(new SimpleRecord(id, "data-" + batch));
+          }
+        }
+
+        spark.createDataFrame(records, SimpleRecord.class)
+            .coalesce(1)
+            .write()
+            .format("iceberg")
+            .mode("append")
+            .save(location);
+      }
+    }
+  }
+
+  @Test
+  public void testGroupedScanAvoidsExchange() {
+    Dataset<Row> df = read(true);
+    Assert.assertEquals("Should plan one task per bucket", NUM_BUCKETS, df.rdd().getNumPartitions());
+
+    Dataset<Row> counts = df.groupBy("id").count();
+    String plan = counts.queryExecution().executedPlan().toString();
+    Assert.assertFalse("Should not shuffle to aggregate by the bucket column: " + plan, plan.contains("Exchange"));
+
+    List<Row> rows = counts.orderBy("id").collectAsList();
+    Assert.assertEquals("Should have a count per id", 20, rows.size());
+    for (Row row : rows) {
+      Assert.assertEquals("Should count every commit of id " + row.getInt(0), 3L, row.getLong(1));
+    }
+  }
+
+  @Test
+  public void testOtherColumnsStillShuffle() {
+    String plan = read(true).groupBy("data").count().queryExecution().executedPlan().toString();
+    Assert.assertTrue("Should shuffle to aggregate by a non-partition column", plan.contains("Exchange"));
+  }
+
+  @Test
+  public void testGroupingDisabledByDefault() {
+    String plan = read(false).groupBy("id").count().queryExecution().executedPlan().toString();
+    Assert.assertTrue("Should shuffle without grouped tasks", plan.contains("Exchange"));
+  }
+
+  private Dataset<Row> read(boolean preserveGrouping) {
+    return spark.read()
+        .format("iceberg")
+        .option(SparkReadOptions.PRESERVE_DATA_GROUPING, Boolean.toString(preserveGrouping))
+        .option(SparkReadOptions.SPLIT_SIZE, "1")
+        .load(location);
+  }
+}
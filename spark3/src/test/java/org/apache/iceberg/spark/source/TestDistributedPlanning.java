@@ -0,0 +1,174 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iceberg.spark.source;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.iceberg.PartitionSpec;
+import org.apache.iceberg.Schema;
+import org.apache.iceberg.Table;
+import org.apache.iceberg.TableProperties;
+import org.apache.iceberg.hadoop.HadoopTables;
+import org.apache.iceberg.relocated.com.google.common.collect.Iterables;
+import org.apache.iceberg.relocated.com.google.common.collect.Lists;
+import org.apache.iceberg.spark.SparkReadOptions;
+import org.apache.iceberg.types.Types;
+import org.apache.spark.sql.Dataset;
+import org.apache.spark.sql.Encoders;
+import org.apache.spark.sql.Row;
+import org.apache.spark.sql.SparkSession;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.apache.iceberg.types.Types.NestedField.optional;
+
+public class TestDistributedPlanning {
+  private static final Configuration CONF = new Configuration();
+  private static final Schema SCHEMA = new Schema(
+      optional(1, "id", Types.IntegerType.get()),
+      optional(2, "data", Types.StringType.get())
+  );
+  private static final int NUM_COMMITS = 5;
+  private static SparkSession spark = null;
+
+  @Rule
+  public TemporaryFolder temp = new TemporaryFolder();
+
+  private String location = null;
+  private Table table = null;
+
+  @BeforeClass
+  public static void startSpark() {
+    TestDistributedPlanning.spark = SparkSession.builder()
+        .master("local[2]")
+        .config("spark.sql.shuffle.partitions", 4)
+        .getOrCreate();
+  }
+
+  @AfterClass
+  public static void stopSpark() {
+    SparkSession currentSpark = TestDistributedPlanning.spark;
+    TestDistributedPlanning.spark = null;
+    currentSpark.stop();
+  }
+
+  @Before
+  public void createTable() throws IOException {
+    this.location = new File(temp.newFolder(), "test-table").toString();
+    PartitionSpec spec = PartitionSpec.builderFor(SCHEMA).identity("data").build();
+    this.table = new HadoopTables(CONF).create(SCHEMA, spec, location);
+
+    // every commit adds a data manifest
+    for (int commit = 0; commit < NUM_COMMITS; commit += 1) {
+      List<SimpleRecord> records = Lists.newArrayList();
+      for (int id = 0; id < 10; id += 1) {
+        records.add(new SimpleRecord(commit * 10 + id, "data-" + (id % 2)));
+      }
+
+      spark.createDataFrame(records, SimpleRecord.class)
+          .coalesce(1)
+          .write()
+          .format("iceberg")
+          .mode("append")
+          .save(location);
+    }
+  }
+
+  @Test
+  public void testDistributedPlanningMatchesLocalPlanning() {
+    table.refresh();
+    Assert.assertEquals("Should have a data manifest per commit",
+        NUM_COMMITS, table.currentSnapshot().dataManifests().size());
+
+    Assert.assertEquals("Should read the same rows",
+        collect(read(Integer.MAX_VALUE)), collect(read(NUM_COMMITS)));
+
+    Assert.assertEquals("Should read the same rows with a filter",
+        collect(read(Integer.MAX_VALUE).filter("data = 'data-1' AND id > 15")),
+        collect(read(NUM_COMMITS).filter("data = 'data-1' AND id > 15")));
+  }
+
+  @Test
+  public void testDistributedPlanningRunsSparkJob() {
+    long localJobs = countJobs("local", read(Integer.MAX_VALUE));
+    long distributedJobs = countJobs("distributed", read(NUM_COMMITS));
+
+    Assert.assertEquals("Should run one more job to plan on executors", localJobs + 1, distributedJobs);
+  }
+
+  @Test
+  public void testThresholdTableProperty() {
+    table.updateProperties()
+        .set(TableProperties.SPARK_DISTRIBUTED_PLANNING_MANIFEST_THRESHOLD, String.valueOf(NUM_COMMITS + 1))
+        .commit();
+
+    long belowThresholdJobs = countJobs("below-threshold", spark.read().format("iceberg").load(location));
+    long localJobs = countJobs("local-default", read(Integer.MAX_VALUE));
+    Assert.assertEquals("Should plan locally below the threshold", localJobs, belowThresholdJobs);
+
+    table.updateProperties()
+        .set(TableProperties.SPARK_DISTRIBUTED_PLANNING_MANIFEST_THRESHOLD, String.valueOf(NUM_COMMITS))
+        .commit();
+
+    Dataset<Row> distributedDF = spark.read().format("iceberg").load(location);
+    Assert.assertEquals("Should read the same rows", collect(read(Integer.MAX_VALUE)), collect(distributedDF));
+  }
+
+  @Test
+  public void testMetadataTablesPlanLocally() {
+    table.updateProperties()
+        .set(TableProperties.SPARK_DISTRIBUTED_PLANNING_MANIFEST_THRESHOLD, "1")
+        .commit();
+    table.refresh();
+
+    List<Row> files = spark.read().format("iceberg").load(location + "#files").collectAsList();
+    Assert.assertEquals("Should read the files metadata table instead of the data files",
+        Iterables.size(table.currentSnapshot().addedFiles()) * NUM_COMMITS, files.size());
+  }
+
+  private Dataset<Row> read(int manifestThreshold) {
+    return spark.read()
+        .format("iceberg")
+        .option(SparkReadOptions.DISTRIBUTED_PLANNING_MANIFEST_THRESHOLD, String.valueOf(manifestThreshold))
+        .load(location);
+  }
+
+  private static List<Integer> collect(Dataset<Row> df) {
+    return df.select("id").orderBy("id").as(Encoders.INT()).collectAsList();
+  }
+
+  private static long countJobs(String group, Dataset<Row> df) {
+    spark.sparkContext().setJobGroup(group, group, false);
+    try {
+      df.collectAsList();
+    } finally {
+      spark.sparkContext().clearJobGroup();
+    }
+
+    return spark.sparkContext().statusTracker().getJobIdsForGroup(group).length;
+  }
+}
@@ -0,0 +1,126 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iceberg.spark.source;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.iceberg.FileScanTask;
+import org.apache.iceberg.PartitionSpec;
+import org.apache.iceberg.Schema;
+import org.apache.iceberg.Table;
+import org.apache.iceberg.hadoop.HadoopTables;
+import org.apache.iceberg.io.CloseableIterable;
+import org.apache.iceberg.relocated.com.google.common.collect.Lists;
+import org.apache.iceberg.types.Types;
+import org.apache.spark.sql.SparkSession;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.apache.iceberg.types.Types.NestedField.optional;
+
+public class TestScanStatsAggregator {
+  private static final Configuration CONF = new Configuration();
+  private static final Schema SCHEMA = new Schema(
+      optional(1, "id", Types.IntegerType.get()),
+      optional(2, "data", Types.StringType.get())
+  );
+  private static SparkSession spark = null;
+
+  @Rule
+  public TemporaryFolder temp = new TemporaryFolder();
+
+  private Table table = null;
+
+  @BeforeClass
+  public static void startSpark() {
+    TestScanStatsAggregator.spark = SparkSession.builder().master("local[2]").getOrCreate();
+  }
+
+  @AfterClass
+  public static void stopSpark() {
+    SparkSession currentSpark = TestScanStatsAggregator.spark;
+    TestScanStatsAggregator.spark = null;
+    currentSpark.stop();
+  }
+
+  @Before
+  public void createTable() throws IOException {
+    String location = new File(temp.newFolder(), "test-table").toString();
+    this.table = new HadoopTables(CONF).create(SCHEMA, PartitionSpec.unpartitioned(), location);
+
+    List<SimpleRecord> records = Lists.newArrayList();
+    for (int id = 10; id < 20; id += 1) {
+      records.add(new SimpleRecord(id, id % 2 == 0 ? null : "data-" + id));
+    }
+
+    spark.createDataFrame(records, SimpleRecord.class)
+        .coalesce(1)
+        .repartition(2)
+        .write()
+        .format("iceberg")
+        .mode("append")
+        .save(location);
+    table.refresh();
+  }
+
+  @Test
+  public void testRowCount() throws IOException {
+    try (CloseableIterable<FileScanTask> tasks = table.newScan().planFiles()) {
+      ScanStatsAggregator aggregator = new ScanStatsAggregator(SCHEMA);
+      for (FileScanTask task : tasks) {
+        for (FileScanTask split : task.split(task.length() / 2 + 1)) {
+          aggregator.update(split);
+        }
+      }
+
+      Assert.assertEquals("Should count the rows of split files once", 10L, aggregator.numRows());
+    }
+  }
+
+  @Test
+  public void testProjectedSize() throws IOException {
+    long fileSize = aggregate(SCHEMA, false).sizeInBytes();
+    long allColumnsSize = aggregate(SCHEMA, true).sizeInBytes();
+    long idSize = aggregate(SCHEMA.select("id"), true).sizeInBytes();
+
+    Assert.assertTrue("Column sizes should not exceed file sizes", allColumnsSize <= fileSize);
+    Assert.assertTrue("Projecting fewer columns should reduce the size", idSize < allColumnsSize);
+    Assert.assertTrue("Projected size should be positive", idSize > 0);
+  }
+
+  private ScanStatsAggregator aggregate(Schema projection, boolean withStats) throws IOException {
+    ScanStatsAggregator aggregator = new ScanStatsAggregator(projection);
+    try (CloseableIterable<FileScanTask> tasks = withStats ?
+        table.newScan().includeColumnStats().planFiles() : table.newScan().planFiles()) {
+      for (FileScanTask task : tasks) {
+        aggregator.update(task);
+      }
+    }
+
+    return aggregator;
+  }
+}
@@ -0,0 +1,208 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.iceberg.spark.source;
+
+import java.io.File;
+import java.util.List;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.iceberg.PartitionSpec;
+import org.apache.iceberg.Schema;
+import org.apache.iceberg.Table;
+import org.apache.iceberg.hadoop.HadoopTables;
+import org.apache.iceberg.relocated.com.google.common.collect.Lists;
+import org.apache.iceberg.spark.SparkReadOptions;
+import org.apache.iceberg.types.Types;
+import org.apache.spark.sql.Encoders;
+import org.apache.spark.sql.Row;
+import org.apache.spark.sql.SparkSession;
+import org.apache.spark.sql.streaming.DataStreamReader;
+import org.apache.spark.sql.streaming.DataStreamWriter;
+import org.apache.spark.sql.streaming.StreamingQuery;
+import org.apache.spark.sql.streaming.StreamingQueryProgress;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.apache.iceberg.types.Types.NestedField.optional;
+
+public class TestStructuredStreamingRead3 {
+  private static final Configuration CONF = new Configuration();
+  private static final Schema SCHEMA = new Schema(
+      optional(1, "id", Types.IntegerType.get()),
+      optional(2, "data", Types.StringType.get())
+  );
+  private static SparkSession spark = null;
+
+  @Rule
+  public TemporaryFolder temp = new TemporaryFolder();
+
+  private Table table = null;
+  private String location = null;
+  private String checkpoint = null;
+
+  @BeforeClass
+  public static void startSpark() {
+    TestStructuredStreamingRead3.spark = SparkSession.builder()
+        .master("local[2]")
+        .config("spark.sql.shuffle.partitions", 4)
+        .getOrCreate();
+  }
+
+  @AfterClass
+  public static void stopSpark() {
+    SparkSession currentSpark = TestStructuredStreamingRead3.spark;
+    TestStructuredStreamingRead3.spark = null;
+    currentSpark.stop();
+  }
+
+  @Before
+  public void setupTable() throws Exception {
+    File parent = temp.newFolder("parquet");
+    this.location = new File(parent, "test-table").toString();
+    this.checkpoint = new File(parent, "checkpoint").toString();
+    this.table = new HadoopTables(CONF).create(SCHEMA, PartitionSpec.unpartitioned(), location);
+  }
+
+  @After
+  public void stopStreams() {
+    for (StreamingQuery query : spark.streams().active()) {
+      query.stop();
+    }
+  }
+
+  @Test
+  public void testReadAllAppends() throws Exception {
+    List<SimpleRecord> expected = Lists.newArrayList();
+    for (int batch = 0; batch < 3; batch += 1) {
+      expected.addAll(append(batch * 4, 4, 2));
+    }
+
+    StreamingQuery query = startStream("all_appends", null);
+    query.processAllAvailable();
+    Assert.assertEquals("Should read all appended rows", expected, read("all_appends"));
+
+    // appends after the stream started are read by later batches
+    expected.addAll(append(12, 4, 2));
+    query.processAllAvailable();
+    Assert.assertEquals("Should read rows appended while running", expected, read("all_appends"));
+  }
+
+  @Test
+  public void testMaxFilesPerTrigger() throws Exception {
+    List<SimpleRecord> expected = Lists.newArrayList();
+    // each file holds a single row
+    expected.addAll(append(0, 4, 4));
+    expected.addAll(append(4, 4, 4));
+
+    StreamingQuery query = startStream("max_files", 1);
+    query.processAllAvailable();
+
+    Assert.assertEquals("Should read all appended rows", expected, read("max_files"));
+
+    int batchesWithData = 0;
+    for (StreamingQueryProgress progress : query.recentProgress()) {
+      if (progress.numInputRows() > 0) {
+        Assert.assertEquals("Should read one file per batch", 1L, progress.numInputRows());
+        batchesWithData += 1;
+      }
+    }
+
+    Assert.assertEquals("Should read each file in its own batch", 8, batchesWithData);
+  }
+
+  @Test
+  public void testRestartFromCheckpoint() throws Exception {
+    List<SimpleRecord> expected = Lists.newArrayList();
+    expected.addAll(append(0, 4, 2));
+
+    // the memory sink cannot recover from a checkpoint, use a file sink
+    String output = temp.newFolder("output").toString();
+    DataStreamWriter<Row> writer = spark.readStream()
+        .format("iceberg")
+        .option(SparkReadOptions.STREAMING_MAX_FILES_PER_TRIGGER, "1")
+        .load(location)
+        .writeStream()
+        .format("parquet")
+        .outputMode("append")
+        .option("path", output)
+        .option("checkpointLocation", checkpoint);
+
+    StreamingQuery query = writer.start();
+    query.processAllAvailable();
+    query.stop();
+
+    expected.addAll(append(4, 4, 2));
+    StreamingQuery restarted = writer.start();
+    restarted.processAllAvailable();
+
+    List<SimpleRecord> actual = spark.read().parquet(output)
+        .orderBy("id").as(Encoders.bean(SimpleRecord.class)).collectAsList();
+    Assert.assertEquals("Should read each row once across restarts", expected, actual);
+  }
+
+  @Test
+  public void testOffsetJsonRoundTrip() {
+    StreamingOffset offset = new StreamingOffset(1234L, 3, 17L, true);
+    Assert.assertEquals("Should round trip through JSON", offset, StreamingOffset.fromJson(offset.json()));
+    Assert.assertEquals("Should round trip the start offset",
+        StreamingOffset.START_OFFSET, StreamingOffset.fromJson(StreamingOffset.START_OFFSET.json()));
+  }
+
+  private List<SimpleRecord> append(int startId, int numRows, int numFiles) {
+    List<SimpleRecord> records = Lists.newArrayList();
+    for (int id = startId; id < startId + numRows; id += 1) {
+      records.add(new SimpleRecord(id, Integer.toString(id)));
+    }
+
+    spark.createDataFrame(records, SimpleRecord.class)
+        .coalesce(1)
+        .repartition(numFiles)
+        .write()
+        .format("iceberg")
+        .mode("append")
+        .save(location);
+    table.refresh();
+
+    return records;
+  }
+
+  private StreamingQuery startStream(String queryName, Integer maxFilesPerTrigger) throws Exception {
+    DataStreamReader reader = spark.readStream().format("iceberg");
+    if (maxFilesPerTrigger != null) {
+      reader = reader.option(SparkReadOptions.STREAMING_MAX_FILES_PER_TRIGGER, maxFilesPerTrigger.toString());
+    }
+
+    return reader.load(location).writeStream()
+        .format("memory")
+        .queryName(queryName)
+        .outputMode("append")
+        .option("checkpointLocation", checkpoint)
+        .start();
+  }
+
+  private List<SimpleRecord> read(String queryName) {
+    return spark.table(queryName).orderBy("id").as(Encoders.bean(SimpleRecord.class)).collectAsList();
+  }
+}